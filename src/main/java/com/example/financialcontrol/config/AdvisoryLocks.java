@@ -0,0 +1,23 @@
+package com.example.financialcontrol.config;
+
+/**
+ * Keys of the PostgreSQL advisory locks that keep one-at-a-time work to a single instance
+ * of the application when several share the database.
+ *
+ * They use the two-int key form, pg_advisory_xact_lock(NAMESPACE, id) (or the session-level
+ * pg_try_advisory_lock for work spanning several transactions), whose key space is
+ * separate from the single bigint form used for per-wallet locks (wallet ID as the key,
+ * see WalletMonthlyRollupRepository.lockWallet).
+ */
+public final class AdvisoryLocks {
+
+    // Arbitrary, shared by all keys below ("FC" in ASCII)
+    public static final int NAMESPACE = 0x4643;
+
+    public static final int TRANSACTION_LABEL_MIGRATION = 1;
+
+    public static final int TRANSACTION_ARCHIVAL = 2;
+
+    private AdvisoryLocks() {
+    }
+}
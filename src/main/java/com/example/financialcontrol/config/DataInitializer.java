@@ -1,6 +1,11 @@
 package com.example.financialcontrol.config;
 
 import com.example.financialcontrol.service.CategoryService;
+import com.example.financialcontrol.service.DefaultCategoryTree;
+import com.example.financialcontrol.service.MonthlyRollupService;
+import com.example.financialcontrol.service.TransactionArchiveService;
+import com.example.financialcontrol.service.TransactionLabelDictionary;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
@@ -8,15 +13,44 @@ import org.springframework.stereotype.Component;
 public class DataInitializer implements CommandLineRunner {
 
     private final CategoryService categoryService;
+    private final DefaultCategoryTree defaultCategoryTree;
+    private final MonthlyRollupService monthlyRollupService;
+    private final TransactionLabelDictionary labelDictionary;
+    private final TransactionArchiveService transactionArchiveService;
+    private final boolean rebuildRollups;
 
-    public DataInitializer(CategoryService categoryService) {
+    public DataInitializer(CategoryService categoryService, DefaultCategoryTree defaultCategoryTree,
+                           MonthlyRollupService monthlyRollupService,
+                           TransactionLabelDictionary labelDictionary,
+                           TransactionArchiveService transactionArchiveService,
+                           @Value("${reports.rollups.rebuild-on-startup:false}") boolean rebuildRollups) {
         this.categoryService = categoryService;
+        this.defaultCategoryTree = defaultCategoryTree;
+        this.monthlyRollupService = monthlyRollupService;
+        this.labelDictionary = labelDictionary;
+        this.transactionArchiveService = transactionArchiveService;
+        this.rebuildRollups = rebuildRollups;
     }
 
     @Override
     public void run(String... args) {
         // Initialize default categories and subcategories
         categoryService.initializeDefaultCategories();
+
+        // Load the shared default category tree into memory
+        defaultCategoryTree.load();
+
+        // Load the category/subcategory names used by transactions into memory
+        labelDictionary.load();
+
+        // Record which labels the archive segments of earlier versions use
+        transactionArchiveService.recordMissingSegmentLabels();
+
+        // Build the monthly rollups from the transactions on request, or if they were never built
+        // (start with --reports.rollups.rebuild-on-startup=true to recompute them)
+        if (rebuildRollups || monthlyRollupService.needsInitialBuild()) {
+            monthlyRollupService.rebuildAll();
+        }
     }
 }
 
@@ -0,0 +1,131 @@
+package com.example.financialcontrol.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hibernate second-level cache (JCache API, Caffeine implementation).
+ *
+ * Cached entities (see the @Cache region on each entity):
+ * - categories, subcategories, hidden-categories, wallets
+ *
+ * Cached queries: repository methods marked with the "org.hibernate.cacheable" hint
+ * (category/subcategory lookups by name, "available for user" lists, wallet ownership checks,
+ * hidden IDs). Hibernate invalidates cached query results whenever one of the tables
+ * they read from is written through JPA.
+ *
+ * Sizing and TTL come from application.properties:
+ * - hibernate-cache.default.max-size / hibernate-cache.default.ttl-seconds for every region
+ * - hibernate-cache.regions.{region}.max-size / .ttl-seconds to override one region
+ *
+ * Metrics (GET /actuator/metrics/...):
+ * - hibernate.second.level.cache.requests{region, result=hit|miss} (Spring Boot's Hibernate metrics)
+ * - hibernate.cache.hit.ratio{region}: hits / (hits + misses) per region, "query" for the query cache
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    // Entity regions (must match the region names in the entities' @Cache annotations)
+    private static final List<String> ENTITY_REGIONS = List.of(
+        "categories", "subcategories", "hidden-categories", "wallets"
+    );
+
+    // Hibernate's default regions for cached query results and table update timestamps
+    private static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    private static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    /**
+     * Creates the JCache manager with one Caffeine cache per region.
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(Environment environment) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+
+        long defaultMaxSize = environment.getProperty("hibernate-cache.default.max-size", Long.class, 10_000L);
+        long defaultTtlSeconds = environment.getProperty("hibernate-cache.default.ttl-seconds", Long.class, 600L);
+
+        for (String region : ENTITY_REGIONS) {
+            createRegion(cacheManager, environment, region, defaultMaxSize, defaultTtlSeconds);
+        }
+        createRegion(cacheManager, environment, QUERY_RESULTS_REGION, defaultMaxSize, defaultTtlSeconds);
+
+        // Update timestamps must never be evicted or expire, or stale query results could be served
+        cacheManager.createCache(UPDATE_TIMESTAMPS_REGION, new CaffeineConfiguration<Object, Object>());
+
+        return cacheManager;
+    }
+
+    /**
+     * Hands the cache manager to Hibernate.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put("hibernate.javax.cache.cache_manager", hibernateCacheManager);
+    }
+
+    /**
+     * Publishes the hit ratio of every region as a gauge.
+     */
+    @Bean
+    public MeterBinder hibernateCacheHitRatioMetrics(EntityManagerFactory entityManagerFactory) {
+        return registry -> {
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+            for (String region : ENTITY_REGIONS) {
+                Gauge.builder("hibernate.cache.hit.ratio", statistics, s -> regionHitRatio(s, region))
+                        .tag("region", region)
+                        .description("Second-level cache hits / (hits + misses)")
+                        .register(registry);
+            }
+
+            Gauge.builder("hibernate.cache.hit.ratio", statistics,
+                            s -> ratio(s.getQueryCacheHitCount(), s.getQueryCacheMissCount()))
+                    .tag("region", "query")
+                    .description("Query cache hits / (hits + misses)")
+                    .register(registry);
+        };
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    private static void createRegion(CacheManager cacheManager, Environment environment, String region,
+                                     long defaultMaxSize, long defaultTtlSeconds) {
+        long maxSize = environment.getProperty("hibernate-cache.regions." + region + ".max-size", Long.class, defaultMaxSize);
+        long ttlSeconds = environment.getProperty("hibernate-cache.regions." + region + ".ttl-seconds", Long.class, defaultTtlSeconds);
+
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+        cacheManager.createCache(region, configuration);
+    }
+
+    private static double regionHitRatio(Statistics statistics, String region) {
+        CacheRegionStatistics regionStatistics = statistics.getDomainDataRegionStatistics(region);
+        return ratio(regionStatistics.getHitCount(), regionStatistics.getMissCount());
+    }
+
+    private static double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
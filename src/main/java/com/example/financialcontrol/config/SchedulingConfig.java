@@ -0,0 +1,12 @@
+package com.example.financialcontrol.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background tasks (e.g. keyword dictionary hot reload).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
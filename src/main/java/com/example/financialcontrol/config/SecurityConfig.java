@@ -45,6 +45,8 @@ public class SecurityConfig {
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         // Permite todos os headers
         configuration.setAllowedHeaders(List.of("*"));
+        // Expõe o ETag para o frontend poder enviar If-None-Match (conditional GET)
+        configuration.setExposedHeaders(List.of("ETag"));
         // Permite enviar credenciais (cookies, authorization headers)
         configuration.setAllowCredentials(true);
 
@@ -0,0 +1,57 @@
+package com.example.financialcontrol.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the indexes behind the description prefix filter of the transaction lists
+ * (TransactionFilter.descriptionPrefix, "LOWER(t.description) LIKE 'abc%'"), PostgreSQL.
+ *
+ * They are B-tree indexes on an expression, which Hibernate's ddl-auto=update can't declare:
+ * (wallet_id, lower(description) text_pattern_ops) for the wallet list and
+ * (user_id, lower(description) text_pattern_ops) for the cross-wallet list. text_pattern_ops
+ * compares character by character, so a LIKE prefix becomes a range scan whatever the
+ * database collation. Queries must lowercase with the exact same expression, and the prefix
+ * must be a value PostgreSQL sees when planning (a custom plan of the prepared statement):
+ * a generic plan can't turn a parameter into a range and filters the owner's rows instead.
+ *
+ * Runs on startup after the partitioning migration (on a partitioned table, the indexes are
+ * created on every partition). The first creation reads the whole table and blocks writes
+ * to it meanwhile (a few seconds per million rows); afterwards it's a no-op.
+ */
+@Component
+@DependsOn({"entityManagerFactory", "transactionPartitionMigration"})
+public class TransactionDescriptionIndexMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionDescriptionIndexMigration.class);
+
+    static final String WALLET_INDEX_NAME = "idx_transactions_wallet_description";
+    static final String USER_INDEX_NAME = "idx_transactions_user_description";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TransactionDescriptionIndexMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        createIndex(WALLET_INDEX_NAME, "wallet_id");
+        createIndex(USER_INDEX_NAME, "user_id");
+    }
+
+    private void createIndex(String name, String ownerColumn) {
+        Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name);
+        if (Boolean.TRUE.equals(exists)) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + name + " ON transactions " +
+                "(" + ownerColumn + ", lower(description) text_pattern_ops)");
+        logger.info("Created transaction description index {} in {} ms", name, System.currentTimeMillis() - start);
+    }
+}
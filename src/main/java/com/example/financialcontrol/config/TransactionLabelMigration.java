@@ -0,0 +1,103 @@
+package com.example.financialcontrol.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * One-time data migration of transactions.category / transactions.subcategory (VARCHAR)
+ * to category_id / subcategory_id referencing transaction_labels (PostgreSQL).
+ *
+ * Runs on startup after Hibernate's schema update (which adds the new, still empty columns)
+ * and before the application serves requests:
+ * 1. Copies every distinct name into transaction_labels
+ * 2. Fills category_id / subcategory_id from the names
+ * 3. Replaces the old report index on the names with the one on the label IDs
+ * 4. Sets category_id / subcategory_id NOT NULL, which marks the migration as done
+ *
+ * All steps run in one database transaction, so an interrupted migration is simply redone
+ * on the next start. The transaction first takes an advisory lock (see AdvisoryLocks): when
+ * several instances start at once, one migrates and the others wait, then find nothing to do.
+ * On an already migrated database only the cheap catalog check below runs.
+ *
+ * The old text columns are kept, made nullable and no longer written: they hold the names
+ * as they were before the migration, so it can be checked or redone. A later release drops
+ * them. The UPDATE leaves one dead row version per transaction; autovacuum makes the space
+ * reusable. Returning it to the operating system (VACUUM FULL locks the table) is left to
+ * a maintenance window.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class TransactionLabelMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionLabelMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public TransactionLabelMigration(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void migrate() {
+        // Hibernate adds the columns as nullable (existing rows have no value yet)
+        if (!columnNullable("category_id") && !columnNullable("subcategory_id")) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.query("SELECT pg_advisory_xact_lock(?, ?)", rs -> { },
+                    AdvisoryLocks.NAMESPACE, AdvisoryLocks.TRANSACTION_LABEL_MIGRATION);
+            // Another instance may have finished while this one waited for the lock
+            if (!columnNullable("category_id") && !columnNullable("subcategory_id")) {
+                return;
+            }
+            if (columnExists("category")) {
+                jdbcTemplate.update("INSERT INTO transaction_labels (name) " +
+                        "SELECT category FROM transactions WHERE category_id IS NULL " +
+                        "UNION SELECT subcategory FROM transactions WHERE subcategory_id IS NULL " +
+                        "ON CONFLICT (name) DO NOTHING");
+                int rows = jdbcTemplate.update("UPDATE transactions t SET category_id = c.id, subcategory_id = s.id " +
+                        "FROM transaction_labels c, transaction_labels s " +
+                        "WHERE c.name = t.category AND s.name = t.subcategory " +
+                        "AND (t.category_id IS NULL OR t.subcategory_id IS NULL)");
+                // New rows only set the label IDs
+                jdbcTemplate.execute("ALTER TABLE transactions " +
+                        "ALTER COLUMN category DROP NOT NULL, ALTER COLUMN subcategory DROP NOT NULL");
+                // The report index of the same name still covers the old columns
+                jdbcTemplate.execute("DROP INDEX IF EXISTS idx_transactions_wallet_report");
+                jdbcTemplate.execute("CREATE INDEX idx_transactions_wallet_report " +
+                        "ON transactions (wallet_id, date, type, category_id, subcategory_id, amount)");
+                logger.info("Moved the category names of {} transactions to transaction_labels", rows);
+            }
+            jdbcTemplate.execute("ALTER TABLE transactions " +
+                    "ALTER COLUMN category_id SET NOT NULL, ALTER COLUMN subcategory_id SET NOT NULL");
+            // Cheap (sampled) and allowed in a transaction, unlike VACUUM
+            jdbcTemplate.execute("ANALYZE transactions");
+            logger.info("Transaction label migration finished in {} ms", System.currentTimeMillis() - start);
+        });
+    }
+
+    private boolean columnExists(String column) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.columns " +
+                "WHERE table_schema = current_schema() AND table_name = 'transactions' AND column_name = ?",
+                Integer.class, column);
+        return count != null && count > 0;
+    }
+
+    private boolean columnNullable(String column) {
+        String nullable = jdbcTemplate.query(
+                "SELECT is_nullable FROM information_schema.columns " +
+                "WHERE table_schema = current_schema() AND table_name = 'transactions' AND column_name = ?",
+                rs -> rs.next() ? rs.getString(1) : null, column);
+        return "YES".equals(nullable);
+    }
+}
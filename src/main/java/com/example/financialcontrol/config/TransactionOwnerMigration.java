@@ -0,0 +1,65 @@
+package com.example.financialcontrol.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * One-time backfill of transactions.user_id, the owner of the transaction's wallet
+ * copied onto each row (PostgreSQL).
+ *
+ * Hibernate's schema update adds the column as nullable, since existing rows have no value.
+ * On startup, before the application serves requests:
+ * 1. Fills user_id from the wallets of rows that don't have one yet
+ * 2. Sets the column NOT NULL
+ * 3. Refreshes the planner statistics, so user-scoped queries pick the user_id indexes
+ *    (idx_transactions_user_date, idx_transactions_user_category)
+ *
+ * Steps 1-2 run in one database transaction, so an interrupted backfill is simply redone on
+ * the next start. On an already migrated database only the cheap check below runs.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class TransactionOwnerMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionOwnerMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public TransactionOwnerMigration(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void migrate() {
+        if (!columnNullable("user_id")) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        transactionTemplate.executeWithoutResult(status -> {
+            int rows = jdbcTemplate.update("UPDATE transactions t SET user_id = w.user_id " +
+                    "FROM wallets w WHERE w.id = t.wallet_id AND t.user_id IS NULL");
+            jdbcTemplate.execute("ALTER TABLE transactions ALTER COLUMN user_id SET NOT NULL");
+            logger.info("Copied the wallet owner to {} transactions", rows);
+        });
+        // Must run outside a transaction block
+        jdbcTemplate.execute("VACUUM ANALYZE transactions");
+        logger.info("Transaction owner migration finished in {} ms", System.currentTimeMillis() - start);
+    }
+
+    private boolean columnNullable(String column) {
+        String nullable = jdbcTemplate.query(
+                "SELECT is_nullable FROM information_schema.columns " +
+                "WHERE table_schema = current_schema() AND table_name = 'transactions' AND column_name = ?",
+                rs -> rs.next() ? rs.getString(1) : null, column);
+        return "YES".equals(nullable);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.financialcontrol.config;
+
+import com.example.financialcontrol.service.TransactionPartitionManager;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.util.List;
+
+/**
+ * Converts the transactions table to a table range-partitioned on date (PostgreSQL),
+ * when transactions.partitioning.interval is month or year. Hibernate's ddl-auto=update
+ * can't create or alter partitioned tables, so this runs on startup after the schema update
+ * and the other transaction migrations, before the application serves requests:
+ * 1. Renames the existing table and creates the partitioned one with the same columns
+ * 2. Creates the default partition and one partition per period that has transactions
+ * 3. Copies every row, drops the old table
+ * 4. Recreates the primary key as (id, date) (a partitioned table's unique keys must
+ *    include the partition column; IDs stay unique through their sequence), the indexes
+ *    and the foreign keys of the old table
+ *
+ * Steps 1-4 run in one database transaction: an interrupted conversion leaves the old table
+ * untouched and is simply redone on the next start. The table is locked while it runs
+ * (tens of seconds per million rows), so enable it during a maintenance window.
+ *
+ * Once the table is partitioned, only TransactionPartitionManager's upcoming partitions
+ * are created on startup. Setting the interval back to none doesn't convert the table back.
+ */
+@Component
+@DependsOn({"entityManagerFactory", "transactionLabelMigration", "transactionOwnerMigration"})
+public class TransactionPartitionMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionPartitionMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionPartitionManager partitionManager;
+
+    public TransactionPartitionMigration(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                         TransactionPartitionManager partitionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.partitionManager = partitionManager;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        if (!partitionManager.isEnabled()) {
+            return;
+        }
+        if (!partitionManager.isPartitioned()) {
+            long start = System.currentTimeMillis();
+            transactionTemplate.executeWithoutResult(status -> convert());
+            // Must run outside a transaction block
+            jdbcTemplate.execute("VACUUM ANALYZE transactions");
+            logger.info("Transaction partitioning migration finished in {} ms", System.currentTimeMillis() - start);
+        }
+        partitionManager.createUpcomingPartitions();
+    }
+
+    private void convert() {
+        // Definitions to recreate on the new table (they reference "transactions", which
+        // becomes the new table once the old one is renamed)
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT pg_get_indexdef(i.indexrelid) FROM pg_index i " +
+                "WHERE i.indrelid = 'transactions'::regclass AND NOT i.indisprimary", String.class);
+        List<String> foreignKeys = jdbcTemplate.queryForList(
+                "SELECT 'ALTER TABLE transactions ADD CONSTRAINT ' || quote_ident(conname) || ' ' || pg_get_constraintdef(oid) " +
+                "FROM pg_constraint WHERE conrelid = 'transactions'::regclass AND contype = 'f'", String.class);
+        List<Date> periods = jdbcTemplate.queryForList(
+                "SELECT DISTINCT CAST(date_trunc('" + partitionManager.truncField() + "', date) AS DATE) FROM transactions",
+                Date.class);
+
+        jdbcTemplate.execute("LOCK TABLE transactions IN ACCESS EXCLUSIVE MODE");
+        jdbcTemplate.execute("ALTER TABLE transactions RENAME TO transactions_unpartitioned");
+        // The ID sequence belongs to the old table's column; keep it when that table is dropped
+        jdbcTemplate.execute("ALTER SEQUENCE transactions_id_seq OWNED BY NONE");
+        jdbcTemplate.execute("CREATE TABLE transactions " +
+                "(LIKE transactions_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS) PARTITION BY RANGE (date)");
+        jdbcTemplate.execute("ALTER SEQUENCE transactions_id_seq OWNED BY transactions.id");
+
+        jdbcTemplate.execute("CREATE TABLE " + TransactionPartitionManager.DEFAULT_PARTITION +
+                " PARTITION OF transactions DEFAULT");
+        for (Date period : periods) {
+            partitionManager.createPartition(period.toLocalDate());
+        }
+
+        int rows = jdbcTemplate.update("INSERT INTO transactions SELECT * FROM transactions_unpartitioned");
+        jdbcTemplate.execute("DROP TABLE transactions_unpartitioned");
+
+        // Built once after the copy, on every partition
+        jdbcTemplate.execute("ALTER TABLE transactions ADD CONSTRAINT transactions_pkey PRIMARY KEY (id, date)");
+        indexes.forEach(jdbcTemplate::execute);
+        foreignKeys.forEach(jdbcTemplate::execute);
+        logger.info("Moved {} transactions into {} partitions", rows, periods.size());
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.financialcontrol.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the full-text index on transaction descriptions used by the text search
+ * (TransactionRepository.searchByUserId), PostgreSQL.
+ *
+ * It is a GIN index on an expression, which Hibernate's ddl-auto=update can't declare:
+ * to_tsvector('simple', description), i.e. lowercased words without stemming or stop words,
+ * since descriptions mix languages and merchant names ("uber", "netflix"). Queries must use
+ * the exact same expression for PostgreSQL to pick the index.
+ *
+ * Runs on startup after the partitioning migration (on a partitioned table, the index is
+ * created on every partition). The first creation reads the whole table and blocks writes
+ * to it meanwhile (a few seconds per million rows); afterwards it's a no-op.
+ */
+@Component
+@DependsOn({"entityManagerFactory", "transactionPartitionMigration"})
+public class TransactionSearchIndexMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionSearchIndexMigration.class);
+
+    static final String INDEX_NAME = "idx_transactions_description_fts";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TransactionSearchIndexMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, INDEX_NAME);
+        if (Boolean.TRUE.equals(exists)) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + INDEX_NAME + " ON transactions " +
+                "USING GIN (to_tsvector('simple', COALESCE(description, '')))");
+        logger.info("Created transaction search index in {} ms", System.currentTimeMillis() - start);
+    }
+}
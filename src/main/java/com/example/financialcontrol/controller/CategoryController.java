@@ -4,8 +4,11 @@ import com.example.financialcontrol.dto.*;
 import com.example.financialcontrol.entity.TransactionType;
 import com.example.financialcontrol.entity.User;
 import com.example.financialcontrol.service.CategoryService;
+import com.example.financialcontrol.service.DataVersionService;
+import com.example.financialcontrol.service.TransactionRelabelService;
 import com.example.financialcontrol.service.UserService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -19,21 +22,35 @@ public class CategoryController {
 
     private final CategoryService categoryService;
     private final UserService userService;
+    private final DataVersionService dataVersionService;
+    private final TransactionRelabelService transactionRelabelService;
 
-    public CategoryController(CategoryService categoryService, UserService userService) {
+    public CategoryController(CategoryService categoryService, UserService userService,
+                              DataVersionService dataVersionService,
+                              TransactionRelabelService transactionRelabelService) {
         this.categoryService = categoryService;
         this.userService = userService;
+        this.dataVersionService = dataVersionService;
+        this.transactionRelabelService = transactionRelabelService;
     }
 
     // ==================== CATEGORY ENDPOINTS ====================
 
     /**
-     * Get all categories available to the authenticated user
+     * Get all categories available to the authenticated user.
+     * Supports conditional GET: a matching If-None-Match gets 304 after one version lookup, without loading anything.
      */
     @GetMapping
     public ResponseEntity<List<CategoryResponse>> getAllCategories(
             @RequestParam(required = false) TransactionType type,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
             Authentication auth) {
+        // Read the version before the data, so the ETag can never be newer than the body
+        String etag = dataVersionService.etag(auth.getName(), DataVersionService.Resource.CATEGORIES);
+        if (dataVersionService.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
         User user = userService.findByUsername(auth.getName());
 
         List<CategoryResponse> categories;
@@ -43,7 +60,7 @@ public class CategoryController {
             categories = categoryService.getAllCategoriesForUser(user);
         }
 
-        return ResponseEntity.ok(categories);
+        return ResponseEntity.ok().eTag(etag).body(categories);
     }
 
     /**
@@ -104,6 +121,45 @@ public class CategoryController {
         }
     }
 
+    /**
+     * Merge a category owned by the authenticated user into another category.
+     * Returns 202 with the background job that re-points the transactions.
+     */
+    @PostMapping("/{id}/merge")
+    public ResponseEntity<?> mergeCategory(@PathVariable Long id, @RequestParam Long targetId, Authentication auth) {
+        try {
+            User user = userService.findByUsername(auth.getName());
+            RelabelJobResponse job = categoryService.mergeCategory(id, targetId, user);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    // ==================== RELABEL JOB ENDPOINTS ====================
+
+    /**
+     * Background jobs re-pointing transactions after renames and merges (last hour)
+     */
+    @GetMapping("/jobs")
+    public ResponseEntity<List<RelabelJobResponse>> getJobs(Authentication auth) {
+        User user = userService.findByUsername(auth.getName());
+        return ResponseEntity.ok(transactionRelabelService.getJobs(user));
+    }
+
+    /**
+     * A single background job by ID
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<?> getJob(@PathVariable String jobId, Authentication auth) {
+        try {
+            User user = userService.findByUsername(auth.getName());
+            return ResponseEntity.ok(transactionRelabelService.getJob(jobId, user));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
     // ==================== SUBCATEGORY ENDPOINTS ====================
 
     /**
@@ -0,0 +1,53 @@
+package com.example.financialcontrol.controller;
+
+import com.example.financialcontrol.dto.ApiResponse;
+import com.example.financialcontrol.entity.User;
+import com.example.financialcontrol.service.DashboardService;
+import com.example.financialcontrol.service.UserService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.YearMonth;
+
+/**
+ * Controller for the dashboard: all of the user's wallets with their balances in one call.
+ */
+@RestController
+@RequestMapping("/api/dashboard")
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+    private final UserService userService;
+
+    public DashboardController(DashboardService dashboardService, UserService userService) {
+        this.dashboardService = dashboardService;
+        this.userService = userService;
+    }
+
+    /**
+     * Balance, month income and expense, transaction count and last activity of every wallet,
+     * with totals per currency and converted to a base currency.
+     *
+     * Example: GET /api/dashboard?month=2024-03&baseCurrency=EUR
+     *
+     * @param month Month of the income and expense figures (yyyy-MM); defaults to the current month
+     * @param baseCurrency Currency of the converted totals; defaults to the exchange rates' reference currency
+     */
+    @GetMapping
+    public ResponseEntity<?> getDashboard(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth month,
+            @RequestParam(required = false) String baseCurrency,
+            Authentication auth) {
+        try {
+            User user = userService.findByUsername(auth.getName());
+            return ResponseEntity.ok(dashboardService.getDashboard(user, month, baseCurrency));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.financialcontrol.controller;
+
+import com.example.financialcontrol.dto.ApiResponse;
+import com.example.financialcontrol.dto.BalanceSeriesResponse;
+import com.example.financialcontrol.dto.CategoryAnalyticsEntry;
+import com.example.financialcontrol.dto.MonthlyReportEntry;
+import com.example.financialcontrol.entity.TransactionType;
+import com.example.financialcontrol.entity.User;
+import com.example.financialcontrol.service.DataVersionService;
+import com.example.financialcontrol.service.ReportService;
+import com.example.financialcontrol.service.UserService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Controller for wallet reports.
+ *
+ * Reports only change when the wallet's transactions change, so they share the
+ * wallet's transaction ETag: a matching If-None-Match gets 304 after a single lookup
+ * of the wallet's data version. That lookup also checks that the wallet belongs to the
+ * user; other wallets get 404.
+ */
+@RestController
+@RequestMapping("/api/wallets")
+public class ReportController {
+
+    private final ReportService reportService;
+    private final UserService userService;
+    private final DataVersionService dataVersionService;
+
+    public ReportController(ReportService reportService, UserService userService,
+                            DataVersionService dataVersionService) {
+        this.reportService = reportService;
+        this.userService = userService;
+        this.dataVersionService = dataVersionService;
+    }
+
+    /**
+     * Monthly totals per type, category and subcategory.
+     *
+     * Example: GET /api/wallets/1/reports/monthly?from=2023-01&to=2024-12
+     *
+     * Example response:
+     * [
+     *   { "year": 2024, "month": 1, "type": "DEBIT", "category": "Food & Dining",
+     *     "subcategory": "Groceries", "total": 245.30, "count": 9 },
+     *   ...
+     * ]
+     *
+     * @param id The wallet ID
+     * @param from First month (yyyy-MM, inclusive); defaults to 11 months before "to"
+     * @param to Last month (yyyy-MM, inclusive); defaults to the current month
+     */
+    @GetMapping("/{id}/reports/monthly")
+    public ResponseEntity<?> getMonthlyReport(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            Authentication auth) {
+        String walletEtag = dataVersionService.walletEtag(auth.getName(), id).orElse(null);
+        if (walletEtag == null) {
+            return walletNotFound();
+        }
+        // The default window moves with the calendar: resolve it once, for both the ETag and the report
+        YearMonth lastMonth = ReportService.lastReportMonth(to);
+        YearMonth firstMonth = ReportService.firstReportMonth(from, lastMonth);
+        String etag = dataVersionService.variant(walletEtag, firstMonth, lastMonth);
+        if (dataVersionService.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        try {
+            User user = userService.findByUsername(auth.getName());
+            List<MonthlyReportEntry> report = reportService.getMonthlyReport(id, user, firstMonth, lastMonth);
+            return ResponseEntity.ok().eTag(etag).body(report);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * Running balance over time, as two parallel arrays (see BalanceSeriesResponse).
+     *
+     * Example: GET /api/wallets/1/balance/series?from=2024-01-01&to=2024-12-31&step=week
+     *
+     * @param id The wallet ID
+     * @param from First day (yyyy-MM-dd, inclusive); defaults to one year before "to"
+     * @param to Last day (yyyy-MM-dd, inclusive); defaults to today
+     * @param step day, week or month (default: day)
+     */
+    @GetMapping("/{id}/balance/series")
+    public ResponseEntity<?> getBalanceSeries(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String step,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            Authentication auth) {
+        String walletEtag = dataVersionService.walletEtag(auth.getName(), id).orElse(null);
+        if (walletEtag == null) {
+            return walletNotFound();
+        }
+        // Without "to" the series ends today, so the ETag must change with the date too
+        LocalDate lastDay = ReportService.lastSeriesDay(to);
+        LocalDate firstDay = ReportService.firstSeriesDay(from, lastDay);
+        String etag = dataVersionService.variant(walletEtag, firstDay, lastDay);
+        if (dataVersionService.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        try {
+            User user = userService.findByUsername(auth.getName());
+            BalanceSeriesResponse series = reportService.getBalanceSeries(id, user, firstDay, lastDay, step);
+            return ResponseEntity.ok().eTag(etag).body(series);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * Total, count, average and share per category.
+     *
+     * Example: GET /api/wallets/1/analytics/categories?type=DEBIT&from=2024-01-01&to=2024-06-30
+     *
+     * @param id The wallet ID
+     * @param type DEBIT or CREDIT (default: DEBIT)
+     * @param from First day (yyyy-MM-dd, inclusive); optional
+     * @param to Last day (yyyy-MM-dd, inclusive); optional
+     */
+    @GetMapping("/{id}/analytics/categories")
+    public ResponseEntity<?> getCategoryAnalytics(
+            @PathVariable Long id,
+            @RequestParam(required = false) TransactionType type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            Authentication auth) {
+        String etag = dataVersionService.walletEtag(auth.getName(), id).orElse(null);
+        if (etag == null) {
+            return walletNotFound();
+        }
+        if (dataVersionService.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        try {
+            User user = userService.findByUsername(auth.getName());
+            List<CategoryAnalyticsEntry> analytics = reportService.getCategoryAnalytics(id, user, type, from, to);
+            return ResponseEntity.ok().eTag(etag).body(analytics);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * Recomputes the wallet's monthly rollups from its transactions.
+     * Only needed after manual data fixes; rollups are otherwise kept up to date automatically.
+     */
+    @PostMapping("/{id}/reports/rollups/rebuild")
+    public ResponseEntity<?> rebuildRollups(@PathVariable Long id, Authentication auth) {
+        try {
+            User user = userService.findByUsername(auth.getName());
+            int rows = reportService.rebuildMonthlyRollups(id, user);
+            return ResponseEntity.ok(ApiResponse.success("Monthly rollups rebuilt (" + rows + " rows)"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    private static ResponseEntity<?> walletNotFound() {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error("Wallet not found or access denied"));
+    }
+}
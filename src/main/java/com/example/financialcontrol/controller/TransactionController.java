@@ -4,14 +4,19 @@ import com.example.financialcontrol.dto.TransactionRequest;
 import com.example.financialcontrol.dto.TransactionResponse;
 import com.example.financialcontrol.entity.TransactionType;
 import com.example.financialcontrol.entity.User;
+import com.example.financialcontrol.service.DataVersionService;
+import com.example.financialcontrol.service.IdempotencyService;
+import com.example.financialcontrol.service.TransactionSearchService;
 import com.example.financialcontrol.service.TransactionService;
 import com.example.financialcontrol.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 @RestController
@@ -19,9 +24,17 @@ import java.util.List;
 public class TransactionController {
     private final TransactionService transactionService;
     private final UserService userService;
-    public TransactionController(TransactionService transactionService, UserService userService) {
+    private final DataVersionService dataVersionService;
+    private final IdempotencyService idempotencyService;
+    private final TransactionSearchService transactionSearchService;
+    public TransactionController(TransactionService transactionService, UserService userService,
+                                 DataVersionService dataVersionService, IdempotencyService idempotencyService,
+                                 TransactionSearchService transactionSearchService) {
         this.transactionService = transactionService;
         this.userService = userService;
+        this.dataVersionService = dataVersionService;
+        this.idempotencyService = idempotencyService;
+        this.transactionSearchService = transactionSearchService;
     }
     @GetMapping("/wallets/{walletId}/transactions")
     public ResponseEntity<?> getTransactions(
@@ -29,20 +42,72 @@ public class TransactionController {
             @RequestParam(required = false) TransactionType type,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) List<String> category,
+            @RequestParam(required = false) String descriptionPrefix,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
             Authentication auth) {
+        // Also the ownership check: other users' wallets get 404, never 304
+        String etag = dataVersionService.walletEtag(auth.getName(), walletId).orElse(null);
+        if (etag == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error("Wallet not found or access denied"));
+        }
+        if (dataVersionService.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
         try {
             User user = userService.findByUsername(auth.getName());
-            List<TransactionResponse> transactions = transactionService.getTransactions(walletId, user, type, fromDate, toDate);
-            return ResponseEntity.ok(transactions);
+            List<TransactionResponse> transactions = transactionService.getTransactions(walletId, user, type, fromDate, toDate,
+                    minAmount, maxAmount, category, descriptionPrefix);
+            return ResponseEntity.ok().eTag(etag).body(transactions);
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error(e.getMessage()));
         }
     }
+    @GetMapping("/transactions")
+    public ResponseEntity<?> searchTransactions(
+            @RequestParam(required = false) TransactionType type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) List<String> category,
+            @RequestParam(required = false) String descriptionPrefix,
+            @RequestParam(defaultValue = "100") int limit,
+            Authentication auth) {
+        try {
+            User user = userService.findByUsername(auth.getName());
+            return ResponseEntity.ok(transactionService.searchTransactions(user, type, fromDate, toDate,
+                    minAmount, maxAmount, category, descriptionPrefix, limit));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    @GetMapping("/transactions/search")
+    public ResponseEntity<?> searchTransactionsByText(
+            @RequestParam String q,
+            @RequestParam(required = false) TransactionType type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            Authentication auth) {
+        try {
+            User user = userService.findByUsername(auth.getName());
+            return ResponseEntity.ok(transactionSearchService.search(user, q, type, fromDate, toDate, cursor, limit));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
     @PostMapping("/wallets/{walletId}/transactions")
-    public ResponseEntity<?> createTransaction(@PathVariable Long walletId, @Valid @RequestBody TransactionRequest request, Authentication auth) {
+    public ResponseEntity<?> createTransaction(@PathVariable Long walletId, @Valid @RequestBody TransactionRequest request,
+                                               @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                               Authentication auth) {
         try {
             User user = userService.findByUsername(auth.getName());
-            return ResponseEntity.status(HttpStatus.CREATED).body(transactionService.createTransaction(walletId, request, user));
+            return idempotencyService.execute(idempotencyKey, user, "POST /api/wallets/" + walletId + "/transactions", request,
+                    () -> ResponseEntity.status(HttpStatus.CREATED).body(transactionService.createTransaction(walletId, request, user)));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         }
@@ -3,25 +3,39 @@ package com.example.financialcontrol.controller;
 import com.example.financialcontrol.dto.ApiResponse;
 import com.example.financialcontrol.dto.TransactionDraftDto;
 import com.example.financialcontrol.dto.TransactionResponse;
+import com.example.financialcontrol.dto.VoiceFragmentDto;
 import com.example.financialcontrol.dto.VoiceRequestDto;
 import com.example.financialcontrol.entity.User;
+import com.example.financialcontrol.service.ClassificationEngine;
+import com.example.financialcontrol.service.IdempotencyService;
 import com.example.financialcontrol.service.UserService;
-import com.example.financialcontrol.service.VoiceClassificationService;
 import com.example.financialcontrol.service.VoiceService;
+import com.example.financialcontrol.service.VoiceStreamService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.util.List;
+
 /**
  * Controller for handling voice/text transaction processing.
  *
  * Supports TWO flows:
  * 1. TWO-STEP FLOW (Recommended):
  *    - POST /api/voice/classify - Classifies text and returns a draft (NO database insert)
+ *    - POST /api/voice/classify-multiple - Same, one draft per transaction in the text
  *    - POST /api/wallets/{walletId}/transactions - Confirms and saves the transaction
  *
+ *    Live variant (Server-Sent Events, while the user is still speaking):
+ *    - GET /api/voice/stream?walletId=1 - Opens a session; drafts are pushed as "draft" events
+ *    - POST /api/voice/stream/{sessionId}/fragments - Sends interim/final transcript fragments
+ *    - DELETE /api/voice/stream/{sessionId} - Closes the session
+ *
  * 2. LEGACY ONE-STEP FLOW:
  *    - POST /api/voice/parse - Parses and immediately creates the transaction
  *
@@ -33,16 +47,22 @@ import org.springframework.web.bind.annotation.*;
 public class VoiceController {
 
     private final VoiceService voiceService;
-    private final VoiceClassificationService classificationService;
+    private final ClassificationEngine classificationEngine;
+    private final VoiceStreamService streamService;
     private final UserService userService;
+    private final IdempotencyService idempotencyService;
 
     public VoiceController(
             VoiceService voiceService,
-            VoiceClassificationService classificationService,
-            UserService userService) {
+            ClassificationEngine classificationEngine,
+            VoiceStreamService streamService,
+            UserService userService,
+            IdempotencyService idempotencyService) {
         this.voiceService = voiceService;
-        this.classificationService = classificationService;
+        this.classificationEngine = classificationEngine;
+        this.streamService = streamService;
         this.userService = userService;
+        this.idempotencyService = idempotencyService;
     }
 
     // =========================================================================
@@ -93,7 +113,7 @@ public class VoiceController {
             User user = userService.findByUsername(auth.getName());
 
             // Classify the text (NO database insert)
-            TransactionDraftDto draft = classificationService.classifyText(request, user);
+            TransactionDraftDto draft = classificationEngine.classifyText(request, user);
 
             // Return the draft for user review
             return ResponseEntity.ok(draft);
@@ -103,6 +123,137 @@ public class VoiceController {
         }
     }
 
+    /**
+     * Classifies text that may describe several transactions and returns one draft per transaction.
+     *
+     * IMPORTANT: This endpoint NEVER saves anything to the database.
+     *
+     * Example request body:
+     * {
+     *   "walletId": 1,
+     *   "text": "gastei 10 no café e 45 no supermercado ontem"
+     * }
+     *
+     * Example response: a list of drafts with the same fields as /classify,
+     * one for "gastei 10 no café" and one for "45 no supermercado ontem"
+     * (both dated yesterday, both DEBIT).
+     *
+     * Each draft is then confirmed individually with POST /api/wallets/{walletId}/transactions.
+     *
+     * @param request The voice request containing wallet ID and text
+     * @param auth The authentication object for the current user
+     * @return List of TransactionDraftDto, or error
+     */
+    @PostMapping("/classify-multiple")
+    public ResponseEntity<?> classifyMultipleVoiceInput(
+            @Valid @RequestBody VoiceRequestDto request,
+            Authentication auth) {
+        try {
+            // Get the authenticated user
+            User user = userService.findByUsername(auth.getName());
+
+            // Split and classify the text (NO database insert)
+            List<TransactionDraftDto> drafts = classificationEngine.classifyMultipleTransactions(request, user);
+
+            // Return the drafts for user review
+            return ResponseEntity.ok(drafts);
+        } catch (RuntimeException e) {
+            // Return error message if classification fails
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    // =========================================================================
+    // STEP 1 (LIVE): STREAMING CLASSIFICATION OVER SERVER-SENT EVENTS
+    // =========================================================================
+
+    /**
+     * Opens a live classification session for partial transcripts.
+     *
+     * The response is an SSE stream (text/event-stream):
+     * - event "session": {"sessionId": "..."} - sent once, right away
+     * - event "draft": TransactionDraftDto - sent every time the detected values change
+     *
+     * IMPORTANT: Nothing is saved to the database. Drafts may have amount = null
+     * (amountDetected = false) until the user says a number.
+     *
+     * Errors (e.g. wallet not found) are reported as a single "error" event with the usual
+     * ApiResponse body, after which the stream is closed.
+     *
+     * @param walletId The wallet the drafts belong to
+     * @param auth The authentication object for the current user
+     * @return The SSE stream
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter openStream(
+            @RequestParam Long walletId,
+            Authentication auth) {
+        try {
+            User user = userService.findByUsername(auth.getName());
+            return streamService.openSession(walletId, user);
+        } catch (RuntimeException e) {
+            // EventSource clients can't read a JSON error body, so send the error as an event
+            SseEmitter emitter = new SseEmitter();
+            try {
+                emitter.send(SseEmitter.event().name("error").data(ApiResponse.error(e.getMessage())));
+                emitter.complete();
+            } catch (IOException sendError) {
+                emitter.completeWithError(sendError);
+            }
+            return emitter;
+        }
+    }
+
+    /**
+     * Sends a transcript fragment to a live session.
+     *
+     * Example request body (interim result, replaced by the next fragment):
+     * { "text": "gastei vinte e três", "finalResult": false }
+     *
+     * Example request body (final result, appended to the transcript):
+     * { "text": "gastei 23.50 no supermercado", "finalResult": true }
+     *
+     * The updated draft is pushed on the session's SSE stream and also returned here.
+     *
+     * @param sessionId The session ID from the "session" event
+     * @param fragment The transcript fragment
+     * @param auth The authentication object for the current user
+     * @return The draft for the transcript so far, or error
+     */
+    @PostMapping("/stream/{sessionId}/fragments")
+    public ResponseEntity<?> sendFragment(
+            @PathVariable String sessionId,
+            @Valid @RequestBody VoiceFragmentDto fragment,
+            Authentication auth) {
+        try {
+            User user = userService.findByUsername(auth.getName());
+            TransactionDraftDto draft = streamService.addFragment(sessionId, fragment, user);
+            return ResponseEntity.ok(draft);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * Closes a live session and its SSE stream.
+     *
+     * @param sessionId The session ID
+     * @param auth The authentication object for the current user
+     * @return Success message or error
+     */
+    @DeleteMapping("/stream/{sessionId}")
+    public ResponseEntity<?> closeStream(
+            @PathVariable String sessionId,
+            Authentication auth) {
+        try {
+            User user = userService.findByUsername(auth.getName());
+            streamService.closeSession(sessionId, user);
+            return ResponseEntity.ok(ApiResponse.success("Voice stream closed"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
     // =========================================================================
     // LEGACY: ONE-STEP PARSE AND CREATE (DEPRECATED)
     // =========================================================================
@@ -116,21 +267,25 @@ public class VoiceController {
      * 2. POST /api/wallets/{walletId}/transactions - Confirm and save
      *
      * @param request The voice request containing wallet ID and text
+     * @param idempotencyKey Optional Idempotency-Key header: retries with the same key replay
+     *                       the first response instead of creating another transaction
      * @param auth The authentication object for the current user
      * @return The created transaction or an error response
      */
     @PostMapping("/parse")
     public ResponseEntity<?> parseVoiceInput(
             @Valid @RequestBody VoiceRequestDto request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             Authentication auth) {
         try {
             // Get the authenticated user
             User user = userService.findByUsername(auth.getName());
 
-            // Parse the text and create a transaction (legacy behavior)
-            TransactionResponse response = voiceService.parseAndCreateTransaction(request, user);
-
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            // Parse the text and create a transaction (legacy behavior), at most once per Idempotency-Key
+            return idempotencyService.execute(idempotencyKey, user, "POST /api/voice/parse", request, () -> {
+                TransactionResponse response = voiceService.parseAndCreateTransaction(request, user);
+                return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            });
         } catch (RuntimeException e) {
             // Return error message if parsing fails or wallet not found
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
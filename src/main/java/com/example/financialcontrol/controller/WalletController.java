@@ -3,9 +3,11 @@ import com.example.financialcontrol.dto.ApiResponse;
 import com.example.financialcontrol.dto.WalletRequest;
 import com.example.financialcontrol.dto.WalletResponse;
 import com.example.financialcontrol.entity.User;
+import com.example.financialcontrol.service.DataVersionService;
 import com.example.financialcontrol.service.UserService;
 import com.example.financialcontrol.service.WalletService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -16,14 +18,22 @@ import java.util.List;
 public class WalletController {
     private final WalletService walletService;
     private final UserService userService;
-    public WalletController(WalletService walletService, UserService userService) {
+    private final DataVersionService dataVersionService;
+    public WalletController(WalletService walletService, UserService userService, DataVersionService dataVersionService) {
         this.walletService = walletService;
         this.userService = userService;
+        this.dataVersionService = dataVersionService;
     }
     @GetMapping
-    public ResponseEntity<List<WalletResponse>> getMyWallets(Authentication auth) {
+    public ResponseEntity<List<WalletResponse>> getMyWallets(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            Authentication auth) {
+        String etag = dataVersionService.etag(auth.getName(), DataVersionService.Resource.WALLETS);
+        if (dataVersionService.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
         User user = userService.findByUsername(auth.getName());
-        return ResponseEntity.ok(walletService.getWalletsByUser(user));
+        return ResponseEntity.ok().eTag(etag).body(walletService.getWalletsByUser(user));
     }
     @GetMapping("/{id}")
     public ResponseEntity<?> getWallet(@PathVariable Long id, Authentication auth) {
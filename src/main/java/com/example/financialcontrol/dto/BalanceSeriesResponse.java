@@ -0,0 +1,30 @@
+package com.example.financialcontrol.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for a wallet's balance over time, as two parallel arrays instead of a list of objects:
+ * point i is (epochDays[i], balanceCents[i]).
+ *
+ * Example:
+ * { "walletId": 1, "step": "day", "epochDays": [19723, 19724], "balanceCents": [125050, 119800] }
+ * → 2024-01-01: 1250.50, 2024-01-02: 1198.00
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceSeriesResponse {
+
+    private Long walletId;
+
+    // "day", "week" or "month"
+    private String step;
+
+    // Last day of each bucket (days since 1970-01-01), clamped to the requested range
+    private int[] epochDays;
+
+    // Balance at the end of that day, in cents (credits minus debits since the first transaction)
+    private long[] balanceCents;
+}
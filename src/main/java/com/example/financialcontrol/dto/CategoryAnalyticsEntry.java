@@ -0,0 +1,31 @@
+package com.example.financialcontrol.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO for one category in the category analytics of a wallet.
+ *
+ * Example:
+ * { "category": "Food & Dining", "total": 245.30, "count": 9, "average": 27.26, "share": 31.75 }
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryAnalyticsEntry {
+
+    private String category;
+
+    // Sum of the amounts and number of transactions
+    private BigDecimal total;
+    private Long count;
+
+    // Average amount per transaction
+    private BigDecimal average;
+
+    // Percentage of the total of all categories (0-100)
+    private BigDecimal share;
+}
@@ -0,0 +1,26 @@
+package com.example.financialcontrol.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO for the dashboard totals of the wallets in one currency (amounts in different
+ * currencies are not added up).
+ *
+ * Example:
+ * { "currency": "EUR", "balance": 4210.75, "monthIncome": 2500.00, "monthExpense": 1310.20, "transactionCount": 980 }
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardCurrencyTotals {
+
+    private String currency;
+    private BigDecimal balance;
+    private BigDecimal monthIncome;
+    private BigDecimal monthExpense;
+    private Long transactionCount;
+}
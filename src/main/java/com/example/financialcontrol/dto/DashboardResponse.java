@@ -0,0 +1,42 @@
+package com.example.financialcontrol.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * DTO for the dashboard: every wallet of the user with its balance and activity, the
+ * totals per currency, and the totals converted to one base currency.
+ *
+ * Example:
+ * { "month": "2024-03",
+ *   "wallets": [ { "walletId": 1, "name": "Main Account", "currency": "EUR", "balance": 1523.40, ... } ],
+ *   "totals": [ { "currency": "BRL", "balance": 3200.00, ... }, { "currency": "EUR", "balance": 4210.75, ... } ],
+ *   "baseCurrency": "EUR", "netWorth": 4803.12, "monthIncome": 2500.00, "monthExpense": 1402.55,
+ *   "unconvertedCurrencies": [] }
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardResponse {
+
+    // Month of monthIncome / monthExpense (yyyy-MM)
+    private String month;
+
+    private List<DashboardWalletEntry> wallets;
+
+    private List<DashboardCurrencyTotals> totals;
+
+    // Totals of all wallets converted to baseCurrency (balances at today's rate, the month's
+    // income and expense at the rate of its last day)
+    private String baseCurrency;
+    private BigDecimal netWorth;
+    private BigDecimal monthIncome;
+    private BigDecimal monthExpense;
+
+    // Currencies without an exchange rate for those days, left out of the converted totals
+    private List<String> unconvertedCurrencies;
+}
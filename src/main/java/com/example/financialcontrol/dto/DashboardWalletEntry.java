@@ -0,0 +1,37 @@
+package com.example.financialcontrol.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * DTO for one wallet on the dashboard.
+ *
+ * Example:
+ * { "walletId": 1, "name": "Main Account", "currency": "EUR", "balance": 1523.40,
+ *   "monthIncome": 2500.00, "monthExpense": 976.60, "transactionCount": 412, "lastActivity": "2024-03-14" }
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardWalletEntry {
+
+    private Long walletId;
+    private String name;
+    private String currency;
+
+    // Credits minus debits of all transactions
+    private BigDecimal balance;
+
+    // Credits and debits of the dashboard's month
+    private BigDecimal monthIncome;
+    private BigDecimal monthExpense;
+
+    private Long transactionCount;
+
+    // Date of the latest transaction, null if there is none
+    private LocalDate lastActivity;
+}
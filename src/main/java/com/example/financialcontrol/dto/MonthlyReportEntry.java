@@ -0,0 +1,30 @@
+package com.example.financialcontrol.dto;
+
+import com.example.financialcontrol.entity.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO for one line of the monthly report: the total and number of transactions
+ * of one (month, type, category, subcategory) combination in a wallet.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonthlyReportEntry {
+
+    // Calendar year and month (1-12) of the transactions
+    private Integer year;
+    private Integer month;
+
+    private TransactionType type;
+    private String category;
+    private String subcategory;
+
+    // Sum of the amounts and number of transactions
+    private BigDecimal total;
+    private Long count;
+}
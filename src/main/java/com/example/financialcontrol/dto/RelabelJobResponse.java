@@ -0,0 +1,45 @@
+package com.example.financialcontrol.dto;
+
+import com.example.financialcontrol.entity.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for a background job that re-points transactions to a renamed or merged category.
+ *
+ * Example:
+ * { "id": "4f1c...", "status": "RUNNING", "type": "DEBIT",
+ *   "fromCategory": "Food", "fromSubcategory": null, "toCategory": "Groceries", "toSubcategory": null,
+ *   "updatedTransactions": 12000, ... }
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RelabelJobResponse {
+
+    private String id;
+
+    // PENDING, RUNNING, COMPLETED or FAILED
+    private String status;
+
+    // Type of the transactions being moved
+    private TransactionType type;
+
+    // Names before and after; subcategories are null when the whole category is moved
+    private String fromCategory;
+    private String fromSubcategory;
+    private String toCategory;
+    private String toSubcategory;
+
+    // Transactions re-pointed so far
+    private Long updatedTransactions;
+
+    // Error message if the job failed
+    private String error;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+}
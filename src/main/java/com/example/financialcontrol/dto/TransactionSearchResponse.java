@@ -0,0 +1,26 @@
+package com.example.financialcontrol.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for one page of text search results (GET /api/transactions/search).
+ *
+ * Example:
+ * { "transactions": [ { "id": 812, "description": "Uber to airport", ... } ],
+ *   "nextCursor": "MTk3NDA6ODEy" }
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionSearchResponse {
+
+    // Newest first (by date, then ID)
+    private List<TransactionResponse> transactions;
+
+    // Pass as "cursor" to get the next page; null on the last page
+    private String nextCursor;
+}
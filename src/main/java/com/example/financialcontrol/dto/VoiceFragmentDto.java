@@ -0,0 +1,28 @@
+package com.example.financialcontrol.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for a piece of live transcript sent to a voice streaming session.
+ *
+ * Speech-to-text engines produce two kinds of results:
+ * - interim results (finalResult = false): the best guess for the words being spoken,
+ *   replaced by the next interim result
+ * - final results (finalResult = true): text that won't change anymore and is appended
+ *   to the transcript
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VoiceFragmentDto {
+
+    @NotNull(message = "Text is required")
+    @Size(max = 1000, message = "Text must be at most 1000 characters")
+    private String text;
+
+    private boolean finalResult;
+}
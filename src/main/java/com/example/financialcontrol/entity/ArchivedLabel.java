@@ -0,0 +1,26 @@
+package com.example.financialcontrol.entity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+/**
+ * A (type, category label, subcategory label) combination used by at least one transaction of
+ * an archive segment (see TransactionArchiveSegment.labels), so the database can tell which
+ * segments use a category without reading their files.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedLabel {
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private TransactionType type;
+    @Column(name = "category_id", nullable = false)
+    private Integer categoryId;
+    @Column(name = "subcategory_id", nullable = false)
+    private Integer subcategoryId;
+}
@@ -3,10 +3,14 @@ package com.example.financialcontrol.entity;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "hidden-categories")
 @Table(name = "hidden_categories", uniqueConstraints = {
     @UniqueConstraint(columnNames = {"user_id", "category_id"})
 })
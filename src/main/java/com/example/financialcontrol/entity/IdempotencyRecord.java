@@ -0,0 +1,40 @@
+package com.example.financialcontrol.entity;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+/**
+ * Stored response of a request sent with an Idempotency-Key header (see IdempotencyService).
+ * The row is inserted and completed in the same database transaction as the request's own
+ * changes, so a committed row always holds the response of a committed request.
+ */
+@Entity
+@Table(name = "idempotency_keys", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_idempotency_keys_user_key", columnNames = {"user_id", "idempotency_key"})
+}, indexes = {
+    @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+public class IdempotencyRecord {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+    @Column(name = "idempotency_key", nullable = false, length = 255)
+    private String idempotencyKey;
+    // SHA-256 of the endpoint and request body, to reject a key reused for another request
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+    // Set before the inserting transaction commits
+    @Column(name = "status_code")
+    private Integer statusCode;
+    @Column(name = "response_body", columnDefinition = "TEXT")
+    private String responseBody;
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
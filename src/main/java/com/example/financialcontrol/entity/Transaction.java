@@ -6,7 +6,14 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+    // Covering index for the monthly report: filter on wallet/date, group and sum without touching the table
+    @Index(name = "idx_transactions_wallet_report", columnList = "wallet_id, date, type, category_id, subcategory_id, amount"),
+    // User-scoped queries range-scan these without joining wallets: cross-wallet search by date,
+    // and "is this category / subcategory used" checks when deleting one
+    @Index(name = "idx_transactions_user_date", columnList = "user_id, date"),
+    @Index(name = "idx_transactions_user_category", columnList = "user_id, category_id, subcategory_id")
+})
 @Data
 @NoArgsConstructor
 public class Transaction {
@@ -16,13 +23,22 @@ public class Transaction {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "wallet_id", nullable = false)
     private Wallet wallet;
+    // Owner of the wallet, copied from it on insert (wallets never change owner).
+    // Filled for existing rows and set NOT NULL by TransactionOwnerMigration.
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    private User user;
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 10)
     private TransactionType type;
-    @Column(nullable = false, length = 50)
-    private String category;
-    @Column(nullable = false, length = 50)
-    private String subcategory;
+    // Category and subcategory names, dictionary-encoded (read them through TransactionLabelDictionary).
+    // NOT NULL is set by TransactionLabelMigration, so Hibernate can add the columns to existing tables.
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "category_id")
+    private TransactionLabel category;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "subcategory_id")
+    private TransactionLabel subcategory;
     @Column(nullable = false, precision = 15, scale = 2)
     private BigDecimal amount;
     @Column(length = 255)
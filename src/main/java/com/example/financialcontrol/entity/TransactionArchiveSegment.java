@@ -0,0 +1,55 @@
+package com.example.financialcontrol.entity;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+/**
+ * A compressed segment file of archived transactions of one wallet (see TransactionArchiveService).
+ * The record is saved in the same database transaction that deletes the archived rows,
+ * so every transaction is either in the transactions table or in exactly one segment.
+ */
+@Entity
+@Table(name = "transaction_archive_segments", indexes = {
+    @Index(name = "idx_transaction_archive_segments_wallet", columnList = "wallet_id, min_date")
+})
+@Data
+@NoArgsConstructor
+public class TransactionArchiveSegment {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "wallet_id", nullable = false)
+    private Wallet wallet;
+    // Path relative to transactions.archive.dir; a rewritten segment gets a new file
+    @Column(name = "file_name", nullable = false, length = 255)
+    private String fileName;
+    @Column(name = "min_date", nullable = false)
+    private LocalDate minDate;
+    @Column(name = "max_date", nullable = false)
+    private LocalDate maxDate;
+    @Column(name = "row_count", nullable = false)
+    private int rowCount;
+    // Credits minus debits of the segment, in cents (balances without reading the file)
+    @Column(name = "net_cents", nullable = false)
+    private long netCents;
+    // Labels used by the segment's transactions: "is this category used" checks and category
+    // renames find the segments concerned without opening every file
+    @ElementCollection
+    @CollectionTable(name = "transaction_archive_segment_labels",
+            joinColumns = @JoinColumn(name = "segment_id"),
+            indexes = {
+                @Index(name = "idx_transaction_archive_segment_labels_category", columnList = "category_id"),
+                @Index(name = "idx_transaction_archive_segment_labels_subcategory", columnList = "subcategory_id")
+            })
+    private Set<ArchivedLabel> labels = new HashSet<>();
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+}
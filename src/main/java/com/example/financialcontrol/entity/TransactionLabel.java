@@ -0,0 +1,24 @@
+package com.example.financialcontrol.entity;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+/**
+ * Dictionary of the category and subcategory names used by transactions.
+ * Each distinct name is stored once; transactions reference it by its integer ID
+ * instead of repeating the text in every row (see TransactionLabelDictionary).
+ * Names are free text (CSV imports and voice input may use names that are not
+ * categories of the user), so this is independent of the Category/Subcategory tables.
+ */
+@Entity
+@Table(name = "transaction_labels", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_transaction_labels_name", columnNames = "name")
+})
+@Data
+@NoArgsConstructor
+public class TransactionLabel {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+    @Column(nullable = false, length = 50)
+    private String name;
+}
@@ -0,0 +1,23 @@
+package com.example.financialcontrol.entity;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+/**
+ * Durable change counters of a user's categories and wallets: incremented in the same database
+ * transaction as every change to them. Used for the ETags of the category and wallet lists
+ * (see DataVersionService), so every instance of the application sees the same versions.
+ * Users without a row have never changed them since the counters were introduced (version 0).
+ */
+@Entity
+@Table(name = "user_data_version")
+@Data
+@NoArgsConstructor
+public class UserDataVersion {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+    @Column(name = "categories_version", nullable = false)
+    private long categoriesVersion;
+    @Column(name = "wallets_version", nullable = false)
+    private long walletsVersion;
+}
@@ -0,0 +1,21 @@
+package com.example.financialcontrol.entity;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+/**
+ * Durable change counter of a wallet's transactions: incremented in the same database
+ * transaction as every change to them. Used to check whether an analytics snapshot
+ * written to disk still matches the database (see WalletSnapshotFiles).
+ * Wallets without a row have never changed since the counter was introduced (version 0).
+ */
+@Entity
+@Table(name = "wallet_data_version")
+@Data
+@NoArgsConstructor
+public class WalletDataVersion {
+    @Id
+    @Column(name = "wallet_id")
+    private Long walletId;
+    @Column(nullable = false)
+    private long version;
+}
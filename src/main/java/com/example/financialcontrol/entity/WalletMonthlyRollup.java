@@ -0,0 +1,40 @@
+package com.example.financialcontrol.entity;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+/**
+ * Pre-aggregated total and count of a wallet's transactions per
+ * (month, type, category, subcategory). Kept up to date by MonthlyRollupService
+ * in the same database transaction as every transaction insert/delete.
+ */
+@Entity
+@Table(name = "wallet_monthly_rollup", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_wallet_monthly_rollup_key",
+            columnNames = {"wallet_id", "month_start", "type", "category", "subcategory"})
+})
+@Data
+@NoArgsConstructor
+public class WalletMonthlyRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "wallet_id", nullable = false)
+    private Wallet wallet;
+    // First day of the month
+    @Column(name = "month_start", nullable = false)
+    private LocalDate month;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private TransactionType type;
+    @Column(nullable = false, length = 50)
+    private String category;
+    @Column(nullable = false, length = 50)
+    private String subcategory;
+    @Column(nullable = false, precision = 17, scale = 2)
+    private BigDecimal total;
+    @Column(name = "transaction_count", nullable = false)
+    private long count;
+}
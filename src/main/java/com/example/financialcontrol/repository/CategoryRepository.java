@@ -2,8 +2,11 @@ package com.example.financialcontrol.repository;
 
 import com.example.financialcontrol.entity.Category;
 import com.example.financialcontrol.entity.TransactionType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -19,6 +22,17 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     // Find all categories for a specific user
     List<Category> findByUserId(Long userId);
 
+    // Find all default categories, in creation order
+    List<Category> findByIsDefaultTrueOrderByIdAsc();
+
+    // Find all categories owned by a user, in creation order
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    List<Category> findByUserIdOrderByIdAsc(Long userId);
+
+    // Find all categories owned by a user by type, in creation order
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    List<Category> findByUserIdAndTypeOrderByIdAsc(Long userId, TransactionType type);
+
     // Find all default categories by type
     List<Category> findByIsDefaultTrueAndType(TransactionType type);
 
@@ -26,10 +40,12 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     List<Category> findByUserIdAndType(Long userId, TransactionType type);
 
     // Find all categories available to a user (default + user's own)
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     @Query("SELECT c FROM Category c WHERE c.isDefault = true OR c.user.id = :userId")
     List<Category> findAllAvailableForUser(@Param("userId") Long userId);
 
     // Find all categories available to a user by type (default + user's own)
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     @Query("SELECT c FROM Category c WHERE (c.isDefault = true OR c.user.id = :userId) AND c.type = :type")
     List<Category> findAllAvailableForUserByType(@Param("userId") Long userId, @Param("type") TransactionType type);
 
@@ -38,6 +54,12 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     boolean existsByNameForUser(@Param("name") String name, @Param("userId") Long userId);
 
     // Find category by name for user
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     @Query("SELECT c FROM Category c WHERE c.name = :name AND (c.isDefault = true OR c.user.id = :userId)")
     Optional<Category> findByNameForUser(@Param("name") String name, @Param("userId") Long userId);
+
+    // Find a category with its subcategories in one query (instead of a lazy load afterwards)
+    @EntityGraph(attributePaths = "subcategories")
+    @Query("SELECT c FROM Category c WHERE c.id = :id")
+    Optional<Category> findByIdWithSubcategories(@Param("id") Long id);
 }
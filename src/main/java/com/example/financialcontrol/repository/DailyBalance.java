@@ -0,0 +1,16 @@
+package com.example.financialcontrol.repository;
+
+/**
+ * Projection for one day of a wallet's running balance (see TransactionRepository.findDailyBalances).
+ */
+public interface DailyBalance {
+
+    // Days since 1970-01-01
+    Integer getDay();
+
+    // Credits minus debits of that day, in cents
+    Long getNet();
+
+    // Running balance at the end of that day, in cents
+    Long getBalance();
+}
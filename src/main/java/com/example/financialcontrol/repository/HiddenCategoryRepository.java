@@ -1,8 +1,10 @@
 package com.example.financialcontrol.repository;
 
 import com.example.financialcontrol.entity.HiddenCategory;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -18,6 +20,7 @@ public interface HiddenCategoryRepository extends JpaRepository<HiddenCategory,
 
     boolean existsByUserIdAndCategoryId(Long userId, Long categoryId);
 
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     @Query("SELECT hc.category.id FROM HiddenCategory hc WHERE hc.user.id = :userId")
     List<Long> findHiddenCategoryIdsByUserId(@Param("userId") Long userId);
 
@@ -1,8 +1,10 @@
 package com.example.financialcontrol.repository;
 
 import com.example.financialcontrol.entity.HiddenSubcategory;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -22,6 +24,7 @@ public interface HiddenSubcategoryRepository extends JpaRepository<HiddenSubcate
     boolean existsByUserIdAndSubcategoryId(Long userId, Long subcategoryId);
 
     // Get list of hidden subcategory IDs for a user
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     @Query("SELECT hs.subcategory.id FROM HiddenSubcategory hs WHERE hs.user.id = :userId")
     List<Long> findHiddenSubcategoryIdsByUserId(@Param("userId") Long userId);
 
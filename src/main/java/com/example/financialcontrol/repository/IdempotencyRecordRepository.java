@@ -0,0 +1,39 @@
+package com.example.financialcontrol.repository;
+import com.example.financialcontrol.entity.IdempotencyRecord;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Optional;
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+    Optional<IdempotencyRecord> findByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
+    /**
+     * Inserts a key's row unless it exists (PostgreSQL upsert). If another transaction inserted
+     * the same key and hasn't finished, this waits for it: returns 0 once it commits, 1 if it rolls back.
+     * Declares its only table, or Hibernate would clear every cache region on each keyed request.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "idempotency_keys"))
+    @Query(value = "INSERT INTO idempotency_keys (user_id, idempotency_key, request_hash, created_at, expires_at) " +
+                   "VALUES (:userId, :key, :requestHash, :createdAt, :expiresAt) " +
+                   "ON CONFLICT (user_id, idempotency_key) DO NOTHING",
+           nativeQuery = true)
+    int claim(@Param("userId") Long userId, @Param("key") String key, @Param("requestHash") String requestHash,
+              @Param("createdAt") LocalDateTime createdAt, @Param("expiresAt") LocalDateTime expiresAt);
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.statusCode = :statusCode, r.responseBody = :responseBody " +
+           "WHERE r.user.id = :userId AND r.idempotencyKey = :key")
+    int complete(@Param("userId") Long userId, @Param("key") String key,
+                 @Param("statusCode") int statusCode, @Param("responseBody") String responseBody);
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.user.id = :userId AND r.idempotencyKey = :key AND r.expiresAt < :now")
+    int deleteExpired(@Param("userId") Long userId, @Param("key") String key, @Param("now") LocalDateTime now);
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteAllExpired(@Param("now") LocalDateTime now);
+}
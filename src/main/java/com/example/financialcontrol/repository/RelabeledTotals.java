@@ -0,0 +1,22 @@
+package com.example.financialcontrol.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection for one group of re-labeled transactions (see TransactionRepository.relabelCategoryChunk).
+ */
+public interface RelabeledTotals {
+
+    // First day of the month, as days since 1970-01-01
+    Integer getMonth();
+
+    // Subcategory label ID of the transactions (after the update)
+    Integer getSubcategory();
+
+    BigDecimal getTotal();
+
+    Long getCount();
+
+    // Highest transaction ID moved by the chunk (same on every row)
+    Long getLastId();
+}
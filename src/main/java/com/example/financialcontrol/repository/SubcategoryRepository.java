@@ -1,11 +1,15 @@
 package com.example.financialcontrol.repository;
 
 import com.example.financialcontrol.entity.Subcategory;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,6 +26,7 @@ public interface SubcategoryRepository extends JpaRepository<Subcategory, Long>
     List<Subcategory> findByCategoryIdAndUserId(Long categoryId, Long userId);
 
     // Find all subcategories available to a user for a specific category (default + user's own)
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     @Query("SELECT s FROM Subcategory s WHERE s.category.id = :categoryId AND (s.isDefault = true OR s.user.id = :userId)")
     List<Subcategory> findAllAvailableForUserByCategory(@Param("categoryId") Long categoryId, @Param("userId") Long userId);
 
@@ -30,11 +35,29 @@ public interface SubcategoryRepository extends JpaRepository<Subcategory, Long>
     boolean existsByNameForCategoryAndUser(@Param("name") String name, @Param("categoryId") Long categoryId, @Param("userId") Long userId);
 
     // Find subcategory by name for a specific category and user
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     @Query("SELECT s FROM Subcategory s WHERE s.name = :name AND s.category.id = :categoryId AND (s.isDefault = true OR s.user.id = :userId)")
     Optional<Subcategory> findByNameForCategoryAndUser(@Param("name") String name, @Param("categoryId") Long categoryId, @Param("userId") Long userId);
 
     // Find all subcategories available to a user
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     @Query("SELECT s FROM Subcategory s WHERE s.isDefault = true OR s.user.id = :userId")
     List<Subcategory> findAllAvailableForUser(@Param("userId") Long userId);
-}
 
+    // Find all default subcategories with their category (used to build the shared default tree)
+    @Query("SELECT s FROM Subcategory s JOIN FETCH s.category WHERE s.isDefault = true ORDER BY s.id")
+    List<Subcategory> findAllDefaultWithCategory();
+
+    // Find all subcategories owned by a user with their category (in default or own categories)
+    @Query("SELECT s FROM Subcategory s JOIN FETCH s.category WHERE s.user.id = :userId ORDER BY s.id")
+    List<Subcategory> findAllOwnedByUserWithCategory(@Param("userId") Long userId);
+
+    // Find subcategories by ID with their category in one query (avoids a lazy load per subcategory)
+    @Query("SELECT s FROM Subcategory s JOIN FETCH s.category WHERE s.id IN :ids ORDER BY s.id")
+    List<Subcategory> findAllByIdWithCategory(@Param("ids") Collection<Long> ids);
+
+    // Move subcategories to another category (bulk update; clears the persistence context)
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Subcategory s SET s.category.id = :categoryId WHERE s.id IN :ids")
+    int moveToCategory(@Param("ids") Collection<Long> ids, @Param("categoryId") Long categoryId);
+}
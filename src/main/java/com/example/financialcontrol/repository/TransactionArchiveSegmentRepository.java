@@ -0,0 +1,53 @@
+package com.example.financialcontrol.repository;
+import com.example.financialcontrol.entity.TransactionArchiveSegment;
+import com.example.financialcontrol.entity.TransactionType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+@Repository
+public interface TransactionArchiveSegmentRepository extends JpaRepository<TransactionArchiveSegment, Long> {
+    List<TransactionArchiveSegment> findByWalletIdOrderByMinDateAsc(Long walletId);
+    // Segments of the given wallets that may hold rows between two dates
+    @Query("SELECT s FROM TransactionArchiveSegment s WHERE s.wallet.id IN :walletIds " +
+           "AND s.minDate <= :toDate AND s.maxDate >= :fromDate ORDER BY s.maxDate DESC")
+    List<TransactionArchiveSegment> findOverlapping(@Param("walletIds") Collection<Long> walletIds,
+                                                    @Param("fromDate") LocalDate fromDate,
+                                                    @Param("toDate") LocalDate toDate);
+    /**
+     * Credits minus debits, in cents, of a wallet's segments ending before a date.
+     */
+    @Query("SELECT COALESCE(SUM(s.netCents), 0) FROM TransactionArchiveSegment s " +
+           "WHERE s.wallet.id = :walletId AND s.maxDate < :beforeDate")
+    long sumNetCentsEndingBefore(@Param("walletId") Long walletId, @Param("beforeDate") LocalDate beforeDate);
+    /**
+     * Check if any archived transaction of a user has the given category label
+     */
+    @Query("SELECT COUNT(s) > 0 FROM TransactionArchiveSegment s JOIN s.labels l " +
+           "WHERE s.wallet.user.id = :userId AND l.categoryId = :categoryLabelId")
+    boolean existsByCategoryIdAndUserId(@Param("categoryLabelId") Integer categoryLabelId, @Param("userId") Long userId);
+    /**
+     * Check if any archived transaction of a user has the given subcategory label
+     */
+    @Query("SELECT COUNT(s) > 0 FROM TransactionArchiveSegment s JOIN s.labels l " +
+           "WHERE s.wallet.user.id = :userId AND l.subcategoryId = :subcategoryLabelId")
+    boolean existsBySubcategoryIdAndUserId(@Param("subcategoryLabelId") Integer subcategoryLabelId, @Param("userId") Long userId);
+    // Segments of a wallet holding transactions of a type with the given category label
+    @Query("SELECT DISTINCT s.id FROM TransactionArchiveSegment s JOIN s.labels l " +
+           "WHERE s.wallet.id = :walletId AND l.type = :type AND l.categoryId = :categoryId ORDER BY s.id")
+    List<Long> findIdsWithCategory(@Param("walletId") Long walletId, @Param("type") TransactionType type,
+                                   @Param("categoryId") Integer categoryId);
+    // Same as findIdsWithCategory for one (category, subcategory) pair
+    @Query("SELECT DISTINCT s.id FROM TransactionArchiveSegment s JOIN s.labels l " +
+           "WHERE s.wallet.id = :walletId AND l.type = :type AND l.categoryId = :categoryId " +
+           "AND l.subcategoryId = :subcategoryId ORDER BY s.id")
+    List<Long> findIdsWithSubcategory(@Param("walletId") Long walletId, @Param("type") TransactionType type,
+                                      @Param("categoryId") Integer categoryId,
+                                      @Param("subcategoryId") Integer subcategoryId);
+    // Segments written before their labels were recorded
+    @Query("SELECT s.id FROM TransactionArchiveSegment s WHERE s.labels IS EMPTY ORDER BY s.id")
+    List<Long> findIdsWithoutLabels();
+}
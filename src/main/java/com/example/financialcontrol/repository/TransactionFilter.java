@@ -0,0 +1,40 @@
+package com.example.financialcontrol.repository;
+
+import com.example.financialcontrol.entity.TransactionType;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Criteria of a transaction list (see TransactionRepositoryCustom). The date range is always
+ * set; every other criterion is optional (null = not filtered on) and only the present ones
+ * become part of the query.
+ */
+@Data
+@NoArgsConstructor
+public class TransactionFilter {
+
+    // Bounds used when no date filter is given, so queries are always a date range
+    // (index range scan, partition pruning)
+    public static final LocalDate MIN_DATE = LocalDate.of(1, 1, 1);
+    public static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+
+    // First and last day (inclusive), never null
+    private LocalDate fromDate;
+    private LocalDate toDate;
+
+    private TransactionType type;
+
+    // Amount range (inclusive)
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+
+    // Category label IDs (TransactionLabelDictionary); an empty set matches nothing
+    private Set<Integer> categoryIds;
+
+    // Lowercase prefix of the description (case-insensitive match)
+    private String descriptionPrefix;
+}
@@ -0,0 +1,23 @@
+package com.example.financialcontrol.repository;
+import com.example.financialcontrol.entity.TransactionLabel;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.Optional;
+@Repository
+public interface TransactionLabelRepository extends JpaRepository<TransactionLabel, Integer> {
+    Optional<TransactionLabel> findByName(String name);
+
+    /**
+     * Adds a name to the dictionary unless it is already there (safe under concurrent inserts, PostgreSQL).
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "transaction_labels"))
+    @Query(value = "INSERT INTO transaction_labels (name) VALUES (:name) ON CONFLICT (name) DO NOTHING",
+           nativeQuery = true)
+    void insertIfAbsent(@Param("name") String name);
+}
@@ -1,39 +1,181 @@
 package com.example.financialcontrol.repository;
+import com.example.financialcontrol.dto.MonthlyReportEntry;
 import com.example.financialcontrol.entity.Transaction;
-import com.example.financialcontrol.entity.TransactionType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, TransactionRepositoryCustom {
     List<Transaction> findByWalletId(Long walletId);
     List<Transaction> findByWalletIdOrderByDateDesc(Long walletId);
-    @Query("SELECT t FROM Transaction t WHERE t.wallet.id = :walletId " +
-           "AND (:type IS NULL OR t.type = :type) " +
-           "AND (:fromDate IS NULL OR t.date >= :fromDate) " +
-           "AND (:toDate IS NULL OR t.date <= :toDate) " +
-           "ORDER BY t.date DESC")
-    List<Transaction> findByWalletIdWithFilters(
-            @Param("walletId") Long walletId,
-            @Param("type") TransactionType type,
+
+    /**
+     * Text search over a user's transactions, newest first, strictly before a (date, id) keyset cursor.
+     * A transaction matches if its description matches the tsquery (GIN index
+     * idx_transactions_description_fts, see TransactionSearchIndexMigration) or its category or
+     * subcategory label is one of labelIds (never empty: pass an unused ID such as 0 for none).
+     * The matches are collected first (MATERIALIZED keeps PostgreSQL from walking the date index
+     * backwards and testing every row, which is slowest for rare words) and then sorted.
+     */
+    @Query(value = "WITH matches AS MATERIALIZED (SELECT t.* FROM transactions t WHERE t.user_id = :userId " +
+                   "AND t.date >= :fromDate AND t.date <= :toDate AND t.type IN (:types) " +
+                   "AND (t.date, t.id) < (:cursorDate, :cursorId) " +
+                   "AND (to_tsvector('simple', COALESCE(t.description, '')) @@ to_tsquery('simple', :tsQuery) " +
+                   "OR t.category_id IN (:labelIds) OR t.subcategory_id IN (:labelIds))) " +
+                   "SELECT * FROM matches ORDER BY date DESC, id DESC LIMIT :limit",
+           nativeQuery = true)
+    List<Transaction> searchByUserId(
+            @Param("userId") Long userId,
+            @Param("tsQuery") String tsQuery,
+            @Param("labelIds") Collection<Integer> labelIds,
+            @Param("types") Collection<String> types,
             @Param("fromDate") LocalDate fromDate,
-            @Param("toDate") LocalDate toDate
+            @Param("toDate") LocalDate toDate,
+            @Param("cursorDate") LocalDate cursorDate,
+            @Param("cursorId") long cursorId,
+            @Param("limit") int limit
+    );
+
+    /**
+     * Check if any transaction exists with the given category label for a specific user
+     * (stops at the first match, range scan of idx_transactions_user_category)
+     */
+    boolean existsByCategoryIdAndUserId(Integer categoryLabelId, Long userId);
+
+    /**
+     * Check if any transaction exists with the given subcategory label for a specific user
+     */
+    boolean existsBySubcategoryIdAndUserId(Integer subcategoryLabelId, Long userId);
+
+
+    /**
+     * Date of the latest transaction of each of a user's wallets, archived ones included.
+     * Each MAX is answered from the end of an index (idx_transactions_wallet_report).
+     */
+    @Query(value = "SELECT w.id AS walletId, " +
+                   "GREATEST((SELECT MAX(t.date) FROM transactions t WHERE t.wallet_id = w.id), " +
+                   "(SELECT MAX(s.max_date) FROM transaction_archive_segments s WHERE s.wallet_id = w.id)) " +
+                   "- DATE '1970-01-01' AS lastDay " +
+                   "FROM wallets w WHERE w.user_id = :userId",
+           nativeQuery = true)
+    List<WalletLastActivity> findLastActivityByUserId(@Param("userId") Long userId);
+
+    /**
+     * Totals per (month, type, category, subcategory) over all of a wallet's transactions.
+     * Used to rebuild the monthly rollups; answered from idx_transactions_wallet_report (index-only scan).
+     */
+    @Query("SELECT new com.example.financialcontrol.dto.MonthlyReportEntry(" +
+           "YEAR(t.date), MONTH(t.date), t.type, c.name, s.name, SUM(t.amount), COUNT(t)) " +
+           "FROM Transaction t JOIN t.category c JOIN t.subcategory s WHERE t.wallet.id = :walletId " +
+           "GROUP BY YEAR(t.date), MONTH(t.date), t.type, c.name, s.name")
+    List<MonthlyReportEntry> findMonthlyTotalsByWalletId(@Param("walletId") Long walletId);
+
+    /**
+     * Only the columns used by the in-memory analytics store (amount, date, type, category and
+     * subcategory label IDs), without loading Transaction entities.
+     */
+    @Query("SELECT t.amount, t.date, t.type, t.category.id, t.subcategory.id FROM Transaction t WHERE t.wallet.id = :walletId")
+    List<Object[]> findAnalyticsColumnsByWalletId(@Param("walletId") Long walletId);
+
+    /**
+     * Moves the next chunkSize transactions of a wallet (by ID, after afterId) from one category
+     * label to another (set-based UPDATE) and returns what was moved, per month and subcategory label,
+     * so the caller can adjust the monthly rollups in the same database transaction.
+     * Each row also carries the highest ID moved: the next chunk starts after it, so the primary key
+     * index is walked once instead of rescanning the rows already moved.
+     */
+    @Query(value = "WITH moved AS (" +
+                   "UPDATE transactions SET category_id = :toCategoryId WHERE id IN (" +
+                   "SELECT id FROM transactions WHERE wallet_id = :walletId AND type = :type " +
+                   "AND category_id = :fromCategoryId AND id > :afterId ORDER BY id LIMIT :chunkSize) " +
+                   "RETURNING id, date, subcategory_id, amount) " +
+                   "SELECT (CAST(date_trunc('month', date) AS DATE) - DATE '1970-01-01') AS month, " +
+                   "subcategory_id AS subcategory, SUM(amount) AS total, COUNT(*) AS count, " +
+                   "(SELECT MAX(m.id) FROM moved m) AS lastid " +
+                   "FROM moved GROUP BY 1, 2",
+           nativeQuery = true)
+    List<RelabeledTotals> relabelCategoryChunk(
+            @Param("walletId") Long walletId,
+            @Param("type") String type,
+            @Param("fromCategoryId") Integer fromCategoryId,
+            @Param("toCategoryId") Integer toCategoryId,
+            @Param("afterId") long afterId,
+            @Param("chunkSize") int chunkSize
     );
 
     /**
-     * Check if any transaction exists with the given category name for a specific user
+     * Same as relabelCategoryChunk for one (category, subcategory) pair.
      */
-    @Query("SELECT CASE WHEN COUNT(t) > 0 THEN true ELSE false END FROM Transaction t " +
-           "WHERE t.category = :categoryName AND t.wallet.user.id = :userId")
-    boolean existsByCategoryNameAndUserId(@Param("categoryName") String categoryName, @Param("userId") Long userId);
+    @Query(value = "WITH moved AS (" +
+                   "UPDATE transactions SET category_id = :toCategoryId, subcategory_id = :toSubcategoryId WHERE id IN (" +
+                   "SELECT id FROM transactions WHERE wallet_id = :walletId AND type = :type " +
+                   "AND category_id = :fromCategoryId AND subcategory_id = :fromSubcategoryId " +
+                   "AND id > :afterId ORDER BY id LIMIT :chunkSize) " +
+                   "RETURNING id, date, subcategory_id, amount) " +
+                   "SELECT (CAST(date_trunc('month', date) AS DATE) - DATE '1970-01-01') AS month, " +
+                   "subcategory_id AS subcategory, SUM(amount) AS total, COUNT(*) AS count, " +
+                   "(SELECT MAX(m.id) FROM moved m) AS lastid " +
+                   "FROM moved GROUP BY 1, 2",
+           nativeQuery = true)
+    List<RelabeledTotals> relabelSubcategoryChunk(
+            @Param("walletId") Long walletId,
+            @Param("type") String type,
+            @Param("fromCategoryId") Integer fromCategoryId,
+            @Param("fromSubcategoryId") Integer fromSubcategoryId,
+            @Param("toCategoryId") Integer toCategoryId,
+            @Param("toSubcategoryId") Integer toSubcategoryId,
+            @Param("afterId") long afterId,
+            @Param("chunkSize") int chunkSize
+    );
 
     /**
-     * Check if any transaction exists with the given subcategory name for a specific user
+     * Running balance per day with activity, for days in [fromEpochDay, toDate].
+     * The window function runs over the whole history up to toDate, so the first row's
+     * balance already includes everything before the range. Amounts are returned in cents.
      */
-    @Query("SELECT CASE WHEN COUNT(t) > 0 THEN true ELSE false END FROM Transaction t " +
-           "WHERE t.subcategory = :subcategoryName AND t.wallet.user.id = :userId")
-    boolean existsBySubcategoryNameAndUserId(@Param("subcategoryName") String subcategoryName, @Param("userId") Long userId);
+    @Query(value = "SELECT s.day AS day, s.net AS net, s.balance AS balance FROM (" +
+                   "SELECT d.day, d.net, CAST(SUM(d.net) OVER (ORDER BY d.day) AS BIGINT) AS balance FROM (" +
+                   "SELECT (t.date - DATE '1970-01-01') AS day, " +
+                   "CAST(SUM(CASE WHEN t.type = 'CREDIT' THEN t.amount ELSE -t.amount END) * 100 AS BIGINT) AS net " +
+                   "FROM transactions t WHERE t.wallet_id = :walletId AND t.date <= :toDate " +
+                   "GROUP BY t.date) d) s " +
+                   "WHERE s.day >= :fromEpochDay ORDER BY s.day",
+           nativeQuery = true)
+    List<DailyBalance> findDailyBalances(
+            @Param("walletId") Long walletId,
+            @Param("fromEpochDay") long fromEpochDay,
+            @Param("toDate") LocalDate toDate
+    );
+
+    /**
+     * Balance (credits minus debits) of a wallet before a date, in cents.
+     */
+    @Query(value = "SELECT CAST(COALESCE(SUM(CASE WHEN t.type = 'CREDIT' THEN t.amount ELSE -t.amount END), 0) * 100 AS BIGINT) " +
+                   "FROM transactions t WHERE t.wallet_id = :walletId AND t.date < :beforeDate",
+           nativeQuery = true)
+    long findBalanceCentsBefore(@Param("walletId") Long walletId, @Param("beforeDate") LocalDate beforeDate);
+    /**
+     * Deletes the oldest chunkSize transactions of a wallet dated before cutoff and returns them,
+     * sorted by (date, id), for archival (see TransactionArchiveService): id, epoch day, type,
+     * amount in cents, category and subcategory label IDs, createdAt in microseconds, description.
+     * The date condition on the outer DELETE lets a partitioned table prune newer partitions.
+     */
+    @Query(value = "WITH archived AS (" +
+                   "DELETE FROM transactions WHERE wallet_id = :walletId AND date < :cutoff AND (id, date) IN (" +
+                   "SELECT id, date FROM transactions WHERE wallet_id = :walletId AND date < :cutoff " +
+                   "ORDER BY date, id LIMIT :chunkSize) " +
+                   "RETURNING id, date, type, amount, category_id, subcategory_id, created_at, description) " +
+                   "SELECT id, (date - DATE '1970-01-01') AS day, type, CAST(amount * 100 AS BIGINT) AS cents, " +
+                   "category_id, subcategory_id, CAST(EXTRACT(EPOCH FROM created_at) * 1000000 AS BIGINT) AS created, " +
+                   "description FROM archived ORDER BY date, id",
+           nativeQuery = true)
+    List<Object[]> deleteArchivableChunk(
+            @Param("walletId") Long walletId,
+            @Param("cutoff") LocalDate cutoff,
+            @Param("chunkSize") int chunkSize
+    );
 }
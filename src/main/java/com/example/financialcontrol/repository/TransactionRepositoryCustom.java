@@ -0,0 +1,23 @@
+package com.example.financialcontrol.repository;
+
+import com.example.financialcontrol.entity.Transaction;
+
+import java.util.List;
+
+/**
+ * Transaction queries built from the criteria present in a TransactionFilter
+ * (implemented by TransactionRepositoryImpl).
+ */
+public interface TransactionRepositoryCustom {
+
+    /**
+     * A wallet's transactions matching a filter, newest first (by date, then ID).
+     */
+    List<Transaction> findByWalletIdMatching(Long walletId, TransactionFilter filter);
+
+    /**
+     * The newest transactions of all of a user's wallets matching a filter, newest first.
+     * Filters on the denormalized owner column, so no join with wallets.
+     */
+    List<Transaction> findByUserIdMatching(Long userId, TransactionFilter filter, int limit);
+}
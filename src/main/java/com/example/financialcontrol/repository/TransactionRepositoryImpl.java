@@ -0,0 +1,141 @@
+package com.example.financialcontrol.repository;
+
+import com.example.financialcontrol.entity.Transaction;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Transaction list queries with optional criteria (TransactionFilter).
+ *
+ * The JPQL only contains the predicates of the criteria that are present. A single query with
+ * "(:type IS NULL OR t.type = :type)" for every criterion gets one generic plan in PostgreSQL
+ * that has to work whatever is null, so it can't rely on the selective predicates; here each
+ * combination of criteria (a "shape") is a query of its own, and gets a plan for what it
+ * actually filters on (e.g. idx_transactions_user_category when categories are given, or the
+ * lower(description) indexes of TransactionDescriptionIndexMigration for a description prefix).
+ *
+ * Shapes are few (two scopes × 2^5 combinations of criteria) and their JPQL is built once and
+ * kept. Since the text of a shape never changes, Hibernate's query plan cache (keyed on the
+ * JPQL) compiles each shape once, and the PostgreSQL driver reuses its server-side prepared
+ * statement. IN lists are padded to powers of two (hibernate.query.in_clause_parameter_padding),
+ * so the number of category IDs doesn't multiply the shapes.
+ */
+public class TransactionRepositoryImpl implements TransactionRepositoryCustom {
+
+    static final int WALLET_SCOPE = 0;
+    static final int USER_SCOPE = 1;
+
+    // Bits of a shape: which optional criteria are present
+    private static final int TYPE = 1 << 1;
+    private static final int MIN_AMOUNT = 1 << 2;
+    private static final int MAX_AMOUNT = 1 << 3;
+    private static final int CATEGORIES = 1 << 4;
+    private static final int DESCRIPTION = 1 << 5;
+
+    private final EntityManager entityManager;
+
+    // Shape -> JPQL
+    private final Map<Integer, String> queries = new ConcurrentHashMap<>();
+
+    public TransactionRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Transaction> findByWalletIdMatching(Long walletId, TransactionFilter filter) {
+        return find(WALLET_SCOPE, walletId, filter, null);
+    }
+
+    @Override
+    public List<Transaction> findByUserIdMatching(Long userId, TransactionFilter filter, int limit) {
+        return find(USER_SCOPE, userId, filter, limit);
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    private List<Transaction> find(int scope, Long ownerId, TransactionFilter filter, Integer limit) {
+        if (filter.getCategoryIds() != null && filter.getCategoryIds().isEmpty()) {
+            return List.of();
+        }
+        int shape = scope | shapeOf(filter);
+        TypedQuery<Transaction> query = entityManager.createQuery(
+                queries.computeIfAbsent(shape, TransactionRepositoryImpl::jpql), Transaction.class);
+        query.setParameter("ownerId", ownerId);
+        query.setParameter("fromDate", filter.getFromDate());
+        query.setParameter("toDate", filter.getToDate());
+        if ((shape & TYPE) != 0) {
+            query.setParameter("type", filter.getType());
+        }
+        if ((shape & MIN_AMOUNT) != 0) {
+            query.setParameter("minAmount", filter.getMinAmount());
+        }
+        if ((shape & MAX_AMOUNT) != 0) {
+            query.setParameter("maxAmount", filter.getMaxAmount());
+        }
+        if ((shape & CATEGORIES) != 0) {
+            query.setParameter("categoryIds", filter.getCategoryIds());
+        }
+        if ((shape & DESCRIPTION) != 0) {
+            query.setParameter("descriptionPattern", escapeLike(filter.getDescriptionPrefix()) + "%");
+        }
+        if (limit != null) {
+            query.setMaxResults(limit);
+        }
+        return query.getResultList();
+    }
+
+    static int shapeOf(TransactionFilter filter) {
+        int shape = 0;
+        if (filter.getType() != null) {
+            shape |= TYPE;
+        }
+        if (filter.getMinAmount() != null) {
+            shape |= MIN_AMOUNT;
+        }
+        if (filter.getMaxAmount() != null) {
+            shape |= MAX_AMOUNT;
+        }
+        if (filter.getCategoryIds() != null) {
+            shape |= CATEGORIES;
+        }
+        if (filter.getDescriptionPrefix() != null) {
+            shape |= DESCRIPTION;
+        }
+        return shape;
+    }
+
+    static String jpql(int shape) {
+        StringBuilder jpql = new StringBuilder("SELECT t FROM Transaction t WHERE ");
+        jpql.append((shape & USER_SCOPE) != 0 ? "t.user.id = :ownerId" : "t.wallet.id = :ownerId");
+        // Always a date range, so a partitioned table only scans the partitions in range
+        jpql.append(" AND t.date >= :fromDate AND t.date <= :toDate");
+        if ((shape & TYPE) != 0) {
+            jpql.append(" AND t.type = :type");
+        }
+        if ((shape & MIN_AMOUNT) != 0) {
+            jpql.append(" AND t.amount >= :minAmount");
+        }
+        if ((shape & MAX_AMOUNT) != 0) {
+            jpql.append(" AND t.amount <= :maxAmount");
+        }
+        if ((shape & CATEGORIES) != 0) {
+            // category_id itself, no join with transaction_labels
+            jpql.append(" AND t.category.id IN :categoryIds");
+        }
+        if ((shape & DESCRIPTION) != 0) {
+            jpql.append(" AND LOWER(t.description) LIKE :descriptionPattern ESCAPE '\\'");
+        }
+        jpql.append(" ORDER BY t.date DESC, t.id DESC");
+        return jpql.toString();
+    }
+
+    static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.financialcontrol.repository;
+import com.example.financialcontrol.entity.UserDataVersion;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.Optional;
+@Repository
+public interface UserDataVersionRepository extends JpaRepository<UserDataVersion, Long> {
+    /**
+     * Increments a user's categories version, creating the row if needed (PostgreSQL upsert).
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "user_data_version"))
+    @Query(value = "INSERT INTO user_data_version (user_id, categories_version, wallets_version) VALUES (:userId, 1, 0) " +
+                   "ON CONFLICT (user_id) DO UPDATE SET categories_version = user_data_version.categories_version + 1",
+           nativeQuery = true)
+    void incrementCategories(@Param("userId") Long userId);
+
+    /**
+     * Increments a user's wallets version, creating the row if needed (PostgreSQL upsert).
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "user_data_version"))
+    @Query(value = "INSERT INTO user_data_version (user_id, categories_version, wallets_version) VALUES (:userId, 0, 1) " +
+                   "ON CONFLICT (user_id) DO UPDATE SET wallets_version = user_data_version.wallets_version + 1",
+           nativeQuery = true)
+    void incrementWallets(@Param("userId") Long userId);
+
+    @Query("SELECT v.categoriesVersion FROM UserDataVersion v JOIN User u ON u.id = v.userId WHERE u.username = :username")
+    Optional<Long> findCategoriesVersionByUsername(@Param("username") String username);
+
+    @Query("SELECT v.walletsVersion FROM UserDataVersion v JOIN User u ON u.id = v.userId WHERE u.username = :username")
+    Optional<Long> findWalletsVersionByUsername(@Param("username") String username);
+}
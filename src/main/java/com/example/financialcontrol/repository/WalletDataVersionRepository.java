@@ -0,0 +1,36 @@
+package com.example.financialcontrol.repository;
+import com.example.financialcontrol.entity.WalletDataVersion;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.Optional;
+@Repository
+public interface WalletDataVersionRepository extends JpaRepository<WalletDataVersion, Long> {
+    /**
+     * Increments a wallet's version, creating its row if needed (PostgreSQL upsert).
+     * The row stays locked until the surrounding transaction ends, so versions are
+     * handed out in commit order.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "wallet_data_version"))
+    @Query(value = "INSERT INTO wallet_data_version (wallet_id, version) VALUES (:walletId, 1) " +
+                   "ON CONFLICT (wallet_id) DO UPDATE SET version = wallet_data_version.version + 1",
+           nativeQuery = true)
+    void increment(@Param("walletId") Long walletId);
+
+    @Query("SELECT v.version FROM WalletDataVersion v WHERE v.walletId = :walletId")
+    Optional<Long> findVersionByWalletId(@Param("walletId") Long walletId);
+
+    /**
+     * A wallet's version if the wallet belongs to the user, empty if it doesn't exist or
+     * belongs to someone else (one lookup for both the ownership check and the version).
+     */
+    @Query("SELECT COALESCE(v.version, 0) FROM Wallet w LEFT JOIN WalletDataVersion v ON v.walletId = w.id " +
+           "WHERE w.id = :walletId AND w.user.username = :username")
+    Optional<Long> findVersionByWalletIdAndUsername(@Param("walletId") Long walletId,
+                                                    @Param("username") String username);
+}
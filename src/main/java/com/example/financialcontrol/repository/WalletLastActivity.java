@@ -0,0 +1,12 @@
+package com.example.financialcontrol.repository;
+
+/**
+ * Projection for the date of a wallet's latest transaction (see TransactionRepository.findLastActivityByUserId).
+ */
+public interface WalletLastActivity {
+
+    Long getWalletId();
+
+    // Days since 1970-01-01, null if the wallet has no transactions
+    Integer getLastDay();
+}
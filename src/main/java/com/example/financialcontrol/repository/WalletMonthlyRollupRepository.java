@@ -0,0 +1,84 @@
+package com.example.financialcontrol.repository;
+import com.example.financialcontrol.entity.TransactionType;
+import com.example.financialcontrol.entity.WalletMonthlyRollup;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+@Repository
+public interface WalletMonthlyRollupRepository extends JpaRepository<WalletMonthlyRollup, Long> {
+    @Query("SELECT r FROM WalletMonthlyRollup r WHERE r.wallet.id = :walletId " +
+           "AND r.month >= :fromMonth AND r.month <= :toMonth " +
+           "ORDER BY r.month, r.type, r.category, r.subcategory")
+    List<WalletMonthlyRollup> findByWalletIdAndMonthRange(
+            @Param("walletId") Long walletId,
+            @Param("fromMonth") LocalDate fromMonth,
+            @Param("toMonth") LocalDate toMonth
+    );
+
+    /**
+     * Balance, transaction count and one month's income and expense of each of a user's wallets
+     * that has transactions, in one pass over their rollup rows (archived transactions included).
+     */
+    @Query("SELECT r.wallet.id AS walletId, " +
+           "SUM(CASE WHEN r.type = com.example.financialcontrol.entity.TransactionType.CREDIT THEN r.total ELSE -r.total END) AS balance, " +
+           "SUM(CASE WHEN r.month = :month AND r.type = com.example.financialcontrol.entity.TransactionType.CREDIT THEN r.total ELSE 0 END) AS monthIncome, " +
+           "SUM(CASE WHEN r.month = :month AND r.type = com.example.financialcontrol.entity.TransactionType.DEBIT THEN r.total ELSE 0 END) AS monthExpense, " +
+           "SUM(r.count) AS transactionCount " +
+           "FROM WalletMonthlyRollup r WHERE r.wallet.user.id = :userId GROUP BY r.wallet.id")
+    List<WalletTotals> findTotalsByUserId(@Param("userId") Long userId, @Param("month") LocalDate month);
+
+    /**
+     * Adds transactions to their rollup row, creating the row if needed.
+     * INSERT ... ON CONFLICT makes concurrent inserts for the same key safe (PostgreSQL).
+     * The query space hint tells Hibernate this native statement only touches the rollup table,
+     * so it doesn't clear the whole second-level cache.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "wallet_monthly_rollup"))
+    @Query(value = "INSERT INTO wallet_monthly_rollup " +
+                   "(wallet_id, month_start, type, category, subcategory, total, transaction_count) " +
+                   "VALUES (:walletId, :month, :type, :category, :subcategory, :amount, :count) " +
+                   "ON CONFLICT (wallet_id, month_start, type, category, subcategory) DO UPDATE SET " +
+                   "total = wallet_monthly_rollup.total + EXCLUDED.total, " +
+                   "transaction_count = wallet_monthly_rollup.transaction_count + EXCLUDED.transaction_count",
+           nativeQuery = true)
+    void addTotals(@Param("walletId") Long walletId, @Param("month") LocalDate month,
+                   @Param("type") String type, @Param("category") String category,
+                   @Param("subcategory") String subcategory, @Param("amount") BigDecimal amount,
+                   @Param("count") long count);
+
+    /**
+     * Removes transactions from their rollup row.
+     */
+    @Modifying
+    @Query("UPDATE WalletMonthlyRollup r SET r.total = r.total - :amount, r.count = r.count - :count " +
+           "WHERE r.wallet.id = :walletId AND r.month = :month AND r.type = :type " +
+           "AND r.category = :category AND r.subcategory = :subcategory")
+    int removeTotals(@Param("walletId") Long walletId, @Param("month") LocalDate month,
+                     @Param("type") TransactionType type,
+                     @Param("category") String category, @Param("subcategory") String subcategory,
+                     @Param("amount") BigDecimal amount, @Param("count") long count);
+
+    // Drops rows whose last transaction was removed
+    @Modifying
+    @Query("DELETE FROM WalletMonthlyRollup r WHERE r.wallet.id = :walletId AND r.count <= 0")
+    int deleteEmptyRows(@Param("walletId") Long walletId);
+
+    /**
+     * Locks a wallet's rollups until the current transaction ends (PostgreSQL transaction-level
+     * advisory lock, keyed by the wallet ID in the single bigint key space).
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(:walletId)", nativeQuery = true)
+    Integer lockWallet(@Param("walletId") Long walletId);
+
+    @Modifying
+    @Query("DELETE FROM WalletMonthlyRollup r WHERE r.wallet.id = :walletId")
+    int deleteByWalletId(@Param("walletId") Long walletId);
+}
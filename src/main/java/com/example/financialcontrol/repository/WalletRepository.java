@@ -1,14 +1,24 @@
 package com.example.financialcontrol.repository;
 import com.example.financialcontrol.entity.Wallet;
 import com.example.financialcontrol.entity.User;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
 @Repository
 public interface WalletRepository extends JpaRepository<Wallet, Long> {
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     List<Wallet> findByUser(User user);
     List<Wallet> findByUserId(Long userId);
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Optional<Wallet> findByIdAndUser(Long id, User user);
     Optional<Wallet> findByIdAndUserId(Long id, Long userId);
+    @Query("SELECT w.id FROM Wallet w ORDER BY w.id")
+    List<Long> findAllIds();
+    @Query("SELECT w.id FROM Wallet w WHERE w.user.id = :userId ORDER BY w.id")
+    List<Long> findIdsByUserId(@Param("userId") Long userId);
 }
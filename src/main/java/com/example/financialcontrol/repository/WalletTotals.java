@@ -0,0 +1,21 @@
+package com.example.financialcontrol.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection for the totals of one wallet, from its monthly rollups (see WalletMonthlyRollupRepository.findTotalsByUserId).
+ */
+public interface WalletTotals {
+
+    Long getWalletId();
+
+    // Credits minus debits of all transactions
+    BigDecimal getBalance();
+
+    // Credits and debits of the requested month
+    BigDecimal getMonthIncome();
+
+    BigDecimal getMonthExpense();
+
+    Long getTransactionCount();
+}
@@ -6,11 +6,15 @@ import com.example.financialcontrol.repository.CategoryRepository;
 import com.example.financialcontrol.repository.HiddenCategoryRepository;
 import com.example.financialcontrol.repository.HiddenSubcategoryRepository;
 import com.example.financialcontrol.repository.SubcategoryRepository;
+import com.example.financialcontrol.repository.TransactionArchiveSegmentRepository;
 import com.example.financialcontrol.repository.TransactionRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.HashSet;
 import java.util.stream.Collectors;
@@ -23,17 +27,32 @@ public class CategoryService {
     private final HiddenCategoryRepository hiddenCategoryRepository;
     private final HiddenSubcategoryRepository hiddenSubcategoryRepository;
     private final TransactionRepository transactionRepository;
+    private final TransactionArchiveSegmentRepository segmentRepository;
+    private final DefaultCategoryTree defaultCategoryTree;
+    private final DataVersionService dataVersionService;
+    private final TransactionLabelDictionary labelDictionary;
+    private final TransactionRelabelService transactionRelabelService;
 
     public CategoryService(CategoryRepository categoryRepository,
                           SubcategoryRepository subcategoryRepository,
                           HiddenCategoryRepository hiddenCategoryRepository,
                           HiddenSubcategoryRepository hiddenSubcategoryRepository,
-                          TransactionRepository transactionRepository) {
+                          TransactionRepository transactionRepository,
+                          TransactionArchiveSegmentRepository segmentRepository,
+                          DefaultCategoryTree defaultCategoryTree,
+                          DataVersionService dataVersionService,
+                          TransactionLabelDictionary labelDictionary,
+                          TransactionRelabelService transactionRelabelService) {
         this.categoryRepository = categoryRepository;
         this.subcategoryRepository = subcategoryRepository;
         this.hiddenCategoryRepository = hiddenCategoryRepository;
         this.hiddenSubcategoryRepository = hiddenSubcategoryRepository;
         this.transactionRepository = transactionRepository;
+        this.segmentRepository = segmentRepository;
+        this.defaultCategoryTree = defaultCategoryTree;
+        this.dataVersionService = dataVersionService;
+        this.labelDictionary = labelDictionary;
+        this.transactionRelabelService = transactionRelabelService;
     }
 
     // ==================== CATEGORY OPERATIONS ====================
@@ -42,35 +61,96 @@ public class CategoryService {
      * Get all categories available to a user (default + user's own), excluding hidden ones
      */
     public List<CategoryResponse> getAllCategoriesForUser(User user) {
-        List<Category> categories = categoryRepository.findAllAvailableForUser(user.getId());
-        Set<Long> hiddenCategoryIds = new HashSet<>(hiddenCategoryRepository.findHiddenCategoryIdsByUserId(user.getId()));
-        Set<Long> hiddenSubcategoryIds = new HashSet<>(hiddenSubcategoryRepository.findHiddenSubcategoryIdsByUserId(user.getId()));
-
-        return categories.stream()
-                .filter(c -> !hiddenCategoryIds.contains(c.getId()))
-                .map(c -> CategoryResponse.fromEntityWithFilteredSubcategories(c, user.getId(), hiddenSubcategoryIds))
-                .collect(Collectors.toList());
+        return mergeWithDefaultCategories(user,
+                defaultCategoryTree.getCategories(),
+                categoryRepository.findByUserIdOrderByIdAsc(user.getId()));
     }
 
     /**
      * Get all categories available to a user by type (default + user's own), excluding hidden ones
      */
     public List<CategoryResponse> getCategoriesForUserByType(User user, TransactionType type) {
-        List<Category> categories = categoryRepository.findAllAvailableForUserByType(user.getId(), type);
+        return mergeWithDefaultCategories(user,
+                defaultCategoryTree.getCategories(type),
+                categoryRepository.findByUserIdAndTypeOrderByIdAsc(user.getId(), type));
+    }
+
+    /**
+     * Merges the shared default categories with the user's own data.
+     * Only the user's categories, subcategories and hidden IDs are read from the database;
+     * default categories the user didn't change are returned as the shared objects, without copying.
+     */
+    private List<CategoryResponse> mergeWithDefaultCategories(User user, List<CategoryResponse> defaultCategories,
+                                                              List<Category> ownCategories) {
         Set<Long> hiddenCategoryIds = new HashSet<>(hiddenCategoryRepository.findHiddenCategoryIdsByUserId(user.getId()));
         Set<Long> hiddenSubcategoryIds = new HashSet<>(hiddenSubcategoryRepository.findHiddenSubcategoryIdsByUserId(user.getId()));
 
-        return categories.stream()
-                .filter(c -> !hiddenCategoryIds.contains(c.getId()))
-                .map(c -> CategoryResponse.fromEntityWithFilteredSubcategories(c, user.getId(), hiddenSubcategoryIds))
-                .collect(Collectors.toList());
+        // User's own subcategories (in default or own categories), grouped by category
+        Map<Long, List<SubcategoryResponse>> ownSubcategories = new HashMap<>();
+        for (Subcategory subcategory : subcategoryRepository.findAllOwnedByUserWithCategory(user.getId())) {
+            ownSubcategories.computeIfAbsent(subcategory.getCategory().getId(), id -> new ArrayList<>())
+                    .add(SubcategoryResponse.fromEntity(subcategory));
+        }
+
+        List<CategoryResponse> result = new ArrayList<>(defaultCategories.size() + ownCategories.size());
+
+        for (CategoryResponse shared : defaultCategories) {
+            if (hiddenCategoryIds.contains(shared.getId())) {
+                continue;
+            }
+            List<SubcategoryResponse> extra = ownSubcategories.get(shared.getId());
+            if (extra == null && !containsAny(shared.getSubcategories(), hiddenSubcategoryIds)) {
+                // Same as every other user sees it: reuse the shared object
+                result.add(shared);
+                continue;
+            }
+
+            // Copy the category fields, but keep referencing the shared subcategory objects
+            List<SubcategoryResponse> subcategories = new ArrayList<>();
+            if (shared.getSubcategories() != null) {
+                for (SubcategoryResponse subcategory : shared.getSubcategories()) {
+                    if (!hiddenSubcategoryIds.contains(subcategory.getId())) {
+                        subcategories.add(subcategory);
+                    }
+                }
+            }
+            if (extra != null) {
+                subcategories.addAll(extra);
+            }
+            result.add(new CategoryResponse(shared.getId(), shared.getName(), shared.getDescription(),
+                    shared.getColor(), shared.getIcon(), shared.getType(), shared.isDefault(),
+                    shared.getCreatedAt(), subcategories));
+        }
+
+        for (Category category : ownCategories) {
+            if (hiddenCategoryIds.contains(category.getId())) {
+                continue;
+            }
+            CategoryResponse response = CategoryResponse.fromEntity(category);
+            response.setSubcategories(ownSubcategories.get(category.getId()));
+            result.add(response);
+        }
+
+        return result;
+    }
+
+    private static boolean containsAny(List<SubcategoryResponse> subcategories, Set<Long> ids) {
+        if (subcategories == null || ids.isEmpty()) {
+            return false;
+        }
+        for (SubcategoryResponse subcategory : subcategories) {
+            if (ids.contains(subcategory.getId())) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
      * Get a single category by ID (only if accessible to user)
      */
     public CategoryResponse getCategoryById(Long categoryId, User user) {
-        Category category = categoryRepository.findById(categoryId)
+        Category category = categoryRepository.findByIdWithSubcategories(categoryId)
                 .orElseThrow(() -> new RuntimeException("Category not found"));
 
         // Check if user can access this category (either default or belongs to user)
@@ -101,11 +181,13 @@ public class CategoryService {
         category.setUser(user);
 
         category = categoryRepository.save(category);
+        dataVersionService.bump(user, DataVersionService.Resource.CATEGORIES);
         return CategoryResponse.fromEntity(category);
     }
 
     /**
-     * Update a user's category (cannot update default categories)
+     * Update a user's category (cannot update default categories).
+     * A rename also re-points the category's existing transactions, in a background job.
      */
     @Transactional
     public CategoryResponse updateCategory(Long categoryId, CategoryRequest request, User user) {
@@ -122,6 +204,9 @@ public class CategoryService {
             throw new RuntimeException("You don't have permission to modify this category");
         }
 
+        String oldName = category.getName();
+        TransactionType oldType = category.getType();
+
         category.setName(request.getName());
         category.setDescription(request.getDescription());
         category.setColor(request.getColor());
@@ -129,9 +214,69 @@ public class CategoryService {
         category.setType(request.getType());
 
         category = categoryRepository.save(category);
+        dataVersionService.bump(user, DataVersionService.Resource.CATEGORIES);
+        if (!oldName.equals(category.getName())) {
+            transactionRelabelService.schedule(user, oldType, oldName, null, category.getName(), null);
+        }
         return CategoryResponse.fromEntityWithFilteredSubcategories(category, user.getId());
     }
 
+    /**
+     * Merge a user's category into another category of the same type.
+     * Subcategories of the source move to the target (or are folded into the target's
+     * subcategory with the same name), the source is deleted, and its transactions are
+     * re-pointed to the target in a background job.
+     *
+     * @return The queued job that re-points the transactions
+     */
+    @Transactional
+    public RelabelJobResponse mergeCategory(Long sourceId, Long targetId, User user) {
+        if (sourceId.equals(targetId)) {
+            throw new RuntimeException("Cannot merge a category into itself");
+        }
+
+        Category source = categoryRepository.findById(sourceId)
+                .orElseThrow(() -> new RuntimeException("Category not found"));
+        if (source.isDefault()) {
+            throw new RuntimeException("Cannot merge default categories");
+        }
+        if (source.getUser() == null || !source.getUser().getId().equals(user.getId())) {
+            throw new RuntimeException("You don't have permission to modify this category");
+        }
+
+        Category target = categoryRepository.findById(targetId)
+                .orElseThrow(() -> new RuntimeException("Target category not found"));
+        if (!target.isDefault() && (target.getUser() == null || !target.getUser().getId().equals(user.getId()))) {
+            throw new RuntimeException("You don't have access to the target category");
+        }
+        if (source.getType() != target.getType()) {
+            throw new RuntimeException("Cannot merge categories of different types");
+        }
+
+        String sourceName = source.getName();
+        String targetName = target.getName();
+        TransactionType type = source.getType();
+
+        // Subcategories whose name already exists in the target are deleted with the source:
+        // their transactions end up under the target's subcategory of the same name
+        Set<String> targetSubcategoryNames = subcategoryRepository.findAllAvailableForUserByCategory(targetId, user.getId())
+                .stream()
+                .map(Subcategory::getName)
+                .collect(Collectors.toSet());
+        List<Long> movedSubcategoryIds = subcategoryRepository.findByCategoryId(sourceId).stream()
+                .filter(subcategory -> !targetSubcategoryNames.contains(subcategory.getName()))
+                .map(Subcategory::getId)
+                .collect(Collectors.toList());
+        if (!movedSubcategoryIds.isEmpty()) {
+            // Bulk update (clears the persistence context), so the source's cascade doesn't delete them
+            subcategoryRepository.moveToCategory(movedSubcategoryIds, targetId);
+        }
+        categoryRepository.findById(sourceId).ifPresent(categoryRepository::delete);
+
+        dataVersionService.bump(user, DataVersionService.Resource.CATEGORIES);
+        return transactionRelabelService.schedule(user, type, sourceName, null, targetName, null);
+    }
+
     /**
      * Delete a user's category or hide a default category for this user
      */
@@ -145,6 +290,7 @@ public class CategoryService {
             if (!hiddenCategoryRepository.existsByUserIdAndCategoryId(user.getId(), categoryId)) {
                 HiddenCategory hiddenCategory = new HiddenCategory(user, category);
                 hiddenCategoryRepository.save(hiddenCategory);
+                dataVersionService.bump(user, DataVersionService.Resource.CATEGORIES);
             }
             return;
         }
@@ -154,12 +300,17 @@ public class CategoryService {
             throw new RuntimeException("You don't have permission to delete this category");
         }
 
-        // Check if there are transactions using this category
-        if (transactionRepository.existsByCategoryNameAndUserId(category.getName(), user.getId())) {
+        // Check if there are transactions using this category, archived ones included
+        // (a name that was never used by any transaction has no label)
+        if (labelDictionary.findId(category.getName())
+                .map(labelId -> transactionRepository.existsByCategoryIdAndUserId(labelId, user.getId())
+                        || segmentRepository.existsByCategoryIdAndUserId(labelId, user.getId()))
+                .orElse(false)) {
             throw new RuntimeException("Cannot delete category: it is being used in one or more transactions");
         }
 
         categoryRepository.delete(category);
+        dataVersionService.bump(user, DataVersionService.Resource.CATEGORIES);
     }
 
     // ==================== SUBCATEGORY OPERATIONS ====================
@@ -225,11 +376,14 @@ public class CategoryService {
         subcategory.setUser(user);
 
         subcategory = subcategoryRepository.save(subcategory);
+        dataVersionService.bump(user, DataVersionService.Resource.CATEGORIES);
         return SubcategoryResponse.fromEntity(subcategory);
     }
 
     /**
-     * Update a user's subcategory (cannot update default subcategories)
+     * Update a user's subcategory (cannot update default subcategories).
+     * A rename or a move to another category also re-points the subcategory's existing
+     * transactions, in a background job.
      */
     @Transactional
     public SubcategoryResponse updateSubcategory(Long subcategoryId, SubcategoryRequest request, User user) {
@@ -246,6 +400,10 @@ public class CategoryService {
             throw new RuntimeException("You don't have permission to modify this subcategory");
         }
 
+        String oldName = subcategory.getName();
+        String oldCategoryName = subcategory.getCategory().getName();
+        TransactionType oldType = subcategory.getCategory().getType();
+
         // If changing category, verify access
         if (!subcategory.getCategory().getId().equals(request.getCategoryId())) {
             Category newCategory = categoryRepository.findById(request.getCategoryId())
@@ -263,6 +421,11 @@ public class CategoryService {
         subcategory.setIcon(request.getIcon());
 
         subcategory = subcategoryRepository.save(subcategory);
+        dataVersionService.bump(user, DataVersionService.Resource.CATEGORIES);
+        String newCategoryName = subcategory.getCategory().getName();
+        if (!oldName.equals(subcategory.getName()) || !oldCategoryName.equals(newCategoryName)) {
+            transactionRelabelService.schedule(user, oldType, oldCategoryName, oldName, newCategoryName, subcategory.getName());
+        }
         return SubcategoryResponse.fromEntity(subcategory);
     }
 
@@ -279,6 +442,7 @@ public class CategoryService {
             if (!hiddenSubcategoryRepository.existsByUserIdAndSubcategoryId(user.getId(), subcategoryId)) {
                 HiddenSubcategory hiddenSubcategory = new HiddenSubcategory(user, subcategory);
                 hiddenSubcategoryRepository.save(hiddenSubcategory);
+                dataVersionService.bump(user, DataVersionService.Resource.CATEGORIES);
             }
             return;
         }
@@ -288,36 +452,42 @@ public class CategoryService {
             throw new RuntimeException("You don't have permission to delete this subcategory");
         }
 
-        // Check if there are transactions using this subcategory
-        if (transactionRepository.existsBySubcategoryNameAndUserId(subcategory.getName(), user.getId())) {
+        // Check if there are transactions using this subcategory, archived ones included
+        if (labelDictionary.findId(subcategory.getName())
+                .map(labelId -> transactionRepository.existsBySubcategoryIdAndUserId(labelId, user.getId())
+                        || segmentRepository.existsBySubcategoryIdAndUserId(labelId, user.getId()))
+                .orElse(false)) {
             throw new RuntimeException("Cannot delete subcategory: it is being used in one or more transactions");
         }
 
         subcategoryRepository.delete(subcategory);
+        dataVersionService.bump(user, DataVersionService.Resource.CATEGORIES);
     }
 
     // ==================== RESTORE HIDDEN OPERATIONS ====================
 
     /**
-     * Get all hidden categories for a user
+     * Get all hidden categories for a user (2 queries: hidden IDs, then one batch load)
      */
     public List<CategoryResponse> getHiddenCategoriesForUser(User user) {
         List<Long> hiddenCategoryIds = hiddenCategoryRepository.findHiddenCategoryIdsByUserId(user.getId());
-        return hiddenCategoryIds.stream()
-                .map(id -> categoryRepository.findById(id).orElse(null))
-                .filter(c -> c != null)
+        if (hiddenCategoryIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return categoryRepository.findAllById(hiddenCategoryIds).stream()
                 .map(CategoryResponse::fromEntity)
                 .collect(Collectors.toList());
     }
 
     /**
-     * Get all hidden subcategories for a user
+     * Get all hidden subcategories for a user (2 queries: hidden IDs, then one batch load with categories)
      */
     public List<SubcategoryResponse> getHiddenSubcategoriesForUser(User user) {
         List<Long> hiddenSubcategoryIds = hiddenSubcategoryRepository.findHiddenSubcategoryIdsByUserId(user.getId());
-        return hiddenSubcategoryIds.stream()
-                .map(id -> subcategoryRepository.findById(id).orElse(null))
-                .filter(s -> s != null)
+        if (hiddenSubcategoryIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return subcategoryRepository.findAllByIdWithCategory(hiddenSubcategoryIds).stream()
                 .map(SubcategoryResponse::fromEntity)
                 .collect(Collectors.toList());
     }
@@ -331,6 +501,7 @@ public class CategoryService {
             throw new RuntimeException("Category is not hidden");
         }
         hiddenCategoryRepository.deleteByUserIdAndCategoryId(user.getId(), categoryId);
+        dataVersionService.bump(user, DataVersionService.Resource.CATEGORIES);
     }
 
     /**
@@ -342,6 +513,7 @@ public class CategoryService {
             throw new RuntimeException("Subcategory is not hidden");
         }
         hiddenSubcategoryRepository.deleteByUserIdAndSubcategoryId(user.getId(), subcategoryId);
+        dataVersionService.bump(user, DataVersionService.Resource.CATEGORIES);
     }
 
     // ==================== DEFAULT DATA INITIALIZATION ====================
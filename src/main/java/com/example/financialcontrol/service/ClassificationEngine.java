@@ -0,0 +1,53 @@
+package com.example.financialcontrol.service;
+
+import com.example.financialcontrol.dto.TransactionDraftDto;
+import com.example.financialcontrol.dto.VoiceRequestDto;
+import com.example.financialcontrol.entity.User;
+
+import java.util.List;
+
+/**
+ * Turns natural language text into transaction drafts.
+ *
+ * This is the single classification path for every voice/text endpoint:
+ * - POST /api/voice/classify and /api/voice/classify-multiple return the drafts as-is
+ * - POST /api/voice/parse (legacy) saves the draft of {@link #classifyLegacyText} right away
+ *   through VoiceService
+ *
+ * Implementations NEVER persist anything; saving a draft is the caller's decision.
+ * The default implementation is {@link VoiceClassificationService}.
+ */
+public interface ClassificationEngine {
+
+    /**
+     * Classifies text describing one transaction.
+     *
+     * @param request The voice request containing walletId and text
+     * @param user The authenticated user (must own the wallet)
+     * @return The draft with all detected/classified fields
+     * @throws RuntimeException if the wallet is not found or no amount is found in the text
+     */
+    TransactionDraftDto classifyText(VoiceRequestDto request, User user);
+
+    /**
+     * Classifies text that may describe several transactions.
+     *
+     * @param request The voice request containing walletId and text
+     * @param user The authenticated user (must own the wallet)
+     * @return One draft per detected transaction, in the order they were spoken
+     * @throws RuntimeException if the wallet is not found or no amount is found in the text
+     */
+    List<TransactionDraftDto> classifyMultipleTransactions(VoiceRequestDto request, User user);
+
+    /**
+     * Classifies text describing one transaction with the rules of the legacy /api/voice/parse
+     * flow: same amount and date extraction, but the fixed legacy category and subcategory
+     * names ("Food" / "Groceries", "Transport" / "Ride"...) instead of the user's categories.
+     *
+     * @param request The voice request containing walletId and text
+     * @param user The authenticated user (must own the wallet)
+     * @return The draft with the legacy category names
+     * @throws RuntimeException if the wallet is not found or no amount is found in the text
+     */
+    TransactionDraftDto classifyLegacyText(VoiceRequestDto request, User user);
+}
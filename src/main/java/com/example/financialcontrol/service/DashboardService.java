@@ -0,0 +1,194 @@
+package com.example.financialcontrol.service;
+
+import com.example.financialcontrol.dto.DashboardCurrencyTotals;
+import com.example.financialcontrol.dto.DashboardResponse;
+import com.example.financialcontrol.dto.DashboardWalletEntry;
+import com.example.financialcontrol.entity.User;
+import com.example.financialcontrol.entity.Wallet;
+import com.example.financialcontrol.repository.TransactionRepository;
+import com.example.financialcontrol.repository.WalletLastActivity;
+import com.example.financialcontrol.repository.WalletMonthlyRollupRepository;
+import com.example.financialcontrol.repository.WalletRepository;
+import com.example.financialcontrol.repository.WalletTotals;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Dashboard of a user: every wallet with its balance, the month's income and expense, its
+ * transaction count and last activity, plus totals per currency, in one response (instead of
+ * the app listing the transactions of every wallet to add them up).
+ *
+ * Three queries covering all of the user's wallets run in parallel:
+ * - the wallets (name, currency)
+ * - balance, count and month totals per wallet: one GROUP BY over the monthly rollups,
+ *   whose size depends on the number of months, not of transactions
+ * - the latest transaction date per wallet: an index lookup per wallet
+ * The number of queries doesn't grow with the number of wallets.
+ *
+ * Net worth and the month's income and expense are also reported in one base currency
+ * (ExchangeRateProvider): the per-currency totals are converted, so the cost is one rate
+ * lookup per currency, whatever the number of wallets or transactions. Balances are converted
+ * at today's rate, the month's flows at the rate of its last day. Currencies without a rate
+ * are left out of the converted figures and listed in unconvertedCurrencies.
+ *
+ * The queries run on a small bounded pool (dashboard.executor.threads), each in its own
+ * read-only database transaction: no connection is held by the request thread while it waits.
+ * When the pool and its queue are full, the request thread runs the query itself, so load
+ * spikes slow dashboards down instead of queueing without bound.
+ */
+@Service
+public class DashboardService {
+
+    private static final int QUEUE_CAPACITY = 100;
+
+    private final WalletRepository walletRepository;
+    private final WalletMonthlyRollupRepository rollupRepository;
+    private final TransactionRepository transactionRepository;
+    private final ExchangeRateProvider exchangeRateProvider;
+    private final ThreadPoolExecutor executor;
+
+    public DashboardService(WalletRepository walletRepository,
+                            WalletMonthlyRollupRepository rollupRepository,
+                            TransactionRepository transactionRepository,
+                            ExchangeRateProvider exchangeRateProvider,
+                            @Value("${dashboard.executor.threads:4}") int threads) {
+        this.walletRepository = walletRepository;
+        this.rollupRepository = rollupRepository;
+        this.transactionRepository = transactionRepository;
+        this.exchangeRateProvider = exchangeRateProvider;
+        int poolSize = Math.max(1, threads);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "dashboard-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * The dashboard of a user.
+     *
+     * @param user The authenticated user
+     * @param month Month of the income and expense figures, or null for the current month
+     * @param baseCurrency Currency of the converted totals, or null for the rates' reference currency
+     */
+    public DashboardResponse getDashboard(User user, YearMonth month, String baseCurrency) {
+        YearMonth dashboardMonth = month != null ? month : YearMonth.now();
+        ExchangeRateTable rates = exchangeRateProvider.current();
+        String base = ExchangeRateTable.normalize(baseCurrency != null ? baseCurrency : rates.getReferenceCurrency());
+        if (!rates.getCurrencies().contains(base)) {
+            throw new RuntimeException("No exchange rates for " + base);
+        }
+        Long userId = user.getId();
+        LocalDate monthStart = dashboardMonth.atDay(1);
+
+        CompletableFuture<List<Wallet>> wallets = async(() -> walletRepository.findByUserId(userId));
+        CompletableFuture<List<WalletTotals>> totals = async(() -> rollupRepository.findTotalsByUserId(userId, monthStart));
+        CompletableFuture<List<WalletLastActivity>> lastActivity = async(() -> transactionRepository.findLastActivityByUserId(userId));
+
+        Map<Long, WalletTotals> totalsByWallet = new HashMap<>();
+        for (WalletTotals walletTotals : join(totals)) {
+            totalsByWallet.put(walletTotals.getWalletId(), walletTotals);
+        }
+        Map<Long, Integer> lastDayByWallet = new HashMap<>();
+        for (WalletLastActivity activity : join(lastActivity)) {
+            if (activity.getLastDay() != null) {
+                lastDayByWallet.put(activity.getWalletId(), activity.getLastDay());
+            }
+        }
+
+        List<DashboardWalletEntry> entries = new ArrayList<>();
+        // Currency -> totals of its wallets
+        Map<String, DashboardCurrencyTotals> byCurrency = new TreeMap<>();
+        List<Wallet> userWallets = new ArrayList<>(join(wallets));
+        userWallets.sort(Comparator.comparing(Wallet::getId));
+        for (Wallet wallet : userWallets) {
+            WalletTotals walletTotals = totalsByWallet.get(wallet.getId());
+            Integer lastDay = lastDayByWallet.get(wallet.getId());
+            DashboardWalletEntry entry = new DashboardWalletEntry(wallet.getId(), wallet.getName(), wallet.getCurrency(),
+                    walletTotals != null ? walletTotals.getBalance() : BigDecimal.ZERO,
+                    walletTotals != null ? walletTotals.getMonthIncome() : BigDecimal.ZERO,
+                    walletTotals != null ? walletTotals.getMonthExpense() : BigDecimal.ZERO,
+                    walletTotals != null ? walletTotals.getTransactionCount() : 0L,
+                    lastDay != null ? LocalDate.ofEpochDay(lastDay) : null);
+            entries.add(entry);
+
+            DashboardCurrencyTotals currencyTotals = byCurrency.computeIfAbsent(ExchangeRateTable.normalize(wallet.getCurrency()),
+                    currency -> new DashboardCurrencyTotals(currency, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, 0L));
+            currencyTotals.setBalance(currencyTotals.getBalance().add(entry.getBalance()));
+            currencyTotals.setMonthIncome(currencyTotals.getMonthIncome().add(entry.getMonthIncome()));
+            currencyTotals.setMonthExpense(currencyTotals.getMonthExpense().add(entry.getMonthExpense()));
+            currencyTotals.setTransactionCount(currencyTotals.getTransactionCount() + entry.getTransactionCount());
+        }
+
+        // Conversion of the per-currency totals to the base currency
+        LocalDate today = LocalDate.now();
+        LocalDate monthEnd = dashboardMonth.atEndOfMonth().isBefore(today) ? dashboardMonth.atEndOfMonth() : today;
+        BigDecimal netWorth = BigDecimal.ZERO;
+        BigDecimal monthIncome = BigDecimal.ZERO;
+        BigDecimal monthExpense = BigDecimal.ZERO;
+        List<String> unconverted = new ArrayList<>();
+        for (DashboardCurrencyTotals currencyTotals : byCurrency.values()) {
+            String currency = currencyTotals.getCurrency();
+            BigDecimal balance = rates.convert(currencyTotals.getBalance(), currency, base, today);
+            BigDecimal income = rates.convert(currencyTotals.getMonthIncome(), currency, base, monthEnd);
+            BigDecimal expense = rates.convert(currencyTotals.getMonthExpense(), currency, base, monthEnd);
+            if (balance == null || income == null || expense == null) {
+                unconverted.add(currency);
+                continue;
+            }
+            netWorth = netWorth.add(balance);
+            monthIncome = monthIncome.add(income);
+            monthExpense = monthExpense.add(expense);
+        }
+        return new DashboardResponse(dashboardMonth.toString(), entries, new ArrayList<>(byCurrency.values()),
+                base, netWorth, monthIncome, monthExpense, unconverted);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    private <T> CompletableFuture<T> async(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(query, executor);
+    }
+
+    // Rethrows a failed query's exception in the request thread
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
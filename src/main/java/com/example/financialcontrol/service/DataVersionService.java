@@ -0,0 +1,134 @@
+package com.example.financialcontrol.service;
+
+import com.example.financialcontrol.entity.User;
+import com.example.financialcontrol.repository.UserDataVersionRepository;
+import com.example.financialcontrol.repository.WalletDataVersionRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Data versions used for conditional GETs (ETag / If-None-Match).
+ *
+ * How it works:
+ * 1. Every change to a user's data increments a version counter in the database, in the same
+ *    transaction as the change:
+ *    - categories and wallets: UserDataVersion, through bump()
+ *    - a wallet's transactions: WalletDataVersion, through WalletAnalyticsStore
+ * 2. GET endpoints turn the current version into an ETag BEFORE loading any data
+ * 3. If the client's If-None-Match matches, the endpoint answers 304 Not Modified after that
+ *    single lookup: no other query and no JSON serialization
+ *
+ * The versions live in the database, so all instances of the application agree on them and
+ * they survive restarts. The lookups are not cached for the same reason.
+ *
+ * Wallet-scoped ETags (transactions, reports) are only handed out for wallets of the
+ * authenticated user: the lookup checks ownership, so a 304 never reveals other users' wallets.
+ */
+@Component
+public class DataVersionService {
+
+    /**
+     * Per-user kinds of data with their own version counter.
+     */
+    public enum Resource {
+        CATEGORIES,
+        WALLETS
+    }
+
+    private final UserDataVersionRepository userDataVersionRepository;
+    private final WalletDataVersionRepository walletDataVersionRepository;
+
+    public DataVersionService(UserDataVersionRepository userDataVersionRepository,
+                              WalletDataVersionRepository walletDataVersionRepository) {
+        this.userDataVersionRepository = userDataVersionRepository;
+        this.walletDataVersionRepository = walletDataVersionRepository;
+    }
+
+    /**
+     * Current weak ETag for a user's resource.
+     *
+     * @param username The authenticated username
+     * @param resource The resource kind
+     * @return The ETag, e.g. W/"5"
+     */
+    @Transactional(readOnly = true)
+    public String etag(String username, Resource resource) {
+        Optional<Long> version = resource == Resource.CATEGORIES
+                ? userDataVersionRepository.findCategoriesVersionByUsername(username)
+                : userDataVersionRepository.findWalletsVersionByUsername(username);
+        return format(version.orElse(0L));
+    }
+
+    /**
+     * Current weak ETag of a wallet's transactions (and everything computed from them).
+     *
+     * @param username The authenticated username
+     * @param walletId The wallet ID
+     * @return The ETag, or empty if the wallet doesn't exist or belongs to another user
+     */
+    @Transactional(readOnly = true)
+    public Optional<String> walletEtag(String username, Long walletId) {
+        return walletDataVersionRepository.findVersionByWalletIdAndUsername(walletId, username)
+                .map(DataVersionService::format);
+    }
+
+    /**
+     * An ETag narrowed to one variant of a response, for responses that depend on more than the
+     * data version and the URL (e.g. a default date window computed from today's date).
+     *
+     * @param etag An ETag from this service
+     * @param parts The values the response depends on, e.g. the resolved date window
+     * @return The ETag with the parts appended, e.g. W/"5;2024-01;2024-12"
+     */
+    public String variant(String etag, Object... parts) {
+        StringBuilder tag = new StringBuilder(etag.substring(0, etag.length() - 1));
+        for (Object part : parts) {
+            tag.append(';').append(part);
+        }
+        return tag.append('"').toString();
+    }
+
+    /**
+     * True if the If-None-Match header matches the ETag (weak comparison, "*" matches anything).
+     */
+    public boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isEmpty()) {
+            return false;
+        }
+        String opaque = stripWeak(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || stripWeak(tag).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Increments the version of a user's resource in the current database transaction.
+     * The row stays locked until commit, so concurrent changes get increasing versions.
+     *
+     * @param user The owner of the changed data
+     * @param resource The resource kind
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void bump(User user, Resource resource) {
+        if (resource == Resource.CATEGORIES) {
+            userDataVersionRepository.incrementCategories(user.getId());
+        } else {
+            userDataVersionRepository.incrementWallets(user.getId());
+        }
+    }
+
+    private static String format(long version) {
+        return "W/\"" + version + "\"";
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.financialcontrol.service;
+
+import com.example.financialcontrol.dto.CategoryResponse;
+import com.example.financialcontrol.dto.SubcategoryResponse;
+import com.example.financialcontrol.entity.Category;
+import com.example.financialcontrol.entity.Subcategory;
+import com.example.financialcontrol.entity.TransactionType;
+import com.example.financialcontrol.repository.CategoryRepository;
+import com.example.financialcontrol.repository.SubcategoryRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory tree of the default categories and their default subcategories,
+ * shared by every user.
+ *
+ * The default categories are created once by CategoryService.initializeDefaultCategories
+ * and can't be modified through the API (users can only hide them or add their own
+ * subcategories), so they are loaded once at startup instead of on every
+ * GET /api/categories. Requests then only fetch what is specific to the user
+ * (own categories, own subcategories, hidden IDs) and merge it with this tree.
+ *
+ * IMPORTANT: The CategoryResponse / SubcategoryResponse objects in the tree are shared
+ * between all requests and must be treated as read-only. The lists are unmodifiable;
+ * when a user's view differs (hidden or extra subcategories), CategoryService builds a
+ * new CategoryResponse that references the shared SubcategoryResponse objects.
+ */
+@Component
+public class DefaultCategoryTree {
+
+    private final CategoryRepository categoryRepository;
+    private final SubcategoryRepository subcategoryRepository;
+
+    // Immutable snapshot, replaced as a whole by load()
+    private volatile Snapshot snapshot;
+
+    public DefaultCategoryTree(CategoryRepository categoryRepository, SubcategoryRepository subcategoryRepository) {
+        this.categoryRepository = categoryRepository;
+        this.subcategoryRepository = subcategoryRepository;
+    }
+
+    /**
+     * Loads (or reloads) the default tree from the database (2 queries).
+     * Called on startup by DataInitializer, after the defaults are created.
+     */
+    @Transactional(readOnly = true)
+    public synchronized void load() {
+        // Default subcategories grouped by category, in creation order
+        Map<Long, List<SubcategoryResponse>> subcategoriesByCategory = new HashMap<>();
+        for (Subcategory subcategory : subcategoryRepository.findAllDefaultWithCategory()) {
+            subcategoriesByCategory
+                    .computeIfAbsent(subcategory.getCategory().getId(), id -> new ArrayList<>())
+                    .add(SubcategoryResponse.fromEntity(subcategory));
+        }
+
+        List<CategoryResponse> all = new ArrayList<>();
+        Map<TransactionType, List<CategoryResponse>> byType = new EnumMap<>(TransactionType.class);
+        for (TransactionType type : TransactionType.values()) {
+            byType.put(type, new ArrayList<>());
+        }
+
+        for (Category category : categoryRepository.findByIsDefaultTrueOrderByIdAsc()) {
+            CategoryResponse response = CategoryResponse.fromEntity(category);
+            List<SubcategoryResponse> subcategories = subcategoriesByCategory.get(category.getId());
+            if (subcategories != null) {
+                response.setSubcategories(Collections.unmodifiableList(subcategories));
+            }
+            all.add(response);
+            byType.get(category.getType()).add(response);
+        }
+
+        for (TransactionType type : TransactionType.values()) {
+            byType.put(type, Collections.unmodifiableList(byType.get(type)));
+        }
+        this.snapshot = new Snapshot(Collections.unmodifiableList(all), byType);
+    }
+
+    /**
+     * All default categories (with their default subcategories), in creation order.
+     */
+    public List<CategoryResponse> getCategories() {
+        return current().all;
+    }
+
+    /**
+     * Default categories of one type, in creation order.
+     */
+    public List<CategoryResponse> getCategories(TransactionType type) {
+        return current().byType.get(type);
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            // A request arrived before startup finished loading the tree
+            load();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    private static final class Snapshot {
+        final List<CategoryResponse> all;
+        final Map<TransactionType, List<CategoryResponse>> byType;
+
+        Snapshot(List<CategoryResponse> all, Map<TransactionType, List<CategoryResponse>> byType) {
+            this.all = all;
+            this.byType = byType;
+        }
+    }
+}
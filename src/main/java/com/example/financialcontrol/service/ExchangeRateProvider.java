@@ -0,0 +1,132 @@
+package com.example.financialcontrol.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Loads the exchange rate history from a local CSV file and reloads it when it changes.
+ *
+ * File ({@code exchange-rates.location}, by default src/main/resources/exchange-rates.csv):
+ * one "date,currency,rate" line per published rate, meaning 1 unit of the reference currency
+ * ({@code exchange-rates.reference-currency}, EUR by default) = rate units of the currency
+ * on that date. Blank lines, lines starting with '#' and a "date,..." header are ignored.
+ * The ECB's historical reference rates can be converted to this format as is.
+ *
+ * Reload strategy (copy-on-write, as for the keyword dictionaries):
+ * 1. A scheduled task checks the file's last-modified time
+ * 2. If it changed, the file is parsed into a brand new {@link ExchangeRateTable}
+ * 3. The new table replaces the old one with a single volatile write
+ * Readers call {@link #current()} once per request, without locks. If a reload fails
+ * (missing or malformed file), the previous table stays active.
+ */
+@Component
+public class ExchangeRateProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExchangeRateProvider.class);
+
+    private final Resource resource;
+    private final String referenceCurrency;
+
+    // The currently published table (replaced atomically on reload)
+    private volatile ExchangeRateTable current;
+
+    // Last-modified timestamp of the file the current table was built from
+    private long lastModified;
+
+    public ExchangeRateProvider(
+            ResourceLoader resourceLoader,
+            @Value("${exchange-rates.location:classpath:exchange-rates.csv}") String location,
+            @Value("${exchange-rates.reference-currency:EUR}") String referenceCurrency) {
+        this.resource = resourceLoader.getResource(location);
+        this.referenceCurrency = ExchangeRateTable.normalize(referenceCurrency);
+        this.current = load();
+    }
+
+    /**
+     * Returns the current rate table. Lock-free; callers should read it once per request.
+     */
+    public ExchangeRateTable current() {
+        return current;
+    }
+
+    /**
+     * Checks whether the rates file changed and, if so, rebuilds and publishes a new table.
+     * Runs periodically; the interval is configured with {@code exchange-rates.reload-interval-ms}.
+     */
+    @Scheduled(fixedDelayString = "${exchange-rates.reload-interval-ms:60000}")
+    public synchronized void reloadIfChanged() {
+        if (lastModified(resource) == lastModified) {
+            return;
+        }
+        try {
+            current = load();
+        } catch (RuntimeException e) {
+            logger.warn("Exchange rate reload failed, keeping the previous rates: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Parses the file and builds a new immutable table.
+     */
+    private ExchangeRateTable load() {
+        long modified = lastModified(resource);
+        ExchangeRateTable.Builder builder = new ExchangeRateTable.Builder(referenceCurrency);
+        int count = 0;
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#") || trimmed.regionMatches(true, 0, "date,", 0, 5)) {
+                    continue;
+                }
+
+                String[] fields = trimmed.split(",");
+                try {
+                    if (fields.length != 3 || fields[1].isBlank()) {
+                        throw new IllegalArgumentException("expected date,currency,rate");
+                    }
+                    builder.add(fields[1], LocalDate.parse(fields[0].trim()), new BigDecimal(fields[2].trim()));
+                    count++;
+                } catch (IllegalArgumentException | DateTimeParseException e) {
+                    throw new IllegalArgumentException(
+                            "Invalid line " + lineNumber + " in " + resource.getDescription() + ": " + line);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading exchange rates " + resource.getDescription() + ": " + e.getMessage());
+        }
+
+        this.lastModified = modified;
+        ExchangeRateTable table = builder.build();
+        logger.info("Loaded {} exchange rates for {} currencies (reference {})",
+                count, table.getCurrencies().size() - 1, referenceCurrency);
+        return table;
+    }
+
+    private long lastModified(Resource resource) {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            // Resource type without a modification time (or missing file)
+            return -1L;
+        }
+    }
+}
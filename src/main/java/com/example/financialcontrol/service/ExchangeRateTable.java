@@ -0,0 +1,165 @@
+package com.example.financialcontrol.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of the exchange rate history, built by {@link ExchangeRateProvider}.
+ *
+ * Every rate is quoted against one reference currency (1 reference = rate units of the
+ * currency, as in the ECB reference rates); converting between two other currencies goes
+ * through it. Each currency's history is kept as two parallel arrays sorted by day, and the
+ * rate of a day is found by binary search: the latest rate published on or before that day
+ * (so weekends and holidays use the previous business day).
+ */
+public final class ExchangeRateTable {
+
+    private final String referenceCurrency;
+    private final Map<String, History> histories;
+
+    private ExchangeRateTable(String referenceCurrency, Map<String, History> histories) {
+        this.referenceCurrency = referenceCurrency;
+        this.histories = histories;
+    }
+
+    /**
+     * Normalized form of a currency code ("eur " → "EUR").
+     */
+    public static String normalize(String currency) {
+        return currency.trim().toUpperCase(Locale.ROOT);
+    }
+
+    public String getReferenceCurrency() {
+        return referenceCurrency;
+    }
+
+    /**
+     * Currencies with at least one rate, the reference currency included.
+     */
+    public Set<String> getCurrencies() {
+        return histories.keySet();
+    }
+
+    /**
+     * An amount converted to another currency at the rate of a day, rounded to cents,
+     * or null if there is no rate for that day.
+     */
+    public BigDecimal convert(BigDecimal amount, String from, String to, LocalDate day) {
+        String fromCurrency = normalize(from);
+        String toCurrency = normalize(to);
+        if (fromCurrency.equals(toCurrency)) {
+            return amount;
+        }
+        BigDecimal fromRate = referenceRate(fromCurrency, day);
+        BigDecimal toRate = referenceRate(toCurrency, day);
+        if (fromRate == null || toRate == null) {
+            return null;
+        }
+        return amount.multiply(toRate).divide(fromRate, 2, RoundingMode.HALF_EVEN);
+    }
+
+    private BigDecimal referenceRate(String currency, LocalDate day) {
+        if (currency.equals(referenceCurrency)) {
+            return BigDecimal.ONE;
+        }
+        History history = histories.get(currency);
+        return history != null ? history.rateOn(day.toEpochDay()) : null;
+    }
+
+    /**
+     * Rates of one currency, sorted by day.
+     */
+    private static final class History {
+        private final long[] epochDays;
+        private final BigDecimal[] rates;
+
+        History(long[] epochDays, BigDecimal[] rates) {
+            this.epochDays = epochDays;
+            this.rates = rates;
+        }
+
+        // Latest rate on or before the day
+        BigDecimal rateOn(long epochDay) {
+            int index = Arrays.binarySearch(epochDays, epochDay);
+            if (index < 0) {
+                // -(insertion point) - 1: the rate before the insertion point, if any
+                index = -index - 2;
+                if (index < 0) {
+                    return null;
+                }
+            }
+            return rates[index];
+        }
+    }
+
+    /**
+     * Collects rates in any order and builds the table.
+     */
+    public static final class Builder {
+        private final String referenceCurrency;
+        // Currency -> its rates in file order
+        private final Map<String, List<DayRate>> rates = new HashMap<>();
+
+        public Builder(String referenceCurrency) {
+            this.referenceCurrency = normalize(referenceCurrency);
+        }
+
+        /**
+         * Adds the rate of a currency on a day (1 reference = rate units of the currency).
+         * A later rate for the same currency and day replaces the earlier one.
+         */
+        public Builder add(String currency, LocalDate day, BigDecimal rate) {
+            if (rate.signum() <= 0) {
+                throw new IllegalArgumentException("Exchange rate must be positive: " + currency + " " + day + " " + rate);
+            }
+            String code = normalize(currency);
+            if (!code.equals(referenceCurrency)) {
+                rates.computeIfAbsent(code, key -> new ArrayList<>()).add(new DayRate(day.toEpochDay(), rate));
+            }
+            return this;
+        }
+
+        public ExchangeRateTable build() {
+            Map<String, History> histories = new HashMap<>();
+            rates.forEach((currency, entries) -> {
+                // Stable sort: for equal days the last one in file order ends up last and wins
+                List<DayRate> sorted = new ArrayList<>(entries);
+                sorted.sort(Comparator.comparingLong(entry -> entry.epochDay));
+                long[] epochDays = new long[sorted.size()];
+                BigDecimal[] values = new BigDecimal[sorted.size()];
+                int size = 0;
+                for (DayRate entry : sorted) {
+                    if (size > 0 && epochDays[size - 1] == entry.epochDay) {
+                        size--;
+                    }
+                    epochDays[size] = entry.epochDay;
+                    values[size] = entry.rate;
+                    size++;
+                }
+                histories.put(currency, new History(Arrays.copyOf(epochDays, size), Arrays.copyOf(values, size)));
+            });
+            histories.put(referenceCurrency, new History(new long[] {Long.MIN_VALUE}, new BigDecimal[] {BigDecimal.ONE}));
+            return new ExchangeRateTable(referenceCurrency, Collections.unmodifiableMap(histories));
+        }
+
+        private static final class DayRate {
+            final long epochDay;
+            final BigDecimal rate;
+
+            DayRate(long epochDay, BigDecimal rate) {
+                this.epochDay = epochDay;
+                this.rate = rate;
+            }
+        }
+    }
+}
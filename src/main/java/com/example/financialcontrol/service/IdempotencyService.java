@@ -0,0 +1,247 @@
+package com.example.financialcontrol.service;
+
+import com.example.financialcontrol.dto.ApiResponse;
+import com.example.financialcontrol.entity.IdempotencyRecord;
+import com.example.financialcontrol.entity.User;
+import com.example.financialcontrol.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key support for endpoints that create data, so a client retrying a request
+ * (e.g. after a timeout on a flaky network) doesn't create the same transaction twice.
+ *
+ * How a request with an Idempotency-Key header is handled:
+ * 1. Keys are scoped per user. A response already stored for the key is replayed as is
+ *    (same status and body, plus an Idempotent-Replayed header) without running the request
+ * 2. Duplicates arriving on this instance while the first one is still running wait for it
+ *    (up to idempotency.wait-ms, then 409 Conflict) and replay its response
+ * 3. Otherwise the key is claimed with a row in idempotency_keys inserted in the SAME database
+ *    transaction as the request's own changes, and the response is written to that row before
+ *    it commits. A duplicate running on another instance blocks on the key's unique index until
+ *    then, and replays the committed response. A failed request rolls back its row with
+ *    everything else, so retrying it runs it again
+ *
+ * Reusing a key for a different request (other endpoint or body) is rejected with 422.
+ *
+ * Stored responses expire after idempotency.ttl-hours (expired rows are deleted hourly).
+ * Recent ones are also kept in a bounded in-memory cache (idempotency.cache.max-size entries),
+ * so most retries are answered without a database query.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository recordRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final long waitMillis;
+
+    // "userId:key" -> stored response
+    private final Cache<String, StoredResponse> responses;
+    // "userId:key" -> completes with the stored response (or null if none) when the request ends
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRecordRepository recordRepository,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${idempotency.cache.max-size:10000}") long cacheMaxSize,
+                              @Value("${idempotency.wait-ms:30000}") long waitMillis) {
+        this.recordRepository = recordRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = Duration.ofHours(Math.max(1, ttlHours));
+        this.waitMillis = waitMillis;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(this.ttl)
+                .build();
+    }
+
+    /**
+     * Runs a request at most once per Idempotency-Key.
+     *
+     * @param idempotencyKey The Idempotency-Key header, or null to just run the request
+     * @param user The authenticated user (keys are scoped per user)
+     * @param endpoint Method and path of the request, e.g. "POST /api/wallets/1/transactions"
+     * @param request The request body
+     * @param action Runs the request; exceptions propagate after the key is released
+     * @return The request's response, or the stored response of an earlier run with the same key
+     */
+    public ResponseEntity<?> execute(String idempotencyKey, User user, String endpoint, Object request,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        String key = idempotencyKey.trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            throw new RuntimeException(HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = requestHash(endpoint, request);
+        String cacheKey = user.getId() + ":" + key;
+
+        while (true) {
+            StoredResponse cached = responses.getIfPresent(cacheKey);
+            if (cached != null) {
+                return replay(cached, requestHash);
+            }
+            CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(cacheKey, mine);
+            if (running == null) {
+                return run(user.getId(), key, requestHash, cacheKey, mine, action);
+            }
+            StoredResponse first;
+            try {
+                first = running.get(waitMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(ApiResponse.error("A request with this " + HEADER + " is still in progress"));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for a request with the same " + HEADER);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e);
+            }
+            if (first != null) {
+                return replay(first, requestHash);
+            }
+            // The first request failed, so nothing was stored: run this one
+        }
+    }
+
+    /**
+     * Deletes expired keys.
+     */
+    @Scheduled(cron = "${idempotency.cleanup-cron:0 15 * * * *}")
+    @Transactional
+    public void deleteExpiredKeys() {
+        int deleted = recordRepository.deleteAllExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            logger.info("Deleted {} expired idempotency keys", deleted);
+        }
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    private ResponseEntity<?> run(Long userId, String key, String requestHash, String cacheKey,
+                                 CompletableFuture<StoredResponse> mine, Supplier<ResponseEntity<?>> action) {
+        StoredResponse[] stored = new StoredResponse[1];
+        try {
+            ResponseEntity<?> response = transactionTemplate.execute(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                recordRepository.deleteExpired(userId, key, now);
+                if (recordRepository.claim(userId, key, requestHash, now, now.plus(ttl)) == 0) {
+                    // Already done (possibly by another instance, which the claim waited for)
+                    IdempotencyRecord record = recordRepository.findByUserIdAndIdempotencyKey(userId, key)
+                            .filter(r -> r.getStatusCode() != null)
+                            .orElseThrow(() -> new RuntimeException("A request with this " + HEADER + " is still in progress"));
+                    stored[0] = new StoredResponse(record.getRequestHash(), record.getStatusCode(), record.getResponseBody());
+                    return replay(stored[0], requestHash);
+                }
+                ResponseEntity<?> result = action.get();
+                if (!result.getStatusCode().is2xxSuccessful()) {
+                    // Not stored: the key's row is rolled back, so a retry runs again
+                    status.setRollbackOnly();
+                    return result;
+                }
+                String body = toJson(result.getBody());
+                recordRepository.complete(userId, key, result.getStatusCode().value(), body);
+                stored[0] = new StoredResponse(requestHash, result.getStatusCode().value(), body);
+                return result;
+            });
+            // Committed: later duplicates are answered from memory
+            if (stored[0] != null) {
+                responses.put(cacheKey, stored[0]);
+                mine.complete(stored[0]);
+            }
+            return response;
+        } finally {
+            inFlight.remove(cacheKey, mine);
+            // No-op if already completed; waiters then run their own request
+            mine.complete(null);
+        }
+    }
+
+    private static ResponseEntity<?> replay(StoredResponse stored, String requestHash) {
+        if (!stored.requestHash.equals(requestHash)) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .body(ApiResponse.error(HEADER + " was already used for a different request"));
+        }
+        return ResponseEntity.status(stored.statusCode)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(REPLAYED_HEADER, "true")
+                .body(stored.body);
+    }
+
+    private String requestHash(String endpoint, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(endpoint.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Could not hash request", e);
+        }
+    }
+
+    private String toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize response", e);
+        }
+    }
+
+    /**
+     * A stored response and the hash of the request that produced it.
+     */
+    private static final class StoredResponse {
+        private final String requestHash;
+        private final int statusCode;
+        private final String body;
+
+        StoredResponse(String requestHash, int statusCode, String body) {
+            this.requestHash = requestHash;
+            this.statusCode = statusCode;
+            this.body = body;
+        }
+    }
+}
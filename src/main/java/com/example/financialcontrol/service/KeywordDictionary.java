@@ -0,0 +1,43 @@
+package com.example.financialcontrol.service;
+
+/**
+ * Immutable snapshot of the keyword dictionaries used by voice classification.
+ *
+ * A new snapshot is built every time the dictionary files change and is then
+ * published atomically by {@link KeywordDictionaryProvider}. A classification reads
+ * the current snapshot once and uses it for the whole request, so a reload in the
+ * middle of a request never mixes two versions.
+ */
+public final class KeywordDictionary {
+
+    private final long version;
+    private final KeywordMatcher categoryMatcher;
+    private final KeywordMatcher subcategoryMatcher;
+
+    public KeywordDictionary(long version, KeywordMatcher categoryMatcher, KeywordMatcher subcategoryMatcher) {
+        this.version = version;
+        this.categoryMatcher = categoryMatcher;
+        this.subcategoryMatcher = subcategoryMatcher;
+    }
+
+    /**
+     * Monotonic version number, incremented on every successful reload.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Matcher for keyword → category name (e.g. "supermercado" → "Food & Dining").
+     */
+    public KeywordMatcher getCategoryMatcher() {
+        return categoryMatcher;
+    }
+
+    /**
+     * Matcher for keyword → subcategory name (e.g. "supermercado" → "Groceries").
+     */
+    public KeywordMatcher getSubcategoryMatcher() {
+        return subcategoryMatcher;
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.financialcontrol.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Loads the voice classification keyword dictionaries from external files and
+ * reloads them when they change.
+ *
+ * Files (in the directory given by {@code voice.keywords.location}):
+ * - categories.txt    → keyword = category name
+ * - subcategories.txt → keyword = subcategory name
+ *
+ * By default they are read from the classpath (src/main/resources/keywords). Point
+ * {@code voice.keywords.location} at a directory (e.g. {@code file:/etc/financial-control/keywords/})
+ * to add merchants without redeploying.
+ *
+ * Reload strategy (copy-on-write):
+ * 1. A scheduled task checks the files' last-modified time
+ * 2. If a file changed, both files are parsed into a brand new {@link KeywordDictionary}
+ * 3. The new snapshot replaces the old one with a single volatile write
+ *
+ * Readers just call {@link #current()}; there are no locks on the read path and
+ * in-flight classifications keep using the snapshot they already have.
+ * If a reload fails (missing or malformed file), the previous snapshot stays active.
+ */
+@Component
+public class KeywordDictionaryProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(KeywordDictionaryProvider.class);
+
+    private static final String CATEGORIES_FILE = "categories.txt";
+    private static final String SUBCATEGORIES_FILE = "subcategories.txt";
+
+    private final Resource categoriesResource;
+    private final Resource subcategoriesResource;
+
+    // The currently published snapshot (replaced atomically on reload)
+    private volatile KeywordDictionary current;
+
+    // Last-modified timestamps of the files the current snapshot was built from
+    private long categoriesLastModified;
+    private long subcategoriesLastModified;
+
+    public KeywordDictionaryProvider(
+            ResourceLoader resourceLoader,
+            @Value("${voice.keywords.location:classpath:keywords/}") String location) {
+        String base = location.endsWith("/") ? location : location + "/";
+        this.categoriesResource = resourceLoader.getResource(base + CATEGORIES_FILE);
+        this.subcategoriesResource = resourceLoader.getResource(base + SUBCATEGORIES_FILE);
+        this.current = load(1);
+    }
+
+    /**
+     * Returns the current dictionary snapshot. Lock-free; callers should read it once
+     * per request and use that snapshot for the whole request.
+     */
+    public KeywordDictionary current() {
+        return current;
+    }
+
+    /**
+     * Checks whether the dictionary files changed and, if so, rebuilds and publishes a new snapshot.
+     * Runs periodically; the interval is configured with {@code voice.keywords.reload-interval-ms}.
+     */
+    @Scheduled(fixedDelayString = "${voice.keywords.reload-interval-ms:30000}")
+    public synchronized void reloadIfChanged() {
+        if (lastModified(categoriesResource) == categoriesLastModified
+                && lastModified(subcategoriesResource) == subcategoriesLastModified) {
+            return;
+        }
+
+        try {
+            current = load(current.getVersion() + 1);
+        } catch (RuntimeException e) {
+            logger.warn("Keyword dictionary reload failed, keeping version {}: {}", current.getVersion(), e.getMessage());
+        }
+    }
+
+    /**
+     * Parses both files and builds a new immutable snapshot.
+     */
+    private KeywordDictionary load(long version) {
+        long categoriesModified = lastModified(categoriesResource);
+        long subcategoriesModified = lastModified(subcategoriesResource);
+
+        KeywordMatcher categoryMatcher = new KeywordMatcher(readDictionary(categoriesResource));
+        KeywordMatcher subcategoryMatcher = new KeywordMatcher(readDictionary(subcategoriesResource));
+
+        this.categoriesLastModified = categoriesModified;
+        this.subcategoriesLastModified = subcategoriesModified;
+
+        logger.info("Loaded keyword dictionary version {} ({} category keywords, {} subcategory keywords)",
+                version, categoryMatcher.size(), subcategoryMatcher.size());
+        return new KeywordDictionary(version, categoryMatcher, subcategoryMatcher);
+    }
+
+    /**
+     * Reads a "keyword = name" file. Blank lines and lines starting with '#' are ignored.
+     * Keywords are accent-folded and lowercased by {@link KeywordMatcher}; the first mapping for a keyword wins.
+     */
+    private Map<String, String> readDictionary(Resource resource) {
+        Map<String, String> entries = new LinkedHashMap<>();
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                    continue;
+                }
+
+                int separator = trimmed.indexOf('=');
+                if (separator <= 0 || separator == trimmed.length() - 1) {
+                    throw new IllegalArgumentException(
+                            "Invalid line " + lineNumber + " in " + resource.getDescription() + ": " + line);
+                }
+
+                String keyword = trimmed.substring(0, separator).trim();
+                String name = trimmed.substring(separator + 1).trim();
+                entries.putIfAbsent(keyword, name);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading keyword dictionary " + resource.getDescription() + ": " + e.getMessage());
+        }
+
+        return entries;
+    }
+
+    private long lastModified(Resource resource) {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            // Resource type without a modification time (or missing file)
+            return -1L;
+        }
+    }
+}
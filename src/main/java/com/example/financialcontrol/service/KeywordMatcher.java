@@ -0,0 +1,282 @@
+package com.example.financialcontrol.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable keyword → name matcher compiled from a keyword dictionary.
+ *
+ * Keywords may be single words ("uber") or phrases ("uber eats"). Matching is done
+ * on whole words: the text is split into words once, and at every word position the
+ * longest phrase starting there is looked up in a hash map. This replaces the old
+ * "loop over every map entry and call text.contains(key)" approach, which also
+ * matched keywords inside other words (e.g. "gas" inside "gastei").
+ *
+ * Keywords are stored accent-folded (see {@link TextNormalizer}), so the input must be
+ * normalized the same way: "farmacia", "farmácia" and "FARMÁCIA" all match.
+ *
+ * Typo tolerance:
+ * If no keyword matches exactly, each input word is looked up in a trigram index over
+ * the single-word keywords. Candidates sharing enough trigrams are verified with a
+ * bounded Levenshtein distance (1 edit for 5-7 letters, 2 edits for 8+ letters), so
+ * "supermecado" still finds "supermercado". Only the keywords in the word's trigram postings
+ * are counted and only a handful of them are verified per word, so the cost of a lookup
+ * doesn't grow with the size of the dictionary (well under a millisecond with thousands of keywords).
+ *
+ * When several keywords are present, the one that starts earliest in the text wins;
+ * at the same position the longer phrase wins. Exact matches always win over fuzzy ones.
+ *
+ * Instances are never modified after construction, so they can be shared freely
+ * between threads.
+ */
+public final class KeywordMatcher {
+
+    // Words shorter than this are never fuzzy-matched (too many false positives)
+    private static final int MIN_FUZZY_LENGTH = 5;
+
+    // Words at least this long may be 2 edits away from a keyword; shorter ones only 1
+    private static final int TWO_EDITS_LENGTH = 8;
+
+    // Common words in dictated transactions that must never be "corrected" into a keyword
+    // (e.g. "comprei" is 2 edits from "compras", "hoje" is 1 edit from "home").
+    private static final Set<String> NON_FUZZY_WORDS = Set.of(
+        "gastei", "paguei", "comprei", "recebi", "ganhei", "recebido", "gasto", "compra",
+        "spent", "paid", "bought", "received", "earned", "purchase", "expense",
+        "hoje", "ontem", "anteontem", "semana", "semanas", "passada", "passado", "meses",
+        "today", "yesterday", "before", "weeks", "months",
+        "euro", "euros", "reais", "dolar", "dolares", "dollar", "dollars"
+    );
+
+    private final Map<String, String> keywordToName;
+    private final int maxPhraseWords;
+
+    // Fuzzy index: single-word keywords and trigram → keyword ids (positions in fuzzyKeywords)
+    private final String[] fuzzyKeywords;
+    private final Map<String, int[]> trigramIndex;
+
+    /**
+     * @param keywordToName keyword → name (keywords are normalized here)
+     */
+    public KeywordMatcher(Map<String, String> keywordToName) {
+        Map<String, String> exact = new HashMap<>();
+        int maxWords = 1;
+        for (Map.Entry<String, String> entry : keywordToName.entrySet()) {
+            String[] words = splitWords(TextNormalizer.normalize(entry.getKey()));
+            if (words.length == 0) {
+                continue;
+            }
+            // "café" and "cafe" fold to the same key; the first mapping wins
+            exact.putIfAbsent(String.join(" ", words), entry.getValue());
+            maxWords = Math.max(maxWords, words.length);
+        }
+        this.keywordToName = Collections.unmodifiableMap(exact);
+        this.maxPhraseWords = maxWords;
+
+        // Build the trigram index over single-word keywords long enough to be fuzzy-matched
+        List<String> fuzzy = new ArrayList<>();
+        Map<String, List<Integer>> postings = new HashMap<>();
+        for (String keyword : exact.keySet()) {
+            if (keyword.indexOf(' ') >= 0 || keyword.length() < MIN_FUZZY_LENGTH - 1) {
+                continue;
+            }
+            int id = fuzzy.size();
+            fuzzy.add(keyword);
+            for (String trigram : trigrams(keyword)) {
+                List<Integer> ids = postings.computeIfAbsent(trigram, t -> new ArrayList<>());
+                // A keyword can contain the same trigram twice; index it once
+                if (ids.isEmpty() || ids.get(ids.size() - 1) != id) {
+                    ids.add(id);
+                }
+            }
+        }
+        Map<String, int[]> index = new HashMap<>();
+        for (Map.Entry<String, List<Integer>> entry : postings.entrySet()) {
+            index.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+        this.fuzzyKeywords = fuzzy.toArray(new String[0]);
+        this.trigramIndex = Collections.unmodifiableMap(index);
+    }
+
+    /**
+     * Finds the name mapped to the first keyword present in the text.
+     *
+     * @param text The input text, already normalized with {@link TextNormalizer}
+     * @return The mapped name, or null if no keyword is present
+     */
+    public String match(String text) {
+        return match(splitWords(text));
+    }
+
+    /**
+     * Same as {@link #match(String)} for text that was already split into words.
+     */
+    public String match(String[] words) {
+        String exact = matchExact(words);
+        return exact != null ? exact : matchFuzzy(words);
+    }
+
+    /**
+     * Exact (accent-insensitive) whole-word lookup; longest phrase at the earliest position wins.
+     */
+    String matchExact(String[] words) {
+        for (int i = 0; i < words.length; i++) {
+            int longest = Math.min(maxPhraseWords, words.length - i);
+            for (int n = longest; n >= 1; n--) {
+                String phrase = n == 1 ? words[i] : String.join(" ", Arrays.copyOfRange(words, i, i + n));
+                String name = keywordToName.get(phrase);
+                if (name != null) {
+                    return name;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Typo-tolerant lookup of each word through the trigram index.
+     * The first word with a close enough keyword wins; ties go to the smallest edit distance.
+     */
+    String matchFuzzy(String[] words) {
+        for (String word : words) {
+            if (word.length() < MIN_FUZZY_LENGTH || NON_FUZZY_WORDS.contains(word) || containsDigit(word)) {
+                continue;
+            }
+
+            int maxDistance = word.length() >= TWO_EDITS_LENGTH ? 2 : 1;
+            List<String> wordTrigrams = trigrams(word);
+
+            // Count shared trigrams per candidate keyword, touching only the keywords in the word's postings
+            Map<Integer, Integer> shared = new HashMap<>();
+            for (String trigram : wordTrigrams) {
+                int[] ids = trigramIndex.get(trigram);
+                if (ids != null) {
+                    for (int id : ids) {
+                        shared.merge(id, 1, Integer::sum);
+                    }
+                }
+            }
+
+            // Each edit destroys at most 3 trigrams, so fewer shared trigrams can't be within maxDistance
+            int minShared = Math.max(1, wordTrigrams.size() - 3 * maxDistance);
+
+            int bestId = -1;
+            int bestDistance = maxDistance + 1;
+            for (Map.Entry<Integer, Integer> entry : shared.entrySet()) {
+                int id = entry.getKey();
+                if (entry.getValue() < minShared) {
+                    continue;
+                }
+                String candidate = fuzzyKeywords[id];
+                if (Math.abs(candidate.length() - word.length()) > maxDistance) {
+                    continue;
+                }
+                int distance = boundedLevenshtein(word, candidate, maxDistance);
+                // Equal distances go to the lowest id, so the result doesn't depend on the map's order
+                if (distance < bestDistance || (distance == bestDistance && id < bestId)) {
+                    bestId = id;
+                    bestDistance = distance;
+                }
+            }
+
+            if (bestId >= 0) {
+                return keywordToName.get(fuzzyKeywords[bestId]);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Number of keywords in this matcher.
+     */
+    public int size() {
+        return keywordToName.size();
+    }
+
+    /**
+     * Splits text into words. Letters, digits, apostrophes and hyphens are word characters,
+     * so "mcdonald's" and "mais-valias" stay single words.
+     */
+    public static String[] splitWords(String text) {
+        List<String> words = new ArrayList<>();
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && !isWordChar(text.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && isWordChar(text.charAt(i))) {
+                i++;
+            }
+            if (i > start) {
+                words.add(text.substring(start, i));
+            }
+        }
+        return words.toArray(new String[0]);
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '\'' || c == '-';
+    }
+
+    private static boolean containsDigit(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (Character.isDigit(word.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Trigrams of the word padded with boundary markers ("cafe" → " ca", "caf", "afe", "fe ").
+     */
+    private static List<String> trigrams(String word) {
+        String padded = " " + word + " ";
+        List<String> result = new ArrayList<>(padded.length() - 2);
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            result.add(padded.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    /**
+     * Levenshtein distance between a and b, giving up as soon as it must exceed maxDistance.
+     *
+     * @return the distance, or maxDistance + 1 if it is larger than maxDistance
+     */
+    private static int boundedLevenshtein(String a, String b, int maxDistance) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxDistance) {
+                return maxDistance + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+
+        return Math.min(previous[b.length()], maxDistance + 1);
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.financialcontrol.service;
+
+import com.example.financialcontrol.entity.TransactionType;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Type, category and subcategory rules of the legacy one-step /api/voice/parse flow.
+ *
+ * /api/voice/parse has always saved fixed category names ("Food", "Transport", "Bills"...)
+ * whatever categories the user has, while /api/voice/classify suggests the user's own
+ * categories from the keyword dictionaries. Clients rely on the legacy names, so they are
+ * kept here, unchanged, and used only by {@link ClassificationEngine#classifyLegacyText}.
+ *
+ * The rules work on the lowercased text, without accent folding, exactly as before.
+ */
+final class LegacyParseRules {
+
+    // The keywords of RuleBasedTransactionParser, except that the legacy flow never counted
+    // the unaccented "salario" as income
+    private static final String[] DEBIT_KEYWORDS = RuleBasedTransactionParser.DEBIT_KEYWORDS;
+
+    private static final String[] CREDIT_KEYWORDS = Arrays.stream(RuleBasedTransactionParser.CREDIT_KEYWORDS)
+            .filter(keyword -> !keyword.equals("salario"))
+            .toArray(String[]::new);
+
+    // Category keywords mapping - maps keywords to category names. When several keywords are
+    // in the text, the first one in this order wins ("uber ... lunch" is Food). The order is the
+    // one the former HashMap of these keywords iterated in, written out so the results don't
+    // depend on HashMap internals: don't reorder.
+    private static final Map<String, String> CATEGORY_KEYWORDS = new LinkedHashMap<>();
+
+    static {
+        CATEGORY_KEYWORDS.put("bus", "Transport");
+        CATEGORY_KEYWORDS.put("lunch", "Food");
+        CATEGORY_KEYWORDS.put("telefone", "Bills");
+        CATEGORY_KEYWORDS.put("movie", "Entertainment");
+        CATEGORY_KEYWORDS.put("fuel", "Transport");
+        CATEGORY_KEYWORDS.put("salary", "Income");
+        CATEGORY_KEYWORDS.put("café", "Food");
+        CATEGORY_KEYWORDS.put("luz", "Bills");
+        CATEGORY_KEYWORDS.put("farmácia", "Health");
+        CATEGORY_KEYWORDS.put("mercado", "Food");
+        CATEGORY_KEYWORDS.put("payment", "Income");
+        CATEGORY_KEYWORDS.put("cinema", "Entertainment");
+        CATEGORY_KEYWORDS.put("almoço", "Food");
+        CATEGORY_KEYWORDS.put("shopping", "Shopping");
+        CATEGORY_KEYWORDS.put("restaurante", "Food");
+        CATEGORY_KEYWORDS.put("taxi", "Transport");
+        CATEGORY_KEYWORDS.put("bill", "Bills");
+        CATEGORY_KEYWORDS.put("water", "Bills");
+        CATEGORY_KEYWORDS.put("renda", "Income");
+        CATEGORY_KEYWORDS.put("filme", "Entertainment");
+        CATEGORY_KEYWORDS.put("cafe", "Food");
+        CATEGORY_KEYWORDS.put("roupa", "Shopping");
+        CATEGORY_KEYWORDS.put("phone", "Bills");
+        CATEGORY_KEYWORDS.put("metro", "Transport");
+        CATEGORY_KEYWORDS.put("pharmacy", "Health");
+        CATEGORY_KEYWORDS.put("salário", "Income");
+        CATEGORY_KEYWORDS.put("comida", "Food");
+        CATEGORY_KEYWORDS.put("pagamento", "Income");
+        CATEGORY_KEYWORDS.put("groceries", "Food");
+        CATEGORY_KEYWORDS.put("internet", "Bills");
+        CATEGORY_KEYWORDS.put("income", "Income");
+        CATEGORY_KEYWORDS.put("jantar", "Food");
+        CATEGORY_KEYWORDS.put("gasolina", "Transport");
+        CATEGORY_KEYWORDS.put("transporte", "Transport");
+        CATEGORY_KEYWORDS.put("loja", "Shopping");
+        CATEGORY_KEYWORDS.put("conta", "Bills");
+        CATEGORY_KEYWORDS.put("netflix", "Entertainment");
+        CATEGORY_KEYWORDS.put("uber", "Transport");
+        CATEGORY_KEYWORDS.put("médico", "Health");
+        CATEGORY_KEYWORDS.put("supermarket", "Food");
+        CATEGORY_KEYWORDS.put("água", "Bills");
+        CATEGORY_KEYWORDS.put("gas", "Transport");
+        CATEGORY_KEYWORDS.put("hospital", "Health");
+        CATEGORY_KEYWORDS.put("combustível", "Transport");
+        CATEGORY_KEYWORDS.put("supermercado", "Food");
+        CATEGORY_KEYWORDS.put("restaurant", "Food");
+        CATEGORY_KEYWORDS.put("spotify", "Entertainment");
+        CATEGORY_KEYWORDS.put("saúde", "Health");
+        CATEGORY_KEYWORDS.put("health", "Health");
+        CATEGORY_KEYWORDS.put("electricity", "Bills");
+        CATEGORY_KEYWORDS.put("transport", "Transport");
+        CATEGORY_KEYWORDS.put("store", "Shopping");
+        CATEGORY_KEYWORDS.put("ônibus", "Transport");
+        CATEGORY_KEYWORDS.put("dinner", "Food");
+        CATEGORY_KEYWORDS.put("food", "Food");
+        CATEGORY_KEYWORDS.put("clothes", "Shopping");
+        CATEGORY_KEYWORDS.put("doctor", "Health");
+        CATEGORY_KEYWORDS.put("coffee", "Food");
+        CATEGORY_KEYWORDS.put("grocery", "Food");
+    }
+
+    private LegacyParseRules() {
+    }
+
+    /**
+     * Detects the transaction type (DEBIT or CREDIT) based on keywords in the text.
+     * Defaults to DEBIT if no keywords are found (most common use case).
+     */
+    static TransactionType detectTransactionType(String text) {
+        // Check for CREDIT keywords first (receiving money)
+        for (String keyword : CREDIT_KEYWORDS) {
+            if (text.contains(keyword)) {
+                return TransactionType.CREDIT;
+            }
+        }
+
+        // Check for DEBIT keywords (spending money)
+        for (String keyword : DEBIT_KEYWORDS) {
+            if (text.contains(keyword)) {
+                return TransactionType.DEBIT;
+            }
+        }
+
+        // Default to DEBIT (most common transaction type)
+        return TransactionType.DEBIT;
+    }
+
+    /**
+     * Detects the category based on keywords in the text.
+     * Defaults to "Other" if no keywords are found.
+     */
+    static String detectCategory(String text) {
+        for (Map.Entry<String, String> entry : CATEGORY_KEYWORDS.entrySet()) {
+            if (text.contains(entry.getKey())) {
+                return entry.getValue();
+            }
+        }
+        return "Other";
+    }
+
+    /**
+     * Detects the subcategory based on keywords and the detected category.
+     * Defaults to "General" if no specific subcategory is found.
+     */
+    static String detectSubcategory(String text, String category) {
+        // Try to find a more specific subcategory based on keywords
+        switch (category) {
+            case "Food":
+                if (text.contains("supermercado") || text.contains("supermarket") ||
+                    text.contains("mercado") || text.contains("grocery") || text.contains("groceries")) {
+                    return "Groceries";
+                }
+                if (text.contains("restaurante") || text.contains("restaurant")) {
+                    return "Restaurant";
+                }
+                if (text.contains("café") || text.contains("cafe") || text.contains("coffee")) {
+                    return "Coffee";
+                }
+                if (text.contains("almoço") || text.contains("lunch")) {
+                    return "Lunch";
+                }
+                if (text.contains("jantar") || text.contains("dinner")) {
+                    return "Dinner";
+                }
+                return "General";
+
+            case "Transport":
+                if (text.contains("uber") || text.contains("taxi")) {
+                    return "Ride";
+                }
+                if (text.contains("gasolina") || text.contains("gas") ||
+                    text.contains("fuel") || text.contains("combustível")) {
+                    return "Fuel";
+                }
+                if (text.contains("metro") || text.contains("bus") || text.contains("ônibus")) {
+                    return "Public Transport";
+                }
+                return "General";
+
+            case "Income":
+                if (text.contains("salário") || text.contains("salary")) {
+                    return "Salary";
+                }
+                return "General";
+
+            case "Entertainment":
+                if (text.contains("cinema") || text.contains("movie") || text.contains("filme")) {
+                    return "Movies";
+                }
+                if (text.contains("netflix") || text.contains("spotify")) {
+                    return "Streaming";
+                }
+                return "General";
+
+            case "Bills":
+                if (text.contains("luz") || text.contains("electricity")) {
+                    return "Electricity";
+                }
+                if (text.contains("água") || text.contains("water")) {
+                    return "Water";
+                }
+                if (text.contains("internet")) {
+                    return "Internet";
+                }
+                if (text.contains("telefone") || text.contains("phone")) {
+                    return "Phone";
+                }
+                return "General";
+
+            case "Health":
+                if (text.contains("farmácia") || text.contains("pharmacy")) {
+                    return "Pharmacy";
+                }
+                if (text.contains("médico") || text.contains("doctor")) {
+                    return "Doctor";
+                }
+                if (text.contains("hospital")) {
+                    return "Hospital";
+                }
+                return "General";
+
+            default:
+                return "General";
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.financialcontrol.service;
+
+import com.example.financialcontrol.dto.MonthlyReportEntry;
+import com.example.financialcontrol.entity.Transaction;
+import com.example.financialcontrol.entity.TransactionType;
+import com.example.financialcontrol.entity.WalletMonthlyRollup;
+import com.example.financialcontrol.repository.TransactionRepository;
+import com.example.financialcontrol.repository.WalletMonthlyRollupRepository;
+import com.example.financialcontrol.repository.WalletRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the wallet_monthly_rollup table: total and count of a wallet's transactions
+ * per (month, type, category, subcategory).
+ *
+ * How the rollups stay correct:
+ * - TransactionService calls {@link #add} / {@link #remove} for every transaction it creates
+ *   or deletes, inside the same database transaction (CSV imports go through
+ *   TransactionService.createTransaction, so they are covered too)
+ * - TransactionRelabelService calls {@link #move} for every chunk of transactions it re-labels
+ *   after a category rename or merge, in the same database transaction as the chunk
+ * - {@link #rebuild} / {@link #rebuildAll} recompute the rollups from the raw transactions,
+ *   e.g. after the first deployment or a manual data fix
+ *
+ * All of them take the wallet's advisory lock ({@link #lockWallet}) for the rest of their
+ * database transaction, so a rebuild and a concurrent change are serialized on every instance
+ * of the application: the rebuild either waits for the change to commit and reads it, or runs
+ * first and the change is applied on top of the rebuilt rows. Changes take the lock after they
+ * modified the transactions table, and a rebuild only reads it while holding the lock, so
+ * nobody holds the lock while waiting for a transaction row.
+ *
+ * Reports read only the rollups, so their cost depends on the number of months and
+ * categories, not on the number of transactions.
+ */
+@Service
+public class MonthlyRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MonthlyRollupService.class);
+
+    private final WalletMonthlyRollupRepository rollupRepository;
+    private final TransactionRepository transactionRepository;
+    private final WalletRepository walletRepository;
+    private final TransactionLabelDictionary labelDictionary;
+    private final TransactionArchive transactionArchive;
+    private final WalletAnalyticsStore walletAnalyticsStore;
+    private final TransactionTemplate transactionTemplate;
+
+    public MonthlyRollupService(WalletMonthlyRollupRepository rollupRepository,
+                                TransactionRepository transactionRepository,
+                                WalletRepository walletRepository,
+                                TransactionLabelDictionary labelDictionary,
+                                TransactionArchive transactionArchive,
+                                WalletAnalyticsStore walletAnalyticsStore,
+                                PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        this.transactionRepository = transactionRepository;
+        this.walletRepository = walletRepository;
+        this.labelDictionary = labelDictionary;
+        this.transactionArchive = transactionArchive;
+        this.walletAnalyticsStore = walletAnalyticsStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // =====================================================
+    // INCREMENTAL UPDATES (same transaction as the caller)
+    // =====================================================
+
+    /**
+     * Adds a newly created transaction to its rollup row.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void add(Transaction transaction) {
+        lockWallet(transaction.getWallet().getId());
+        rollupRepository.addTotals(
+                transaction.getWallet().getId(),
+                monthStart(transaction.getDate()),
+                transaction.getType().name(),
+                labelDictionary.nameOf(transaction.getCategory()),
+                labelDictionary.nameOf(transaction.getSubcategory()),
+                transaction.getAmount(),
+                1);
+    }
+
+    /**
+     * Removes a deleted transaction from its rollup row (and drops the row if it becomes empty).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void remove(Transaction transaction) {
+        Long walletId = transaction.getWallet().getId();
+        lockWallet(walletId);
+        rollupRepository.removeTotals(
+                walletId,
+                monthStart(transaction.getDate()),
+                transaction.getType(),
+                labelDictionary.nameOf(transaction.getCategory()),
+                labelDictionary.nameOf(transaction.getSubcategory()),
+                transaction.getAmount(),
+                1);
+        rollupRepository.deleteEmptyRows(walletId);
+    }
+
+    /**
+     * Moves totals from one (category, subcategory) to another within a month,
+     * after transactions were re-labeled in bulk (see TransactionRelabelService).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void move(Long walletId, LocalDate month, TransactionType type,
+                     String fromCategory, String fromSubcategory, String toCategory, String toSubcategory,
+                     BigDecimal total, long count) {
+        lockWallet(walletId);
+        rollupRepository.removeTotals(walletId, month, type, fromCategory, fromSubcategory, total, count);
+        rollupRepository.addTotals(walletId, month, type.name(), toCategory, toSubcategory, total, count);
+        rollupRepository.deleteEmptyRows(walletId);
+    }
+
+    /**
+     * Takes a wallet's rollup lock until the current database transaction ends (see the class
+     * comment). Callers that change the wallet's transactions in another way than the methods
+     * above (e.g. archival) take it too, after their change, so a rebuild can't see it half done.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lockWallet(Long walletId) {
+        rollupRepository.lockWallet(walletId);
+    }
+
+    // =====================================================
+    // READS
+    // =====================================================
+
+    /**
+     * Monthly totals of a wallet between two months (both inclusive), from the rollups.
+     */
+    @Transactional(readOnly = true)
+    public List<MonthlyReportEntry> getMonthlyTotals(Long walletId, YearMonth fromMonth, YearMonth toMonth) {
+        return rollupRepository.findByWalletIdAndMonthRange(walletId, fromMonth.atDay(1), toMonth.atDay(1)).stream()
+                .map(r -> new MonthlyReportEntry(r.getMonth().getYear(), r.getMonth().getMonthValue(), r.getType(),
+                        r.getCategory(), r.getSubcategory(), r.getTotal(), r.getCount()))
+                .collect(Collectors.toList());
+    }
+
+    // =====================================================
+    // REBUILD FROM RAW TRANSACTIONS
+    // =====================================================
+
+    /**
+     * Recomputes a wallet's rollups from its transactions (one GROUP BY query).
+     * Bumps the wallet's data version, so reports cached by clients (ETags) are refreshed
+     * when the rebuild corrected them.
+     *
+     * @return Number of rollup rows written
+     */
+    @Transactional
+    public int rebuild(Long walletId) {
+        // Before reading anything: changes committed meanwhile are all in the GROUP BY below
+        lockWallet(walletId);
+        rollupRepository.deleteByWalletId(walletId);
+
+        // Keyed by (month, type, category, subcategory)
+        Map<List<Object>, WalletMonthlyRollup> rollups = new LinkedHashMap<>();
+        for (MonthlyReportEntry totals : transactionRepository.findMonthlyTotalsByWalletId(walletId)) {
+            WalletMonthlyRollup rollup = rollup(rollups, walletId, LocalDate.of(totals.getYear(), totals.getMonth(), 1),
+                    totals.getType(), totals.getCategory(), totals.getSubcategory());
+            rollup.setTotal(totals.getTotal());
+            rollup.setCount(totals.getCount());
+        }
+        // Archived transactions (see TransactionArchive) are added to the same rows
+        transactionArchive.scanWallet(walletId, (id, block, i) -> {
+            WalletMonthlyRollup rollup = rollup(rollups, walletId, monthStart(LocalDate.ofEpochDay(block.epochDay(i))),
+                    block.type(i), labelDictionary.nameOf(block.categoryId(i)), labelDictionary.nameOf(block.subcategoryId(i)));
+            rollup.setTotal(rollup.getTotal().add(BigDecimal.valueOf(block.amountCents(i), 2)));
+            rollup.setCount(rollup.getCount() + 1);
+        });
+        rollupRepository.saveAll(rollups.values());
+        walletAnalyticsStore.walletChanged(walletId);
+        return rollups.size();
+    }
+
+    private WalletMonthlyRollup rollup(Map<List<Object>, WalletMonthlyRollup> rollups, Long walletId, LocalDate month,
+                                       TransactionType type, String category, String subcategory) {
+        return rollups.computeIfAbsent(List.of(month, type, category, subcategory), key -> {
+            WalletMonthlyRollup rollup = new WalletMonthlyRollup();
+            rollup.setWallet(walletRepository.getReferenceById(walletId));
+            rollup.setMonth(month);
+            rollup.setType(type);
+            rollup.setCategory(category);
+            rollup.setSubcategory(subcategory);
+            rollup.setTotal(BigDecimal.ZERO);
+            return rollup;
+        });
+    }
+
+    /**
+     * Recomputes the rollups of every wallet, one database transaction per wallet
+     * (so only one wallet is locked at a time).
+     */
+    public void rebuildAll() {
+        List<Long> walletIds = walletRepository.findAllIds();
+        int rows = 0;
+        for (Long walletId : walletIds) {
+            Integer written = transactionTemplate.execute(status -> rebuild(walletId));
+            rows += written == null ? 0 : written;
+        }
+        logger.info("Rebuilt monthly rollups: {} wallets, {} rows", walletIds.size(), rows);
+    }
+
+    /**
+     * True if there are transactions but no rollups at all (e.g. first start after
+     * the rollup table was introduced).
+     */
+    @Transactional(readOnly = true)
+    public boolean needsInitialBuild() {
+        return rollupRepository.count() == 0 && transactionRepository.count() > 0;
+    }
+
+    private static LocalDate monthStart(LocalDate date) {
+        return date.withDayOfMonth(1);
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.financialcontrol.service;
+
+import com.example.financialcontrol.dto.BalanceSeriesResponse;
+import com.example.financialcontrol.dto.CategoryAnalyticsEntry;
+import com.example.financialcontrol.dto.MonthlyReportEntry;
+import com.example.financialcontrol.entity.TransactionType;
+import com.example.financialcontrol.entity.User;
+import com.example.financialcontrol.repository.DailyBalance;
+import com.example.financialcontrol.repository.TransactionRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Service for wallet reports. Reports are read from the monthly rollups
+ * (see MonthlyRollupService), so the frontend no longer needs to download
+ * every transaction to build charts and the database doesn't aggregate raw rows per request.
+ */
+@Service
+public class ReportService {
+
+    // Months included in a report when "from" is not given (current month + 11 before it)
+    private static final int DEFAULT_REPORT_MONTHS = 12;
+
+    // Longest range accepted by the balance series (about 20 years of daily points)
+    private static final long MAX_SERIES_DAYS = 7305;
+
+    private final MonthlyRollupService monthlyRollupService;
+    private final WalletService walletService;
+    private final TransactionRepository transactionRepository;
+    private final WalletAnalyticsStore walletAnalyticsStore;
+    private final TransactionArchive transactionArchive;
+
+    public ReportService(MonthlyRollupService monthlyRollupService, WalletService walletService,
+                         TransactionRepository transactionRepository, WalletAnalyticsStore walletAnalyticsStore,
+                         TransactionArchive transactionArchive) {
+        this.monthlyRollupService = monthlyRollupService;
+        this.walletService = walletService;
+        this.transactionRepository = transactionRepository;
+        this.walletAnalyticsStore = walletAnalyticsStore;
+        this.transactionArchive = transactionArchive;
+    }
+
+    /**
+     * Totals per (month, type, category, subcategory) for a wallet.
+     *
+     * @param walletId The wallet ID
+     * @param user The authenticated user (must own the wallet)
+     * @param from First month of the report (inclusive); defaults to 11 months before "to"
+     * @param to Last month of the report (inclusive); defaults to the current month
+     * @return One entry per combination with transactions, ordered by month, type, category, subcategory
+     */
+    @Transactional(readOnly = true)
+    public List<MonthlyReportEntry> getMonthlyReport(Long walletId, User user, YearMonth from, YearMonth to) {
+        walletService.getWalletEntityByIdAndUser(walletId, user);
+
+        YearMonth lastMonth = lastReportMonth(to);
+        YearMonth firstMonth = firstReportMonth(from, lastMonth);
+        if (firstMonth.isAfter(lastMonth)) {
+            throw new RuntimeException("'from' must not be after 'to'");
+        }
+
+        return monthlyRollupService.getMonthlyTotals(walletId, firstMonth, lastMonth);
+    }
+
+    /**
+     * Last month of a monthly report: "to", or the current month if not given.
+     */
+    public static YearMonth lastReportMonth(YearMonth to) {
+        return to != null ? to : YearMonth.now();
+    }
+
+    /**
+     * First month of a monthly report: "from", or 11 months before the last month if not given.
+     */
+    public static YearMonth firstReportMonth(YearMonth from, YearMonth lastMonth) {
+        return from != null ? from : lastMonth.minusMonths(DEFAULT_REPORT_MONTHS - 1);
+    }
+
+    /**
+     * Running balance of a wallet, one point per day, week (Monday to Sunday) or calendar month.
+     * Each point is the balance at the end of its bucket; the last bucket ends on "to".
+     *
+     * The database computes the running balance per day with a window function (one row per
+     * day with transactions); this method only carries it forward over the bucket ends.
+     *
+     * @param walletId The wallet ID
+     * @param user The authenticated user (must own the wallet)
+     * @param from First day (inclusive); defaults to one year before "to"
+     * @param to Last day (inclusive); defaults to today
+     * @param step "day", "week" or "month"; defaults to "day"
+     * @return The series as parallel epoch-day / cents arrays
+     */
+    @Transactional(readOnly = true)
+    public BalanceSeriesResponse getBalanceSeries(Long walletId, User user, LocalDate from, LocalDate to, String step) {
+        walletService.getWalletEntityByIdAndUser(walletId, user);
+
+        LocalDate lastDay = lastSeriesDay(to);
+        LocalDate firstDay = firstSeriesDay(from, lastDay);
+        if (firstDay.isAfter(lastDay)) {
+            throw new RuntimeException("'from' must not be after 'to'");
+        }
+        long rangeDays = lastDay.toEpochDay() - firstDay.toEpochDay() + 1;
+        if (rangeDays > MAX_SERIES_DAYS) {
+            throw new RuntimeException("Date range is too long (maximum " + MAX_SERIES_DAYS + " days)");
+        }
+        String stepName = step != null ? step.toLowerCase(Locale.ROOT) : "day";
+        if (!stepName.equals("day") && !stepName.equals("week") && !stepName.equals("month")) {
+            throw new RuntimeException("'step' must be day, week or month");
+        }
+
+        List<DailyBalance> days = transactionRepository.findDailyBalances(walletId, firstDay.toEpochDay(), lastDay);
+
+        // Balance before the first day of the range
+        long balance = days.isEmpty()
+                ? transactionRepository.findBalanceCentsBefore(walletId, firstDay)
+                : days.get(0).getBalance() - days.get(0).getNet();
+
+        // Archived transactions (see TransactionArchive): their balance before the range,
+        // then their net per day within it
+        long archivedBalance = transactionArchive.netCentsBefore(walletId, firstDay);
+        Iterator<Map.Entry<Integer, Long>> archivedDays =
+                transactionArchive.dailyNetCents(walletId, firstDay, lastDay).entrySet().iterator();
+        Map.Entry<Integer, Long> archivedDay = archivedDays.hasNext() ? archivedDays.next() : null;
+
+        int[] epochDays = new int[(int) rangeDays];
+        long[] balanceCents = new long[(int) rangeDays];
+        int points = 0;
+        int next = 0;
+        LocalDate bucketStart = firstDay;
+        while (!bucketStart.isAfter(lastDay)) {
+            LocalDate bucketEnd = bucketEnd(bucketStart, stepName);
+            if (bucketEnd.isAfter(lastDay)) {
+                bucketEnd = lastDay;
+            }
+            long endEpochDay = bucketEnd.toEpochDay();
+            while (next < days.size() && days.get(next).getDay() <= endEpochDay) {
+                balance = days.get(next).getBalance();
+                next++;
+            }
+            while (archivedDay != null && archivedDay.getKey() <= endEpochDay) {
+                archivedBalance += archivedDay.getValue();
+                archivedDay = archivedDays.hasNext() ? archivedDays.next() : null;
+            }
+            epochDays[points] = (int) endEpochDay;
+            balanceCents[points] = balance + archivedBalance;
+            points++;
+            bucketStart = bucketEnd.plusDays(1);
+        }
+
+        return new BalanceSeriesResponse(walletId, stepName,
+                Arrays.copyOf(epochDays, points), Arrays.copyOf(balanceCents, points));
+    }
+
+    /**
+     * Last day of a balance series: "to", or today if not given.
+     */
+    public static LocalDate lastSeriesDay(LocalDate to) {
+        return to != null ? to : LocalDate.now();
+    }
+
+    /**
+     * First day of a balance series: "from", or one year before the last day if not given.
+     */
+    public static LocalDate firstSeriesDay(LocalDate from, LocalDate lastDay) {
+        return from != null ? from : lastDay.minusYears(1).plusDays(1);
+    }
+
+    /**
+     * Total, count, average and share of each category for one transaction type,
+     * aggregated from the wallet's in-memory columns (see WalletAnalyticsStore).
+     *
+     * @param walletId The wallet ID
+     * @param user The authenticated user (must own the wallet)
+     * @param type Transaction type; defaults to DEBIT (spending)
+     * @param from First day (inclusive); no lower bound if null
+     * @param to Last day (inclusive); no upper bound if null
+     * @return One entry per category with transactions, largest total first
+     */
+    @Transactional(readOnly = true)
+    public List<CategoryAnalyticsEntry> getCategoryAnalytics(Long walletId, User user, TransactionType type,
+                                                             LocalDate from, LocalDate to) {
+        walletService.getWalletEntityByIdAndUser(walletId, user);
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new RuntimeException("'from' must not be after 'to'");
+        }
+
+        WalletColumns.CategoryTotals totals = walletAnalyticsStore.getColumns(walletId).totalsByCategory(
+                type != null ? type : TransactionType.DEBIT,
+                from != null ? (int) from.toEpochDay() : Integer.MIN_VALUE,
+                to != null ? (int) to.toEpochDay() : Integer.MAX_VALUE);
+
+        long grandTotalCents = 0;
+        for (int i = 0; i < totals.categoryCount(); i++) {
+            grandTotalCents += totals.totalCents(i);
+        }
+
+        List<CategoryAnalyticsEntry> entries = new ArrayList<>();
+        for (int i = 0; i < totals.categoryCount(); i++) {
+            int count = totals.count(i);
+            if (count == 0) {
+                continue;
+            }
+            long totalCents = totals.totalCents(i);
+            BigDecimal share = grandTotalCents == 0
+                    ? BigDecimal.ZERO
+                    : BigDecimal.valueOf(totalCents * 100.0 / grandTotalCents).setScale(2, RoundingMode.HALF_UP);
+            entries.add(new CategoryAnalyticsEntry(
+                    totals.name(i),
+                    BigDecimal.valueOf(totalCents, 2),
+                    (long) count,
+                    BigDecimal.valueOf(totalCents, 2).divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP),
+                    share));
+        }
+        entries.sort(Comparator.comparing(CategoryAnalyticsEntry::getTotal).reversed());
+        return entries;
+    }
+
+    /**
+     * Recomputes a wallet's monthly rollups from its transactions.
+     *
+     * @param walletId The wallet ID
+     * @param user The authenticated user (must own the wallet)
+     * @return Number of rollup rows written
+     */
+    @Transactional
+    public int rebuildMonthlyRollups(Long walletId, User user) {
+        walletService.getWalletEntityByIdAndUser(walletId, user);
+        return monthlyRollupService.rebuild(walletId);
+    }
+
+    private static LocalDate bucketEnd(LocalDate day, String step) {
+        switch (step) {
+            case "week":
+                return day.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
+            case "month":
+                return day.with(TemporalAdjusters.lastDayOfMonth());
+            default:
+                return day;
+        }
+    }
+}
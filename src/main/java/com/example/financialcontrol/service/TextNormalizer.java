@@ -0,0 +1,54 @@
+package com.example.financialcontrol.service;
+
+import java.text.Normalizer;
+
+/**
+ * Normalizes free text before keyword matching.
+ *
+ * Voice transcripts are inconsistent with accents ("salario" vs "salário",
+ * "farmacia" vs "farmácia"), so both the input text and the keyword dictionaries
+ * are folded to the same form:
+ * 1. Unicode NFD decomposition ("á" → "a" + combining acute accent)
+ * 2. Combining marks removed ("a" + accent → "a", "ç" → "c")
+ * 3. Lowercased and trimmed
+ *
+ * Call it once per input and reuse the result for every matcher.
+ */
+public final class TextNormalizer {
+
+    private TextNormalizer() {
+    }
+
+    /**
+     * Folds accents, lowercases and trims the text.
+     *
+     * @param text The raw input text
+     * @return The normalized text ("Salário" → "salario")
+     */
+    public static String normalize(String text) {
+        // Fast path: plain ASCII only needs lowercasing
+        boolean ascii = true;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 127) {
+                ascii = false;
+                break;
+            }
+        }
+        if (ascii) {
+            return text.toLowerCase().trim();
+        }
+
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            int charType = Character.getType(c);
+            if (charType == Character.NON_SPACING_MARK || charType == Character.COMBINING_SPACING_MARK
+                    || charType == Character.ENCLOSING_MARK) {
+                continue;
+            }
+            folded.append(Character.toLowerCase(c));
+        }
+        return folded.toString().trim();
+    }
+}
@@ -0,0 +1,288 @@
+package com.example.financialcontrol.service;
+
+import com.example.financialcontrol.dto.TransactionResponse;
+import com.example.financialcontrol.entity.TransactionArchiveSegment;
+import com.example.financialcontrol.entity.TransactionType;
+import com.example.financialcontrol.repository.TransactionArchiveSegmentRepository;
+import com.example.financialcontrol.repository.TransactionFilter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Read access to archived transactions (see TransactionArchiveService), so that lists,
+ * balances, analytics and rollup rebuilds see the same transactions as before archival.
+ *
+ * Only segments whose date range overlaps the request are opened (segment metadata is in
+ * the database), and inside a segment only the blocks overlapping the request are
+ * decompressed, one at a time. A request limited to the recent, non-archived months
+ * therefore costs one indexed metadata query and no file access.
+ *
+ * Segments are looked up even when transactions.archive.dir is not set: if a segment is
+ * recorded, reading it fails (IllegalStateException) rather than the request silently
+ * leaving its transactions out, or a rollup rebuild dropping them for good.
+ *
+ * Archived transactions can't be deleted. A category rename or merge rewrites the segments
+ * using the old category (TransactionArchiveService.relabelSegment), so reads always return
+ * the current names.
+ */
+@Component
+public class TransactionArchive {
+
+    /**
+     * Receives row {@code row} of a decompressed block belonging to a wallet.
+     */
+    @FunctionalInterface
+    public interface RowConsumer {
+        void accept(Long walletId, TransactionSegmentFiles.Block block, int row);
+    }
+
+    private final TransactionArchiveSegmentRepository segmentRepository;
+    private final TransactionSegmentFiles segmentFiles;
+    private final TransactionResponseMapper responseMapper;
+    private final TransactionArchiveTextIndex textIndex;
+
+    public TransactionArchive(TransactionArchiveSegmentRepository segmentRepository,
+                              TransactionSegmentFiles segmentFiles,
+                              TransactionResponseMapper responseMapper,
+                              TransactionArchiveTextIndex textIndex) {
+        this.segmentRepository = segmentRepository;
+        this.segmentFiles = segmentFiles;
+        this.responseMapper = responseMapper;
+        this.textIndex = textIndex;
+    }
+
+    /**
+     * Streams every archived row of the given wallets dated between two days (inclusive).
+     */
+    @Transactional(readOnly = true)
+    public void scan(Collection<Long> walletIds, LocalDate from, LocalDate to, RowConsumer consumer) {
+        if (walletIds.isEmpty()) {
+            return;
+        }
+        for (TransactionArchiveSegment segment : segmentRepository.findOverlapping(walletIds, from, to)) {
+            scanSegment(segment, from.toEpochDay(), to.toEpochDay(), consumer);
+        }
+    }
+
+    /**
+     * Streams every archived row of a wallet, oldest first.
+     */
+    @Transactional(readOnly = true)
+    public void scanWallet(Long walletId, RowConsumer consumer) {
+        for (TransactionArchiveSegment segment : segmentRepository.findByWalletIdOrderByMinDateAsc(walletId)) {
+            scanSegment(segment, Long.MIN_VALUE, Long.MAX_VALUE, consumer);
+        }
+    }
+
+    /**
+     * Archived transactions of the given wallets, newest first (by date, then ID).
+     *
+     * @param walletIds Wallets to read
+     * @param filter Criteria, applied as TransactionRepositoryCustom does on the table
+     * @param limit Maximum number of transactions returned (the newest ones are kept)
+     */
+    @Transactional(readOnly = true)
+    public List<TransactionResponse> findTransactions(Collection<Long> walletIds, TransactionFilter filter, int limit) {
+        if (filter.getCategoryIds() != null && filter.getCategoryIds().isEmpty()) {
+            return List.of();
+        }
+        // Min-heap on recency: holds the newest "limit" rows seen so far
+        PriorityQueue<TransactionResponse> newest = new PriorityQueue<>(TransactionResponseMapper.NEWEST_FIRST.reversed());
+        Long minCents = filter.getMinAmount() != null ? toCents(filter.getMinAmount(), RoundingMode.CEILING) : null;
+        Long maxCents = filter.getMaxAmount() != null ? toCents(filter.getMaxAmount(), RoundingMode.FLOOR) : null;
+        scan(walletIds, filter.getFromDate(), filter.getToDate(), (walletId, block, i) -> {
+            if ((filter.getType() != null && block.type(i) != filter.getType())
+                    || (minCents != null && block.amountCents(i) < minCents)
+                    || (maxCents != null && block.amountCents(i) > maxCents)
+                    || (filter.getCategoryIds() != null && !filter.getCategoryIds().contains(block.categoryId(i)))
+                    || (filter.getDescriptionPrefix() != null && !startsWithIgnoreCase(block.description(i), filter.getDescriptionPrefix()))) {
+                return;
+            }
+            newest.add(responseMapper.toResponse(walletId, block, i));
+            if (newest.size() > limit) {
+                newest.poll();
+            }
+        });
+        List<TransactionResponse> transactions = new ArrayList<>(newest);
+        transactions.sort(TransactionResponseMapper.NEWEST_FIRST);
+        return transactions;
+    }
+
+    /**
+     * Archived transactions matching a text search (see TransactionSearchService), newest first,
+     * strictly older than a (day, ID) keyset cursor. Uses each segment's inverted index
+     * (TransactionArchiveTextIndex); segments are visited newest first and the search stops
+     * once the remaining segments can't hold anything newer than what was found.
+     *
+     * @param walletIds Wallets to search
+     * @param prefixes Every one must start a term of the description...
+     * @param labelIds ...or the category or subcategory label must be one of these
+     * @param type Only this type, or null for both
+     * @param from First day (inclusive)
+     * @param to Last day (inclusive)
+     * @param cursorDay Epoch day of the cursor
+     * @param cursorId Transaction ID of the cursor
+     * @param limit Maximum number of transactions returned
+     */
+    @Transactional(readOnly = true)
+    public List<TransactionResponse> search(Collection<Long> walletIds, List<String> prefixes, Set<Integer> labelIds,
+                                            TransactionType type, LocalDate from, LocalDate to,
+                                            long cursorDay, long cursorId, int limit) {
+        if (walletIds.isEmpty()) {
+            return List.of();
+        }
+        long fromDay = from.toEpochDay();
+        long toDay = to.toEpochDay();
+        // Min-heap on recency: holds the newest "limit" matches seen so far
+        PriorityQueue<Match> newest = new PriorityQueue<>(Match.OLDEST_FIRST);
+        for (TransactionArchiveSegment segment : segmentRepository.findOverlapping(walletIds, from, to)) {
+            if (newest.size() == limit && newest.peek().epochDay > segment.getMaxDate().toEpochDay()) {
+                break;
+            }
+            TransactionArchiveTextIndex.SegmentIndex index = textIndex.get(segment.getId(), segment.getFileName());
+            BitSet rows = index.match(prefixes, labelIds);
+            // Rows are sorted by (day, id): walk them newest first
+            for (int row = rows.length() - 1; row >= 0; row = rows.previousSetBit(row - 1)) {
+                int day = index.epochDay(row);
+                long id = index.id(row);
+                if (day < fromDay) {
+                    break;
+                }
+                if (day > toDay || day > cursorDay || (day == cursorDay && id >= cursorId)
+                        || (type != null && index.type(row) != type)) {
+                    continue;
+                }
+                Match match = new Match(segment, day, id);
+                if (newest.size() < limit) {
+                    newest.add(match);
+                } else if (Match.OLDEST_FIRST.compare(match, newest.peek()) > 0) {
+                    newest.poll();
+                    newest.add(match);
+                } else {
+                    // The rest of the segment is older still
+                    break;
+                }
+            }
+        }
+
+        // Read the matched rows, one pass per segment over the days they span
+        Map<Long, List<Match>> bySegment = new HashMap<>();
+        for (Match match : newest) {
+            bySegment.computeIfAbsent(match.segment.getId(), key -> new ArrayList<>()).add(match);
+        }
+        List<TransactionResponse> transactions = new ArrayList<>(newest.size());
+        bySegment.forEach((segmentId, matches) -> {
+            Set<Long> ids = new HashSet<>();
+            long firstDay = Long.MAX_VALUE;
+            long lastDay = Long.MIN_VALUE;
+            for (Match match : matches) {
+                ids.add(match.id);
+                firstDay = Math.min(firstDay, match.epochDay);
+                lastDay = Math.max(lastDay, match.epochDay);
+            }
+            scanSegment(matches.get(0).segment, firstDay, lastDay, (walletId, block, i) -> {
+                if (ids.contains(block.id(i))) {
+                    transactions.add(responseMapper.toResponse(walletId, block, i));
+                }
+            });
+        });
+        transactions.sort(TransactionResponseMapper.NEWEST_FIRST);
+        return transactions;
+    }
+
+    /**
+     * Credits minus debits, in cents, of a wallet's archived transactions dated before a day.
+     * Segments entirely before the day are summed from their metadata without being read.
+     */
+    @Transactional(readOnly = true)
+    public long netCentsBefore(Long walletId, LocalDate day) {
+        long[] net = {segmentRepository.sumNetCentsEndingBefore(walletId, day)};
+        LocalDate previousDay = day.minusDays(1);
+        for (TransactionArchiveSegment segment : segmentRepository.findOverlapping(List.of(walletId), previousDay, day)) {
+            // Segments ending before the day are already in the sum
+            if (!segment.getMaxDate().isBefore(day)) {
+                scanSegment(segment, Long.MIN_VALUE, previousDay.toEpochDay(),
+                        (id, block, i) -> net[0] += signedCents(block, i));
+            }
+        }
+        return net[0];
+    }
+
+    /**
+     * Credits minus debits, in cents, of a wallet's archived transactions per day (epoch day)
+     * between two days (inclusive); days without archived transactions are absent.
+     */
+    @Transactional(readOnly = true)
+    public NavigableMap<Integer, Long> dailyNetCents(Long walletId, LocalDate from, LocalDate to) {
+        NavigableMap<Integer, Long> days = new TreeMap<>();
+        scan(List.of(walletId), from, to,
+                (id, block, i) -> days.merge(block.epochDay(i), signedCents(block, i), Long::sum));
+        return days;
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    private void scanSegment(TransactionArchiveSegment segment, long fromEpochDay, long toEpochDay,
+                             RowConsumer consumer) {
+        Long walletId = segment.getWallet().getId();
+        segmentFiles.read(segment.getFileName(), fromEpochDay, toEpochDay, block -> {
+            for (int i = 0; i < block.size(); i++) {
+                int day = block.epochDay(i);
+                if (day >= fromEpochDay && day <= toEpochDay) {
+                    consumer.accept(walletId, block, i);
+                }
+            }
+        });
+    }
+
+    // Amounts have 2 decimals: a bound with more is rounded towards the inside of the range
+    private static long toCents(BigDecimal amount, RoundingMode rounding) {
+        return amount.setScale(2, rounding).unscaledValue().longValueExact();
+    }
+
+    private static boolean startsWithIgnoreCase(String description, String lowercasePrefix) {
+        return description != null && description.toLowerCase(Locale.ROOT).startsWith(lowercasePrefix);
+    }
+
+    private static long signedCents(TransactionSegmentFiles.Block block, int i) {
+        return block.type(i) == TransactionType.CREDIT ? block.amountCents(i) : -block.amountCents(i);
+    }
+
+    /**
+     * A search match: row (day, id) of a segment.
+     */
+    private static final class Match {
+        static final Comparator<Match> OLDEST_FIRST = Comparator
+                .comparingInt((Match match) -> match.epochDay)
+                .thenComparingLong(match -> match.id);
+
+        final TransactionArchiveSegment segment;
+        final int epochDay;
+        final long id;
+
+        Match(TransactionArchiveSegment segment, int epochDay, long id) {
+            this.segment = segment;
+            this.epochDay = epochDay;
+            this.id = id;
+        }
+    }
+}
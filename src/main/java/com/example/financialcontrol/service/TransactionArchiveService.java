@@ -0,0 +1,345 @@
+package com.example.financialcontrol.service;
+
+import com.example.financialcontrol.config.AdvisoryLocks;
+import com.example.financialcontrol.entity.ArchivedLabel;
+import com.example.financialcontrol.entity.TransactionArchiveSegment;
+import com.example.financialcontrol.entity.TransactionType;
+import com.example.financialcontrol.repository.TransactionArchiveSegmentRepository;
+import com.example.financialcontrol.repository.TransactionRepository;
+import com.example.financialcontrol.repository.WalletRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Moves old transactions out of the transactions table into compressed columnar segment
+ * files (see TransactionSegmentFiles), keeping the table and its indexes small.
+ *
+ * Transactions dated before the first day of the month transactions.archive.older-than-months
+ * months ago are archived by a scheduled task (transactions.archive.cron, daily by default).
+ * Each wallet is processed in chunks of transactions.archive.segment-rows transactions, oldest
+ * first; each chunk runs in one database transaction:
+ * 1. Deletes the chunk's rows and returns them (one set-based DELETE ... RETURNING)
+ * 2. Writes them to a new segment file (flushed to disk before the transaction commits)
+ * 3. Saves the segment's record (wallet, date range, row count, net amount, labels used)
+ * If the transaction rolls back, the file is deleted: every transaction is either in the
+ * table or in exactly one committed segment.
+ *
+ * Archived transactions stay visible (see TransactionArchive): in transaction lists, balances,
+ * analytics and rollup rebuilds. Monthly rollups are not touched by archival, since the totals
+ * don't change. Archived transactions can't be deleted; the only change they get is a new
+ * category after a rename or merge ({@link #relabelSegment}), which rewrites the segment.
+ *
+ * With several instances, the scheduled task runs on one at a time: it holds a session-level
+ * advisory lock (AdvisoryLocks.TRANSACTION_ARCHIVAL) for the whole run, and an instance that
+ * can't get it skips that run. Reads and renames still open segment files on every instance,
+ * so transactions.archive.dir must be a volume shared by all of them (e.g. NFS or a shared
+ * disk), not a local directory.
+ *
+ * Disabled unless transactions.archive.older-than-months is positive and transactions.archive.dir
+ * is set. Don't remove or move the directory once segments were written: their transactions are
+ * no longer in the database.
+ */
+@Service
+public class TransactionArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionArchiveService.class);
+
+    private final TransactionRepository transactionRepository;
+    private final WalletRepository walletRepository;
+    private final TransactionArchiveSegmentRepository segmentRepository;
+    private final TransactionSegmentFiles segmentFiles;
+    private final WalletAnalyticsStore walletAnalyticsStore;
+    private final MonthlyRollupService monthlyRollupService;
+    private final TransactionLabelDictionary labelDictionary;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int olderThanMonths;
+    private final int segmentRows;
+
+    public TransactionArchiveService(TransactionRepository transactionRepository,
+                                     WalletRepository walletRepository,
+                                     TransactionArchiveSegmentRepository segmentRepository,
+                                     TransactionSegmentFiles segmentFiles,
+                                     WalletAnalyticsStore walletAnalyticsStore,
+                                     MonthlyRollupService monthlyRollupService,
+                                     TransactionLabelDictionary labelDictionary,
+                                     JdbcTemplate jdbcTemplate,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${transactions.archive.older-than-months:0}") int olderThanMonths,
+                                     @Value("${transactions.archive.segment-rows:50000}") int segmentRows) {
+        this.transactionRepository = transactionRepository;
+        this.walletRepository = walletRepository;
+        this.segmentRepository = segmentRepository;
+        this.segmentFiles = segmentFiles;
+        this.walletAnalyticsStore = walletAnalyticsStore;
+        this.monthlyRollupService = monthlyRollupService;
+        this.labelDictionary = labelDictionary;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.olderThanMonths = olderThanMonths;
+        this.segmentRows = Math.max(1, segmentRows);
+        if (olderThanMonths > 0 && !segmentFiles.isEnabled()) {
+            logger.warn("transactions.archive.older-than-months is set but transactions.archive.dir is not: archival disabled");
+        }
+    }
+
+    /**
+     * True if archival is configured.
+     */
+    public boolean isEnabled() {
+        return olderThanMonths > 0 && segmentFiles.isEnabled();
+    }
+
+    /**
+     * Archives the transactions of every wallet dated before the cutoff month, unless another
+     * instance is already doing it.
+     */
+    @Scheduled(cron = "${transactions.archive.cron:0 30 3 * * *}")
+    public void archiveOldTransactions() {
+        if (!isEnabled()) {
+            return;
+        }
+        // The lock belongs to this connection, kept for the run; the chunks use connections of their own
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            if (!advisoryLock(connection, "pg_try_advisory_lock")) {
+                logger.info("Transaction archival is running on another instance, skipped");
+                return null;
+            }
+            try {
+                LocalDate cutoff = YearMonth.now().minusMonths(olderThanMonths).atDay(1);
+                long start = System.currentTimeMillis();
+                int archived = 0;
+                for (Long walletId : walletRepository.findAllIds()) {
+                    archived += archiveWallet(walletId, cutoff);
+                }
+                logger.info("Archived {} transactions dated before {} in {} ms",
+                        archived, cutoff, System.currentTimeMillis() - start);
+                return null;
+            } finally {
+                advisoryLock(connection, "pg_advisory_unlock");
+            }
+        });
+    }
+
+    /**
+     * Archives a wallet's transactions dated before a day, one segment per chunk.
+     *
+     * @return Number of transactions archived
+     */
+    public int archiveWallet(Long walletId, LocalDate cutoff) {
+        int archived = 0;
+        while (true) {
+            Integer rows = transactionTemplate.execute(status -> archiveChunk(walletId, cutoff));
+            if (rows == null || rows == 0) {
+                return archived;
+            }
+            archived += rows;
+        }
+    }
+
+    /**
+     * Moves a segment's transactions from one category (or category + subcategory) to another,
+     * for a category rename or merge (see TransactionRelabelService), in the caller's database
+     * transaction: the segment is written to a new file ({@link TransactionSegmentFiles#rewrite}),
+     * its record is switched to it and the moved totals are moved between the monthly rollups.
+     * The previous file is deleted once the transaction commits, the new one if it rolls back.
+     *
+     * @param walletId The segment's wallet
+     * @param segmentId The segment
+     * @param type Type of the transactions to move
+     * @param fromCategoryId Current category label
+     * @param fromSubcategoryId Current subcategory label, or null to move every subcategory
+     * @param toCategoryId New category label
+     * @param toSubcategoryId New subcategory label (null when fromSubcategoryId is null)
+     * @return Number of transactions moved (0 leaves the segment as it was)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int relabelSegment(Long walletId, Long segmentId, TransactionType type, Integer fromCategoryId,
+                              Integer fromSubcategoryId, Integer toCategoryId, Integer toSubcategoryId) {
+        // Before reading the record: another rewrite of the segment commits first or waits
+        monthlyRollupService.lockWallet(walletId);
+        TransactionArchiveSegment segment = segmentRepository.findById(segmentId).orElse(null);
+        if (segment == null) {
+            return 0;
+        }
+
+        List<TransactionSegmentFiles.ArchivedRow> rows = new ArrayList<>(segment.getRowCount());
+        // (month start epoch day, subcategory label before the move) -> {cents, count}
+        Map<List<Integer>, long[]> moved = new LinkedHashMap<>();
+        segmentFiles.read(segment.getFileName(), Long.MIN_VALUE, Long.MAX_VALUE, block -> {
+            for (int i = 0; i < block.size(); i++) {
+                TransactionSegmentFiles.ArchivedRow row = block.row(i);
+                if (row.type == type && row.categoryId == fromCategoryId
+                        && (fromSubcategoryId == null || row.subcategoryId == fromSubcategoryId)) {
+                    long[] totals = moved.computeIfAbsent(List.of(monthStart(row.epochDay), row.subcategoryId),
+                            key -> new long[2]);
+                    totals[0] += row.amountCents;
+                    totals[1]++;
+                    row = row.withLabels(toCategoryId, toSubcategoryId == null ? row.subcategoryId : toSubcategoryId);
+                }
+                rows.add(row);
+            }
+        });
+        if (moved.isEmpty()) {
+            return 0;
+        }
+
+        String previousFileName = segment.getFileName();
+        String fileName = segmentFiles.rewrite(walletId, previousFileName, rows);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                segmentFiles.deleteFile(status == STATUS_COMMITTED ? previousFileName : fileName);
+            }
+        });
+        segment.setFileName(fileName);
+        segment.setLabels(labelsOf(rows));
+        segmentRepository.save(segment);
+
+        int count = 0;
+        for (Map.Entry<List<Integer>, long[]> group : moved.entrySet()) {
+            int subcategoryId = group.getKey().get(1);
+            monthlyRollupService.move(walletId, LocalDate.ofEpochDay(group.getKey().get(0)), type,
+                    labelDictionary.nameOf(fromCategoryId), labelDictionary.nameOf(subcategoryId),
+                    labelDictionary.nameOf(toCategoryId),
+                    labelDictionary.nameOf(toSubcategoryId == null ? subcategoryId : toSubcategoryId),
+                    BigDecimal.valueOf(group.getValue()[0], 2), group.getValue()[1]);
+            count += (int) group.getValue()[1];
+        }
+        walletAnalyticsStore.walletChanged(walletId);
+        return count;
+    }
+
+    /**
+     * Records the labels of segments written before segments kept track of them (one read of
+     * each such file), so category checks and renames see their transactions. Run at startup.
+     */
+    public void recordMissingSegmentLabels() {
+        if (!segmentFiles.isEnabled()) {
+            long segments = segmentRepository.count();
+            if (segments > 0) {
+                logger.error("{} archive segments are recorded but transactions.archive.dir is not set: "
+                        + "requests reading archived transactions will fail", segments);
+            }
+            return;
+        }
+        List<Long> segmentIds = segmentRepository.findIdsWithoutLabels();
+        for (Long segmentId : segmentIds) {
+            transactionTemplate.executeWithoutResult(status -> {
+                TransactionArchiveSegment segment = segmentRepository.findById(segmentId).orElseThrow();
+                // Another instance starting at the same time may have done it while this one waited
+                monthlyRollupService.lockWallet(segment.getWallet().getId());
+                if (!segmentRepository.findIdsWithoutLabels().contains(segmentId)) {
+                    return;
+                }
+                List<TransactionSegmentFiles.ArchivedRow> rows = new ArrayList<>(segment.getRowCount());
+                segmentFiles.read(segment.getFileName(), Long.MIN_VALUE, Long.MAX_VALUE, block -> {
+                    for (int i = 0; i < block.size(); i++) {
+                        rows.add(block.row(i));
+                    }
+                });
+                segment.setLabels(labelsOf(rows));
+                segmentRepository.save(segment);
+            });
+        }
+        if (!segmentIds.isEmpty()) {
+            logger.info("Recorded the labels of {} archive segments", segmentIds.size());
+        }
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    // pg_try_advisory_lock or pg_advisory_unlock on the archival key
+    private static boolean advisoryLock(Connection connection, String function) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT " + function + "(?, ?)")) {
+            statement.setInt(1, AdvisoryLocks.NAMESPACE);
+            statement.setInt(2, AdvisoryLocks.TRANSACTION_ARCHIVAL);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && result.getBoolean(1);
+            }
+        }
+    }
+
+    private int archiveChunk(Long walletId, LocalDate cutoff) {
+        List<Object[]> deleted = transactionRepository.deleteArchivableChunk(walletId, cutoff, segmentRows);
+        if (deleted.isEmpty()) {
+            return 0;
+        }
+        List<TransactionSegmentFiles.ArchivedRow> rows = new ArrayList<>(deleted.size());
+        long netCents = 0;
+        for (Object[] row : deleted) {
+            TransactionSegmentFiles.ArchivedRow archivedRow = new TransactionSegmentFiles.ArchivedRow(
+                    ((Number) row[0]).longValue(), ((Number) row[1]).intValue(),
+                    TransactionType.valueOf((String) row[2]), ((Number) row[3]).longValue(),
+                    ((Number) row[4]).intValue(), ((Number) row[5]).intValue(),
+                    ((Number) row[6]).longValue(), (String) row[7]);
+            rows.add(archivedRow);
+            netCents += archivedRow.signedCents();
+        }
+
+        String fileName = segmentFiles.write(walletId, rows);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    segmentFiles.deleteFile(fileName);
+                }
+            }
+        });
+
+        TransactionArchiveSegment segment = new TransactionArchiveSegment();
+        segment.setWallet(walletRepository.getReferenceById(walletId));
+        segment.setFileName(fileName);
+        segment.setMinDate(LocalDate.ofEpochDay(rows.get(0).epochDay()));
+        segment.setMaxDate(LocalDate.ofEpochDay(rows.get(rows.size() - 1).epochDay()));
+        segment.setRowCount(rows.size());
+        segment.setNetCents(netCents);
+        segment.setLabels(labelsOf(rows));
+        segmentRepository.save(segment);
+        // A rollup rebuild must see the rows either still in the table or already in this segment
+        monthlyRollupService.lockWallet(walletId);
+        // Contents are unchanged, but an analytics build running meanwhile must not cache
+        // columns read between the delete and the segment commit
+        walletAnalyticsStore.walletChanged(walletId);
+        return rows.size();
+    }
+
+    private static Set<ArchivedLabel> labelsOf(List<TransactionSegmentFiles.ArchivedRow> rows) {
+        Set<ArchivedLabel> labels = new HashSet<>();
+        for (TransactionSegmentFiles.ArchivedRow row : rows) {
+            labels.add(new ArchivedLabel(row.type, row.categoryId, row.subcategoryId));
+        }
+        return labels;
+    }
+
+    private static int monthStart(int epochDay) {
+        return (int) LocalDate.ofEpochDay(epochDay).withDayOfMonth(1).toEpochDay();
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.financialcontrol.service;
+
+import com.example.financialcontrol.entity.TransactionType;
+import org.springframework.stereotype.Component;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process inverted index over the descriptions of archived transactions, for text search
+ * (see TransactionSearchService). Archived transactions are not in the database, so the
+ * PostgreSQL full-text index doesn't cover them.
+ *
+ * A segment's file never changes once written (a rewrite goes to a new file), so each
+ * segment's index is built once per file, on the first search touching it, by reading it:
+ * - term → positions of the rows whose description contains it (ascending), in a sorted
+ *   map so a prefix ("netf") selects every term starting with it
+ * - the columns search filters and sorts on (ID, day, type, label IDs)
+ * Indexes are held through SoftReferences: the garbage collector evicts them under memory
+ * pressure, and they are rebuilt when needed again.
+ *
+ * Descriptions are split into terms the same way as the database search: lowercased,
+ * split on anything that is not a letter or digit.
+ */
+@Component
+public class TransactionArchiveTextIndex {
+
+    private final TransactionSegmentFiles segmentFiles;
+
+    // Segment ID -> index of its file
+    private final Map<Long, CachedIndex> indexes = new ConcurrentHashMap<>();
+
+    public TransactionArchiveTextIndex(TransactionSegmentFiles segmentFiles) {
+        this.segmentFiles = segmentFiles;
+    }
+
+    /**
+     * Splits text into search terms (lowercased runs of letters and digits).
+     */
+    public static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String term : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Index of a segment, building it if needed.
+     *
+     * @param segmentId The segment's record ID
+     * @param fileName The segment's file
+     */
+    public SegmentIndex get(Long segmentId, String fileName) {
+        CachedIndex cached = indexes.get(segmentId);
+        // An index of the segment's previous file (before a rewrite) is rebuilt too
+        SegmentIndex index = cached != null && cached.fileName.equals(fileName) ? cached.index.get() : null;
+        if (index == null) {
+            index = build(fileName);
+            indexes.put(segmentId, new CachedIndex(fileName, index));
+        }
+        return index;
+    }
+
+    private SegmentIndex build(String fileName) {
+        SegmentIndex.Builder builder = new SegmentIndex.Builder();
+        segmentFiles.read(fileName, Long.MIN_VALUE, Long.MAX_VALUE, block -> {
+            for (int i = 0; i < block.size(); i++) {
+                builder.add(block.id(i), block.epochDay(i), block.type(i),
+                        block.categoryId(i), block.subcategoryId(i), block.description(i));
+            }
+        });
+        return builder.build();
+    }
+
+    private static final class CachedIndex {
+        final String fileName;
+        final SoftReference<SegmentIndex> index;
+
+        CachedIndex(String fileName, SegmentIndex index) {
+            this.fileName = fileName;
+            this.index = new SoftReference<>(index);
+        }
+    }
+
+    /**
+     * Search index of one segment. Row positions follow the file's (date, id) order.
+     */
+    public static final class SegmentIndex {
+        private final int size;
+        private final long[] ids;
+        private final int[] epochDays;
+        private final TransactionType[] types;
+        private final int[] categoryIds;
+        private final int[] subcategoryIds;
+        private final NavigableMap<String, int[]> postings;
+
+        private SegmentIndex(int size, long[] ids, int[] epochDays, TransactionType[] types,
+                             int[] categoryIds, int[] subcategoryIds, NavigableMap<String, int[]> postings) {
+            this.size = size;
+            this.ids = ids;
+            this.epochDays = epochDays;
+            this.types = types;
+            this.categoryIds = categoryIds;
+            this.subcategoryIds = subcategoryIds;
+            this.postings = postings;
+        }
+
+        /**
+         * Rows whose description has a term starting with each of the given prefixes, or whose
+         * category or subcategory label is one of the given IDs.
+         */
+        public BitSet match(List<String> prefixes, Set<Integer> labelIds) {
+            BitSet matches = null;
+            for (String prefix : prefixes) {
+                BitSet rows = new BitSet(size);
+                for (int[] positions : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+                    for (int position : positions) {
+                        rows.set(position);
+                    }
+                }
+                if (matches == null) {
+                    matches = rows;
+                } else {
+                    matches.and(rows);
+                }
+            }
+            if (matches == null) {
+                matches = new BitSet(size);
+            }
+            if (!labelIds.isEmpty()) {
+                for (int i = 0; i < size; i++) {
+                    if (labelIds.contains(categoryIds[i]) || labelIds.contains(subcategoryIds[i])) {
+                        matches.set(i);
+                    }
+                }
+            }
+            return matches;
+        }
+
+        public long id(int row) {
+            return ids[row];
+        }
+
+        public int epochDay(int row) {
+            return epochDays[row];
+        }
+
+        public TransactionType type(int row) {
+            return types[row];
+        }
+
+        private static final class Builder {
+            private int size;
+            private long[] ids = new long[1024];
+            private int[] epochDays = new int[1024];
+            private TransactionType[] types = new TransactionType[1024];
+            private int[] categoryIds = new int[1024];
+            private int[] subcategoryIds = new int[1024];
+            private final Map<String, List<Integer>> postings = new HashMap<>();
+
+            void add(long id, int epochDay, TransactionType type, int categoryId, int subcategoryId, String description) {
+                if (size == ids.length) {
+                    int capacity = size * 2;
+                    ids = Arrays.copyOf(ids, capacity);
+                    epochDays = Arrays.copyOf(epochDays, capacity);
+                    types = Arrays.copyOf(types, capacity);
+                    categoryIds = Arrays.copyOf(categoryIds, capacity);
+                    subcategoryIds = Arrays.copyOf(subcategoryIds, capacity);
+                }
+                ids[size] = id;
+                epochDays[size] = epochDay;
+                types[size] = type;
+                categoryIds[size] = categoryId;
+                subcategoryIds[size] = subcategoryId;
+                for (String term : terms(description)) {
+                    List<Integer> rows = postings.computeIfAbsent(term, key -> new ArrayList<>());
+                    // A term repeated in one description is posted once
+                    if (rows.isEmpty() || rows.get(rows.size() - 1) != size) {
+                        rows.add(size);
+                    }
+                }
+                size++;
+            }
+
+            SegmentIndex build() {
+                NavigableMap<String, int[]> sorted = new TreeMap<>();
+                postings.forEach((term, rows) -> sorted.put(term, rows.stream().mapToInt(Integer::intValue).toArray()));
+                return new SegmentIndex(size, ids, epochDays, types, categoryIds, subcategoryIds, sorted);
+            }
+        }
+    }
+}
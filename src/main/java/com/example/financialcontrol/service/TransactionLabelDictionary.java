@@ -0,0 +1,134 @@
+package com.example.financialcontrol.service;
+
+import com.example.financialcontrol.entity.TransactionLabel;
+import com.example.financialcontrol.repository.TransactionLabelRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * In-memory id ↔ name dictionary for the category and subcategory names of transactions.
+ *
+ * Transactions store their category and subcategory as references to transaction_labels
+ * (an integer per row instead of the repeated text). The API still talks in names:
+ * services translate names to labels when writing and labels back to names when reading,
+ * through this dictionary, without joining transaction_labels.
+ *
+ * Names are only ever added, never changed or removed, so both maps only grow and
+ * can be read without locks. New names are inserted in their own database transaction:
+ * if the caller's transaction rolls back, the label stays (harmless) and the cached ID
+ * remains valid.
+ */
+@Component
+public class TransactionLabelDictionary {
+
+    private final TransactionLabelRepository labelRepository;
+    private final TransactionTemplate newTransaction;
+
+    private final Map<String, Integer> idsByName = new ConcurrentHashMap<>();
+    private final Map<Integer, String> namesById = new ConcurrentHashMap<>();
+
+    public TransactionLabelDictionary(TransactionLabelRepository labelRepository,
+                                      PlatformTransactionManager transactionManager) {
+        this.labelRepository = labelRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Loads every label (1 query). Called on startup by DataInitializer;
+     * names missing from memory are otherwise loaded on demand.
+     */
+    @Transactional(readOnly = true)
+    public void load() {
+        for (TransactionLabel label : labelRepository.findAll()) {
+            put(label.getId(), label.getName());
+        }
+    }
+
+    /**
+     * Label to store on a transaction for a category or subcategory name,
+     * adding the name to the dictionary if it is new. Must be called inside a transaction.
+     */
+    public TransactionLabel labelFor(String name) {
+        return labelRepository.getReferenceById(idOf(name));
+    }
+
+    /**
+     * ID of a name, adding the name to the dictionary if it is new.
+     */
+    public Integer idOf(String name) {
+        Integer id = idsByName.get(name);
+        if (id != null) {
+            return id;
+        }
+        TransactionLabel label = newTransaction.execute(status -> {
+            labelRepository.insertIfAbsent(name);
+            return labelRepository.findByName(name)
+                    .orElseThrow(() -> new IllegalStateException("Label not found after insert: " + name));
+        });
+        put(label.getId(), label.getName());
+        return label.getId();
+    }
+
+    /**
+     * ID of a name if some transaction may use it; empty if the name was never used.
+     */
+    public Optional<Integer> findId(String name) {
+        Integer id = idsByName.get(name);
+        if (id != null) {
+            return Optional.of(id);
+        }
+        return labelRepository.findByName(name).map(label -> put(label.getId(), label.getName()));
+    }
+
+    /**
+     * Name of a transaction's label. Only the label's ID is used, so lazy references
+     * are not initialized.
+     */
+    public String nameOf(TransactionLabel label) {
+        return label == null ? null : nameOf(label.getId());
+    }
+
+    /**
+     * Name of a label ID.
+     */
+    public String nameOf(Integer id) {
+        String name = namesById.get(id);
+        if (name != null) {
+            return name;
+        }
+        TransactionLabel label = labelRepository.findById(id)
+                .orElseThrow(() -> new IllegalStateException("Unknown transaction label: " + id));
+        put(label.getId(), label.getName());
+        return label.getName();
+    }
+
+    /**
+     * IDs of the labels (loaded in memory) whose name matches a predicate.
+     */
+    public Set<Integer> findIds(Predicate<String> nameMatches) {
+        Set<Integer> ids = new HashSet<>();
+        namesById.forEach((id, name) -> {
+            if (nameMatches.test(name)) {
+                ids.add(id);
+            }
+        });
+        return ids;
+    }
+
+    private Integer put(Integer id, String name) {
+        namesById.put(id, name);
+        idsByName.put(name, id);
+        return id;
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.financialcontrol.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Maintains the partitions of the transactions table when it is range-partitioned on date
+ * (PostgreSQL declarative partitioning, see TransactionPartitionMigration).
+ *
+ * Layout:
+ * - one partition per month (transactions_p2024_01) or per year (transactions_p2024),
+ *   depending on transactions.partitioning.interval
+ * - a default partition (transactions_default) catching dates no partition covers yet,
+ *   so an insert never fails because its partition is missing
+ *
+ * A scheduled task (transactions.partitioning.cron, daily by default) creates the partitions
+ * of the current period and of the next transactions.partitioning.periods-ahead periods, so
+ * new transactions normally never land in the default partition. If some did (e.g. dates far
+ * in the future), creating their period's partition moves them out of the default partition.
+ *
+ * Queries with a date range only scan the partitions of that range (partition pruning),
+ * and vacuum / index maintenance work on one partition at a time.
+ */
+@Component
+public class TransactionPartitionManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionPartitionManager.class);
+
+    public static final String DEFAULT_PARTITION = "transactions_default";
+
+    /**
+     * Partition size.
+     */
+    public enum Interval {
+        NONE,
+        MONTH,
+        YEAR
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Interval interval;
+    private final int periodsAhead;
+
+    public TransactionPartitionManager(JdbcTemplate jdbcTemplate,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${transactions.partitioning.interval:none}") String interval,
+                                       @Value("${transactions.partitioning.periods-ahead:3}") int periodsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.interval = Interval.valueOf(interval.trim().toUpperCase(Locale.ROOT));
+        this.periodsAhead = Math.max(0, periodsAhead);
+    }
+
+    /**
+     * True if partitioning is configured (transactions.partitioning.interval is month or year).
+     */
+    public boolean isEnabled() {
+        return interval != Interval.NONE;
+    }
+
+    /**
+     * True if the transactions table is currently a partitioned table.
+     */
+    public boolean isPartitioned() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_partitioned_table p JOIN pg_class c ON c.oid = p.partrelid " +
+                "WHERE c.relname = 'transactions' AND c.relnamespace = to_regnamespace(current_schema())",
+                Integer.class);
+        return count != null && count > 0;
+    }
+
+    /**
+     * Creates the partitions of the current period and the next periods-ahead periods
+     * that don't exist yet.
+     */
+    @Scheduled(cron = "${transactions.partitioning.cron:0 0 3 * * *}")
+    public void createUpcomingPartitions() {
+        if (!isEnabled() || !isPartitioned()) {
+            return;
+        }
+        LocalDate period = periodStart(LocalDate.now());
+        for (int i = 0; i <= periodsAhead; i++) {
+            createPartition(period);
+            period = nextPeriod(period);
+        }
+    }
+
+    /**
+     * Creates the partition of the period starting at the given date, if it doesn't exist.
+     * Rows of that period sitting in the default partition are moved into it.
+     *
+     * Safe to run on several instances at once (e.g. the daily task): the default partition's
+     * lock serializes them, and whoever gets it second finds the partition already there.
+     *
+     * @param periodStart First day of a month or year (see {@link #periodStart})
+     * @return True if the partition was created
+     */
+    public boolean createPartition(LocalDate periodStart) {
+        String name = partitionName(periodStart);
+        if (partitionExists(name)) {
+            return false;
+        }
+        LocalDate periodEnd = nextPeriod(periodStart);
+
+        Integer moved = transactionTemplate.execute(status -> {
+            // Blocks inserts into the default partition while its rows are moved
+            jdbcTemplate.execute("LOCK TABLE " + DEFAULT_PARTITION + " IN SHARE ROW EXCLUSIVE MODE");
+            // Another instance may have created it while we waited for the lock
+            if (partitionExists(name)) {
+                return null;
+            }
+            jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE transactions INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+            int rows = jdbcTemplate.update("INSERT INTO " + name + " SELECT * FROM " + DEFAULT_PARTITION +
+                    " WHERE date >= ? AND date < ?", periodStart, periodEnd);
+            if (rows > 0) {
+                jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE date >= ? AND date < ?",
+                        periodStart, periodEnd);
+            }
+            // Creates the partition's indexes and foreign keys from the parent table's
+            jdbcTemplate.execute("ALTER TABLE transactions ATTACH PARTITION " + name +
+                    " FOR VALUES FROM ('" + periodStart + "') TO ('" + periodEnd + "')");
+            return rows;
+        });
+        if (moved == null) {
+            return false;
+        }
+        logger.info("Created transaction partition {} ({} rows moved from {})", name, moved, DEFAULT_PARTITION);
+        return true;
+    }
+
+    /**
+     * First day of the period containing a date.
+     */
+    public LocalDate periodStart(LocalDate date) {
+        return interval == Interval.YEAR ? date.withDayOfYear(1) : date.withDayOfMonth(1);
+    }
+
+    /**
+     * Name of the partition of the period starting at the given date.
+     */
+    public String partitionName(LocalDate periodStart) {
+        return "transactions_p" + periodStart.format(interval == Interval.YEAR
+                ? DateTimeFormatter.ofPattern("yyyy")
+                : DateTimeFormatter.ofPattern("yyyy_MM"));
+    }
+
+    /**
+     * The SQL date_trunc field of the interval ('month' or 'year').
+     */
+    public String truncField() {
+        return interval == Interval.YEAR ? "year" : "month";
+    }
+
+    private LocalDate nextPeriod(LocalDate periodStart) {
+        return interval == Interval.YEAR ? periodStart.plusYears(1) : periodStart.plusMonths(1);
+    }
+
+    private boolean partitionExists(String name) {
+        return jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name);
+    }
+}
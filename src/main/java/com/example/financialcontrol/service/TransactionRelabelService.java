@@ -0,0 +1,291 @@
+package com.example.financialcontrol.service;
+
+import com.example.financialcontrol.dto.RelabelJobResponse;
+import com.example.financialcontrol.entity.TransactionType;
+import com.example.financialcontrol.entity.User;
+import com.example.financialcontrol.repository.RelabeledTotals;
+import com.example.financialcontrol.repository.TransactionArchiveSegmentRepository;
+import com.example.financialcontrol.repository.TransactionRepository;
+import com.example.financialcontrol.repository.WalletRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Re-points existing transactions after a category or subcategory is renamed or merged.
+ *
+ * Transactions keep the category and subcategory NAME they were created with (as a label,
+ * see TransactionLabelDictionary), so renaming a category would otherwise leave its old
+ * transactions under a name that no longer exists.
+ *
+ * How a job runs:
+ * - It is queued once the database transaction that changed the category commits
+ *   (a rolled back rename never touches transactions)
+ * - A single background thread runs the jobs one after the other
+ * - Each of the user's wallets is processed in chunks: one set-based UPDATE of at most
+ *   categories.relabel.chunk-size rows per database transaction, so locks are held briefly
+ *   and a long job never blocks writers of a whole wallet. Chunks follow the transaction ID,
+ *   each starting after the last ID of the previous one
+ * - The same transaction moves the chunk's totals between the monthly rollup rows
+ *   (MonthlyRollupService.move) and marks the wallet's analytics columns as changed,
+ *   so reports never see a half-applied chunk
+ * - Then the wallet's archived transactions: each archive segment using the old category
+ *   is rewritten (TransactionArchiveService.relabelSegment), one segment per database
+ *   transaction. Segments are handled after the table, so a transaction archived while the
+ *   job runs is either already moved or in a segment the job still visits
+ *
+ * Jobs are kept in memory: they can be polled until an hour after they finish, and a job
+ * interrupted by a restart is not resumed (renaming the category back and forth re-runs it).
+ */
+@Service
+public class TransactionRelabelService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionRelabelService.class);
+
+    // Finished jobs are forgotten after this long
+    private static final long JOB_RETENTION_MINUTES = 60;
+
+    private final TransactionRepository transactionRepository;
+    private final WalletRepository walletRepository;
+    private final TransactionArchiveSegmentRepository segmentRepository;
+    private final TransactionArchiveService transactionArchiveService;
+    private final MonthlyRollupService monthlyRollupService;
+    private final WalletAnalyticsStore walletAnalyticsStore;
+    private final TransactionLabelDictionary labelDictionary;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "transaction-relabel");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public TransactionRelabelService(TransactionRepository transactionRepository,
+                                     WalletRepository walletRepository,
+                                     TransactionArchiveSegmentRepository segmentRepository,
+                                     TransactionArchiveService transactionArchiveService,
+                                     MonthlyRollupService monthlyRollupService,
+                                     WalletAnalyticsStore walletAnalyticsStore,
+                                     TransactionLabelDictionary labelDictionary,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${categories.relabel.chunk-size:1000}") int chunkSize) {
+        this.transactionRepository = transactionRepository;
+        this.walletRepository = walletRepository;
+        this.segmentRepository = segmentRepository;
+        this.transactionArchiveService = transactionArchiveService;
+        this.monthlyRollupService = monthlyRollupService;
+        this.walletAnalyticsStore = walletAnalyticsStore;
+        this.labelDictionary = labelDictionary;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Schedules a job moving a user's transactions from one category (or category + subcategory)
+     * to another. The job starts after the current database transaction commits.
+     *
+     * @param user The owner of the transactions
+     * @param type Type of the transactions to move (the category's type)
+     * @param fromCategory Current category name
+     * @param fromSubcategory Current subcategory name, or null to move every subcategory
+     * @param toCategory New category name
+     * @param toSubcategory New subcategory name (null when fromSubcategory is null)
+     * @return The queued job
+     */
+    public RelabelJobResponse schedule(User user, TransactionType type, String fromCategory, String fromSubcategory,
+                                       String toCategory, String toSubcategory) {
+        pruneFinishedJobs();
+        Job job = new Job(UUID.randomUUID().toString(), user.getId(), type,
+                fromCategory, fromSubcategory, toCategory, toSubcategory);
+        jobs.put(job.id, job);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        submit(job);
+                    } else {
+                        jobs.remove(job.id);
+                    }
+                }
+            });
+        } else {
+            submit(job);
+        }
+        return job.toResponse();
+    }
+
+    /**
+     * Jobs of a user that are queued, running or finished within the last hour, newest first.
+     */
+    public List<RelabelJobResponse> getJobs(User user) {
+        return jobs.values().stream()
+                .filter(job -> job.userId.equals(user.getId()))
+                .sorted(Comparator.comparing((Job job) -> job.createdAt).reversed())
+                .map(Job::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * A job of the user by ID.
+     */
+    public RelabelJobResponse getJob(String jobId, User user) {
+        Job job = jobs.get(jobId);
+        if (job == null || !job.userId.equals(user.getId())) {
+            throw new RuntimeException("Job not found");
+        }
+        return job.toResponse();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // =====================================================
+    // JOB EXECUTION
+    // =====================================================
+
+    private void submit(Job job) {
+        executor.submit(() -> run(job));
+    }
+
+    private void run(Job job) {
+        job.status = "RUNNING";
+        try {
+            Optional<Integer> fromCategoryId = labelDictionary.findId(job.fromCategory);
+            Optional<Integer> fromSubcategoryId = job.fromSubcategory == null
+                    ? Optional.empty() : labelDictionary.findId(job.fromSubcategory);
+            // A name without a label was never used by any transaction: nothing to move
+            boolean nothingToMove = fromCategoryId.isEmpty() || (job.fromSubcategory != null && fromSubcategoryId.isEmpty());
+            if (!nothingToMove) {
+                Integer toCategoryId = labelDictionary.idOf(job.toCategory);
+                Integer toSubcategoryId = job.toSubcategory == null ? null : labelDictionary.idOf(job.toSubcategory);
+                for (Long walletId : walletRepository.findIdsByUserId(job.userId)) {
+                    relabelWallet(job, walletId, fromCategoryId.get(), fromSubcategoryId.orElse(null),
+                            toCategoryId, toSubcategoryId);
+                }
+            }
+            job.status = "COMPLETED";
+            logger.info("Relabel job {} moved {} transactions from {} / {} to {} / {}", job.id, job.updated,
+                    job.fromCategory, job.fromSubcategory, job.toCategory, job.toSubcategory);
+        } catch (RuntimeException e) {
+            job.error = e.getMessage();
+            job.status = "FAILED";
+            logger.error("Relabel job {} failed after {} transactions", job.id, job.updated, e);
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+        }
+    }
+
+    /**
+     * Moves a wallet's matching transactions, one committed chunk at a time, until none is left,
+     * then its matching archived transactions, one segment at a time.
+     */
+    private void relabelWallet(Job job, Long walletId, Integer fromCategoryId, Integer fromSubcategoryId,
+                               Integer toCategoryId, Integer toSubcategoryId) {
+        long afterId = 0;
+        while (true) {
+            long cursor = afterId;
+            List<RelabeledTotals> groups = transactionTemplate.execute(status -> {
+                List<RelabeledTotals> chunk = fromSubcategoryId == null
+                        ? transactionRepository.relabelCategoryChunk(walletId, job.type.name(),
+                                fromCategoryId, toCategoryId, cursor, chunkSize)
+                        : transactionRepository.relabelSubcategoryChunk(walletId, job.type.name(),
+                                fromCategoryId, fromSubcategoryId, toCategoryId, toSubcategoryId, cursor, chunkSize);
+                if (chunk.isEmpty()) {
+                    return chunk;
+                }
+
+                for (RelabeledTotals group : chunk) {
+                    // Category-level moves keep each transaction's subcategory
+                    String subcategory = labelDictionary.nameOf(group.getSubcategory());
+                    monthlyRollupService.move(walletId, LocalDate.ofEpochDay(group.getMonth()), job.type,
+                            job.fromCategory, job.fromSubcategory == null ? subcategory : job.fromSubcategory,
+                            job.toCategory, subcategory,
+                            group.getTotal(), group.getCount());
+                }
+                walletAnalyticsStore.walletChanged(walletId);
+                return chunk;
+            });
+            if (groups == null || groups.isEmpty()) {
+                break;
+            }
+            for (RelabeledTotals group : groups) {
+                job.updated += group.getCount();
+            }
+            afterId = groups.get(0).getLastId();
+        }
+
+        List<Long> segmentIds = fromSubcategoryId == null
+                ? segmentRepository.findIdsWithCategory(walletId, job.type, fromCategoryId)
+                : segmentRepository.findIdsWithSubcategory(walletId, job.type, fromCategoryId, fromSubcategoryId);
+        for (Long segmentId : segmentIds) {
+            Integer moved = transactionTemplate.execute(status -> transactionArchiveService.relabelSegment(
+                    walletId, segmentId, job.type, fromCategoryId, fromSubcategoryId, toCategoryId, toSubcategoryId));
+            job.updated += moved == null ? 0 : moved;
+        }
+    }
+
+    private void pruneFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(JOB_RETENTION_MINUTES);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    /**
+     * In-memory state of one job; progress fields are written by the job thread only.
+     */
+    private static final class Job {
+        final String id;
+        final Long userId;
+        final TransactionType type;
+        final String fromCategory;
+        final String fromSubcategory;
+        final String toCategory;
+        final String toSubcategory;
+        final LocalDateTime createdAt = LocalDateTime.now();
+
+        volatile String status = "PENDING";
+        volatile long updated;
+        volatile String error;
+        volatile LocalDateTime finishedAt;
+
+        Job(String id, Long userId, TransactionType type, String fromCategory,
+            String fromSubcategory, String toCategory, String toSubcategory) {
+            this.id = id;
+            this.userId = userId;
+            this.type = type;
+            this.fromCategory = fromCategory;
+            this.fromSubcategory = fromSubcategory;
+            this.toCategory = toCategory;
+            this.toSubcategory = toSubcategory;
+        }
+
+        RelabelJobResponse toResponse() {
+            return new RelabelJobResponse(id, status, type, fromCategory, fromSubcategory, toCategory,
+                    toSubcategory, updated, error, createdAt, finishedAt);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.financialcontrol.service;
+
+import com.example.financialcontrol.dto.TransactionResponse;
+import com.example.financialcontrol.entity.Transaction;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Comparator;
+
+/**
+ * Builds the TransactionResponse of a transaction, whether it comes from the transactions
+ * table or from an archive segment (see TransactionArchive), with the label names of
+ * TransactionLabelDictionary; and the order every transaction list is returned in.
+ */
+@Component
+public class TransactionResponseMapper {
+
+    // By date, then ID, descending: the order of TransactionRepositoryCustom's queries
+    public static final Comparator<TransactionResponse> NEWEST_FIRST = Comparator
+            .comparing(TransactionResponse::getDate)
+            .thenComparing(TransactionResponse::getId)
+            .reversed();
+
+    private final TransactionLabelDictionary labelDictionary;
+
+    public TransactionResponseMapper(TransactionLabelDictionary labelDictionary) {
+        this.labelDictionary = labelDictionary;
+    }
+
+    public TransactionResponse toResponse(Transaction t) {
+        return new TransactionResponse(t.getId(), t.getWallet().getId(), t.getType(), labelDictionary.nameOf(t.getCategory()),
+                labelDictionary.nameOf(t.getSubcategory()), t.getAmount(), t.getDescription(), t.getDate(), t.getCreatedAt());
+    }
+
+    /**
+     * Row {@code i} of a decompressed segment block of a wallet.
+     */
+    public TransactionResponse toResponse(Long walletId, TransactionSegmentFiles.Block block, int i) {
+        return new TransactionResponse(block.id(i), walletId, block.type(i),
+                labelDictionary.nameOf(block.categoryId(i)), labelDictionary.nameOf(block.subcategoryId(i)),
+                BigDecimal.valueOf(block.amountCents(i), 2), block.description(i),
+                LocalDate.ofEpochDay(block.epochDay(i)), block.createdAt(i));
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.financialcontrol.service;
+
+import com.example.financialcontrol.dto.TransactionResponse;
+import com.example.financialcontrol.dto.TransactionSearchResponse;
+import com.example.financialcontrol.entity.TransactionType;
+import com.example.financialcontrol.entity.User;
+import com.example.financialcontrol.repository.TransactionFilter;
+import com.example.financialcontrol.repository.TransactionRepository;
+import com.example.financialcontrol.repository.WalletRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Text search over all of a user's transactions ("uber", "netflix"), combined with the
+ * type and date filters, newest first, with keyset pagination.
+ *
+ * Matching: every word of the query must start a word of the description ("netf" finds
+ * "Netflix subscription"), or every word must start a word of the category or subcategory
+ * name ("groc" finds everything under "Groceries"). Case-insensitive, no stemming.
+ *
+ * Where the matching runs:
+ * - transactions table: PostgreSQL full-text search on the description (GIN index, see
+ *   TransactionSearchIndexMigration) OR'ed with the matching category/subcategory label IDs
+ *   (idx_transactions_user_category); the label names are matched in memory
+ *   (TransactionLabelDictionary), so no join with transaction_labels
+ * - archived transactions: the in-process inverted index of each segment
+ *   (TransactionArchiveTextIndex), merged with the table's results
+ *
+ * Pagination: results are ordered by (date, id) descending and each page ends with an opaque
+ * cursor encoding its last (date, id). The next page asks for rows strictly before it, so a
+ * page costs the same whatever its depth, and transactions created meanwhile don't shift pages.
+ */
+@Service
+public class TransactionSearchService {
+
+    private static final int MAX_LIMIT = 200;
+    private static final int MAX_TERMS = 8;
+    // Label ID no transaction uses: keeps "IN (:labelIds)" valid when no label name matches
+    private static final int NO_LABEL = 0;
+
+    private final TransactionRepository transactionRepository;
+    private final WalletRepository walletRepository;
+    private final TransactionLabelDictionary labelDictionary;
+    private final TransactionArchive transactionArchive;
+    private final TransactionResponseMapper responseMapper;
+
+    public TransactionSearchService(TransactionRepository transactionRepository,
+                                    WalletRepository walletRepository,
+                                    TransactionLabelDictionary labelDictionary,
+                                    TransactionArchive transactionArchive,
+                                    TransactionResponseMapper responseMapper) {
+        this.transactionRepository = transactionRepository;
+        this.walletRepository = walletRepository;
+        this.labelDictionary = labelDictionary;
+        this.transactionArchive = transactionArchive;
+        this.responseMapper = responseMapper;
+    }
+
+    /**
+     * One page of a user's transactions matching a text query.
+     *
+     * @param user The authenticated user
+     * @param query The words to search for
+     * @param type Only this type, or null for both
+     * @param fromDate First day (inclusive), or null for no lower bound
+     * @param toDate Last day (inclusive), or null for no upper bound
+     * @param cursor The previous page's nextCursor, or null for the first page
+     * @param limit Page size (1 to 200)
+     * @return The page and the cursor of the next one
+     */
+    @Transactional(readOnly = true)
+    public TransactionSearchResponse search(User user, String query, TransactionType type, LocalDate fromDate,
+                                            LocalDate toDate, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new RuntimeException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        List<String> terms = TransactionArchiveTextIndex.terms(query);
+        if (terms.isEmpty()) {
+            throw new RuntimeException("q must contain at least one letter or digit");
+        }
+        if (terms.size() > MAX_TERMS) {
+            throw new RuntimeException("q must not contain more than " + MAX_TERMS + " words");
+        }
+        LocalDate from = fromDate != null ? fromDate : TransactionFilter.MIN_DATE;
+        LocalDate to = toDate != null ? toDate : TransactionFilter.MAX_DATE;
+        if (from.isAfter(to)) {
+            throw new RuntimeException("fromDate must not be after toDate");
+        }
+
+        // Rows strictly before (cursorDate, cursorId); the first page starts after everything
+        LocalDate cursorDate = TransactionFilter.MAX_DATE;
+        long cursorId = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isEmpty()) {
+            long[] position = decodeCursor(cursor);
+            cursorDate = LocalDate.ofEpochDay(position[0]);
+            cursorId = position[1];
+        }
+
+        // Words are letters and digits only, so they are safe in a tsquery
+        String tsQuery = terms.stream().map(term -> term + ":*").collect(Collectors.joining(" & "));
+        Set<Integer> labelIds = labelDictionary.findIds(name -> startsWords(TransactionArchiveTextIndex.terms(name), terms));
+        List<String> types = type != null
+                ? List.of(type.name())
+                : Arrays.stream(TransactionType.values()).map(Enum::name).collect(Collectors.toList());
+
+        // One row more than the page tells whether there is a next page
+        List<TransactionResponse> transactions = transactionRepository.searchByUserId(user.getId(), tsQuery,
+                        labelIds.isEmpty() ? List.of(NO_LABEL) : labelIds, types, from, to, cursorDate, cursorId, limit + 1)
+                .stream()
+                .map(responseMapper::toResponse)
+                .collect(Collectors.toList());
+        // If the table filled the page, only archived matches on or after its oldest day can still rank in it
+        LocalDate archiveFrom = transactions.size() <= limit ? from : transactions.get(transactions.size() - 1).getDate();
+        List<TransactionResponse> archived = transactionArchive.search(walletRepository.findIdsByUserId(user.getId()),
+                terms, labelIds, type, archiveFrom, to, cursorDate.toEpochDay(), cursorId, limit + 1);
+        if (!archived.isEmpty()) {
+            transactions = new ArrayList<>(transactions);
+            transactions.addAll(archived);
+            transactions.sort(TransactionResponseMapper.NEWEST_FIRST);
+        }
+
+        if (transactions.size() <= limit) {
+            return new TransactionSearchResponse(transactions, null);
+        }
+        List<TransactionResponse> page = new ArrayList<>(transactions.subList(0, limit));
+        return new TransactionSearchResponse(page, encodeCursor(page.get(limit - 1)));
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    /**
+     * True if every query term starts one of the words.
+     */
+    private static boolean startsWords(List<String> words, List<String> terms) {
+        for (String term : terms) {
+            boolean found = false;
+            for (String word : words) {
+                if (word.startsWith(term)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String encodeCursor(TransactionResponse last) {
+        String position = last.getDate().toEpochDay() + ":" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long[] decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.indexOf(':');
+            return new long[] {
+                    Long.parseLong(position.substring(0, separator)),
+                    Long.parseLong(position.substring(separator + 1))
+            };
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,439 @@
+package com.example.financialcontrol.service;
+
+import com.example.financialcontrol.entity.TransactionType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Reads and writes the compressed columnar segment files holding archived transactions
+ * (see TransactionArchiveService).
+ *
+ * One file per archived chunk of a wallet ({dir}/wallet-{id}/{first transaction id}.seg, or
+ * {first transaction id}.r{n}.seg once rewritten n times), rows sorted by (date, id). Layout (big-endian):
+ * - header: magic, format version, wallet ID
+ * - blocks of up to {@link #BLOCK_ROWS} rows: row count, first day, last day, compressed length,
+ *   then the deflate-compressed columns of the block:
+ *   ids (long), epochDays (int), types (byte), amountCents (long), categoryIds (int),
+ *   subcategoryIds (int), createdAt (long, microseconds since 1970-01-01T00:00),
+ *   descriptions (presence flag + modified UTF-8)
+ * - a block with row count 0 marks the end of the file
+ *
+ * Storing each column contiguously compresses much better than rows (dates, types and label
+ * IDs repeat a lot). Blocks are compressed independently, so a reader streams one block at a
+ * time and skips blocks outside the requested days without decompressing them.
+ */
+@Component
+public class TransactionSegmentFiles {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionSegmentFiles.class);
+
+    private static final int MAGIC = 0x46435441; // "FCTA"
+    private static final int FORMAT_VERSION = 1;
+    static final int BLOCK_ROWS = 4096;
+
+    // Null when archival is disabled
+    private final Path directory;
+
+    public TransactionSegmentFiles(@Value("${transactions.archive.dir:}") String directory) {
+        this.directory = directory == null || directory.isBlank() ? null : Paths.get(directory);
+    }
+
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    /**
+     * Writes a wallet's segment. The file is written to a temporary file, flushed to disk
+     * and then moved into place, so a crash never leaves a half-written segment behind.
+     *
+     * @param walletId The wallet ID
+     * @param rows Rows sorted by (date, id)
+     * @return The file name, relative to the archive directory
+     */
+    public String write(Long walletId, List<ArchivedRow> rows) {
+        return write(walletId, "wallet-" + walletId + "/" + rows.get(0).id + ".seg", rows);
+    }
+
+    /**
+     * Writes new contents of an existing segment to a file of its own, next to the current one
+     * ("123.seg" → "123.r1.seg" → "123.r2.seg"), which stays untouched: readers of the
+     * current file aren't affected until the segment's record points to the new one.
+     *
+     * @param walletId The wallet ID
+     * @param fileName The segment's current file
+     * @param rows Rows sorted by (date, id)
+     * @return The new file name, relative to the archive directory
+     */
+    public String rewrite(Long walletId, String fileName, List<ArchivedRow> rows) {
+        return write(walletId, nextRevision(fileName), rows);
+    }
+
+    private String write(Long walletId, String fileName, List<ArchivedRow> rows) {
+        if (directory == null) {
+            throw new IllegalStateException("Transaction archive directory is not configured");
+        }
+        Path file = directory.resolve(fileName);
+        Path temp = null;
+        try {
+            Files.createDirectories(file.getParent());
+            temp = Files.createTempFile(file.getParent(), rows.get(0).id + "-", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(walletId);
+                for (int start = 0; start < rows.size(); start += BLOCK_ROWS) {
+                    writeBlock(out, rows.subList(start, Math.min(rows.size(), start + BLOCK_ROWS)));
+                }
+                out.writeInt(0);
+            }
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return fileName;
+        } catch (IOException e) {
+            if (temp != null) {
+                delete(temp);
+            }
+            throw new UncheckedIOException("Could not write transaction segment " + file, e);
+        }
+    }
+
+    // "wallet-1/123.seg" -> "wallet-1/123.r1.seg", "wallet-1/123.r1.seg" -> "wallet-1/123.r2.seg"
+    static String nextRevision(String fileName) {
+        String base = fileName.substring(0, fileName.length() - ".seg".length());
+        int revision = 1;
+        int marker = base.lastIndexOf(".r");
+        if (marker > base.lastIndexOf('/')) {
+            revision = Integer.parseInt(base.substring(marker + 2)) + 1;
+            base = base.substring(0, marker);
+        }
+        return base + ".r" + revision + ".seg";
+    }
+
+    /**
+     * Streams the blocks of a segment that may contain rows between two days (inclusive).
+     * Blocks are decompressed one at a time; rows of a block can still fall outside the range.
+     *
+     * @param fileName File name returned by {@link #write}
+     * @param fromEpochDay First day of interest
+     * @param toEpochDay Last day of interest
+     * @param consumer Receives each block
+     */
+    public void read(String fileName, long fromEpochDay, long toEpochDay, Consumer<Block> consumer) {
+        Path file = resolve(fileName);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Not a transaction segment file");
+            }
+            in.readLong();
+            while (true) {
+                int rows = in.readInt();
+                if (rows == 0) {
+                    return;
+                }
+                int firstDay = in.readInt();
+                int lastDay = in.readInt();
+                int compressedLength = in.readInt();
+                if (firstDay > toEpochDay) {
+                    // Rows are sorted by date: no later block can match either
+                    return;
+                }
+                if (lastDay < fromEpochDay) {
+                    in.skipNBytes(compressedLength);
+                    continue;
+                }
+                consumer.accept(readBlock(new BoundedInputStream(in, compressedLength), rows));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read transaction segment " + file, e);
+        }
+    }
+
+    /**
+     * Deletes a segment file (e.g. after its database record could not be saved).
+     */
+    public void deleteFile(String fileName) {
+        delete(resolve(fileName));
+    }
+
+    // A segment record without the directory its file is in: its transactions can't be read
+    private Path resolve(String fileName) {
+        if (directory == null) {
+            throw new IllegalStateException("Transaction segment " + fileName
+                    + " is recorded but transactions.archive.dir is not set");
+        }
+        return directory.resolve(fileName);
+    }
+
+    // =====================================================
+    // BLOCK ENCODING
+    // =====================================================
+
+    private static void writeBlock(DataOutputStream out, List<ArchivedRow> rows) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DataOutputStream columns = new DataOutputStream(new DeflaterOutputStream(compressed, deflater))) {
+            for (ArchivedRow row : rows) {
+                columns.writeLong(row.id);
+            }
+            for (ArchivedRow row : rows) {
+                columns.writeInt(row.epochDay);
+            }
+            for (ArchivedRow row : rows) {
+                columns.writeByte(row.type.ordinal());
+            }
+            for (ArchivedRow row : rows) {
+                columns.writeLong(row.amountCents);
+            }
+            for (ArchivedRow row : rows) {
+                columns.writeInt(row.categoryId);
+            }
+            for (ArchivedRow row : rows) {
+                columns.writeInt(row.subcategoryId);
+            }
+            for (ArchivedRow row : rows) {
+                columns.writeLong(row.createdAtMicros);
+            }
+            for (ArchivedRow row : rows) {
+                columns.writeBoolean(row.description != null);
+                if (row.description != null) {
+                    columns.writeUTF(row.description);
+                }
+            }
+        } finally {
+            deflater.end();
+        }
+        out.writeInt(rows.size());
+        out.writeInt(rows.get(0).epochDay);
+        out.writeInt(rows.get(rows.size() - 1).epochDay);
+        out.writeInt(compressed.size());
+        compressed.writeTo(out);
+    }
+
+    private static Block readBlock(InputStream compressed, int rows) throws IOException {
+        TransactionType[] typeValues = TransactionType.values();
+        Block block = new Block(rows);
+        try (DataInputStream columns = new DataInputStream(new BufferedInputStream(new InflaterInputStream(compressed)))) {
+            for (int i = 0; i < rows; i++) {
+                block.ids[i] = columns.readLong();
+            }
+            for (int i = 0; i < rows; i++) {
+                block.epochDays[i] = columns.readInt();
+            }
+            for (int i = 0; i < rows; i++) {
+                block.types[i] = typeValues[columns.readByte()];
+            }
+            for (int i = 0; i < rows; i++) {
+                block.amountCents[i] = columns.readLong();
+            }
+            for (int i = 0; i < rows; i++) {
+                block.categoryIds[i] = columns.readInt();
+            }
+            for (int i = 0; i < rows; i++) {
+                block.subcategoryIds[i] = columns.readInt();
+            }
+            for (int i = 0; i < rows; i++) {
+                block.createdAtMicros[i] = columns.readLong();
+            }
+            for (int i = 0; i < rows; i++) {
+                block.descriptions[i] = columns.readBoolean() ? columns.readUTF() : null;
+            }
+        }
+        return block;
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete {}: {}", file, e.toString());
+        }
+    }
+
+    // =====================================================
+    // ROWS AND BLOCKS
+    // =====================================================
+
+    /**
+     * One transaction to archive.
+     */
+    public static final class ArchivedRow {
+        final long id;
+        final int epochDay;
+        final TransactionType type;
+        final long amountCents;
+        final int categoryId;
+        final int subcategoryId;
+        final long createdAtMicros;
+        final String description;
+
+        public ArchivedRow(long id, int epochDay, TransactionType type, long amountCents, int categoryId,
+                           int subcategoryId, long createdAtMicros, String description) {
+            this.id = id;
+            this.epochDay = epochDay;
+            this.type = type;
+            this.amountCents = amountCents;
+            this.categoryId = categoryId;
+            this.subcategoryId = subcategoryId;
+            this.createdAtMicros = createdAtMicros;
+            this.description = description;
+        }
+
+        public int epochDay() {
+            return epochDay;
+        }
+
+        /**
+         * The same transaction under other category and subcategory labels.
+         */
+        public ArchivedRow withLabels(int categoryId, int subcategoryId) {
+            return new ArchivedRow(id, epochDay, type, amountCents, categoryId, subcategoryId, createdAtMicros, description);
+        }
+
+        public long signedCents() {
+            return type == TransactionType.CREDIT ? amountCents : -amountCents;
+        }
+    }
+
+    /**
+     * Decompressed columns of one block; row i is (ids[i], epochDays[i], ...).
+     */
+    public static final class Block {
+        private final int size;
+        private final long[] ids;
+        private final int[] epochDays;
+        private final TransactionType[] types;
+        private final long[] amountCents;
+        private final int[] categoryIds;
+        private final int[] subcategoryIds;
+        private final long[] createdAtMicros;
+        private final String[] descriptions;
+
+        Block(int size) {
+            this.size = size;
+            this.ids = new long[size];
+            this.epochDays = new int[size];
+            this.types = new TransactionType[size];
+            this.amountCents = new long[size];
+            this.categoryIds = new int[size];
+            this.subcategoryIds = new int[size];
+            this.createdAtMicros = new long[size];
+            this.descriptions = new String[size];
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public long id(int i) {
+            return ids[i];
+        }
+
+        public int epochDay(int i) {
+            return epochDays[i];
+        }
+
+        public TransactionType type(int i) {
+            return types[i];
+        }
+
+        public long amountCents(int i) {
+            return amountCents[i];
+        }
+
+        public int categoryId(int i) {
+            return categoryIds[i];
+        }
+
+        public int subcategoryId(int i) {
+            return subcategoryIds[i];
+        }
+
+        public LocalDateTime createdAt(int i) {
+            long micros = createdAtMicros[i];
+            return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                    (int) Math.floorMod(micros, 1_000_000L) * 1000, ZoneOffset.UTC);
+        }
+
+        public String description(int i) {
+            return descriptions[i];
+        }
+
+        /**
+         * Row i as a row to write (e.g. to rewrite the segment).
+         */
+        public ArchivedRow row(int i) {
+            return new ArchivedRow(ids[i], epochDays[i], types[i], amountCents[i], categoryIds[i],
+                    subcategoryIds[i], createdAtMicros[i], descriptions[i]);
+        }
+    }
+
+    /**
+     * Limits reading to one block's compressed bytes. Closing it does not close the file.
+     */
+    private static final class BoundedInputStream extends InputStream {
+        private final InputStream in;
+        private long remaining;
+
+        BoundedInputStream(InputStream in, long length) {
+            this.in = in;
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = in.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = in.read(buffer, offset, (int) Math.min(length, remaining));
+            if (n > 0) {
+                remaining -= n;
+            }
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Skip what the decompressor didn't consume, so the next block header is next
+            in.skipNBytes(remaining);
+            remaining = 0;
+        }
+    }
+}
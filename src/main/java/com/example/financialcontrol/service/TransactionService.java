@@ -5,39 +5,94 @@ import com.example.financialcontrol.entity.Transaction;
 import com.example.financialcontrol.entity.TransactionType;
 import com.example.financialcontrol.entity.User;
 import com.example.financialcontrol.entity.Wallet;
+import com.example.financialcontrol.repository.TransactionFilter;
 import com.example.financialcontrol.repository.TransactionRepository;
+import com.example.financialcontrol.repository.WalletRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 import java.util.stream.Collectors;
 @Service
 public class TransactionService {
+    private static final int MAX_SEARCH_LIMIT = 1000;
     private final TransactionRepository transactionRepository;
     private final WalletService walletService;
-    public TransactionService(TransactionRepository transactionRepository, WalletService walletService) {
+    private final MonthlyRollupService monthlyRollupService;
+    private final WalletAnalyticsStore walletAnalyticsStore;
+    private final TransactionLabelDictionary labelDictionary;
+    private final TransactionArchive transactionArchive;
+    private final WalletRepository walletRepository;
+    private final TransactionResponseMapper responseMapper;
+    public TransactionService(TransactionRepository transactionRepository, WalletService walletService,
+                              MonthlyRollupService monthlyRollupService,
+                              WalletAnalyticsStore walletAnalyticsStore, TransactionLabelDictionary labelDictionary,
+                              TransactionArchive transactionArchive, WalletRepository walletRepository,
+                              TransactionResponseMapper responseMapper) {
         this.transactionRepository = transactionRepository;
         this.walletService = walletService;
+        this.monthlyRollupService = monthlyRollupService;
+        this.walletAnalyticsStore = walletAnalyticsStore;
+        this.labelDictionary = labelDictionary;
+        this.transactionArchive = transactionArchive;
+        this.walletRepository = walletRepository;
+        this.responseMapper = responseMapper;
     }
     @Transactional(readOnly = true)
-    public List<TransactionResponse> getTransactions(Long walletId, User user, TransactionType type, LocalDate fromDate, LocalDate toDate) {
+    public List<TransactionResponse> getTransactions(Long walletId, User user, TransactionType type, LocalDate fromDate, LocalDate toDate,
+                                                     BigDecimal minAmount, BigDecimal maxAmount, List<String> categories, String descriptionPrefix) {
         walletService.getWalletEntityByIdAndUser(walletId, user);
-        return transactionRepository.findByWalletIdWithFilters(walletId, type, fromDate, toDate).stream()
-                .map(this::mapToResponse)
+        TransactionFilter filter = filter(type, fromDate, toDate, minAmount, maxAmount, categories, descriptionPrefix);
+        List<TransactionResponse> transactions = transactionRepository.findByWalletIdMatching(walletId, filter).stream()
+                .map(responseMapper::toResponse)
                 .collect(Collectors.toList());
+        List<TransactionResponse> archived = transactionArchive.findTransactions(List.of(walletId), filter, Integer.MAX_VALUE);
+        return archived.isEmpty() ? transactions : merge(transactions, archived, Integer.MAX_VALUE);
+    }
+    @Transactional(readOnly = true)
+    public List<TransactionResponse> searchTransactions(User user, TransactionType type, LocalDate fromDate, LocalDate toDate,
+                                                        BigDecimal minAmount, BigDecimal maxAmount, List<String> categories,
+                                                        String descriptionPrefix, int limit) {
+        if (limit < 1 || limit > MAX_SEARCH_LIMIT) {
+            throw new RuntimeException("limit must be between 1 and " + MAX_SEARCH_LIMIT);
+        }
+        TransactionFilter filter = filter(type, fromDate, toDate, minAmount, maxAmount, categories, descriptionPrefix);
+        if (filter.getFromDate().isAfter(filter.getToDate())) {
+            throw new RuntimeException("fromDate must not be after toDate");
+        }
+        List<TransactionResponse> transactions = transactionRepository.findByUserIdMatching(user.getId(), filter, limit).stream()
+                .map(responseMapper::toResponse)
+                .collect(Collectors.toList());
+        // If the table already filled the limit, only archived transactions on or after
+        // the oldest day returned can still rank among the newest
+        if (transactions.size() == limit) {
+            filter.setFromDate(transactions.get(transactions.size() - 1).getDate());
+        }
+        List<TransactionResponse> archived = transactionArchive.findTransactions(
+                walletRepository.findIdsByUserId(user.getId()), filter, limit);
+        return archived.isEmpty() ? transactions : merge(transactions, archived, limit);
     }
     @Transactional
     public TransactionResponse createTransaction(Long walletId, TransactionRequest request, User user) {
         Wallet wallet = walletService.getWalletEntityByIdAndUser(walletId, user);
         Transaction t = new Transaction();
         t.setWallet(wallet);
+        t.setUser(wallet.getUser());
         t.setType(request.getType());
-        t.setCategory(request.getCategory());
-        t.setSubcategory(request.getSubcategory());
+        t.setCategory(labelDictionary.labelFor(request.getCategory()));
+        t.setSubcategory(labelDictionary.labelFor(request.getSubcategory()));
         t.setAmount(request.getAmount());
         t.setDescription(request.getDescription());
         t.setDate(request.getDate());
-        return mapToResponse(transactionRepository.save(t));
+        Transaction saved = transactionRepository.save(t);
+        monthlyRollupService.add(saved);
+        walletAnalyticsStore.transactionCreated(saved);
+        return responseMapper.toResponse(saved);
     }
     @Transactional
     public void deleteTransaction(Long transactionId, User user) {
@@ -47,9 +102,39 @@ public class TransactionService {
             throw new RuntimeException("Access denied");
         }
         transactionRepository.delete(t);
+        monthlyRollupService.remove(t);
+        walletAnalyticsStore.transactionDeleted(t);
+    }
+    // Only the criteria given end up in the query (see TransactionRepositoryImpl)
+    private TransactionFilter filter(TransactionType type, LocalDate fromDate, LocalDate toDate, BigDecimal minAmount,
+                                     BigDecimal maxAmount, List<String> categories, String descriptionPrefix) {
+        if (minAmount != null && maxAmount != null && minAmount.compareTo(maxAmount) > 0) {
+            throw new RuntimeException("minAmount must not be greater than maxAmount");
+        }
+        TransactionFilter filter = new TransactionFilter();
+        filter.setFromDate(fromDate != null ? fromDate : TransactionFilter.MIN_DATE);
+        filter.setToDate(toDate != null ? toDate : TransactionFilter.MAX_DATE);
+        filter.setType(type);
+        filter.setMinAmount(minAmount);
+        filter.setMaxAmount(maxAmount);
+        if (categories != null && !categories.isEmpty()) {
+            // Names never used by any transaction have no label: they match nothing
+            Set<Integer> categoryIds = new HashSet<>();
+            for (String category : categories) {
+                labelDictionary.findId(category.trim()).ifPresent(categoryIds::add);
+            }
+            filter.setCategoryIds(categoryIds);
+        }
+        if (descriptionPrefix != null && !descriptionPrefix.isEmpty()) {
+            filter.setDescriptionPrefix(descriptionPrefix.toLowerCase(Locale.ROOT));
+        }
+        return filter;
     }
-    private TransactionResponse mapToResponse(Transaction t) {
-        return new TransactionResponse(t.getId(), t.getWallet().getId(), t.getType(), t.getCategory(),
-                t.getSubcategory(), t.getAmount(), t.getDescription(), t.getDate(), t.getCreatedAt());
+    private static List<TransactionResponse> merge(List<TransactionResponse> transactions, List<TransactionResponse> archived, int limit) {
+        List<TransactionResponse> merged = new ArrayList<>(transactions.size() + archived.size());
+        merged.addAll(transactions);
+        merged.addAll(archived);
+        merged.sort(TransactionResponseMapper.NEWEST_FIRST);
+        return merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
     }
 }
\ No newline at end of file
@@ -0,0 +1,470 @@
+package com.example.financialcontrol.service;
+
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single-pass scanner that extracts the amount, currency and date from natural language text.
+ *
+ * The text is split once into tokens (words, numbers, ISO dates, DD/MM/YYYY dates and
+ * currency symbols). The token list is then walked once to recognise:
+ * - Amounts: 23, 23.5, 23,50, 1.234,56, €23, R$23, 23 euros
+ * - Currency markers: €, $, R$, euro(s), reais, dollar(s)
+ * - Relative dates (PT/EN): hoje, ontem, anteontem, há 2 dias, 3 weeks ago, mês passado...
+ * - Absolute dates: 2024-01-15, 15/01/2024
+ *
+ * Numbers that belong to a date ("há 2 dias", "2024-01-15") are never used as the amount.
+ *
+ * No regex is compiled or evaluated per call; the scanner is stateless and thread-safe.
+ */
+@Component
+public class TransactionTextScanner {
+
+    // =====================================================
+    // DATE RULE PRIORITIES
+    // =====================================================
+    // When several date expressions are present, the one with the lowest
+    // priority wins (same order the parser has always used).
+    // For the same priority, the first occurrence in the text wins.
+
+    private static final int PRIORITY_TODAY = 0;
+    private static final int PRIORITY_YESTERDAY = 1;
+    private static final int PRIORITY_PT_DAYS_AGO = 2;
+    private static final int PRIORITY_EN_DAYS_AGO = 3;
+    private static final int PRIORITY_PT_WEEKS_AGO = 4;
+    private static final int PRIORITY_EN_WEEKS_AGO = 5;
+    private static final int PRIORITY_PT_MONTHS_AGO = 6;
+    private static final int PRIORITY_EN_MONTHS_AGO = 7;
+    private static final int PRIORITY_LAST_WEEK = 8;
+    private static final int PRIORITY_LAST_MONTH = 9;
+    private static final int PRIORITY_ISO_DATE = 10;
+    private static final int PRIORITY_EURO_DATE = 11;
+    private static final int NO_DATE = Integer.MAX_VALUE;
+
+    // Token kinds
+    private static final byte WORD = 0;
+    private static final byte NUMBER = 1;
+    private static final byte DATE = 2;
+    private static final byte CURRENCY = 3;
+
+    /**
+     * Result of a scan: every extraction found in the text.
+     */
+    public static class ScanResult {
+        public final BigDecimal amount;
+        public final boolean amountDetected;
+        public final String currency;
+        public final LocalDate date;
+        public final boolean dateDetected;
+        // Priority of the winning date expression (lower wins), Integer.MAX_VALUE when none was found
+        public final int datePriority;
+
+        public ScanResult(BigDecimal amount, boolean amountDetected, String currency,
+                          LocalDate date, boolean dateDetected, int datePriority) {
+            this.amount = amount;
+            this.amountDetected = amountDetected;
+            this.currency = currency;
+            this.date = date;
+            this.dateDetected = dateDetected;
+            this.datePriority = datePriority;
+        }
+    }
+
+    /**
+     * A single token. For NUMBER tokens {@code value} holds the parsed number,
+     * for DATE tokens {@code date} holds the parsed date (null if invalid),
+     * for WORD and CURRENCY tokens {@code text} holds the lowercase text / ISO currency code.
+     */
+    private static final class Token {
+        final byte kind;
+        final String text;
+        final BigDecimal value;
+        final LocalDate date;
+        final int datePriority;
+        boolean usedByDate;
+
+        Token(byte kind, String text, BigDecimal value, LocalDate date, int datePriority) {
+            this.kind = kind;
+            this.text = text;
+            this.value = value;
+            this.date = date;
+            this.datePriority = datePriority;
+        }
+    }
+
+    /**
+     * Scans the text and returns the amount, currency and date found in it.
+     *
+     * @param text The input text (any case)
+     * @return ScanResult with all extractions; the date defaults to today when none is found
+     */
+    public ScanResult scan(String text) {
+        List<Token> tokens = tokenize(text);
+        LocalDate today = LocalDate.now();
+
+        // Step 1: Find the best date expression and mark the tokens it consumes
+        LocalDate bestDate = null;
+        int bestPriority = NO_DATE;
+        int bestStart = -1;
+        int bestLength = 0;
+
+        for (int i = 0; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+            LocalDate candidate = null;
+            int priority = NO_DATE;
+            int start = i;
+            int length = 1;
+
+            if (token.kind == DATE) {
+                candidate = token.date;
+                priority = token.datePriority;
+            } else if (token.kind == WORD) {
+                switch (token.text) {
+                    case "hoje":
+                    case "today":
+                        candidate = today;
+                        priority = PRIORITY_TODAY;
+                        break;
+                    case "ontem":
+                        candidate = today.minusDays(1);
+                        priority = PRIORITY_YESTERDAY;
+                        break;
+                    case "anteontem":
+                        candidate = today.minusDays(2);
+                        priority = PRIORITY_YESTERDAY;
+                        break;
+                    case "yesterday":
+                        // "day before yesterday" → 2 days ago
+                        if (wordAt(tokens, i - 2, "day") && wordAt(tokens, i - 1, "before")) {
+                            candidate = today.minusDays(2);
+                            start = i - 2;
+                            length = 3;
+                        } else {
+                            candidate = today.minusDays(1);
+                        }
+                        priority = PRIORITY_YESTERDAY;
+                        break;
+                    case "semana":
+                        if (wordAt(tokens, i + 1, "passada")) {
+                            candidate = today.minusWeeks(1);
+                            priority = PRIORITY_LAST_WEEK;
+                            length = 2;
+                        }
+                        break;
+                    case "mês":
+                    case "mes":
+                        if (wordAt(tokens, i + 1, "passado")) {
+                            candidate = today.minusMonths(1);
+                            priority = PRIORITY_LAST_MONTH;
+                            length = 2;
+                        }
+                        break;
+                    case "last":
+                        if (wordAt(tokens, i + 1, "week")) {
+                            candidate = today.minusWeeks(1);
+                            priority = PRIORITY_LAST_WEEK;
+                            length = 2;
+                        } else if (wordAt(tokens, i + 1, "month")) {
+                            candidate = today.minusMonths(1);
+                            priority = PRIORITY_LAST_MONTH;
+                            length = 2;
+                        }
+                        break;
+                    case "há":
+                    case "ha":
+                    case "á":
+                    case "a":
+                        // "há 2 dias", "há 1 semana", "há 3 meses"
+                        if (i + 2 < tokens.size() && tokens.get(i + 1).kind == NUMBER && tokens.get(i + 2).kind == WORD) {
+                            int n = tokens.get(i + 1).value.intValue();
+                            String unit = tokens.get(i + 2).text;
+                            length = 3;
+                            if (unit.equals("dia") || unit.equals("dias")) {
+                                candidate = today.minusDays(n);
+                                priority = PRIORITY_PT_DAYS_AGO;
+                            } else if (unit.equals("semana") || unit.equals("semanas")) {
+                                candidate = today.minusWeeks(n);
+                                priority = PRIORITY_PT_WEEKS_AGO;
+                            } else if (unit.equals("mês") || unit.equals("mes") || unit.equals("meses")) {
+                                candidate = today.minusMonths(n);
+                                priority = PRIORITY_PT_MONTHS_AGO;
+                            }
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            } else if (token.kind == NUMBER && wordAt(tokens, i + 2, "ago") && i + 1 < tokens.size()
+                    && tokens.get(i + 1).kind == WORD) {
+                // "2 days ago", "1 week ago", "3 months ago"
+                int n = token.value.intValue();
+                String unit = tokens.get(i + 1).text;
+                length = 3;
+                if (unit.equals("day") || unit.equals("days")) {
+                    candidate = today.minusDays(n);
+                    priority = PRIORITY_EN_DAYS_AGO;
+                } else if (unit.equals("week") || unit.equals("weeks")) {
+                    candidate = today.minusWeeks(n);
+                    priority = PRIORITY_EN_WEEKS_AGO;
+                } else if (unit.equals("month") || unit.equals("months")) {
+                    candidate = today.minusMonths(n);
+                    priority = PRIORITY_EN_MONTHS_AGO;
+                }
+            }
+
+            if (candidate != null && priority < bestPriority) {
+                bestDate = candidate;
+                bestPriority = priority;
+                bestStart = start;
+                bestLength = length;
+            }
+        }
+
+        if (bestDate != null) {
+            for (int j = bestStart; j < bestStart + bestLength; j++) {
+                tokens.get(j).usedByDate = true;
+            }
+        }
+
+        // Step 2: The first number that is not part of a date is the amount
+        BigDecimal amount = null;
+        String currency = null;
+        for (int i = 0; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+            if (token.kind != NUMBER || token.usedByDate || isRelativeDateNumber(tokens, i)) {
+                continue;
+            }
+            amount = token.value;
+            currency = currencyAround(tokens, i);
+            break;
+        }
+
+        boolean amountDetected = amount != null && amount.compareTo(BigDecimal.ZERO) > 0;
+        return new ScanResult(
+                amountDetected ? amount : null,
+                amountDetected,
+                currency,
+                bestDate != null ? bestDate : today,
+                bestDate != null,
+                bestDate != null ? bestPriority : NO_DATE);
+    }
+
+    // =====================================================
+    // TOKENIZER
+    // =====================================================
+
+    /**
+     * Splits the text into tokens in a single left-to-right pass.
+     * Words are lowercased here so callers never need a separate toLowerCase() pass.
+     */
+    private List<Token> tokenize(String text) {
+        List<Token> tokens = new ArrayList<>();
+        int length = text.length();
+        int i = 0;
+
+        while (i < length) {
+            char c = text.charAt(i);
+
+            if (isAsciiDigit(c)) {
+                i = readNumberOrDate(text, i, tokens);
+            } else if (Character.isLetter(c)) {
+                int start = i;
+                while (i < length && (Character.isLetter(text.charAt(i)) || text.charAt(i) == '\'')) {
+                    i++;
+                }
+                String word = text.substring(start, i).toLowerCase();
+                // "R$" is a currency marker, not the word "r"
+                if (word.equals("r") && i < length && text.charAt(i) == '$') {
+                    tokens.add(new Token(CURRENCY, "BRL", null, null, NO_DATE));
+                    i++;
+                } else {
+                    String code = currencyWord(word);
+                    tokens.add(code != null
+                            ? new Token(CURRENCY, code, null, null, NO_DATE)
+                            : new Token(WORD, word, null, null, NO_DATE));
+                }
+            } else if (c == '€') {
+                tokens.add(new Token(CURRENCY, "EUR", null, null, NO_DATE));
+                i++;
+            } else if (c == '$') {
+                tokens.add(new Token(CURRENCY, "USD", null, null, NO_DATE));
+                i++;
+            } else {
+                i++;
+            }
+        }
+
+        return tokens;
+    }
+
+    /**
+     * Reads a number starting at {@code start}. Recognises ISO dates (YYYY-MM-DD),
+     * European dates (DD/MM/YYYY), decimals with dot or comma (1-2 decimal digits)
+     * and thousands groups (1.234,56 / 1,234.56).
+     *
+     * @return the index just after the consumed characters
+     */
+    private int readNumberOrDate(String text, int start, List<Token> tokens) {
+        int length = text.length();
+        int i = digitsEnd(text, start);
+        int intDigits = i - start;
+
+        // ISO date: YYYY-MM-DD
+        if (intDigits == 4 && isDigitRun(text, i + 1, 2) && charAt(text, i) == '-'
+                && charAt(text, i + 3) == '-' && isDigitRun(text, i + 4, 2) && !isAsciiDigit(charAt(text, i + 6))) {
+            LocalDate date = safeDate(parse(text, start, i), parse(text, i + 1, i + 3), parse(text, i + 4, i + 6));
+            if (date != null) {
+                tokens.add(new Token(DATE, null, null, date, PRIORITY_ISO_DATE));
+                return i + 6;
+            }
+        }
+
+        // European date: DD/MM/YYYY
+        if (intDigits <= 2 && charAt(text, i) == '/') {
+            int monthEnd = digitsEnd(text, i + 1);
+            int monthDigits = monthEnd - (i + 1);
+            if (monthDigits >= 1 && monthDigits <= 2 && charAt(text, monthEnd) == '/') {
+                int yearEnd = digitsEnd(text, monthEnd + 1);
+                if (yearEnd - (monthEnd + 1) == 4) {
+                    LocalDate date = safeDate(parse(text, monthEnd + 1, yearEnd), parse(text, i + 1, monthEnd), parse(text, start, i));
+                    if (date != null) {
+                        tokens.add(new Token(DATE, null, null, date, PRIORITY_EURO_DATE));
+                        return yearEnd;
+                    }
+                }
+            }
+        }
+
+        // Plain number, possibly with thousands groups and a decimal part
+        StringBuilder digits = new StringBuilder(text.substring(start, i));
+        while (i < length) {
+            char sep = text.charAt(i);
+            if (sep != '.' && sep != ',') {
+                break;
+            }
+            int groupEnd = digitsEnd(text, i + 1);
+            int groupDigits = groupEnd - (i + 1);
+            if (groupDigits == 3) {
+                // Thousands group: 1.234 / 1,234
+                digits.append(text, i + 1, groupEnd);
+                i = groupEnd;
+            } else if (groupDigits == 1 || groupDigits == 2) {
+                // Decimal part: 23.5 / 23,50
+                digits.append('.').append(text, i + 1, groupEnd);
+                i = groupEnd;
+                break;
+            } else {
+                break;
+            }
+        }
+
+        tokens.add(new Token(NUMBER, null, new BigDecimal(digits.toString()), null, NO_DATE));
+        return i;
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    private static String currencyWord(String word) {
+        switch (word) {
+            case "euro":
+            case "euros":
+                return "EUR";
+            case "real":
+            case "reais":
+                return "BRL";
+            case "dollar":
+            case "dollars":
+            case "dólar":
+            case "dólares":
+            case "dolar":
+            case "dolares":
+                return "USD";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * A currency marker directly before or after the number at {@code index}.
+     */
+    private static String currencyAround(List<Token> tokens, int index) {
+        if (index > 0 && tokens.get(index - 1).kind == CURRENCY) {
+            return tokens.get(index - 1).text;
+        }
+        if (index + 1 < tokens.size() && tokens.get(index + 1).kind == CURRENCY) {
+            return tokens.get(index + 1).text;
+        }
+        return null;
+    }
+
+    /**
+     * True if the number at {@code index} is the count in a relative date phrase
+     * that lost to a higher-priority date (e.g. "hoje, há 2 dias"). Such numbers are
+     * never amounts either.
+     */
+    private static boolean isRelativeDateNumber(List<Token> tokens, int index) {
+        if (index + 1 >= tokens.size() || tokens.get(index + 1).kind != WORD) {
+            return false;
+        }
+        String unit = tokens.get(index + 1).text;
+        if (wordAt(tokens, index + 2, "ago")) {
+            return unit.startsWith("day") || unit.startsWith("week") || unit.startsWith("month");
+        }
+        if (index > 0 && tokens.get(index - 1).kind == WORD) {
+            String prev = tokens.get(index - 1).text;
+            boolean haPrefix = prev.equals("há") || prev.equals("ha") || prev.equals("á") || prev.equals("a");
+            return haPrefix && (unit.startsWith("dia") || unit.startsWith("semana")
+                    || unit.equals("mês") || unit.equals("mes") || unit.equals("meses"));
+        }
+        return false;
+    }
+
+    private static boolean wordAt(List<Token> tokens, int index, String word) {
+        return index >= 0 && index < tokens.size()
+                && tokens.get(index).kind == WORD && tokens.get(index).text.equals(word);
+    }
+
+    private static int digitsEnd(String text, int from) {
+        int i = from;
+        while (i < text.length() && isAsciiDigit(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isDigitRun(String text, int from, int count) {
+        return from + count <= text.length() && digitsEnd(text, from) - from >= count;
+    }
+
+    private static char charAt(String text, int index) {
+        return index < text.length() ? text.charAt(index) : '\0';
+    }
+
+    private static int parse(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            value = value * 10 + (text.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    private static LocalDate safeDate(int year, int month, int day) {
+        try {
+            return LocalDate.of(year, month, day);
+        } catch (DateTimeException e) {
+            // Invalid date (e.g. 31/02/2024), treat as plain numbers
+            return null;
+        }
+    }
+}
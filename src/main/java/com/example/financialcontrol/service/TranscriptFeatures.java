@@ -0,0 +1,68 @@
+package com.example.financialcontrol.service;
+
+import com.example.financialcontrol.entity.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * What a piece of a live transcript contributes to its draft
+ * (see {@link VoiceClassificationService#analyzeTranscript}).
+ *
+ * Features of consecutive pieces combine with {@link #then} following the same rules the
+ * parser applies to a whole text:
+ * - Amount: the first one mentioned
+ * - Date: the expression with the lowest priority; the first one on ties
+ * - Type: CREDIT if any piece has a credit keyword, otherwise DEBIT if any has a debit keyword
+ * - Category/subcategory: the first exact keyword match, otherwise the first fuzzy one
+ *
+ * Instances are immutable.
+ */
+final class TranscriptFeatures {
+
+    static final int NO_DATE = Integer.MAX_VALUE;
+
+    // Features of an empty transcript: the starting point for combining pieces
+    static final TranscriptFeatures NONE = new TranscriptFeatures(null, null, NO_DATE, null, null, null, null, null);
+
+    final BigDecimal amount;
+    final LocalDate date;
+    final int datePriority;
+    final TransactionType type;
+    final String categoryExact;
+    final String categoryFuzzy;
+    final String subcategoryExact;
+    final String subcategoryFuzzy;
+
+    TranscriptFeatures(BigDecimal amount, LocalDate date, int datePriority, TransactionType type,
+                       String categoryExact, String categoryFuzzy,
+                       String subcategoryExact, String subcategoryFuzzy) {
+        this.amount = amount;
+        this.date = date;
+        this.datePriority = datePriority;
+        this.type = type;
+        this.categoryExact = categoryExact;
+        this.categoryFuzzy = categoryFuzzy;
+        this.subcategoryExact = subcategoryExact;
+        this.subcategoryFuzzy = subcategoryFuzzy;
+    }
+
+    /**
+     * Combines these features with the ones of the piece spoken right after.
+     *
+     * @param later The features of the next piece
+     * @return The features of both pieces together
+     */
+    TranscriptFeatures then(TranscriptFeatures later) {
+        boolean laterDate = date == null || later.datePriority < datePriority;
+        return new TranscriptFeatures(
+                amount != null ? amount : later.amount,
+                laterDate ? later.date : date,
+                laterDate ? later.datePriority : datePriority,
+                type == TransactionType.CREDIT || later.type == null ? type : later.type,
+                categoryExact != null ? categoryExact : later.categoryExact,
+                categoryFuzzy != null ? categoryFuzzy : later.categoryFuzzy,
+                subcategoryExact != null ? subcategoryExact : later.subcategoryExact,
+                subcategoryFuzzy != null ? subcategoryFuzzy : later.subcategoryFuzzy);
+    }
+}
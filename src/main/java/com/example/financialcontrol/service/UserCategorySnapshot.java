@@ -0,0 +1,66 @@
+package com.example.financialcontrol.service;
+
+import com.example.financialcontrol.entity.Category;
+import com.example.financialcontrol.entity.Subcategory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory view of the categories and subcategories available to one user
+ * (defaults + the user's own), loaded once per classification request.
+ *
+ * Classifying an utterance used to run up to four repository queries per draft
+ * (category by name, "Other", subcategory by name, "General", first subcategory).
+ * With the snapshot, a request needs the two "available for user" queries no matter
+ * how many drafts it produces, and every lookup after that is a hash map access.
+ */
+public final class UserCategorySnapshot {
+
+    private final Map<String, Category> categoriesByName;
+    private final Map<Long, List<Subcategory>> subcategoriesByCategoryId;
+
+    public UserCategorySnapshot(List<Category> categories, List<Subcategory> subcategories) {
+        Map<String, Category> byName = new HashMap<>();
+        for (Category category : categories) {
+            byName.putIfAbsent(category.getName(), category);
+        }
+
+        Map<Long, List<Subcategory>> byCategory = new HashMap<>();
+        for (Subcategory subcategory : subcategories) {
+            byCategory.computeIfAbsent(subcategory.getCategory().getId(), id -> new ArrayList<>()).add(subcategory);
+        }
+
+        this.categoriesByName = byName;
+        this.subcategoriesByCategoryId = byCategory;
+    }
+
+    /**
+     * Finds a category by exact name, or null if the user has no such category.
+     */
+    public Category findCategory(String name) {
+        return categoriesByName.get(name);
+    }
+
+    /**
+     * Finds a subcategory by exact name inside a category, or null if not found.
+     */
+    public Subcategory findSubcategory(String name, Long categoryId) {
+        for (Subcategory subcategory : subcategoriesOf(categoryId)) {
+            if (subcategory.getName().equals(name)) {
+                return subcategory;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * All subcategories of a category available to the user (empty if none).
+     */
+    public List<Subcategory> subcategoriesOf(Long categoryId) {
+        return subcategoriesByCategoryId.getOrDefault(categoryId, Collections.emptyList());
+    }
+}
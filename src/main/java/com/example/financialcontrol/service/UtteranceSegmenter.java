@@ -0,0 +1,121 @@
+package com.example.financialcontrol.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Splits a dictated utterance into clauses, one per potential transaction.
+ *
+ * Example: "gastei 10 no café e 45 no supermercado" → ["gastei 10 no café", "45 no supermercado"]
+ *
+ * Clause boundaries:
+ * - Punctuation: ',' ';' '.' '!' '?' and new lines (but not the ',' / '.' inside numbers like 23,50)
+ * - Conjunctions (PT/EN): e, and, mais, depois, then, plus
+ *
+ * The splitter is purely lexical: it does not know whether a clause contains an amount.
+ * Callers merge clauses that turn out to have no amount into their neighbour with
+ * {@link #merge(String, Clause, Clause)}. The original text (case and accents) is preserved.
+ */
+public final class UtteranceSegmenter {
+
+    // Words that separate two transactions in the same sentence
+    private static final Set<String> CONJUNCTIONS = Set.of(
+        "e", "and", "mais", "depois", "then", "plus"
+    );
+
+    /**
+     * A clause of the original text: [start, end) offsets and the trimmed text.
+     */
+    public static final class Clause {
+        public final int start;
+        public final int end;
+        public final String text;
+
+        public Clause(int start, int end, String text) {
+            this.start = start;
+            this.end = end;
+            this.text = text;
+        }
+    }
+
+    private UtteranceSegmenter() {
+    }
+
+    /**
+     * Splits the text into clauses in a single pass.
+     *
+     * @param text The original input text
+     * @return Non-empty clauses in the order they appear
+     */
+    public static List<Clause> split(String text) {
+        List<Clause> clauses = new ArrayList<>();
+        int length = text.length();
+        int clauseStart = 0;
+        int i = 0;
+
+        while (i < length) {
+            char c = text.charAt(i);
+
+            if (Character.isLetter(c)) {
+                // Read a whole word and check whether it is a conjunction
+                int wordStart = i;
+                while (i < length && Character.isLetter(text.charAt(i))) {
+                    i++;
+                }
+                String word = text.substring(wordStart, i).toLowerCase();
+                if (CONJUNCTIONS.contains(word)) {
+                    addClause(clauses, text, clauseStart, wordStart);
+                    clauseStart = i;
+                }
+                continue;
+            }
+
+            if (isSeparator(text, i)) {
+                addClause(clauses, text, clauseStart, i);
+                clauseStart = i + 1;
+            }
+            i++;
+        }
+
+        addClause(clauses, text, clauseStart, length);
+        return clauses;
+    }
+
+    /**
+     * True if the character at {@code index} ends a clause. Decimal / thousands separators
+     * between two digits ("23,50", "1.234") are not clause boundaries.
+     */
+    private static boolean isSeparator(String text, int index) {
+        char c = text.charAt(index);
+        switch (c) {
+            case ';':
+            case '!':
+            case '?':
+            case '\n':
+                return true;
+            case ',':
+            case '.':
+                boolean digitBefore = index > 0 && Character.isDigit(text.charAt(index - 1));
+                boolean digitAfter = index + 1 < text.length() && Character.isDigit(text.charAt(index + 1));
+                return !(digitBefore && digitAfter);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Joins two clauses (and whatever separated them) back into one clause of the original text.
+     * Used when a clause has no amount and belongs to its neighbour ("comprei café e pão por 10").
+     */
+    public static Clause merge(String text, Clause first, Clause second) {
+        return new Clause(first.start, second.end, text.substring(first.start, second.end).trim());
+    }
+
+    private static void addClause(List<Clause> clauses, String text, int start, int end) {
+        String clause = text.substring(start, end).trim();
+        if (!clause.isEmpty()) {
+            clauses.add(new Clause(start, end, clause));
+        }
+    }
+}
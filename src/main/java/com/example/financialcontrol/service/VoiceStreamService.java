@@ -0,0 +1,295 @@
+package com.example.financialcontrol.service;
+
+import com.example.financialcontrol.dto.TransactionDraftDto;
+import com.example.financialcontrol.dto.VoiceFragmentDto;
+import com.example.financialcontrol.entity.User;
+import com.example.financialcontrol.entity.Wallet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Live classification of partial transcripts over Server-Sent Events.
+ *
+ * Flow:
+ * 1. The client opens a session (GET /api/voice/stream?walletId=1) and keeps the SSE connection open.
+ *    The first event ("session") carries the session ID.
+ * 2. While the user speaks, the client posts transcript fragments to the session
+ *    (POST /api/voice/stream/{sessionId}/fragments).
+ * 3. Every time the transcript changes, the session updates the draft and pushes a "draft" event
+ *    with the updated TransactionDraftDto (amount, category, date... detected so far).
+ * 4. The client closes the session (DELETE /api/voice/stream/{sessionId}) and confirms the
+ *    last draft with POST /api/wallets/{walletId}/transactions, as in the two-step flow.
+ *
+ * What the session keeps between fragments:
+ * - The validated wallet and the user's categories (loaded once when the session opens),
+ *   so a fragment costs no database queries
+ * - The final transcript so far plus the current interim result
+ * - The features (amount, date, keywords...) of the finished clauses, so a fragment only analyzes
+ *   the clause still being spoken plus the interim result, not the whole transcript again
+ *   (see {@link TranscriptFeatures}). A clause is finished once a later final result starts another
+ *   one; the finished clauses are analyzed again only if the keyword dictionary is reloaded.
+ * - The last draft sent, so an event is only pushed when the draft actually changed
+ *
+ * Limits: fragments are at most 1000 characters (see VoiceFragmentDto), a transcript at most
+ * voice.stream.max-transcript-length characters, and a user can have at most
+ * voice.stream.max-sessions-per-user sessions open at once.
+ *
+ * IMPORTANT: Like the classify endpoints, sessions NEVER save anything to the database.
+ * Sessions live in memory and are dropped when the SSE connection completes, fails or times out.
+ */
+@Service
+public class VoiceStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VoiceStreamService.class);
+
+    private final VoiceClassificationService classificationService;
+    private final WalletService walletService;
+    private final long sessionTimeoutMs;
+    private final int maxTranscriptLength;
+    private final int maxSessionsPerUser;
+
+    // Open sessions by ID (package-private for tests), and how many each user has open
+    final Map<String, StreamSession> sessions = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> openSessionsByUser = new ConcurrentHashMap<>();
+
+    public VoiceStreamService(
+            VoiceClassificationService classificationService,
+            WalletService walletService,
+            @Value("${voice.stream.session-timeout-ms:120000}") long sessionTimeoutMs,
+            @Value("${voice.stream.max-transcript-length:5000}") int maxTranscriptLength,
+            @Value("${voice.stream.max-sessions-per-user:3}") int maxSessionsPerUser) {
+        this.classificationService = classificationService;
+        this.walletService = walletService;
+        this.sessionTimeoutMs = sessionTimeoutMs;
+        this.maxTranscriptLength = maxTranscriptLength;
+        this.maxSessionsPerUser = maxSessionsPerUser;
+    }
+
+    /**
+     * Opens a streaming session for a wallet.
+     * Throws RuntimeException if the user already has the maximum number of sessions open.
+     *
+     * @param walletId The wallet the drafts belong to
+     * @param user The authenticated user
+     * @return The SSE emitter for the session
+     */
+    public SseEmitter openSession(Long walletId, User user) {
+        // Validate wallet ownership and load the user's categories once for the whole session
+        Wallet wallet = walletService.getWalletEntityByIdAndUser(walletId, user);
+        UserCategorySnapshot categories = classificationService.loadCategorySnapshot(user);
+
+        // Count the session against the user's limit (the map is left unchanged if the limit is reached)
+        openSessionsByUser.merge(user.getId(), 1, (open, one) -> {
+            if (open >= maxSessionsPerUser) {
+                throw new RuntimeException("Too many open voice stream sessions (max " + maxSessionsPerUser
+                        + "). Close one before opening another.");
+            }
+            return open + one;
+        });
+
+        String sessionId = UUID.randomUUID().toString();
+        SseEmitter emitter = new SseEmitter(sessionTimeoutMs);
+        StreamSession session = new StreamSession(sessionId, user.getId(), wallet.getId(), categories, emitter);
+        sessions.put(sessionId, session);
+
+        // Drop the session however the connection ends
+        emitter.onCompletion(() -> drop(sessionId));
+        emitter.onTimeout(() -> drop(sessionId));
+        emitter.onError(e -> drop(sessionId));
+
+        send(session, "session", Map.of("sessionId", sessionId));
+        return emitter;
+    }
+
+    /**
+     * Adds a transcript fragment to a session and pushes the updated draft if it changed.
+     * Throws RuntimeException if the transcript would grow past the maximum length.
+     *
+     * @param sessionId The session ID
+     * @param fragment The interim or final transcript fragment
+     * @param user The authenticated user
+     * @return The draft for the transcript so far
+     */
+    public TransactionDraftDto addFragment(String sessionId, VoiceFragmentDto fragment, User user) {
+        StreamSession session = getSession(sessionId, user);
+
+        // Fragments of one session may arrive concurrently; apply them one at a time
+        synchronized (session) {
+            String transcript = session.apply(fragment, maxTranscriptLength);
+
+            // Nothing new was said: keep the current draft
+            if (transcript.equals(session.lastTranscript)) {
+                return session.lastDraft;
+            }
+
+            TransactionDraftDto draft = classificationService.classifyTranscript(
+                    session.walletId, transcript, featuresOf(session), session.categories);
+            session.lastTranscript = transcript;
+
+            if (!draft.equals(session.lastDraft)) {
+                session.lastDraft = draft;
+                send(session, "draft", draft);
+            }
+            return draft;
+        }
+    }
+
+    /**
+     * Closes a session and its SSE connection.
+     *
+     * @param sessionId The session ID
+     * @param user The authenticated user
+     */
+    public void closeSession(String sessionId, User user) {
+        StreamSession session = getSession(sessionId, user);
+        drop(sessionId);
+        session.emitter.complete();
+    }
+
+    /**
+     * Features of a session's whole transcript.
+     *
+     * Clauses of the final text that are followed by another clause can't change anymore:
+     * they are analyzed once and folded into the session's finished features. Only the last
+     * final clause (a later final result may continue it: "gastei 10" + "no café") and the
+     * interim result are analyzed on every fragment.
+     */
+    private TranscriptFeatures featuresOf(StreamSession session) {
+        KeywordDictionary dictionary = classificationService.currentDictionary();
+        if (dictionary != session.dictionary) {
+            // The keywords were reloaded: analyze the finished clauses again with the new ones
+            session.dictionary = dictionary;
+            session.finishedFeatures = TranscriptFeatures.NONE;
+            session.openClauseStart = 0;
+        }
+
+        String open = session.finalText.substring(session.openClauseStart);
+        List<UtteranceSegmenter.Clause> clauses = UtteranceSegmenter.split(open);
+        if (clauses.size() > 1) {
+            for (UtteranceSegmenter.Clause clause : clauses.subList(0, clauses.size() - 1)) {
+                session.finishedFeatures = session.finishedFeatures.then(
+                        classificationService.analyzeTranscript(clause.text, dictionary));
+            }
+            int lastStart = clauses.get(clauses.size() - 1).start;
+            session.openClauseStart += lastStart;
+            open = open.substring(lastStart);
+        }
+
+        String unfinished = session.interimText.isEmpty() ? open : open + " " + session.interimText;
+        return session.finishedFeatures.then(classificationService.analyzeTranscript(unfinished, dictionary));
+    }
+
+    /**
+     * Removes a session and releases its slot in the user's session count.
+     */
+    private void drop(String sessionId) {
+        StreamSession session = sessions.remove(sessionId);
+        if (session != null) {
+            openSessionsByUser.computeIfPresent(session.userId, (userId, open) -> open > 1 ? open - 1 : null);
+        }
+    }
+
+    /**
+     * Gets an open session owned by the user.
+     * Throws RuntimeException if the session doesn't exist or belongs to someone else.
+     */
+    private StreamSession getSession(String sessionId, User user) {
+        StreamSession session = sessions.get(sessionId);
+        if (session == null || !Objects.equals(session.userId, user.getId())) {
+            throw new RuntimeException("Voice stream session not found or expired");
+        }
+        return session;
+    }
+
+    /**
+     * Pushes an event to the client. A failed send means the client went away,
+     * so the session is dropped.
+     */
+    private void send(StreamSession session, String eventName, Object data) {
+        try {
+            session.emitter.send(SseEmitter.event().name(eventName).data(data));
+        } catch (IOException | IllegalStateException e) {
+            logger.debug("Voice stream session {} disconnected: {}", session.id, e.getMessage());
+            drop(session.id);
+        }
+    }
+
+    // =====================================================
+    // SESSION STATE
+    // =====================================================
+
+    /**
+     * State of one streaming session.
+     */
+    private static final class StreamSession {
+        final String id;
+        final Long userId;
+        final Long walletId;
+        final UserCategorySnapshot categories;
+        final SseEmitter emitter;
+
+        // Transcript built from final results, plus the latest interim result
+        final StringBuilder finalText = new StringBuilder();
+        String interimText = "";
+
+        // Features of the finished clauses of finalText (everything before openClauseStart),
+        // and the keyword dictionary they were matched with
+        TranscriptFeatures finishedFeatures = TranscriptFeatures.NONE;
+        int openClauseStart;
+        KeywordDictionary dictionary;
+
+        // Last classified transcript and the draft sent for it
+        String lastTranscript;
+        TransactionDraftDto lastDraft;
+
+        StreamSession(String id, Long userId, Long walletId, UserCategorySnapshot categories, SseEmitter emitter) {
+            this.id = id;
+            this.userId = userId;
+            this.walletId = walletId;
+            this.categories = categories;
+            this.emitter = emitter;
+        }
+
+        /**
+         * Applies a fragment and returns the full transcript so far.
+         * A final result is appended for good; an interim result replaces the previous interim result.
+         * Throws RuntimeException (leaving the session unchanged) if the transcript would get longer
+         * than maxLength characters.
+         */
+        String apply(VoiceFragmentDto fragment, int maxLength) {
+            String text = fragment.getText().trim();
+            int length = finalText.length() == 0 ? text.length() : finalText.length() + 1 + text.length();
+            if (length > maxLength) {
+                throw new RuntimeException("Voice stream transcript is too long (max " + maxLength
+                        + " characters). Close the session and start a new one.");
+            }
+
+            if (fragment.isFinalResult()) {
+                if (!text.isEmpty()) {
+                    if (finalText.length() > 0) {
+                        finalText.append(' ');
+                    }
+                    finalText.append(text);
+                }
+                interimText = "";
+            } else {
+                interimText = text;
+            }
+
+            if (interimText.isEmpty()) {
+                return finalText.toString();
+            }
+            return finalText.length() == 0 ? interimText : finalText + " " + interimText;
+        }
+    }
+}
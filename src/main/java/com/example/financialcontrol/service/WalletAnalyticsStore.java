@@ -0,0 +1,316 @@
+package com.example.financialcontrol.service;
+
+import com.example.financialcontrol.entity.Transaction;
+import com.example.financialcontrol.entity.TransactionType;
+import com.example.financialcontrol.repository.TransactionRepository;
+import com.example.financialcontrol.repository.WalletDataVersionRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.ref.SoftReference;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory analytics store: one {@link WalletColumns} per wallet.
+ *
+ * Lifecycle of a wallet's columns:
+ * 1. Built lazily on the first analytics request: read from the wallet's snapshot file if it is
+ *    up to date (see WalletSnapshotFiles), otherwise with one query selecting only the 5 columns
+ *    needed (and then written to a new snapshot file)
+ * 2. TransactionService reports every created transaction; it is appended once the database
+ *    transaction commits (rolled back transactions are ignored)
+ * 3. A deleted transaction drops the wallet's columns; they are rebuilt on the next request
+ * 4. Columns are held through a SoftReference, so the garbage collector evicts them
+ *    under memory pressure instead of running out of memory. They are rebuilt when needed again.
+ *
+ * Writes that are still in progress when a build starts could be missed by the build query or
+ * counted twice (once by the query, once on commit). A build therefore only caches its result if
+ * no write was in progress for the wallet and none completed while it ran; otherwise the
+ * result is used for that request only.
+ *
+ * Every change also increments the wallet's durable data version (WalletDataVersion) in the same
+ * database transaction. Snapshot files are stamped with it, so a file is only used while nothing
+ * changed since it was written. Columns updated by appends are persisted again periodically
+ * (analytics.snapshot.flush-interval-ms) and on shutdown.
+ *
+ * The same version keeps the cached columns correct when several instances of the application
+ * share the database: every read first looks up the wallet's current version (one primary key
+ * lookup) and rebuilds the columns if it is ahead of theirs, i.e. another instance changed the wallet.
+ */
+@Component
+public class WalletAnalyticsStore {
+
+    private final TransactionRepository transactionRepository;
+    private final WalletDataVersionRepository walletDataVersionRepository;
+    private final WalletSnapshotFiles snapshotFiles;
+    private final TransactionLabelDictionary labelDictionary;
+    private final TransactionArchive transactionArchive;
+
+    private final Map<Long, WalletState> wallets = new ConcurrentHashMap<>();
+
+    public WalletAnalyticsStore(TransactionRepository transactionRepository,
+                                WalletDataVersionRepository walletDataVersionRepository,
+                                WalletSnapshotFiles snapshotFiles,
+                                TransactionLabelDictionary labelDictionary,
+                                TransactionArchive transactionArchive) {
+        this.transactionRepository = transactionRepository;
+        this.walletDataVersionRepository = walletDataVersionRepository;
+        this.snapshotFiles = snapshotFiles;
+        this.labelDictionary = labelDictionary;
+        this.transactionArchive = transactionArchive;
+    }
+
+    /**
+     * Current columns of a wallet, building them from the database if needed.
+     * The caller must have checked that the user owns the wallet.
+     */
+    @Transactional(readOnly = true)
+    public WalletColumns.View getColumns(Long walletId) {
+        WalletState state = state(walletId);
+        // Read the data version BEFORE the data: if a write commits in between, the columns are
+        // newer than the stamp and the snapshot is merely considered stale later, never wrong
+        long dataVersion = currentDataVersion(walletId);
+        long version;
+        boolean cacheable;
+        synchronized (state) {
+            WalletColumns cached = state.columns();
+            if (cached != null) {
+                if (state.dataVersion >= dataVersion) {
+                    return cached.view();
+                }
+                // Changed by a write this instance hasn't applied (yet): another instance, or a
+                // local one between its commit and its callback. Rebuild; cache only if none is pending
+                if (state.pendingWrites == 0) {
+                    state.columnsRef = null;
+                }
+            }
+            version = state.version;
+            cacheable = state.pendingWrites == 0 && state.columns() == null;
+        }
+
+        WalletColumns columns = snapshotFiles.read(walletId, dataVersion);
+        boolean fromFile = columns != null;
+        if (columns == null) {
+            columns = load(walletId);
+        }
+
+        boolean installed = false;
+        if (cacheable) {
+            synchronized (state) {
+                if (state.pendingWrites == 0 && state.version == version && state.columns() == null) {
+                    state.columnsRef = new SoftReference<>(columns);
+                    state.dataVersion = dataVersion;
+                    state.appliedAhead.clear();
+                    state.persistedVersion = fromFile ? dataVersion : -1;
+                    installed = true;
+                }
+            }
+        }
+        if (installed && !fromFile) {
+            persist(walletId, state);
+        }
+        return columns.view();
+    }
+
+    /**
+     * Records a transaction created in the current database transaction.
+     * It is appended to the wallet's columns after commit.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void transactionCreated(Transaction transaction) {
+        track(transaction.getWallet().getId(), transaction);
+    }
+
+    /**
+     * Records a transaction deleted in the current database transaction.
+     * The wallet's columns are dropped after commit.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void transactionDeleted(Transaction transaction) {
+        track(transaction.getWallet().getId(), null);
+    }
+
+    /**
+     * Records any other change to a wallet's transactions in the current database transaction
+     * (e.g. bulk updates). The wallet's columns are dropped after commit.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void walletChanged(Long walletId) {
+        track(walletId, null);
+    }
+
+    // =====================================================
+    // SNAPSHOT PERSISTENCE
+    // =====================================================
+
+    /**
+     * Writes the snapshot of every cached wallet whose columns changed since they were last persisted.
+     */
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${analytics.snapshot.flush-interval-ms:300000}")
+    public void flushSnapshots() {
+        if (!snapshotFiles.isEnabled()) {
+            return;
+        }
+        wallets.forEach(this::persist);
+    }
+
+    // =====================================================
+    // WRITE TRACKING
+    // =====================================================
+
+    private void track(Long walletId, Transaction created) {
+        // Resolve the names now: the labels are lazy references of the caller's session
+        String category = created == null ? null : labelDictionary.nameOf(created.getCategory());
+        String subcategory = created == null ? null : labelDictionary.nameOf(created.getSubcategory());
+
+        // The row stays locked until commit, so concurrent writers of a wallet get increasing versions
+        walletDataVersionRepository.increment(walletId);
+        long newDataVersion = currentDataVersion(walletId);
+
+        WalletState state = state(walletId);
+        synchronized (state) {
+            state.pendingWrites++;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                complete(state, created, category, subcategory, newDataVersion, status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    private static void complete(WalletState state, Transaction created, String category, String subcategory,
+                                 long newDataVersion, boolean committed) {
+        synchronized (state) {
+            state.pendingWrites--;
+            if (!committed) {
+                return;
+            }
+            state.version++;
+            WalletColumns columns = state.columns();
+            if (columns == null) {
+                return;
+            }
+            if (created == null) {
+                state.columnsRef = null;
+                return;
+            }
+            try {
+                columns.append(toCents(created.getAmount()), toEpochDay(created.getDate()), created.getType(),
+                        category, subcategory);
+                state.applied(newDataVersion);
+            } catch (IllegalStateException e) {
+                // Dictionary full: don't cache this wallet, requests will build its columns each time
+                state.columnsRef = null;
+            }
+        }
+    }
+
+    // =====================================================
+    // BUILD
+    // =====================================================
+
+    private WalletColumns load(Long walletId) {
+        List<Object[]> rows = transactionRepository.findAnalyticsColumnsByWalletId(walletId);
+        WalletColumns columns = new WalletColumns(rows.size());
+        for (Object[] row : rows) {
+            columns.append(toCents((BigDecimal) row[0]), toEpochDay((LocalDate) row[1]), (TransactionType) row[2],
+                    labelDictionary.nameOf((Integer) row[3]), labelDictionary.nameOf((Integer) row[4]));
+        }
+        // Archived transactions (see TransactionArchive)
+        transactionArchive.scanWallet(walletId, (id, block, i) ->
+                columns.append(block.amountCents(i), block.epochDay(i), block.type(i),
+                        labelDictionary.nameOf(block.categoryId(i)), labelDictionary.nameOf(block.subcategoryId(i))));
+        return columns;
+    }
+
+    /**
+     * Writes a wallet's snapshot if its cached columns are consistent (no write pending)
+     * and not persisted at their current data version yet.
+     */
+    private void persist(Long walletId, WalletState state) {
+        WalletColumns.View view;
+        long dataVersion;
+        synchronized (state) {
+            WalletColumns columns = state.columns();
+            if (columns == null || state.pendingWrites > 0 || !state.appliedAhead.isEmpty()
+                    || state.dataVersion == state.persistedVersion) {
+                return;
+            }
+            view = columns.view();
+            dataVersion = state.dataVersion;
+        }
+        if (snapshotFiles.write(walletId, dataVersion, view)) {
+            synchronized (state) {
+                state.persistedVersion = Math.max(state.persistedVersion, dataVersion);
+            }
+        }
+    }
+
+    private long currentDataVersion(Long walletId) {
+        return walletDataVersionRepository.findVersionByWalletId(walletId).orElse(0L);
+    }
+
+    private WalletState state(Long walletId) {
+        return wallets.computeIfAbsent(walletId, id -> new WalletState());
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.movePointRight(2).longValue();
+    }
+
+    private static int toEpochDay(LocalDate date) {
+        return (int) date.toEpochDay();
+    }
+
+    /**
+     * Per-wallet state; all fields are guarded by the object's lock.
+     */
+    private static final class WalletState {
+        SoftReference<WalletColumns> columnsRef;
+        // Incremented by every committed write, to detect writes that happened during a build
+        long version;
+        // Writes whose database transaction hasn't completed yet
+        int pendingWrites;
+        // WalletDataVersion the cached columns correspond to: they contain every change up to it
+        long dataVersion;
+        // Versions of appends applied out of order, above dataVersion + 1
+        final TreeSet<Long> appliedAhead = new TreeSet<>();
+        // WalletDataVersion of the last snapshot file written or read, -1 if none
+        long persistedVersion = -1;
+
+        WalletColumns columns() {
+            return columnsRef == null ? null : columnsRef.get();
+        }
+
+        /**
+         * Records the version of an append applied to the columns. Every change increments the
+         * version by exactly 1, so dataVersion only advances over contiguous versions: a version
+         * taken by a write this instance never sees (another instance) leaves a gap, dataVersion
+         * stays below the database's and the next read rebuilds the columns.
+         */
+        void applied(long newDataVersion) {
+            if (newDataVersion != dataVersion + 1) {
+                if (newDataVersion > dataVersion) {
+                    appliedAhead.add(newDataVersion);
+                }
+                return;
+            }
+            dataVersion = newDataVersion;
+            while (appliedAhead.remove(dataVersion + 1)) {
+                dataVersion++;
+            }
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.financialcontrol.service;
+
+import com.example.financialcontrol.entity.TransactionType;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Column-oriented copy of a wallet's transactions, for analytics.
+ *
+ * Instead of one Transaction object per row (BigDecimal amount, String category...),
+ * every attribute is stored in its own primitive array:
+ * - amountCents:    long  (amount * 100)
+ * - epochDays:      int   (days since 1970-01-01)
+ * - types:          byte  (TransactionType ordinal)
+ * - categoryIds:    short (index into the category dictionary)
+ * - subcategoryIds: short (index into the subcategory dictionary)
+ *
+ * Row i is (amountCents[i], epochDays[i], types[i], categoryIds[i], subcategoryIds[i]).
+ * A million rows take about 17 MB and aggregating them is a tight loop over arrays,
+ * with no object allocation per row.
+ *
+ * Thread safety: rows are only appended. Appends run under the object's lock and never modify
+ * a row that a reader can see (arrays are replaced by bigger copies when full), so a
+ * {@link View} taken with {@link #view()} can be scanned without any lock.
+ */
+public final class WalletColumns {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] amountCents;
+    private int[] epochDays;
+    private byte[] types;
+    private short[] categoryIds;
+    private short[] subcategoryIds;
+    private int size;
+
+    private final Dictionary categories = new Dictionary();
+    private final Dictionary subcategories = new Dictionary();
+
+    public WalletColumns(int expectedRows) {
+        int capacity = Math.max(INITIAL_CAPACITY, expectedRows);
+        this.amountCents = new long[capacity];
+        this.epochDays = new int[capacity];
+        this.types = new byte[capacity];
+        this.categoryIds = new short[capacity];
+        this.subcategoryIds = new short[capacity];
+    }
+
+    /**
+     * Columns read back from a snapshot file (see WalletSnapshotFiles); the arrays are used as they are.
+     */
+    WalletColumns(int size, long[] amountCents, int[] epochDays, byte[] types, short[] categoryIds,
+                  short[] subcategoryIds, String[] categoryNames, String[] subcategoryNames) {
+        this.size = size;
+        this.amountCents = amountCents;
+        this.epochDays = epochDays;
+        this.types = types;
+        this.categoryIds = categoryIds;
+        this.subcategoryIds = subcategoryIds;
+        this.categories.load(categoryNames);
+        this.subcategories.load(subcategoryNames);
+    }
+
+    /**
+     * Appends one transaction.
+     *
+     * @throws IllegalStateException if the wallet has more distinct category or subcategory
+     *         names than a short can index
+     */
+    public synchronized void append(long cents, int epochDay, TransactionType type, String category, String subcategory) {
+        short categoryId = categories.idOf(category);
+        short subcategoryId = subcategories.idOf(subcategory);
+        if (size == amountCents.length) {
+            int capacity = Math.max(INITIAL_CAPACITY, size * 2);
+            amountCents = Arrays.copyOf(amountCents, capacity);
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            types = Arrays.copyOf(types, capacity);
+            categoryIds = Arrays.copyOf(categoryIds, capacity);
+            subcategoryIds = Arrays.copyOf(subcategoryIds, capacity);
+        }
+        amountCents[size] = cents;
+        epochDays[size] = epochDay;
+        types[size] = (byte) type.ordinal();
+        categoryIds[size] = categoryId;
+        subcategoryIds[size] = subcategoryId;
+        size++;
+    }
+
+    /**
+     * Consistent, lock-free view of the rows appended so far.
+     */
+    public synchronized View view() {
+        return new View(size, amountCents, epochDays, types, categoryIds, subcategoryIds,
+                categories.names(), subcategories.names());
+    }
+
+    // =====================================================
+    // READ-ONLY VIEW
+    // =====================================================
+
+    /**
+     * The first {@code size} rows of the columns, as they were when the view was taken.
+     * Rows appended later are not visible.
+     */
+    public static final class View {
+
+        private final int size;
+        private final long[] amountCents;
+        private final int[] epochDays;
+        private final byte[] types;
+        private final short[] categoryIds;
+        private final short[] subcategoryIds;
+        private final String[] categoryNames;
+        private final String[] subcategoryNames;
+
+        View(int size, long[] amountCents, int[] epochDays, byte[] types, short[] categoryIds,
+             short[] subcategoryIds, String[] categoryNames, String[] subcategoryNames) {
+            this.size = size;
+            this.amountCents = amountCents;
+            this.epochDays = epochDays;
+            this.types = types;
+            this.categoryIds = categoryIds;
+            this.subcategoryIds = subcategoryIds;
+            this.categoryNames = categoryNames;
+            this.subcategoryNames = subcategoryNames;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        // Raw columns for WalletSnapshotFiles; only the first size() entries are valid
+
+        long[] amountCents() {
+            return amountCents;
+        }
+
+        int[] epochDays() {
+            return epochDays;
+        }
+
+        byte[] types() {
+            return types;
+        }
+
+        short[] categoryIds() {
+            return categoryIds;
+        }
+
+        short[] subcategoryIds() {
+            return subcategoryIds;
+        }
+
+        String[] categoryNames() {
+            return categoryNames;
+        }
+
+        String[] subcategoryNames() {
+            return subcategoryNames;
+        }
+
+        /**
+         * Total and number of transactions per category, for one type and a day range.
+         *
+         * @param type Transaction type to include
+         * @param fromEpochDay First day (inclusive)
+         * @param toEpochDay Last day (inclusive)
+         */
+        public CategoryTotals totalsByCategory(TransactionType type, int fromEpochDay, int toEpochDay) {
+            byte typeCode = (byte) type.ordinal();
+            long[] totals = new long[categoryNames.length];
+            int[] counts = new int[categoryNames.length];
+            for (int i = 0; i < size; i++) {
+                int day = epochDays[i];
+                if (types[i] == typeCode && day >= fromEpochDay && day <= toEpochDay) {
+                    int category = categoryIds[i];
+                    totals[category] += amountCents[i];
+                    counts[category]++;
+                }
+            }
+            return new CategoryTotals(categoryNames, totals, counts);
+        }
+    }
+
+    /**
+     * Per-category aggregates; index i belongs to category names[i].
+     */
+    public static final class CategoryTotals {
+
+        private final String[] names;
+        private final long[] totalCents;
+        private final int[] counts;
+
+        CategoryTotals(String[] names, long[] totalCents, int[] counts) {
+            this.names = names;
+            this.totalCents = totalCents;
+            this.counts = counts;
+        }
+
+        public int categoryCount() {
+            return names.length;
+        }
+
+        public String name(int index) {
+            return names[index];
+        }
+
+        public long totalCents(int index) {
+            return totalCents[index];
+        }
+
+        public int count(int index) {
+            return counts[index];
+        }
+    }
+
+    // =====================================================
+    // DICTIONARY ENCODING
+    // =====================================================
+
+    /**
+     * Maps each distinct name (null included) to a short id, in order of first appearance.
+     * Only used under the WalletColumns lock.
+     */
+    private static final class Dictionary {
+
+        private final Map<String, Short> ids = new HashMap<>();
+        private String[] names = new String[0];
+
+        short idOf(String name) {
+            Short id = ids.get(name);
+            if (id != null) {
+                return id;
+            }
+            if (names.length > Short.MAX_VALUE) {
+                throw new IllegalStateException("Too many distinct names for a wallet column dictionary");
+            }
+            short newId = (short) names.length;
+            // Copy on write: views keep the array they were given
+            names = Arrays.copyOf(names, names.length + 1);
+            names[newId] = name;
+            ids.put(name, newId);
+            return newId;
+        }
+
+        String[] names() {
+            return names;
+        }
+
+        void load(String[] loadedNames) {
+            names = loadedNames;
+            for (int i = 0; i < loadedNames.length; i++) {
+                ids.put(loadedNames[i], (short) i);
+            }
+        }
+    }
+}
@@ -11,8 +11,10 @@ import java.util.stream.Collectors;
 @Service
 public class WalletService {
     private final WalletRepository walletRepository;
-    public WalletService(WalletRepository walletRepository) {
+    private final DataVersionService dataVersionService;
+    public WalletService(WalletRepository walletRepository, DataVersionService dataVersionService) {
         this.walletRepository = walletRepository;
+        this.dataVersionService = dataVersionService;
     }
     @Transactional(readOnly = true)
     public List<WalletResponse> getWalletsByUser(User user) {
@@ -38,6 +40,7 @@ public class WalletService {
         wallet.setName(request.getName());
         wallet.setCurrency(request.getCurrency());
         Wallet saved = walletRepository.save(wallet);
+        dataVersionService.bump(user, DataVersionService.Resource.WALLETS);
         return new WalletResponse(saved.getId(), saved.getName(), saved.getCurrency(), saved.getCreatedAt());
     }
     @Transactional(readOnly = true)
@@ -0,0 +1,240 @@
+package com.example.financialcontrol.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Persists wallet analytics columns (see WalletColumns) to memory-mapped files on local disk,
+ * so a restarted node can serve analytics without scanning every wallet's history in PostgreSQL.
+ *
+ * One file per wallet ({dir}/wallet-{id}.columns), layout (big-endian):
+ * - header: magic, format version, wallet ID, data version, row count, category count, subcategory count
+ * - columns: amountCents (long[rows]), epochDays (int[rows]), types (byte[rows]),
+ *   categoryIds (short[rows]), subcategoryIds (short[rows])
+ * - dictionaries: category names, then subcategory names (int length + UTF-8 bytes, length -1 for null)
+ *
+ * The data version is the wallet's WalletDataVersion at the time the columns were taken.
+ * A file whose version differs from the database is stale: it is deleted and the
+ * columns are rebuilt from the database.
+ *
+ * Files are written to a temporary file and then moved into place, so a crash never leaves
+ * a half-written snapshot behind. Loading maps the file and bulk-copies each column into an array.
+ *
+ * Set analytics.snapshot.dir to an empty value to disable persistence.
+ */
+@Component
+public class WalletSnapshotFiles {
+
+    private static final Logger logger = LoggerFactory.getLogger(WalletSnapshotFiles.class);
+
+    private static final int MAGIC = 0x46435743; // "FCWC"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 4 + 4 + 4;
+    // amount (8) + day (4) + type (1) + category (2) + subcategory (2)
+    private static final int ROW_BYTES = 8 + 4 + 1 + 2 + 2;
+
+    // Null when persistence is disabled
+    private final Path directory;
+
+    public WalletSnapshotFiles(@Value("${analytics.snapshot.dir:}") String directory) {
+        this.directory = createDirectory(directory);
+    }
+
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    /**
+     * Reads a wallet's snapshot if it exists and was written at the given data version.
+     *
+     * @param walletId The wallet ID
+     * @param expectedVersion The wallet's current data version in the database
+     * @return The columns, or null if there is no usable snapshot
+     */
+    public WalletColumns read(Long walletId, long expectedVersion) {
+        if (directory == null) {
+            return null;
+        }
+        Path file = file(walletId);
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION || buffer.getLong() != walletId) {
+                logger.warn("Ignoring invalid analytics snapshot {}", file);
+                delete(file);
+                return null;
+            }
+            if (buffer.getLong() != expectedVersion) {
+                delete(file);
+                return null;
+            }
+            int rows = buffer.getInt();
+            int categoryCount = buffer.getInt();
+            int subcategoryCount = buffer.getInt();
+
+            long[] amountCents = new long[rows];
+            buffer.asLongBuffer().get(amountCents);
+            buffer.position(buffer.position() + rows * 8);
+            int[] epochDays = new int[rows];
+            buffer.asIntBuffer().get(epochDays);
+            buffer.position(buffer.position() + rows * 4);
+            byte[] types = new byte[rows];
+            buffer.get(types);
+            short[] categoryIds = new short[rows];
+            buffer.asShortBuffer().get(categoryIds);
+            buffer.position(buffer.position() + rows * 2);
+            short[] subcategoryIds = new short[rows];
+            buffer.asShortBuffer().get(subcategoryIds);
+            buffer.position(buffer.position() + rows * 2);
+
+            String[] categoryNames = readNames(buffer, categoryCount);
+            String[] subcategoryNames = readNames(buffer, subcategoryCount);
+            logger.debug("Loaded analytics snapshot of wallet {} ({} rows)", walletId, rows);
+
+            return new WalletColumns(rows, amountCents, epochDays, types, categoryIds, subcategoryIds,
+                    categoryNames, subcategoryNames);
+        } catch (IOException | RuntimeException e) {
+            // Truncated or corrupted file: fall back to the database
+            logger.warn("Could not read analytics snapshot {}: {}", file, e.toString());
+            delete(file);
+            return null;
+        }
+    }
+
+    /**
+     * Writes a wallet's snapshot, replacing any previous one.
+     *
+     * @param walletId The wallet ID
+     * @param version The wallet's data version the view corresponds to
+     * @param view The columns to persist
+     * @return True if the file was written
+     */
+    public boolean write(Long walletId, long version, WalletColumns.View view) {
+        if (directory == null) {
+            return false;
+        }
+        int rows = view.size();
+        byte[][] categoryNames = encodeNames(view.categoryNames());
+        byte[][] subcategoryNames = encodeNames(view.subcategoryNames());
+        long fileSize = HEADER_BYTES + (long) rows * ROW_BYTES + namesSize(categoryNames) + namesSize(subcategoryNames);
+        if (fileSize > Integer.MAX_VALUE) {
+            logger.warn("Analytics snapshot of wallet {} is too large to persist ({} bytes)", walletId, fileSize);
+            return false;
+        }
+
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(directory, "wallet-" + walletId + "-", ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+                buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(walletId).putLong(version)
+                        .putInt(rows).putInt(categoryNames.length).putInt(subcategoryNames.length);
+
+                buffer.asLongBuffer().put(view.amountCents(), 0, rows);
+                buffer.position(buffer.position() + rows * 8);
+                buffer.asIntBuffer().put(view.epochDays(), 0, rows);
+                buffer.position(buffer.position() + rows * 4);
+                buffer.put(view.types(), 0, rows);
+                buffer.asShortBuffer().put(view.categoryIds(), 0, rows);
+                buffer.position(buffer.position() + rows * 2);
+                buffer.asShortBuffer().put(view.subcategoryIds(), 0, rows);
+                buffer.position(buffer.position() + rows * 2);
+
+                writeNames(buffer, categoryNames);
+                writeNames(buffer, subcategoryNames);
+                buffer.force();
+            }
+            Files.move(temp, file(walletId), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not write analytics snapshot of wallet {}: {}", walletId, e.toString());
+            if (temp != null) {
+                delete(temp);
+            }
+            return false;
+        }
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    private Path file(Long walletId) {
+        return directory.resolve("wallet-" + walletId + ".columns");
+    }
+
+    private static Path createDirectory(String directory) {
+        if (directory == null || directory.isBlank()) {
+            logger.info("Analytics snapshot persistence disabled");
+            return null;
+        }
+        try {
+            return Files.createDirectories(Paths.get(directory));
+        } catch (IOException e) {
+            logger.warn("Analytics snapshot persistence disabled, cannot create {}: {}", directory, e.toString());
+            return null;
+        }
+    }
+
+    private static byte[][] encodeNames(String[] names) {
+        byte[][] encoded = new byte[names.length][];
+        for (int i = 0; i < names.length; i++) {
+            encoded[i] = names[i] == null ? null : names[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return encoded;
+    }
+
+    private static long namesSize(byte[][] names) {
+        long size = 0;
+        for (byte[] name : names) {
+            size += 4 + (name == null ? 0 : name.length);
+        }
+        return size;
+    }
+
+    private static void writeNames(MappedByteBuffer buffer, byte[][] names) {
+        for (byte[] name : names) {
+            if (name == null) {
+                buffer.putInt(-1);
+            } else {
+                buffer.putInt(name.length).put(name);
+            }
+        }
+    }
+
+    private static String[] readNames(MappedByteBuffer buffer, int count) {
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            int length = buffer.getInt();
+            if (length >= 0) {
+                byte[] bytes = new byte[length];
+                buffer.get(bytes);
+                names[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+        }
+        return names;
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete {}: {}", file, e.toString());
+        }
+    }
+}
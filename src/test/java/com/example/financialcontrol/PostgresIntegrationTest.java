@@ -0,0 +1,101 @@
+package com.example.financialcontrol;
+
+import com.example.financialcontrol.dto.RegisterRequest;
+import com.example.financialcontrol.entity.User;
+import com.example.financialcontrol.service.UserService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Base class of the tests that need the real database: native PostgreSQL queries, partitions
+ * and advisory locks can't run on an in-memory substitute.
+ *
+ * One embedded PostgreSQL server is started per test JVM and shared by every test class (the
+ * Spring context is cached too). Tests must not depend on a clean database: each one works
+ * with users of its own ({@link #newUser}).
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.springframework.security=INFO",
+        "logging.level.com.example.financialcontrol=INFO",
+        // No background jobs racing the tests' statement counts
+        "transactions.partitioning.cron=-",
+        "transactions.archive.cron=-",
+        "idempotency.cleanup-cron=-",
+        "analytics.snapshot.flush-interval-ms=3600000"
+})
+@AutoConfigureMockMvc
+public abstract class PostgresIntegrationTest {
+
+    private static final EmbeddedPostgres POSTGRES = start();
+    private static final Path WORK_DIR = workDir();
+    private static final AtomicInteger USER_COUNTER = new AtomicInteger();
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected UserService userService;
+
+    @Autowired
+    protected EntityManagerFactory entityManagerFactory;
+
+    @DynamicPropertySource
+    static void databaseProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+        registry.add("transactions.archive.dir", () -> WORK_DIR.resolve("archive").toString());
+        registry.add("analytics.snapshot.dir", () -> WORK_DIR.resolve("analytics").toString());
+    }
+
+    /**
+     * Registers a user with a unique name.
+     */
+    protected User newUser() {
+        String username = "test" + USER_COUNTER.incrementAndGet() + "_" + System.nanoTime();
+        RegisterRequest request = new RegisterRequest();
+        request.setUsername(username);
+        request.setEmail(username + "@example.com");
+        request.setPassword("secret123");
+        userService.registerUser(request);
+        return userService.findByUsername(username);
+    }
+
+    /**
+     * Hibernate statistics, to count the SQL statements a call runs (generate_statistics is on).
+     */
+    protected Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private static EmbeddedPostgres start() {
+        try {
+            return EmbeddedPostgres.builder().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Path workDir() {
+        try {
+            return Files.createTempDirectory("financial-control-test");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
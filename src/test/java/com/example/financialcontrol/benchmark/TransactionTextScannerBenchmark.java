@@ -0,0 +1,130 @@
+package com.example.financialcontrol.benchmark;
+
+import com.example.financialcontrol.service.TransactionTextScanner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Amount + date extraction of one utterance: TransactionTextScanner against the regex
+ * extraction RuleBasedTransactionParser used before it (copied below as the baseline).
+ *
+ * Run: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=TransactionTextScannerBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionTextScannerBenchmark {
+
+    @Param({
+            "gastei 23,50 euros no supermercado hoje",
+            "paguei 1200 de renda há 3 dias",
+            "received 2500 salary on 15/01/2024",
+            "comprei um casaco de 89.90 na loja do centro comercial mês passado"
+    })
+    public String text;
+
+    private final TransactionTextScanner scanner = new TransactionTextScanner();
+
+    @Benchmark
+    public void scanner(Blackhole blackhole) {
+        TransactionTextScanner.ScanResult result = scanner.scan(text);
+        blackhole.consume(result.amount);
+        blackhole.consume(result.date);
+    }
+
+    @Benchmark
+    public void regex(Blackhole blackhole) {
+        blackhole.consume(LegacyRegexExtraction.extractAmount(text));
+        blackhole.consume(LegacyRegexExtraction.extractDate(text));
+    }
+
+    /**
+     * The amount and date extraction of RuleBasedTransactionParser before the scanner:
+     * patterns compiled on every call, tried one after the other.
+     */
+    static final class LegacyRegexExtraction {
+
+        static BigDecimal extractAmount(String text) {
+            String lowerText = text.toLowerCase();
+            Pattern amountPattern = Pattern.compile(
+                    "(?:€|\\$|R\\$)?\\s*(\\d+(?:[.,]\\d{1,2})?)\\s*(?:euros?|reais|dollars?|€|\\$)?");
+            Matcher matcher = amountPattern.matcher(lowerText);
+            if (matcher.find()) {
+                BigDecimal amount = new BigDecimal(matcher.group(1).replace(",", "."));
+                if (amount.compareTo(BigDecimal.ZERO) > 0) {
+                    return amount;
+                }
+            }
+            return null;
+        }
+
+        static LocalDate extractDate(String text) {
+            String lowerText = text.toLowerCase();
+            if (lowerText.contains("hoje") || lowerText.contains("today")) {
+                return LocalDate.now();
+            }
+            if (lowerText.contains("ontem") || lowerText.contains("yesterday")) {
+                return LocalDate.now().minusDays(1);
+            }
+            Matcher matcher = Pattern.compile("(?:há|ha|á|a)\\s*(\\d+)\\s*dias?").matcher(lowerText);
+            if (matcher.find()) {
+                return LocalDate.now().minusDays(Integer.parseInt(matcher.group(1)));
+            }
+            matcher = Pattern.compile("(\\d+)\\s*days?\\s*ago").matcher(lowerText);
+            if (matcher.find()) {
+                return LocalDate.now().minusDays(Integer.parseInt(matcher.group(1)));
+            }
+            matcher = Pattern.compile("(?:há|ha|á|a)\\s*(\\d+)\\s*semanas?").matcher(lowerText);
+            if (matcher.find()) {
+                return LocalDate.now().minusWeeks(Integer.parseInt(matcher.group(1)));
+            }
+            matcher = Pattern.compile("(\\d+)\\s*weeks?\\s*ago").matcher(lowerText);
+            if (matcher.find()) {
+                return LocalDate.now().minusWeeks(Integer.parseInt(matcher.group(1)));
+            }
+            matcher = Pattern.compile("(?:há|ha|á|a)\\s*(\\d+)\\s*(?:mês|mes|meses)").matcher(lowerText);
+            if (matcher.find()) {
+                return LocalDate.now().minusMonths(Integer.parseInt(matcher.group(1)));
+            }
+            matcher = Pattern.compile("(\\d+)\\s*months?\\s*ago").matcher(lowerText);
+            if (matcher.find()) {
+                return LocalDate.now().minusMonths(Integer.parseInt(matcher.group(1)));
+            }
+            if (lowerText.contains("semana passada") || lowerText.contains("last week")) {
+                return LocalDate.now().minusWeeks(1);
+            }
+            if (lowerText.contains("mês passado") || lowerText.contains("mes passado") || lowerText.contains("last month")) {
+                return LocalDate.now().minusMonths(1);
+            }
+            matcher = Pattern.compile("(\\d{4})-(\\d{2})-(\\d{2})").matcher(text);
+            if (matcher.find()) {
+                return LocalDate.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)),
+                        Integer.parseInt(matcher.group(3)));
+            }
+            matcher = Pattern.compile("(\\d{1,2})/(\\d{1,2})/(\\d{4})").matcher(text);
+            if (matcher.find()) {
+                return LocalDate.of(Integer.parseInt(matcher.group(3)), Integer.parseInt(matcher.group(2)),
+                        Integer.parseInt(matcher.group(1)));
+            }
+            return LocalDate.now();
+        }
+    }
+}
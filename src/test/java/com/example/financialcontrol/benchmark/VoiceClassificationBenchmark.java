@@ -0,0 +1,147 @@
+package com.example.financialcontrol.benchmark;
+
+import com.example.financialcontrol.dto.VoiceRequestDto;
+import com.example.financialcontrol.entity.Category;
+import com.example.financialcontrol.entity.Subcategory;
+import com.example.financialcontrol.entity.TransactionType;
+import com.example.financialcontrol.entity.User;
+import com.example.financialcontrol.entity.Wallet;
+import com.example.financialcontrol.repository.CategoryRepository;
+import com.example.financialcontrol.repository.SubcategoryRepository;
+import com.example.financialcontrol.service.ClassificationEngine;
+import com.example.financialcontrol.service.KeywordDictionaryProvider;
+import com.example.financialcontrol.service.RuleBasedTransactionParser;
+import com.example.financialcontrol.service.TransactionTextScanner;
+import com.example.financialcontrol.service.VoiceClassificationService;
+import com.example.financialcontrol.service.WalletService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ClassificationEngine path shared by /api/voice/parse and /api/voice/classify, without
+ * the database: the wallet check and the category queries are answered by stubs returning
+ * the default category tree, the keyword dictionaries are the shipped ones. The @Transactional
+ * boundaries don't apply outside Spring, so this is the classification work alone.
+ *
+ * Run: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=VoiceClassificationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VoiceClassificationBenchmark {
+
+    @Param({
+            "gastei 23,50 euros no supermercado hoje",
+            "recebi o salário de 1500 ontem",
+            "gastei 10 no café, 45 no supermercado e 20 de uber ontem"
+    })
+    public String text;
+
+    private ClassificationEngine engine;
+    private VoiceRequestDto request;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        user = new User();
+        user.setId(1L);
+        Wallet wallet = new Wallet();
+        wallet.setId(1L);
+
+        WalletService walletService = new WalletService(null, null) {
+            @Override
+            public Wallet getWalletEntityByIdAndUser(Long walletId, User owner) {
+                return wallet;
+            }
+        };
+
+        List<Category> categories = new ArrayList<>();
+        List<Subcategory> subcategories = new ArrayList<>();
+        addCategory(categories, subcategories, "Food & Dining", TransactionType.DEBIT,
+                "Restaurants", "Groceries", "Fast Food", "Coffee", "Delivery");
+        addCategory(categories, subcategories, "Transportation", TransactionType.DEBIT,
+                "Fuel", "Public Transport", "Taxi/Uber", "Parking", "Car Maintenance");
+        addCategory(categories, subcategories, "Shopping", TransactionType.DEBIT,
+                "Clothing", "Electronics", "Home & Garden", "Personal Care", "Gifts");
+        addCategory(categories, subcategories, "Bills & Utilities", TransactionType.DEBIT,
+                "Electricity", "Water", "Internet", "Phone", "Rent/Mortgage");
+        addCategory(categories, subcategories, "Health", TransactionType.DEBIT,
+                "Medical", "Pharmacy", "Gym", "Insurance");
+        addCategory(categories, subcategories, "Salary", TransactionType.CREDIT,
+                "Monthly Salary", "Bonus", "Overtime", "Commission");
+        addCategory(categories, subcategories, "Other Income", TransactionType.CREDIT,
+                "Refunds", "Cashback", "Reimbursements", "Miscellaneous");
+
+        CategoryRepository categoryRepository = stub(CategoryRepository.class, "findAllAvailableForUser", categories);
+        SubcategoryRepository subcategoryRepository = stub(SubcategoryRepository.class, "findAllAvailableForUser", subcategories);
+
+        engine = new VoiceClassificationService(walletService,
+                new RuleBasedTransactionParser(new TransactionTextScanner()),
+                categoryRepository, subcategoryRepository,
+                new KeywordDictionaryProvider(new DefaultResourceLoader(), "classpath:keywords/"));
+
+        request = new VoiceRequestDto();
+        request.setWalletId(1L);
+        request.setText(text);
+    }
+
+    @Benchmark
+    public Object parseLegacy() {
+        return engine.classifyLegacyText(request, user);
+    }
+
+    @Benchmark
+    public Object classify() {
+        return engine.classifyText(request, user);
+    }
+
+    @Benchmark
+    public Object classifyMultiple() {
+        return engine.classifyMultipleTransactions(request, user);
+    }
+
+    // A repository answering one method (plain proxy: a mocking framework would dominate the timings)
+    private static <T> T stub(Class<T> type, String method, Object result) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                (proxy, invoked, args) -> {
+                    if (invoked.getName().equals(method)) {
+                        return result;
+                    }
+                    throw new UnsupportedOperationException(invoked.getName());
+                }));
+    }
+
+    private static void addCategory(List<Category> categories, List<Subcategory> subcategories,
+                                    String name, TransactionType type, String... subcategoryNames) {
+        Category category = new Category();
+        category.setId((long) categories.size() + 1);
+        category.setName(name);
+        category.setType(type);
+        categories.add(category);
+        for (String subcategoryName : subcategoryNames) {
+            Subcategory subcategory = new Subcategory();
+            subcategory.setId((long) subcategories.size() + 1);
+            subcategory.setName(subcategoryName);
+            subcategory.setCategory(category);
+            subcategories.add(subcategory);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.financialcontrol.config;
+
+import com.example.financialcontrol.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The description prefix filter can be answered by the description indexes.
+ */
+class TransactionDescriptionIndexMigrationTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void descriptionPrefixIsAnIndexRange() {
+        // The shape of TransactionRepositoryImpl's DESCRIPTION criterion, with the prefix known at planning
+        assertIndexRange("EXPLAIN SELECT * FROM transactions WHERE wallet_id = 1 " +
+                "AND date >= DATE '2024-01-01' AND date <= DATE '2024-12-31' " +
+                "AND lower(description) LIKE 'uber%' ESCAPE '\\'");
+        assertIndexRange("EXPLAIN SELECT * FROM transactions WHERE user_id = 1 " +
+                "AND date >= DATE '2024-01-01' AND date <= DATE '2024-12-31' " +
+                "AND lower(description) LIKE 'uber%' ESCAPE '\\'");
+    }
+
+    // On the empty test tables every index costs the same, so the plan is taken with sequential scans
+    // disabled and the other indexes dropped in a transaction that is rolled back. The prefix must be
+    // an index condition (~>=~ / ~<~ are the text_pattern_ops range operators).
+    private void assertIndexRange(String explain) {
+        String plan = jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET LOCAL enable_seqscan = off");
+                List<String> others = new ArrayList<>();
+                try (ResultSet rows = statement.executeQuery("SELECT indexname FROM pg_indexes " +
+                        "WHERE tablename = 'transactions' AND indexname NOT IN ('" +
+                        TransactionDescriptionIndexMigration.WALLET_INDEX_NAME + "', '" +
+                        TransactionDescriptionIndexMigration.USER_INDEX_NAME + "') AND indexname NOT LIKE '%pkey'")) {
+                    while (rows.next()) {
+                        others.add(rows.getString(1));
+                    }
+                }
+                for (String index : others) {
+                    statement.execute("DROP INDEX " + index);
+                }
+                StringBuilder lines = new StringBuilder();
+                try (ResultSet rows = statement.executeQuery(explain)) {
+                    while (rows.next()) {
+                        lines.append(rows.getString(1)).append('\n');
+                    }
+                }
+                return lines.toString();
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+        });
+        assertTrue(plan.contains("lower((description)::text) ~>=~ 'uber'::text"), plan);
+    }
+}
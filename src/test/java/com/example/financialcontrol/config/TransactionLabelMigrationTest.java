@@ -0,0 +1,146 @@
+package com.example.financialcontrol.config;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The label migration on a table in its pre-migration shape (names in text columns, empty
+ * label ID columns added by Hibernate), in a database of its own.
+ */
+class TransactionLabelMigrationTest {
+
+    private static EmbeddedPostgres postgres;
+
+    private DataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void startDatabase() throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void createLegacySchema() {
+        dataSource = postgres.getPostgresDatabase();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS transactions, transaction_labels");
+        jdbcTemplate.execute("CREATE TABLE transaction_labels (id SERIAL PRIMARY KEY, name VARCHAR(50) NOT NULL, " +
+                "CONSTRAINT uk_transaction_labels_name UNIQUE (name))");
+        jdbcTemplate.execute("CREATE TABLE transactions (id BIGSERIAL PRIMARY KEY, wallet_id BIGINT NOT NULL, " +
+                "date DATE NOT NULL, type VARCHAR(10) NOT NULL, amount NUMERIC(15, 2) NOT NULL, " +
+                "category VARCHAR(50) NOT NULL, subcategory VARCHAR(50) NOT NULL, " +
+                "category_id INTEGER, subcategory_id INTEGER)");
+        jdbcTemplate.execute("CREATE INDEX idx_transactions_wallet_report " +
+                "ON transactions (wallet_id, date, type, category, subcategory, amount)");
+        jdbcTemplate.execute("INSERT INTO transactions (wallet_id, date, type, amount, category, subcategory) " +
+                "SELECT 1, DATE '2024-01-01' + (i % 365), 'DEBIT', i, " +
+                "'Category ' || (i % 5), 'Subcategory ' || (i % 5) || '.' || (i % 3) " +
+                "FROM generate_series(1, 2000) i");
+    }
+
+    @Test
+    void movesTheNamesToLabelsAndKeepsTheTextColumns() {
+        migration().migrate();
+
+        assertMigrated();
+        // The old names are still there, and new rows don't need them
+        assertEquals(2000, count("SELECT COUNT(*) FROM transactions WHERE category IS NOT NULL"));
+        assertEquals("YES", nullable("category"));
+        assertEquals("YES", nullable("subcategory"));
+        jdbcTemplate.update("INSERT INTO transactions (wallet_id, date, type, amount, category_id, subcategory_id) " +
+                "SELECT 1, DATE '2024-06-01', 'DEBIT', 1, id, id FROM transaction_labels LIMIT 1");
+    }
+
+    @Test
+    void secondRunDoesNothing() {
+        migration().migrate();
+        jdbcTemplate.update("UPDATE transactions SET category = 'Changed' WHERE id = 1");
+
+        migration().migrate();
+
+        // The text columns are no longer read
+        assertEquals(0, count("SELECT COUNT(*) FROM transaction_labels WHERE name = 'Changed'"));
+        assertEquals(20, count("SELECT COUNT(*) FROM transaction_labels"));
+    }
+
+    @Test
+    void instancesStartingTogetherMigrateOnce() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> instances = List.of(
+                    executor.submit(() -> awaitAndMigrate(start)),
+                    executor.submit(() -> awaitAndMigrate(start)),
+                    executor.submit(() -> awaitAndMigrate(start)));
+            start.countDown();
+            for (Future<?> instance : instances) {
+                // Fails with "relation already exists" and the like without the lock
+                instance.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertMigrated();
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    private TransactionLabelMigration migration() {
+        return new TransactionLabelMigration(jdbcTemplate, new DataSourceTransactionManager(dataSource));
+    }
+
+    private Void awaitAndMigrate(CountDownLatch start) throws InterruptedException {
+        start.await();
+        migration().migrate();
+        return null;
+    }
+
+    private void assertMigrated() {
+        assertEquals("NO", nullable("category_id"));
+        assertEquals("NO", nullable("subcategory_id"));
+        assertEquals(20, count("SELECT COUNT(*) FROM transaction_labels"));
+        assertEquals(0, count("SELECT COUNT(*) FROM transactions t " +
+                "JOIN transaction_labels c ON c.id = t.category_id " +
+                "JOIN transaction_labels s ON s.id = t.subcategory_id " +
+                "WHERE c.name <> t.category OR s.name <> t.subcategory"));
+        Map<String, Object> index = jdbcTemplate.queryForMap(
+                "SELECT indexdef FROM pg_indexes WHERE indexname = 'idx_transactions_wallet_report'");
+        assertTrue(index.get("indexdef").toString().contains("category_id, subcategory_id"), index.toString());
+    }
+
+    private long count(String sql) {
+        Long count = jdbcTemplate.queryForObject(sql, Long.class);
+        return count == null ? 0 : count;
+    }
+
+    private String nullable(String column) {
+        return jdbcTemplate.queryForObject("SELECT is_nullable FROM information_schema.columns " +
+                "WHERE table_name = 'transactions' AND column_name = ?", String.class, column);
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.financialcontrol.controller;
+
+import com.example.financialcontrol.PostgresIntegrationTest;
+import com.example.financialcontrol.dto.CategoryRequest;
+import com.example.financialcontrol.dto.CategoryResponse;
+import com.example.financialcontrol.dto.SubcategoryRequest;
+import com.example.financialcontrol.entity.Category;
+import com.example.financialcontrol.entity.TransactionType;
+import com.example.financialcontrol.entity.User;
+import com.example.financialcontrol.repository.CategoryRepository;
+import com.example.financialcontrol.repository.SubcategoryRepository;
+import com.example.financialcontrol.service.CategoryService;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * SQL statements per category endpoint, counted with Hibernate statistics. The counts are
+ * fixed: they must not grow with the number of hidden or own categories (no N+1).
+ *
+ * Every request also runs 1 statement to load the authenticated user, and the conditional
+ * GETs 1 more to look up the data version for the ETag.
+ */
+class CategoryStatementCountTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private SubcategoryRepository subcategoryRepository;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4})
+    void hiddenCategories(int hidden) throws Exception {
+        User user = userWith(hidden);
+
+        // user + hidden IDs + one batch load
+        assertStatements(3, get("/api/categories/hidden"), user);
+        mockMvc.perform(get("/api/categories/hidden").with(user(user.getUsername())))
+                .andExpect(jsonPath("$.length()").value(hidden));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4})
+    void hiddenSubcategories(int hidden) throws Exception {
+        User user = userWith(hidden);
+
+        // user + hidden IDs + one batch load with the categories
+        assertStatements(3, get("/api/categories/subcategories/hidden"), user);
+        mockMvc.perform(get("/api/categories/subcategories/hidden").with(user(user.getUsername())))
+                .andExpect(jsonPath("$.length()").value(hidden));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4})
+    void allCategories(int count) throws Exception {
+        User user = userWith(count);
+
+        // version + user + own categories + hidden category IDs + hidden subcategory IDs + own subcategories
+        assertStatements(6, get("/api/categories"), user);
+        // The hidden ID lists now come from the query cache
+        assertStatements(4, get("/api/categories").param("type", "DEBIT"), user);
+        // ...and so do the own categories: version + user + own subcategories
+        assertStatements(3, get("/api/categories"), user);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4})
+    void categoryById(int subcategories) throws Exception {
+        User user = userWith(subcategories);
+        Long ownCategoryId = categoryRepository.findByUserIdOrderByIdAsc(user.getId()).get(0).getId();
+
+        // user + the category with its subcategories (entity graph)
+        assertStatements(2, get("/api/categories/" + ownCategoryId), user);
+        mockMvc.perform(get("/api/categories/" + ownCategoryId).with(user(user.getUsername())))
+                .andExpect(jsonPath("$.subcategories.length()").value(subcategories));
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    /**
+     * A user who hid n default categories and n default subcategories, and owns n categories
+     * with n subcategories each.
+     */
+    private User userWith(int n) {
+        User user = newUser();
+        List<Category> defaults = categoryRepository.findByIsDefaultTrueOrderByIdAsc();
+        for (int i = 0; i < n; i++) {
+            categoryService.deleteCategory(defaults.get(i).getId(), user);
+            Long subcategoryId = subcategoryRepository.findAllAvailableForUserByCategory(defaults.get(n + i).getId(), user.getId())
+                    .get(0).getId();
+            categoryService.deleteSubcategory(subcategoryId, user);
+        }
+        for (int i = 0; i < n; i++) {
+            CategoryRequest category = new CategoryRequest();
+            category.setName("Own " + i);
+            category.setType(TransactionType.DEBIT);
+            CategoryResponse created = categoryService.createCategory(category, user);
+            for (int j = 0; j < n; j++) {
+                SubcategoryRequest subcategory = new SubcategoryRequest();
+                subcategory.setName("Own " + i + "." + j);
+                subcategory.setCategoryId(created.getId());
+                categoryService.createSubcategory(subcategory, user);
+            }
+        }
+        return user;
+    }
+
+    private void assertStatements(long expected, MockHttpServletRequestBuilder request, User user) throws Exception {
+        statistics().clear();
+        mockMvc.perform(request.with(user(user.getUsername())))
+                .andExpect(status().isOk());
+        assertEquals(expected, statistics().getPrepareStatementCount(), "SQL statements");
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.financialcontrol.controller;
+
+import com.example.financialcontrol.PostgresIntegrationTest;
+import com.example.financialcontrol.dto.CategoryRequest;
+import com.example.financialcontrol.dto.TransactionRequest;
+import com.example.financialcontrol.dto.WalletRequest;
+import com.example.financialcontrol.entity.TransactionType;
+import com.example.financialcontrol.entity.User;
+import com.example.financialcontrol.repository.UserDataVersionRepository;
+import com.example.financialcontrol.repository.WalletDataVersionRepository;
+import com.example.financialcontrol.service.CategoryService;
+import com.example.financialcontrol.service.DataVersionService;
+import com.example.financialcontrol.service.TransactionService;
+import com.example.financialcontrol.service.WalletService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * ETags and 304 responses of the list and report endpoints.
+ */
+class ConditionalGetTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private UserDataVersionRepository userDataVersionRepository;
+
+    @Autowired
+    private WalletDataVersionRepository walletDataVersionRepository;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"transactions", "reports/monthly?from=2024-01&to=2024-12",
+            "balance/series?from=2024-01-01&to=2024-12-31", "analytics/categories"})
+    void otherUsersWalletsAreNotFoundEvenWithAMatchingETag(String path) throws Exception {
+        User owner = newUser();
+        User other = newUser();
+        Long walletId = newWallet(owner);
+        String etag = etag("/api/wallets/" + walletId + "/" + path, owner);
+
+        mockMvc.perform(get("/api/wallets/" + walletId + "/" + path)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag)
+                        .with(user(other.getUsername())))
+                .andExpect(status().isNotFound())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+        mockMvc.perform(get("/api/wallets/" + Long.MAX_VALUE + "/" + path)
+                        .header(HttpHeaders.IF_NONE_MATCH, "*")
+                        .with(user(other.getUsername())))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void transactionChangesInvalidateTheWalletETag() throws Exception {
+        User user = newUser();
+        Long walletId = newWallet(user);
+        String url = "/api/wallets/" + walletId + "/transactions";
+        String before = etag(url, user);
+
+        assertNotModified(url, before, user);
+        transactionService.createTransaction(walletId, transaction(), user);
+
+        String after = etag(url, user);
+        assertNotEquals(before, after);
+        assertModified(url, before, user);
+        assertNotModified(url, after, user);
+    }
+
+    @Test
+    void rollupRebuildInvalidatesTheMonthlyReportETag() throws Exception {
+        User user = newUser();
+        Long walletId = newWallet(user);
+        String url = "/api/wallets/" + walletId + "/reports/monthly?from=2024-01&to=2024-12";
+        String before = etag(url, user);
+
+        mockMvc.perform(post("/api/wallets/" + walletId + "/reports/rollups/rebuild").with(user(user.getUsername())))
+                .andExpect(status().isOk());
+
+        assertModified(url, before, user);
+    }
+
+    @Test
+    void categoryAndWalletChangesInvalidateTheirETags() throws Exception {
+        User user = newUser();
+        String categoriesBefore = etag("/api/categories", user);
+        String walletsBefore = etag("/api/wallets", user);
+
+        CategoryRequest category = new CategoryRequest();
+        category.setName("Pets");
+        category.setType(TransactionType.DEBIT);
+        categoryService.createCategory(category, user);
+
+        assertModified("/api/categories", categoriesBefore, user);
+        assertNotModified("/api/wallets", walletsBefore, user);
+
+        newWallet(user);
+        assertModified("/api/wallets", walletsBefore, user);
+    }
+
+    @Test
+    void monthlyReportETagIncludesTheResolvedWindow() throws Exception {
+        User user = newUser();
+        Long walletId = newWallet(user);
+        String url = "/api/wallets/" + walletId + "/reports/monthly";
+        YearMonth now = YearMonth.now();
+
+        String defaultWindow = etag(url, user);
+        assertEquals(etag(url + "?from=" + now.minusMonths(11) + "&to=" + now, user), defaultWindow);
+        assertTrue(defaultWindow.endsWith(";" + now.minusMonths(11) + ";" + now + "\""), defaultWindow);
+
+        // The ETag of another window (e.g. the default one of an earlier month) doesn't match
+        String earlierWindow = etag(url + "?to=" + now.minusMonths(1), user);
+        assertModified(url, earlierWindow, user);
+        assertNotModified(url, defaultWindow, user);
+    }
+
+    @Test
+    void balanceSeriesETagIncludesTheResolvedRange() throws Exception {
+        User user = newUser();
+        Long walletId = newWallet(user);
+        String url = "/api/wallets/" + walletId + "/balance/series";
+        LocalDate today = LocalDate.now();
+        LocalDate yearAgo = today.minusYears(1).plusDays(1);
+
+        String defaultRange = etag(url, user);
+        assertEquals(etag(url + "?from=" + yearAgo + "&to=" + today, user), defaultRange);
+        assertTrue(defaultRange.endsWith(";" + yearAgo + ";" + today + "\""), defaultRange);
+
+        // Yesterday's default range is a different series
+        String yesterdaysRange = etag(url + "?to=" + today.minusDays(1), user);
+        assertModified(url, yesterdaysRange, user);
+        assertNotModified(url, defaultRange, user);
+    }
+
+    @Test
+    void versionsAreSharedByEveryInstance() throws Exception {
+        User user = newUser();
+        Long walletId = newWallet(user);
+        transactionService.createTransaction(walletId, transaction(), user);
+
+        // Another node of the application: its own DataVersionService over the same database
+        DataVersionService otherNode = new DataVersionService(userDataVersionRepository, walletDataVersionRepository);
+
+        assertEquals(etag("/api/wallets/" + walletId + "/transactions", user),
+                otherNode.walletEtag(user.getUsername(), walletId).orElseThrow());
+        assertEquals(etag("/api/wallets", user),
+                otherNode.etag(user.getUsername(), DataVersionService.Resource.WALLETS));
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    private Long newWallet(User user) {
+        WalletRequest request = new WalletRequest();
+        request.setName("Main");
+        request.setCurrency("EUR");
+        return walletService.createWallet(request, user).getId();
+    }
+
+    private static TransactionRequest transaction() {
+        return new TransactionRequest(TransactionType.DEBIT, "Food", "Groceries", new BigDecimal("12.50"),
+                "groceries", LocalDate.of(2024, 3, 1));
+    }
+
+    private String etag(String url, User user) throws Exception {
+        return mockMvc.perform(get(url).with(user(user.getUsername())))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private void assertNotModified(String url, String etag, User user) throws Exception {
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag).with(user(user.getUsername())))
+                .andExpect(status().isNotModified());
+    }
+
+    private void assertModified(String url, String etag, User user) throws Exception {
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag).with(user(user.getUsername())))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.financialcontrol.controller;
+
+import com.example.financialcontrol.PostgresIntegrationTest;
+import com.example.financialcontrol.dto.TransactionRequest;
+import com.example.financialcontrol.dto.WalletRequest;
+import com.example.financialcontrol.entity.TransactionType;
+import com.example.financialcontrol.entity.User;
+import com.example.financialcontrol.service.IdempotencyService;
+import com.example.financialcontrol.service.TransactionService;
+import com.example.financialcontrol.service.WalletService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Idempotency-Key on transaction creation: replays, duplicates arriving while the first
+ * request runs, and keys reused for another request.
+ */
+class IdempotencyTest extends PostgresIntegrationTest {
+
+    private static final String BODY = "{\"type\":\"DEBIT\",\"category\":\"Food & Dining\"," +
+            "\"subcategory\":\"Groceries\",\"amount\":20.00,\"date\":\"2024-05-10\"}";
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private WalletService walletService;
+
+    private User user;
+    private Long walletId;
+
+    @BeforeEach
+    void setUp() {
+        user = newUser();
+        WalletRequest wallet = new WalletRequest();
+        wallet.setName("Main");
+        wallet.setCurrency("EUR");
+        walletId = walletService.createWallet(wallet, user).getId();
+    }
+
+    @Test
+    void retryReplaysTheStoredResponse() throws Exception {
+        MvcResult first = mockMvc.perform(create("retry-1", BODY))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(IdempotencyService.REPLAYED_HEADER))
+                .andReturn();
+
+        MvcResult retry = mockMvc.perform(create("retry-1", BODY))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyService.REPLAYED_HEADER, "true"))
+                .andReturn();
+
+        assertEquals(first.getResponse().getContentAsString(), retry.getResponse().getContentAsString());
+        assertEquals(1, transactionCount());
+    }
+
+    @Test
+    void duplicateArrivingWhileTheFirstRunsWaitsForItsResponse() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        TransactionRequest request = new TransactionRequest(TransactionType.DEBIT, "Food & Dining", "Groceries",
+                new BigDecimal("20.00"), null, LocalDate.of(2024, 5, 10));
+
+        CompletableFuture<ResponseEntity<?>> first = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute("in-flight", user, "POST /test", request, () -> {
+                    runs.incrementAndGet();
+                    firstStarted.countDown();
+                    await(releaseFirst);
+                    return ResponseEntity.status(HttpStatus.CREATED)
+                            .body(transactionService.createTransaction(walletId, request, user));
+                }));
+        await(firstStarted);
+        AtomicReference<Thread> duplicateThread = new AtomicReference<>();
+        CompletableFuture<ResponseEntity<?>> duplicate = CompletableFuture.supplyAsync(() -> {
+            duplicateThread.set(Thread.currentThread());
+            return idempotencyService.execute("in-flight", user, "POST /test", request, () -> {
+                runs.incrementAndGet();
+                return ResponseEntity.status(HttpStatus.CREATED)
+                        .body(transactionService.createTransaction(walletId, request, user));
+            });
+        });
+        // The duplicate is parked on the first request's future before the first one finishes
+        long deadline = System.currentTimeMillis() + 10_000;
+        while ((duplicateThread.get() == null || duplicateThread.get().getState() != Thread.State.TIMED_WAITING)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        releaseFirst.countDown();
+
+        ResponseEntity<?> original = first.get(10, TimeUnit.SECONDS);
+        ResponseEntity<?> replayed = duplicate.get(10, TimeUnit.SECONDS);
+        assertEquals(1, runs.get());
+        assertEquals(1, transactionCount());
+        assertNull(original.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals(HttpStatus.CREATED, replayed.getStatusCode());
+        assertEquals("true", replayed.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+    }
+
+    @Test
+    void keyReusedForAnotherRequestIsRejected() throws Exception {
+        mockMvc.perform(create("reused", BODY))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(create("reused", BODY.replace("20.00", "25.00")))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.success").value(false));
+        assertEquals(1, transactionCount());
+    }
+
+    @Test
+    void keyedRequestsLeaveTheCategoryCachesAlone() throws Exception {
+        mockMvc.perform(get("/api/categories").with(user(user.getUsername()))).andExpect(status().isOk());
+        mockMvc.perform(create("cached", BODY)).andExpect(status().isCreated());
+
+        // Still answered from the query cache: version + user + own subcategories (see CategoryStatementCountTest)
+        statistics().clear();
+        mockMvc.perform(get("/api/categories").with(user(user.getUsername()))).andExpect(status().isOk());
+        assertEquals(3, statistics().getPrepareStatementCount(), "SQL statements");
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    private MockHttpServletRequestBuilder create(String key, String body) {
+        return post("/api/wallets/" + walletId + "/transactions")
+                .header(IdempotencyService.HEADER, key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body)
+                .with(user(user.getUsername()));
+    }
+
+    private int transactionCount() {
+        return transactionService.getTransactions(walletId, user, null, null, null, null, null, null, null).size();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
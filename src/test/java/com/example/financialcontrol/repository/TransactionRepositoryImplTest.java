@@ -0,0 +1,88 @@
+package com.example.financialcontrol.repository;
+
+import com.example.financialcontrol.entity.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransactionRepositoryImplTest {
+
+    // Optional criteria, by the query parameter they add
+    private static final String[] PARAMETERS = {
+            ":type", ":minAmount", ":maxAmount", ":categoryIds", ":descriptionPattern"
+    };
+
+    @Test
+    void datesOnlyFilterIsTheSmallestShape() {
+        TransactionFilter filter = filter(0);
+        assertEquals(0, TransactionRepositoryImpl.shapeOf(filter));
+
+        String jpql = TransactionRepositoryImpl.jpql(TransactionRepositoryImpl.WALLET_SCOPE);
+        assertEquals("SELECT t FROM Transaction t WHERE t.wallet.id = :ownerId " +
+                "AND t.date >= :fromDate AND t.date <= :toDate ORDER BY t.date DESC, t.id DESC", jpql);
+    }
+
+    @Test
+    void everyShapeHasExactlyThePredicatesOfItsCriteria() {
+        Set<String> queries = new HashSet<>();
+        for (int scope : new int[] {TransactionRepositoryImpl.WALLET_SCOPE, TransactionRepositoryImpl.USER_SCOPE}) {
+            for (int criteria = 0; criteria < 1 << PARAMETERS.length; criteria++) {
+                int shape = TransactionRepositoryImpl.shapeOf(filter(criteria));
+                // The scope bit is never set by the criteria
+                assertEquals(0, shape & 1);
+
+                String jpql = TransactionRepositoryImpl.jpql(scope | shape);
+                assertTrue(jpql.contains(scope == TransactionRepositoryImpl.USER_SCOPE
+                        ? "t.user.id = :ownerId" : "t.wallet.id = :ownerId"), jpql);
+                assertTrue(jpql.contains(":fromDate") && jpql.contains(":toDate"), jpql);
+                for (int i = 0; i < PARAMETERS.length; i++) {
+                    assertEquals((criteria & 1 << i) != 0, jpql.contains(PARAMETERS[i]), jpql);
+                }
+                assertTrue(jpql.endsWith(" ORDER BY t.date DESC, t.id DESC"), jpql);
+                queries.add(jpql);
+            }
+        }
+        // Two scopes × 2^5 combinations, all different
+        assertEquals(64, queries.size());
+    }
+
+    @Test
+    void descriptionPrefixIsMatchedLiterally() {
+        String jpql = TransactionRepositoryImpl.jpql(TransactionRepositoryImpl.shapeOf(filter(1 << 4)));
+        assertTrue(jpql.contains("LOWER(t.description) LIKE :descriptionPattern ESCAPE '\\'"), jpql);
+
+        // LIKE wildcards typed by the user are not wildcards
+        assertEquals("50\\% off\\_now\\\\", TransactionRepositoryImpl.escapeLike("50% off_now\\"));
+        assertEquals("uber eats", TransactionRepositoryImpl.escapeLike("uber eats"));
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    // Bit i of criteria set = the criterion of PARAMETERS[i] is present
+    private static TransactionFilter filter(int criteria) {
+        TransactionFilter filter = new TransactionFilter();
+        filter.setFromDate(LocalDate.of(2024, 1, 1));
+        filter.setToDate(LocalDate.of(2024, 12, 31));
+        Map<Integer, Runnable> setters = Map.of(
+                0, () -> filter.setType(TransactionType.DEBIT),
+                1, () -> filter.setMinAmount(BigDecimal.ONE),
+                2, () -> filter.setMaxAmount(BigDecimal.TEN),
+                3, () -> filter.setCategoryIds(Set.of(1, 2)),
+                4, () -> filter.setDescriptionPrefix("uber"));
+        setters.forEach((bit, setter) -> {
+            if ((criteria & 1 << bit) != 0) {
+                setter.run();
+            }
+        });
+        return filter;
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.financialcontrol.service;
+
+import com.example.financialcontrol.PostgresIntegrationTest;
+import com.example.financialcontrol.dto.CategoryRequest;
+import com.example.financialcontrol.dto.CategoryResponse;
+import com.example.financialcontrol.dto.RelabelJobResponse;
+import com.example.financialcontrol.dto.SubcategoryRequest;
+import com.example.financialcontrol.dto.SubcategoryResponse;
+import com.example.financialcontrol.dto.TransactionRequest;
+import com.example.financialcontrol.dto.WalletRequest;
+import com.example.financialcontrol.entity.TransactionType;
+import com.example.financialcontrol.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * CategoryService.mergeCategory: which subcategories move, which are folded into the target's
+ * subcategory of the same name, and where the transactions end up.
+ */
+class CategoryMergeTest extends PostgresIntegrationTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 6, 15);
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private TransactionRelabelService transactionRelabelService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User user;
+    private Long walletId;
+
+    @BeforeEach
+    void setUp() {
+        user = newUser();
+        WalletRequest wallet = new WalletRequest();
+        wallet.setName("Main");
+        wallet.setCurrency("EUR");
+        walletId = walletService.createWallet(wallet, user).getId();
+    }
+
+    @Test
+    void foldsSubcategoriesWithTheSameNameAndMovesTheOthers() {
+        Long sourceId = category("Eating out", TransactionType.DEBIT);
+        subcategory(sourceId, "Coffee");
+        Long lunchId = subcategory(sourceId, "Lunch");
+        Long targetId = category("Meals", TransactionType.DEBIT);
+        Long targetCoffeeId = subcategory(targetId, "Coffee");
+        debit("Eating out", "Coffee", "1.50");
+        debit("Eating out", "Lunch", "12.00");
+        debit("Meals", "Coffee", "2.00");
+
+        await(categoryService.mergeCategory(sourceId, targetId, user));
+
+        // One "Coffee" (the target's), and the source's "Lunch" itself
+        assertEquals(Map.of("Coffee", targetCoffeeId, "Lunch", lunchId), subcategoryIds(targetId));
+        assertThrows(RuntimeException.class, () -> categoryService.getCategoryById(sourceId, user));
+        assertEquals(Map.of("Meals / Coffee", 2L, "Meals / Lunch", 1L), labelCounts());
+    }
+
+    @Test
+    void mergeIntoADefaultCategoryKeepsTheMovedSubcategoriesPrivate() {
+        Long sourceId = category("Cafés", TransactionType.DEBIT);
+        subcategory(sourceId, "Coffee");
+        subcategory(sourceId, "Pastries");
+        Long targetId = defaultCategoryId("Food & Dining");
+        debit("Cafés", "Coffee", "1.50");
+        debit("Cafés", "Pastries", "3.00");
+
+        await(categoryService.mergeCategory(sourceId, targetId, user));
+
+        List<String> names = subcategoryNames(targetId, user);
+        // Folded into the default "Coffee"
+        assertEquals(1, names.stream().filter("Coffee"::equals).count());
+        assertEquals(1, names.stream().filter("Pastries"::equals).count());
+        assertFalse(subcategoryNames(targetId, newUser()).contains("Pastries"));
+        assertEquals(Map.of("Food & Dining / Coffee", 1L, "Food & Dining / Pastries", 1L), labelCounts());
+    }
+
+    @Test
+    void rejectsMergesAcrossTypesAndIntoItself() {
+        Long debitId = category("Eating out", TransactionType.DEBIT);
+        Long creditId = category("Refunds", TransactionType.CREDIT);
+
+        assertThrows(RuntimeException.class, () -> categoryService.mergeCategory(debitId, creditId, user));
+        assertThrows(RuntimeException.class, () -> categoryService.mergeCategory(debitId, debitId, user));
+        // Nothing was deleted
+        assertEquals("Eating out", categoryService.getCategoryById(debitId, user).getName());
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    private void await(RelabelJobResponse scheduled) {
+        long deadline = System.currentTimeMillis() + 30_000;
+        RelabelJobResponse job = transactionRelabelService.getJob(scheduled.getId(), user);
+        while (job.getFinishedAt() == null && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            job = transactionRelabelService.getJob(scheduled.getId(), user);
+        }
+        assertEquals("COMPLETED", job.getStatus(), job.getError());
+    }
+
+    private Long category(String name, TransactionType type) {
+        return categoryService.createCategory(new CategoryRequest(name, null, null, null, type), user).getId();
+    }
+
+    private Long subcategory(Long categoryId, String name) {
+        return categoryService.createSubcategory(new SubcategoryRequest(name, null, null, null, categoryId), user).getId();
+    }
+
+    private Long defaultCategoryId(String name) {
+        return categoryService.getCategoriesForUserByType(user, TransactionType.DEBIT).stream()
+                .filter(category -> category.getName().equals(name))
+                .map(CategoryResponse::getId)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private Map<String, Long> subcategoryIds(Long categoryId) {
+        return subcategories(categoryId, user).stream()
+                .collect(Collectors.toMap(SubcategoryResponse::getName, SubcategoryResponse::getId));
+    }
+
+    private List<String> subcategoryNames(Long categoryId, User viewer) {
+        return subcategories(categoryId, viewer).stream()
+                .map(SubcategoryResponse::getName)
+                .collect(Collectors.toList());
+    }
+
+    // In a session, as in a request (open-in-view): the responses read the lazy category name
+    private List<SubcategoryResponse> subcategories(Long categoryId, User viewer) {
+        return new TransactionTemplate(transactionManager)
+                .execute(status -> categoryService.getSubcategoriesForCategory(categoryId, viewer));
+    }
+
+    private void debit(String category, String subcategory, String amount) {
+        transactionService.createTransaction(walletId,
+                new TransactionRequest(TransactionType.DEBIT, category, subcategory, new BigDecimal(amount), null, DAY), user);
+    }
+
+    // "category / subcategory" -> number of transactions
+    private Map<String, Long> labelCounts() {
+        return transactionService.getTransactions(walletId, user, null, null, null, null, null, null, null).stream()
+                .collect(Collectors.groupingBy(t -> t.getCategory() + " / " + t.getSubcategory(),
+                        TreeMap::new, Collectors.counting()));
+    }
+}
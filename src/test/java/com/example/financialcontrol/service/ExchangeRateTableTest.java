@@ -0,0 +1,90 @@
+package com.example.financialcontrol.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExchangeRateTableTest {
+
+    // A Thursday and the days around it
+    private static final LocalDate THURSDAY = LocalDate.of(2024, 3, 7);
+    private static final LocalDate FRIDAY = THURSDAY.plusDays(1);
+    private static final LocalDate SUNDAY = THURSDAY.plusDays(3);
+    private static final LocalDate MONDAY = THURSDAY.plusDays(4);
+
+    private static final BigDecimal HUNDRED = new BigDecimal("100.00");
+
+    // Added out of order, as they can appear in a file
+    private final ExchangeRateTable table = new ExchangeRateTable.Builder("EUR")
+            .add("USD", MONDAY, new BigDecimal("1.2000"))
+            .add("USD", THURSDAY, new BigDecimal("1.0000"))
+            .add("USD", FRIDAY, new BigDecimal("1.1000"))
+            .add("GBP", THURSDAY, new BigDecimal("0.8500"))
+            .build();
+
+    @Test
+    void usesTheRateOfTheDay() {
+        assertEquals(new BigDecimal("100.00"), table.convert(HUNDRED, "EUR", "USD", THURSDAY));
+        assertEquals(new BigDecimal("110.00"), table.convert(HUNDRED, "EUR", "USD", FRIDAY));
+        assertEquals(new BigDecimal("120.00"), table.convert(HUNDRED, "EUR", "USD", MONDAY));
+    }
+
+    @Test
+    void daysWithoutARateUseTheLatestEarlierOne() {
+        // Weekend: Friday's rate
+        assertEquals(new BigDecimal("110.00"), table.convert(HUNDRED, "EUR", "USD", SUNDAY));
+        // After the last published rate: the last one
+        assertEquals(new BigDecimal("120.00"), table.convert(HUNDRED, "EUR", "USD", MONDAY.plusYears(1)));
+    }
+
+    @Test
+    void noRateBeforeTheFirstOne() {
+        assertNull(table.convert(HUNDRED, "EUR", "USD", THURSDAY.minusDays(1)));
+        assertNull(table.convert(HUNDRED, "USD", "GBP", THURSDAY.minusDays(1)));
+    }
+
+    @Test
+    void convertsBetweenTwoCurrenciesThroughTheReference() {
+        // 100 USD = 100 / 1.10 EUR = 100 × 0.85 / 1.10 GBP
+        assertEquals(new BigDecimal("77.27"), table.convert(HUNDRED, "USD", "GBP", FRIDAY));
+        assertEquals(new BigDecimal("90.91"), table.convert(HUNDRED, "USD", "EUR", FRIDAY));
+    }
+
+    @Test
+    void sameCurrencyAndReferenceNeedNoRate() {
+        assertEquals(HUNDRED, table.convert(HUNDRED, "CHF", "chf", THURSDAY));
+        assertEquals(HUNDRED, table.convert(HUNDRED, "EUR", "EUR", LocalDate.of(1900, 1, 1)));
+        assertNull(table.convert(HUNDRED, "EUR", "CHF", THURSDAY));
+    }
+
+    @Test
+    void currencyCodesAreNormalized() {
+        assertEquals(new BigDecimal("110.00"), table.convert(HUNDRED, " eur", "usd ", FRIDAY));
+        assertEquals(Set.of("EUR", "USD", "GBP"), table.getCurrencies());
+    }
+
+    @Test
+    void laterRateOfTheSameDayWins() {
+        ExchangeRateTable corrected = new ExchangeRateTable.Builder("EUR")
+                .add("USD", THURSDAY, new BigDecimal("1.0000"))
+                .add("USD", FRIDAY, new BigDecimal("1.1000"))
+                .add("USD", THURSDAY, new BigDecimal("1.0500"))
+                .build();
+
+        assertEquals(new BigDecimal("105.00"), corrected.convert(HUNDRED, "EUR", "USD", THURSDAY));
+        assertEquals(new BigDecimal("110.00"), corrected.convert(HUNDRED, "EUR", "USD", FRIDAY));
+    }
+
+    @Test
+    void rejectsNonPositiveRates() {
+        ExchangeRateTable.Builder builder = new ExchangeRateTable.Builder("EUR");
+        assertThrows(IllegalArgumentException.class, () -> builder.add("USD", THURSDAY, BigDecimal.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> builder.add("USD", THURSDAY, new BigDecimal("-1")));
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.financialcontrol.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class KeywordMatcherTest {
+
+    private final KeywordMatcher matcher = new KeywordMatcher(Map.of(
+            "supermercado", "Groceries",
+            "padaria", "Bakery",
+            "farmácia", "Health",
+            "café", "Coffee",
+            "uber", "Transport",
+            "uber eats", "Delivery",
+            "gas", "Fuel",
+            "taxi", "Transport",
+            "compras", "Shopping"
+    ));
+
+    // =====================================================
+    // EXACT MATCHES
+    // =====================================================
+
+    @Test
+    void matchesWholeWordsOnly() {
+        assertEquals("Fuel", match("abasteci o carro com gas"));
+        // "gas" inside "gastei" is not a keyword
+        assertNull(match("gastei 10 euros"));
+    }
+
+    @Test
+    void keywordsAndInputAreAccentFolded() {
+        assertEquals("Health", match("paguei 8 na farmacia"));
+        assertEquals("Health", match("paguei 8 na FARMÁCIA"));
+        assertEquals("Coffee", match("um cafe"));
+    }
+
+    @Test
+    void longestPhraseAtTheSamePositionWins() {
+        assertEquals("Delivery", match("jantar uber eats 25"));
+        assertEquals("Transport", match("uber para casa 12"));
+    }
+
+    @Test
+    void earliestKeywordWins() {
+        assertEquals("Coffee", match("café e padaria"));
+        assertEquals("Bakery", match("padaria e café"));
+    }
+
+    // =====================================================
+    // FUZZY MATCHES
+    // =====================================================
+
+    @ParameterizedTest
+    @CsvSource({
+            // 12 letters: up to 2 edits
+            "fui ao supermecado, Groceries",
+            "fui ao supermrcado, Groceries",
+            "fui ao supremercado, Groceries",
+            // 6-7 letters: 1 edit
+            "pão na padria, Bakery",
+            "pão na padarla, Bakery",
+            "remédio na farmacai, Health"
+    })
+    void toleratesTypos(String text, String expected) {
+        assertEquals(expected, match(text));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            // 3 edits from supermercado
+            "fui ao supmecdo",
+            // 2 edits (a transposition) are too many for a 7 letter word
+            "pão na padaira",
+            // Words shorter than 5 letters are never corrected ("taxi")
+            "apanhei um taxy",
+            // Common dictation words are never corrected ("comprei" is 2 edits from "compras")
+            "comprei pão",
+            // Nor are words with digits
+            "padari4"
+    })
+    void rejectsWordsTooFarFromAnyKeyword(String text) {
+        assertNull(match(text));
+    }
+
+    @Test
+    void exactMatchWinsOverAnEarlierFuzzyOne() {
+        assertEquals("Coffee", match("supermecado e café"));
+    }
+
+    @Test
+    void closestKeywordWins() {
+        KeywordMatcher close = new KeywordMatcher(Map.of("mercado", "Market", "mercados", "Markets"));
+        assertEquals("Markets", close.match("mercadoss"));
+        assertEquals("Market", close.match("mercad"));
+    }
+
+    @Test
+    void fuzzyMatchFindsTheKeywordAmongThousands() {
+        Map<String, String> keywords = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            keywords.put("palavra" + Integer.toString(i, 26).replaceAll("[0-9]", "x"), "Filler");
+        }
+        keywords.put("supermercado", "Groceries");
+        KeywordMatcher large = new KeywordMatcher(keywords);
+
+        assertEquals("Groceries", large.match("gastei 10 no supermecado"));
+        assertNull(large.match("gastei 10 no restaurante"));
+    }
+
+    @Test
+    void splitWordsKeepsApostrophesAndHyphens() {
+        assertArrayEquals(new String[] {"mcdonald's", "mais-valias", "23", "50"},
+                KeywordMatcher.splitWords("mcdonald's, mais-valias: 23.50"));
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    private String match(String text) {
+        return matcher.match(TextNormalizer.normalize(text));
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.financialcontrol.service;
+
+import com.example.financialcontrol.PostgresIntegrationTest;
+import com.example.financialcontrol.dto.MonthlyReportEntry;
+import com.example.financialcontrol.dto.TransactionRequest;
+import com.example.financialcontrol.dto.WalletRequest;
+import com.example.financialcontrol.entity.TransactionType;
+import com.example.financialcontrol.entity.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * A rollup rebuild racing a transaction change: whichever commits first, the change is
+ * counted exactly once.
+ */
+class MonthlyRollupConcurrencyTest extends PostgresIntegrationTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 5, 10);
+
+    @Autowired
+    private MonthlyRollupService monthlyRollupService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private User user;
+    private Long walletId;
+
+    @BeforeEach
+    void setUp() {
+        user = newUser();
+        WalletRequest wallet = new WalletRequest();
+        wallet.setName("Main");
+        wallet.setCurrency("EUR");
+        walletId = walletService.createWallet(wallet, user).getId();
+        transactionService.createTransaction(walletId, debit("10.00"), user);
+        transactionService.createTransaction(walletId, debit("10.00"), user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void rebuildWaitsForAnUncommittedCreate() throws Exception {
+        Future<?> create = executor.submit(() -> inTransaction(
+                () -> transactionService.createTransaction(walletId, debit("5.00"), user)));
+        started.await(10, TimeUnit.SECONDS);
+
+        Future<Integer> rebuild = executor.submit(() -> monthlyRollupService.rebuild(walletId));
+        assertThrows(TimeoutException.class, () -> rebuild.get(500, TimeUnit.MILLISECONDS));
+
+        release.countDown();
+        create.get(10, TimeUnit.SECONDS);
+        rebuild.get(10, TimeUnit.SECONDS);
+        assertTotals("25.00", 3);
+    }
+
+    @Test
+    void createWaitsForAnUncommittedRebuild() throws Exception {
+        Future<?> rebuild = executor.submit(() -> inTransaction(() -> monthlyRollupService.rebuild(walletId)));
+        started.await(10, TimeUnit.SECONDS);
+
+        Future<?> create = executor.submit(() -> transactionService.createTransaction(walletId, debit("5.00"), user));
+        assertThrows(TimeoutException.class, () -> create.get(500, TimeUnit.MILLISECONDS));
+
+        release.countDown();
+        rebuild.get(10, TimeUnit.SECONDS);
+        create.get(10, TimeUnit.SECONDS);
+        assertTotals("25.00", 3);
+    }
+
+    @Test
+    void deleteDuringRebuildIsRemovedOnce() throws Exception {
+        Long deletedId = transactionService.createTransaction(walletId, debit("5.00"), user).getId();
+
+        Future<?> rebuild = executor.submit(() -> inTransaction(() -> monthlyRollupService.rebuild(walletId)));
+        started.await(10, TimeUnit.SECONDS);
+
+        Future<?> delete = executor.submit(() -> transactionService.deleteTransaction(deletedId, user));
+        assertThrows(TimeoutException.class, () -> delete.get(500, TimeUnit.MILLISECONDS));
+
+        release.countDown();
+        rebuild.get(10, TimeUnit.SECONDS);
+        delete.get(10, TimeUnit.SECONDS);
+        assertTotals("20.00", 2);
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    // Runs the work in a database transaction that stays open until release
+    private void inTransaction(Runnable work) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            work.run();
+            started.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    private void assertTotals(String total, long count) {
+        List<MonthlyReportEntry> totals = monthlyRollupService.getMonthlyTotals(walletId,
+                YearMonth.from(DAY), YearMonth.from(DAY));
+        assertEquals(1, totals.size());
+        assertEquals(new BigDecimal(total), totals.get(0).getTotal());
+        assertEquals(count, totals.get(0).getCount());
+    }
+
+    private static TransactionRequest debit(String amount) {
+        return new TransactionRequest(TransactionType.DEBIT, "Food", "Groceries", new BigDecimal(amount),
+                null, DAY);
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.financialcontrol.service;
+
+import com.example.financialcontrol.PostgresIntegrationTest;
+import com.example.financialcontrol.config.AdvisoryLocks;
+import com.example.financialcontrol.dto.CategoryRequest;
+import com.example.financialcontrol.dto.SubcategoryRequest;
+import com.example.financialcontrol.dto.TransactionRequest;
+import com.example.financialcontrol.dto.WalletRequest;
+import com.example.financialcontrol.entity.TransactionType;
+import com.example.financialcontrol.entity.User;
+import com.example.financialcontrol.repository.TransactionArchiveSegmentRepository;
+import com.example.financialcontrol.repository.TransactionRepository;
+import com.example.financialcontrol.repository.WalletRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Archived transactions (TransactionArchiveService) count as much as the ones in the table.
+ */
+class TransactionArchiveTest extends PostgresIntegrationTest {
+
+    private static final LocalDate OLD_DAY = LocalDate.of(2020, 1, 15);
+    private static final LocalDate CUTOFF = LocalDate.of(2021, 1, 1);
+
+    @Autowired
+    private TransactionArchiveService transactionArchiveService;
+
+    @Autowired
+    private TransactionArchiveSegmentRepository segmentRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TransactionSegmentFiles segmentFiles;
+
+    @Autowired
+    private WalletAnalyticsStore walletAnalyticsStore;
+
+    @Autowired
+    private MonthlyRollupService monthlyRollupService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private TransactionLabelDictionary labelDictionary;
+
+    @Autowired
+    private TransactionResponseMapper responseMapper;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private WalletService walletService;
+
+    private User user;
+    private Long walletId;
+
+    @BeforeEach
+    void setUp() {
+        user = newUser();
+        walletId = walletService.createWallet(walletRequest(), user).getId();
+    }
+
+    @Test
+    void categoryUsedOnlyByArchivedTransactionsCannotBeDeleted() {
+        Long categoryId = categoryService.createCategory(
+                new CategoryRequest("Old hobby", null, null, null, TransactionType.DEBIT), user).getId();
+        Long subcategoryId = categoryService.createSubcategory(
+                new SubcategoryRequest("Old gear", null, null, null, categoryId), user).getId();
+        transactionService.createTransaction(walletId, new TransactionRequest(TransactionType.DEBIT,
+                "Old hobby", "Old gear", new BigDecimal("80.00"), null, OLD_DAY), user);
+        assertEquals(1, transactionArchiveService.archiveWallet(walletId, CUTOFF));
+
+        RuntimeException subcategoryInUse = assertThrows(RuntimeException.class,
+                () -> categoryService.deleteSubcategory(subcategoryId, user));
+        assertEquals("Cannot delete subcategory: it is being used in one or more transactions", subcategoryInUse.getMessage());
+        RuntimeException categoryInUse = assertThrows(RuntimeException.class,
+                () -> categoryService.deleteCategory(categoryId, user));
+        assertEquals("Cannot delete category: it is being used in one or more transactions", categoryInUse.getMessage());
+    }
+
+    @Test
+    void archivedTransactionsOfAnotherUserDoNotBlockTheDelete() {
+        User otherUser = newUser();
+        Long otherWalletId = walletService.createWallet(walletRequest(), otherUser).getId();
+        transactionService.createTransaction(otherWalletId, new TransactionRequest(TransactionType.DEBIT,
+                "Shared name", "Shared sub", new BigDecimal("5.00"), null, OLD_DAY), otherUser);
+        transactionArchiveService.archiveWallet(otherWalletId, CUTOFF);
+
+        Long categoryId = categoryService.createCategory(
+                new CategoryRequest("Shared name", null, null, null, TransactionType.DEBIT), user).getId();
+        categoryService.deleteCategory(categoryId, user);
+
+        assertThrows(RuntimeException.class, () -> categoryService.getCategoryById(categoryId, user));
+    }
+
+    @Test
+    void recordedSegmentsCantBeReadWithoutTheArchiveDirectory() {
+        transactionService.createTransaction(walletId, new TransactionRequest(TransactionType.DEBIT,
+                "Food & Dining", "Groceries", new BigDecimal("20.00"), null, OLD_DAY), user);
+        transactionArchiveService.archiveWallet(walletId, CUTOFF);
+        // An instance started without transactions.archive.dir
+        TransactionSegmentFiles noDirectory = new TransactionSegmentFiles("");
+        TransactionArchive archive = new TransactionArchive(segmentRepository, noDirectory, responseMapper,
+                new TransactionArchiveTextIndex(noDirectory));
+
+        assertThrows(IllegalStateException.class, () -> archive.scanWallet(walletId, (id, block, i) -> { }));
+        // A segment ending before the day is summed from its record, one ending after it must be read
+        assertEquals(-2000, archive.netCentsBefore(walletId, CUTOFF));
+        assertThrows(IllegalStateException.class, () -> archive.netCentsBefore(walletId, OLD_DAY));
+        assertThrows(IllegalStateException.class, () -> archive.search(List.of(walletId), List.of("x"), null,
+                null, OLD_DAY, CUTOFF, Long.MAX_VALUE, Long.MAX_VALUE, 10));
+        // Wallets without segments are unaffected
+        Long otherWalletId = walletService.createWallet(walletRequest(), user).getId();
+        assertEquals(0, archive.netCentsBefore(otherWalletId, CUTOFF));
+    }
+
+    @Test
+    void scheduledArchivalIsSkippedWhileAnotherInstanceRunsIt() throws SQLException {
+        // Old enough for no other test's transactions to be archived too
+        LocalDate ancientDay = LocalDate.of(1990, 1, 15);
+        int olderThanMonths = (int) ChronoUnit.MONTHS.between(ancientDay, LocalDate.now()) - 12;
+        TransactionArchiveService archival = new TransactionArchiveService(transactionRepository, walletRepository,
+                segmentRepository, segmentFiles, walletAnalyticsStore, monthlyRollupService, labelDictionary,
+                jdbcTemplate, transactionManager, olderThanMonths, 1000);
+        transactionService.createTransaction(walletId, new TransactionRequest(TransactionType.DEBIT,
+                "Food & Dining", "Groceries", new BigDecimal("20.00"), null, ancientDay), user);
+
+        try (Connection otherInstance = dataSource.getConnection(); Statement statement = otherInstance.createStatement()) {
+            statement.execute("SELECT pg_advisory_lock(" + AdvisoryLocks.NAMESPACE + ", "
+                    + AdvisoryLocks.TRANSACTION_ARCHIVAL + ")");
+            archival.archiveOldTransactions();
+            assertEquals(List.of(), segmentRepository.findByWalletIdOrderByMinDateAsc(walletId));
+            statement.execute("SELECT pg_advisory_unlock(" + AdvisoryLocks.NAMESPACE + ", "
+                    + AdvisoryLocks.TRANSACTION_ARCHIVAL + ")");
+        }
+
+        archival.archiveOldTransactions();
+        assertEquals(1, segmentRepository.findByWalletIdOrderByMinDateAsc(walletId).get(0).getRowCount());
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    private static WalletRequest walletRequest() {
+        WalletRequest wallet = new WalletRequest();
+        wallet.setName("Main");
+        wallet.setCurrency("EUR");
+        return wallet;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.financialcontrol.service;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Partition creation on a monthly-partitioned table, in a database of its own.
+ */
+class TransactionPartitionManagerTest {
+
+    private static final LocalDate MAY = LocalDate.of(2024, 5, 1);
+
+    private static EmbeddedPostgres postgres;
+
+    private DataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void startDatabase() throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void createPartitionedTable() {
+        dataSource = postgres.getPostgresDatabase();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS transactions");
+        jdbcTemplate.execute("CREATE TABLE transactions (id BIGINT NOT NULL, wallet_id BIGINT NOT NULL, " +
+                "date DATE NOT NULL, amount NUMERIC(15, 2) NOT NULL) PARTITION BY RANGE (date)");
+        jdbcTemplate.execute("CREATE TABLE " + TransactionPartitionManager.DEFAULT_PARTITION +
+                " PARTITION OF transactions DEFAULT");
+        jdbcTemplate.update("INSERT INTO transactions VALUES (1, 1, DATE '2024-05-10', 10), (2, 1, DATE '2024-06-10', 20)");
+    }
+
+    @Test
+    void movesThePeriodOutOfTheDefaultPartition() {
+        assertTrue(manager().createPartition(MAY));
+        assertFalse(manager().createPartition(MAY));
+
+        assertEquals(1, count("SELECT COUNT(*) FROM transactions_p2024_05"));
+        assertEquals(1, count("SELECT COUNT(*) FROM " + TransactionPartitionManager.DEFAULT_PARTITION));
+        assertEquals(2, count("SELECT COUNT(*) FROM transactions"));
+    }
+
+    @Test
+    void instancesCreatingTheSamePartitionTogetherCreateItOnce() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (Connection holder = dataSource.getConnection(); Statement statement = holder.createStatement()) {
+            // Both instances get past the existence check and queue on the default partition's lock
+            holder.setAutoCommit(false);
+            statement.execute("LOCK TABLE " + TransactionPartitionManager.DEFAULT_PARTITION + " IN SHARE ROW EXCLUSIVE MODE");
+            List<Future<Boolean>> instances = List.of(
+                    executor.submit(() -> manager().createPartition(MAY)),
+                    executor.submit(() -> manager().createPartition(MAY)));
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (count("SELECT COUNT(*) FROM pg_locks WHERE NOT granted") < 2
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            holder.commit();
+
+            // Without the check under the lock, the second one fails with "relation already exists"
+            int created = 0;
+            for (Future<Boolean> instance : instances) {
+                created += instance.get(60, TimeUnit.SECONDS) ? 1 : 0;
+            }
+            assertEquals(1, created);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, count("SELECT COUNT(*) FROM transactions_p2024_05"));
+        assertEquals(2, count("SELECT COUNT(*) FROM transactions"));
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    private TransactionPartitionManager manager() {
+        return new TransactionPartitionManager(jdbcTemplate, new DataSourceTransactionManager(dataSource), "month", 0);
+    }
+
+    private long count(String sql) {
+        Long count = jdbcTemplate.queryForObject(sql, Long.class);
+        return count == null ? 0 : count;
+    }
+}
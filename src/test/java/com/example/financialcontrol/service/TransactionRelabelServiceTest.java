@@ -0,0 +1,261 @@
+package com.example.financialcontrol.service;
+
+import com.example.financialcontrol.PostgresIntegrationTest;
+import com.example.financialcontrol.dto.MonthlyReportEntry;
+import com.example.financialcontrol.dto.RelabelJobResponse;
+import com.example.financialcontrol.dto.TransactionRequest;
+import com.example.financialcontrol.dto.TransactionResponse;
+import com.example.financialcontrol.dto.WalletRequest;
+import com.example.financialcontrol.entity.TransactionType;
+import com.example.financialcontrol.entity.User;
+import com.example.financialcontrol.repository.TransactionArchiveSegmentRepository;
+import com.example.financialcontrol.repository.TransactionRepository;
+import com.example.financialcontrol.repository.WalletRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Relabel jobs walking a wallet in chunks much smaller than the number of matching
+ * transactions, with other transactions interleaved between them.
+ */
+class TransactionRelabelServiceTest extends PostgresIntegrationTest {
+
+    private static final int CHUNK_SIZE = 2;
+    private static final YearMonth MARCH = YearMonth.of(2024, 3);
+    private static final YearMonth APRIL = YearMonth.of(2024, 4);
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private MonthlyRollupService monthlyRollupService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TransactionArchiveSegmentRepository segmentRepository;
+
+    @Autowired
+    private TransactionArchiveService transactionArchiveService;
+
+    @Autowired
+    private WalletAnalyticsStore walletAnalyticsStore;
+
+    @Autowired
+    private TransactionLabelDictionary labelDictionary;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionRelabelService relabelService;
+    private User user;
+    private Long walletId;
+
+    @BeforeEach
+    void setUp() {
+        relabelService = new TransactionRelabelService(transactionRepository, walletRepository, segmentRepository,
+                transactionArchiveService, monthlyRollupService,
+                walletAnalyticsStore, labelDictionary, transactionManager, CHUNK_SIZE);
+        user = newUser();
+        walletId = newWallet();
+
+        // 5 "Eating out" debits over two months and two subcategories, with other rows between them
+        create(TransactionType.DEBIT, "Eating out", "Lunch", "12.00", MARCH.atDay(3));
+        create(TransactionType.DEBIT, "Transport", "Bus", "2.00", MARCH.atDay(3));
+        create(TransactionType.DEBIT, "Eating out", "Coffee", "1.50", MARCH.atDay(4));
+        create(TransactionType.CREDIT, "Eating out", "Refund", "12.00", MARCH.atDay(5));
+        create(TransactionType.DEBIT, "Eating out", "Lunch", "10.00", MARCH.atDay(20));
+        create(TransactionType.DEBIT, "Eating out", "Coffee", "2.50", APRIL.atDay(1));
+        create(TransactionType.DEBIT, "Transport", "Bus", "2.00", APRIL.atDay(2));
+        create(TransactionType.DEBIT, "Eating out", "Lunch", "11.00", APRIL.atDay(9));
+    }
+
+    @AfterEach
+    void tearDown() {
+        relabelService.shutdown();
+    }
+
+    @Test
+    void categoryMoveVisitsEveryMatchingTransactionOnce() {
+        RelabelJobResponse job = await(relabelService.schedule(user, TransactionType.DEBIT,
+                "Eating out", null, "Meals", null));
+
+        assertEquals("COMPLETED", job.getStatus());
+        assertEquals(5, job.getUpdatedTransactions());
+        assertEquals(Map.of(
+                        "DEBIT Meals / Lunch", 3L,
+                        "DEBIT Meals / Coffee", 2L,
+                        "DEBIT Transport / Bus", 2L,
+                        // Other types keep their category
+                        "CREDIT Eating out / Refund", 1L),
+                labelCounts(walletId));
+        assertRollupsMatchTheTransactions();
+    }
+
+    @Test
+    void subcategoryMoveLeavesTheCategorysOtherSubcategories() {
+        RelabelJobResponse job = await(relabelService.schedule(user, TransactionType.DEBIT,
+                "Eating out", "Coffee", "Drinks", "Coffee"));
+
+        assertEquals("COMPLETED", job.getStatus());
+        assertEquals(2, job.getUpdatedTransactions());
+        assertEquals(Map.of(
+                        "DEBIT Eating out / Lunch", 3L,
+                        "DEBIT Drinks / Coffee", 2L,
+                        "DEBIT Transport / Bus", 2L,
+                        "CREDIT Eating out / Refund", 1L),
+                labelCounts(walletId));
+        assertRollupsMatchTheTransactions();
+    }
+
+    @Test
+    void movesEveryWalletOfTheUserOnly() {
+        Long otherWalletId = newWallet();
+        create(otherWalletId, user, TransactionType.DEBIT, "Eating out", "Lunch", "9.00", MARCH.atDay(1));
+        User otherUser = newUser();
+        Long otherUsersWalletId = walletService.createWallet(walletRequest(), otherUser).getId();
+        create(otherUsersWalletId, otherUser, TransactionType.DEBIT, "Eating out", "Lunch", "9.00", MARCH.atDay(1));
+
+        RelabelJobResponse job = await(relabelService.schedule(user, TransactionType.DEBIT,
+                "Eating out", null, "Meals", null));
+
+        assertEquals(6, job.getUpdatedTransactions());
+        assertEquals(Map.of("DEBIT Meals / Lunch", 1L), labelCounts(otherWalletId));
+        assertEquals(Map.of("DEBIT Eating out / Lunch", 1L),
+                labelCounts(otherUsersWalletId, otherUser));
+    }
+
+    @Test
+    void archivedTransactionsAreMovedToo() {
+        // March is archived: 3 of the "Eating out" debits are in a segment, 2 in the table
+        assertEquals(5, transactionArchiveService.archiveWallet(walletId, APRIL.atDay(1)));
+        String archivedFile = segmentFile();
+
+        RelabelJobResponse job = await(relabelService.schedule(user, TransactionType.DEBIT,
+                "Eating out", null, "Meals", null));
+
+        assertEquals("COMPLETED", job.getStatus(), job.getError());
+        assertEquals(5, job.getUpdatedTransactions());
+        assertEquals(Map.of(
+                        "DEBIT Meals / Lunch", 3L,
+                        "DEBIT Meals / Coffee", 2L,
+                        "DEBIT Transport / Bus", 2L,
+                        "CREDIT Eating out / Refund", 1L),
+                labelCounts(walletId));
+        assertRollupsMatchTheTransactions();
+        assertNotEquals(archivedFile, segmentFile());
+    }
+
+    @Test
+    void segmentsWithoutTheCategoryAreNotRewritten() {
+        create(TransactionType.DEBIT, "Groceries", "Market", "30.00", APRIL.atDay(10));
+        transactionArchiveService.archiveWallet(walletId, APRIL.atDay(1));
+        String archivedFile = segmentFile();
+
+        RelabelJobResponse job = await(relabelService.schedule(user, TransactionType.DEBIT,
+                "Groceries", null, "Supermarket", null));
+
+        assertEquals(1, job.getUpdatedTransactions());
+        assertEquals(archivedFile, segmentFile());
+    }
+
+    @Test
+    void unusedNameHasNothingToMove() {
+        RelabelJobResponse job = await(relabelService.schedule(user, TransactionType.DEBIT,
+                "Never used " + System.nanoTime(), null, "Meals", null));
+
+        assertEquals("COMPLETED", job.getStatus());
+        assertEquals(0, job.getUpdatedTransactions());
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    private RelabelJobResponse await(RelabelJobResponse scheduled) {
+        long deadline = System.currentTimeMillis() + 30_000;
+        RelabelJobResponse job = relabelService.getJob(scheduled.getId(), user);
+        while (job.getFinishedAt() == null && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            job = relabelService.getJob(scheduled.getId(), user);
+        }
+        return job;
+    }
+
+    // The rollups the chunks moved incrementally are the ones a rebuild computes from scratch
+    private void assertRollupsMatchTheTransactions() {
+        List<String> moved = rollups();
+        monthlyRollupService.rebuild(walletId);
+        assertEquals(rollups(), moved);
+    }
+
+    private String segmentFile() {
+        return segmentRepository.findByWalletIdOrderByMinDateAsc(walletId).get(0).getFileName();
+    }
+
+    private List<String> rollups() {
+        return monthlyRollupService.getMonthlyTotals(walletId, MARCH, APRIL).stream()
+                .map(MonthlyReportEntry::toString)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    // "TYPE category / subcategory" -> number of transactions
+    private Map<String, Long> labelCounts(Long walletId) {
+        return labelCounts(walletId, user);
+    }
+
+    private Map<String, Long> labelCounts(Long walletId, User owner) {
+        List<TransactionResponse> transactions = transactionService.getTransactions(walletId, owner,
+                null, null, null, null, null, null, null);
+        return transactions.stream().collect(Collectors.groupingBy(
+                t -> t.getType() + " " + t.getCategory() + " / " + t.getSubcategory(), TreeMap::new, Collectors.counting()));
+    }
+
+    private Long newWallet() {
+        return walletService.createWallet(walletRequest(), user).getId();
+    }
+
+    private static WalletRequest walletRequest() {
+        WalletRequest wallet = new WalletRequest();
+        wallet.setName("Main");
+        wallet.setCurrency("EUR");
+        return wallet;
+    }
+
+    private void create(TransactionType type, String category, String subcategory, String amount, LocalDate date) {
+        create(walletId, user, type, category, subcategory, amount, date);
+    }
+
+    private void create(Long walletId, User owner, TransactionType type, String category, String subcategory,
+                        String amount, LocalDate date) {
+        transactionService.createTransaction(walletId,
+                new TransactionRequest(type, category, subcategory, new BigDecimal(amount), null, date), owner);
+    }
+}
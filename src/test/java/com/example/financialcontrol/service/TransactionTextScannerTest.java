@@ -0,0 +1,188 @@
+package com.example.financialcontrol.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransactionTextScannerTest {
+
+    private final TransactionTextScanner scanner = new TransactionTextScanner();
+
+    // =====================================================
+    // RELATIVE DATES
+    // =====================================================
+
+    @ParameterizedTest
+    @CsvSource({
+            "gastei 10 euros hoje, 0",
+            "spent 10 today, 0",
+            "paguei 12 ontem, 1",
+            "paid 12 yesterday, 1",
+            "HOJE gastei 3, 0",
+            "Ontem paguei 3, 1"
+    })
+    void resolvesTodayAndYesterday(String text, int daysAgo) {
+        assertDate(text, LocalDate.now().minusDays(daysAgo));
+    }
+
+    @Test
+    void anteontemIsTwoDaysAgoAndNotShadowedByOntem() {
+        assertDate("gastei 30 anteontem no mercado", LocalDate.now().minusDays(2));
+        assertDate("Anteontem paguei 30", LocalDate.now().minusDays(2));
+    }
+
+    @Test
+    void dayBeforeYesterdayIsTwoDaysAgo() {
+        assertDate("spent 30 the day before yesterday", LocalDate.now().minusDays(2));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "gastei 20 há 3 dias, 3",
+            "gastei 20 ha 1 dia, 1",
+            "gastei 20 a 5 dias, 5",
+            "spent 20 4 days ago, 4",
+            "spent 20 1 day ago, 1"
+    })
+    void resolvesDaysAgo(String text, int daysAgo) {
+        assertDate(text, LocalDate.now().minusDays(daysAgo));
+    }
+
+    @Test
+    void resolvesWeeksAndMonthsAgo() {
+        assertDate("paguei 8 há 2 semanas", LocalDate.now().minusWeeks(2));
+        assertDate("paid 8 3 weeks ago", LocalDate.now().minusWeeks(3));
+        assertDate("paguei 8 há 1 mês", LocalDate.now().minusMonths(1));
+        assertDate("paguei 8 ha 4 meses", LocalDate.now().minusMonths(4));
+        assertDate("paid 8 2 months ago", LocalDate.now().minusMonths(2));
+    }
+
+    @Test
+    void resolvesLastWeekAndLastMonth() {
+        assertDate("gastei 5 semana passada", LocalDate.now().minusWeeks(1));
+        assertDate("spent 5 last week", LocalDate.now().minusWeeks(1));
+        assertDate("gastei 5 mês passado", LocalDate.now().minusMonths(1));
+        assertDate("gastei 5 mes passado", LocalDate.now().minusMonths(1));
+        assertDate("spent 5 last month", LocalDate.now().minusMonths(1));
+    }
+
+    @Test
+    void higherPriorityRuleWinsRegardlessOfPosition() {
+        // "hoje" outranks "há 2 dias" even when it comes later
+        assertDate("há 2 dias, não, hoje gastei 7", LocalDate.now());
+        // Relative dates outrank absolute ones
+        assertDate("ontem 2024-01-15 gastei 7", LocalDate.now().minusDays(1));
+    }
+
+    // =====================================================
+    // ABSOLUTE DATES
+    // =====================================================
+
+    @Test
+    void resolvesIsoAndEuropeanDates() {
+        assertDate("gastei 9 em 2024-01-15", LocalDate.of(2024, 1, 15));
+        assertDate("gastei 9 em 5/3/2024", LocalDate.of(2024, 3, 5));
+        assertDate("gastei 9 em 15/01/2024", LocalDate.of(2024, 1, 15));
+    }
+
+    @Test
+    void invalidDateIsNotADate() {
+        TransactionTextScanner.ScanResult result = scanner.scan("gastei 9 em 31/02/2024");
+        assertFalse(result.dateDetected);
+        assertEquals(LocalDate.now(), result.date);
+    }
+
+    @Test
+    void noDateDefaultsToTodayWithoutDetection() {
+        TransactionTextScanner.ScanResult result = scanner.scan("gastei 9 no café");
+        assertFalse(result.dateDetected);
+        assertEquals(LocalDate.now(), result.date);
+    }
+
+    // =====================================================
+    // AMOUNTS AND CURRENCY MARKERS
+    // =====================================================
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "gastei 23 no café|23",
+            "gastei 23.5 no café|23.5",
+            "gastei 23,50 no café|23.50",
+            "paguei 1.234,56 de renda|1234.56",
+            "paid 1,234.56 rent|1234.56",
+            "paguei 1.234 de renda|1234"
+    })
+    void parsesAmountFormats(String text, String amount) {
+        TransactionTextScanner.ScanResult result = scanner.scan(text);
+        assertTrue(result.amountDetected);
+        assertEquals(new BigDecimal(amount), result.amount);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "gastei €23 no café|EUR",
+            "gastei 23€ no café|EUR",
+            "gastei 23 euros no café|EUR",
+            "gastei 1 euro|EUR",
+            "paguei R$50 no mercado|BRL",
+            "paguei R$ 50 no mercado|BRL",
+            "paguei 50 reais|BRL",
+            "spent $12 on lunch|USD",
+            "spent 12 dollars on lunch|USD",
+            "paguei 12 dólares|USD",
+            "paguei 12 dolares|USD"
+    })
+    void detectsCurrencyMarkers(String text, String currency) {
+        TransactionTextScanner.ScanResult result = scanner.scan(text);
+        assertTrue(result.amountDetected);
+        assertEquals(currency, result.currency);
+    }
+
+    @Test
+    void amountWithoutMarkerHasNoCurrency() {
+        assertNull(scanner.scan("gastei 23 no café").currency);
+    }
+
+    @Test
+    void numbersOfADateAreNotTheAmount() {
+        assertAmount("há 2 dias gastei 20 euros", "20");
+        assertAmount("gastei 20 euros há 2 dias", "20");
+        assertAmount("3 days ago I spent 15", "15");
+        assertAmount("2024-01-15 paguei 40", "40");
+        assertAmount("15/01/2024 paguei 40", "40");
+        // The losing relative date's count isn't an amount either
+        assertAmount("hoje, não, há 2 dias paguei 6", "6");
+    }
+
+    @Test
+    void zeroOrMissingAmountIsNotDetected() {
+        assertFalse(scanner.scan("gastei no café").amountDetected);
+        TransactionTextScanner.ScanResult zero = scanner.scan("gastei 0 no café");
+        assertFalse(zero.amountDetected);
+        assertNull(zero.amount);
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    private void assertDate(String text, LocalDate expected) {
+        TransactionTextScanner.ScanResult result = scanner.scan(text);
+        assertTrue(result.dateDetected, text);
+        assertEquals(expected, result.date, text);
+    }
+
+    private void assertAmount(String text, String expected) {
+        TransactionTextScanner.ScanResult result = scanner.scan(text);
+        assertTrue(result.amountDetected, text);
+        assertEquals(new BigDecimal(expected), result.amount, text);
+    }
+}
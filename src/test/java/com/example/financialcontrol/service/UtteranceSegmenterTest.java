@@ -0,0 +1,69 @@
+package com.example.financialcontrol.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UtteranceSegmenterTest {
+
+    @Test
+    void splitsOnConjunctions() {
+        assertEquals(List.of("gastei 10 no café", "45 no supermercado"),
+                texts("gastei 10 no café e 45 no supermercado"));
+        assertEquals(List.of("spent 5 on coffee", "12 on lunch", "3 on the bus"),
+                texts("spent 5 on coffee and 12 on lunch then 3 on the bus"));
+        assertEquals(List.of("paguei 20 de luz", "30 de água"),
+                texts("paguei 20 de luz MAIS 30 de água"));
+    }
+
+    @Test
+    void conjunctionsInsideWordsDoNotSplit() {
+        assertEquals(List.of("energia elétrica 40"), texts("energia elétrica 40"));
+        assertEquals(List.of("sandes no andrade 7"), texts("sandes no andrade 7"));
+    }
+
+    @Test
+    void splitsOnPunctuationButNotInsideNumbers() {
+        assertEquals(List.of("paguei 23,50 no mercado", "1.234 de renda"),
+                texts("paguei 23,50 no mercado, 1.234 de renda."));
+        assertEquals(List.of("café 2", "pão 1", "leite 3", "fruta 4"),
+                texts("café 2; pão 1!\nleite 3? fruta 4"));
+        // A comma after a number, or before one, still separates
+        assertEquals(List.of("café 2", "3 pão"), texts("café 2, 3 pão"));
+        assertEquals(List.of("café 2", "pão 3"), texts("café 2,pão 3"));
+    }
+
+    @Test
+    void dropsEmptyClauses() {
+        assertEquals(List.of("café 2", "pão 1"), texts(" café 2 , , e pão 1 ; "));
+        assertEquals(List.of(), texts(" . e , "));
+    }
+
+    @Test
+    void clausesKeepTheirOffsetsInTheOriginalText() {
+        String text = "Comprei Café e pão por 10";
+        List<UtteranceSegmenter.Clause> clauses = UtteranceSegmenter.split(text);
+
+        assertEquals(2, clauses.size());
+        assertEquals("Comprei Café", text.substring(clauses.get(0).start, clauses.get(0).end).trim());
+        assertEquals("pão por 10", text.substring(clauses.get(1).start, clauses.get(1).end).trim());
+
+        UtteranceSegmenter.Clause merged = UtteranceSegmenter.merge(text, clauses.get(0), clauses.get(1));
+        assertEquals(text, merged.text);
+        assertEquals(0, merged.start);
+        assertEquals(text.length(), merged.end);
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    private static List<String> texts(String text) {
+        return UtteranceSegmenter.split(text).stream()
+                .map(clause -> clause.text)
+                .collect(Collectors.toList());
+    }
+}
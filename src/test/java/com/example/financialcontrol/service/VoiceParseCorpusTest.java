@@ -0,0 +1,158 @@
+package com.example.financialcontrol.service;
+
+import com.example.financialcontrol.dto.TransactionDraftDto;
+import com.example.financialcontrol.dto.TransactionRequest;
+import com.example.financialcontrol.dto.VoiceRequestDto;
+import com.example.financialcontrol.entity.TransactionType;
+import com.example.financialcontrol.entity.User;
+import com.example.financialcontrol.entity.Wallet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * The legacy /api/voice/parse output, replayed against the corpus in voice/parse-corpus.txt.
+ */
+class VoiceParseCorpusTest {
+
+    private static final long WALLET_ID = 7L;
+
+    private final User user = new User();
+    private WalletService walletService;
+    private KeywordDictionaryProvider keywordDictionaryProvider;
+    private VoiceClassificationService engine;
+
+    @BeforeEach
+    void setUp() {
+        Wallet wallet = new Wallet();
+        wallet.setId(WALLET_ID);
+        walletService = mock(WalletService.class);
+        when(walletService.getWalletEntityByIdAndUser(WALLET_ID, user)).thenReturn(wallet);
+        keywordDictionaryProvider = mock(KeywordDictionaryProvider.class);
+        engine = new VoiceClassificationService(walletService,
+                new RuleBasedTransactionParser(new TransactionTextScanner()), null, null, keywordDictionaryProvider);
+    }
+
+    @Test
+    void legacyParseOutputMatchesTheCorpus() throws IOException {
+        LocalDate today = LocalDate.now();
+        List<String> mismatches = new ArrayList<>();
+        int lines = 0;
+
+        for (String[] entry : corpus()) {
+            lines++;
+            String text = entry[0];
+            TransactionDraftDto draft = engine.classifyLegacyText(request(text), user);
+
+            String actual = String.join(" | ", text, draft.getType().name(), draft.getAmount().toPlainString(),
+                    draft.getCategory(), draft.getSubcategory());
+            String expected = String.join(" | ", Arrays.copyOf(entry, 5));
+            LocalDate expectedDate = date(entry[5], today);
+            if (!actual.equals(expected) || !expectedDate.equals(draft.getDate())) {
+                mismatches.add("expected: " + expected + " " + expectedDate
+                        + "\n  actual: " + actual + " " + draft.getDate());
+            }
+            assertEquals(text, draft.getDescription());
+            assertEquals(WALLET_ID, draft.getWalletId());
+        }
+
+        assertTrue(lines > 50, "corpus not loaded");
+        assertTrue(mismatches.isEmpty(), String.join("\n", mismatches));
+        // The legacy rules never look at the keyword dictionaries or the user's categories
+        verifyNoInteractions(keywordDictionaryProvider);
+    }
+
+    @Test
+    void legacyParseRejectsTextWithoutAmount() {
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> engine.classifyLegacyText(request("gastei no supermercado"), user));
+        assertEquals("Could not extract a valid amount from the text", error.getMessage());
+    }
+
+    @Test
+    void parseSavesTheLegacyDraft() {
+        TransactionService transactionService = mock(TransactionService.class);
+        VoiceService voiceService = new VoiceService(transactionService, engine);
+
+        voiceService.parseAndCreateTransaction(request("Recebi o salário de 1500 ontem"), user);
+
+        ArgumentCaptor<TransactionRequest> saved = ArgumentCaptor.forClass(TransactionRequest.class);
+        verify(transactionService).createTransaction(eq(WALLET_ID), saved.capture(), any(User.class));
+        assertEquals(TransactionType.CREDIT, saved.getValue().getType());
+        assertEquals(new BigDecimal("1500"), saved.getValue().getAmount());
+        assertEquals("Income", saved.getValue().getCategory());
+        assertEquals("Salary", saved.getValue().getSubcategory());
+        assertEquals("Recebi o salário de 1500 ontem", saved.getValue().getDescription());
+        assertEquals(LocalDate.now().minusDays(1), saved.getValue().getDate());
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    private static VoiceRequestDto request(String text) {
+        VoiceRequestDto request = new VoiceRequestDto();
+        request.setWalletId(WALLET_ID);
+        request.setText(text);
+        return request;
+    }
+
+    // "today", "-2d" / "-1w" / "-1m" (days, weeks, months ago) or yyyy-MM-dd
+    private static LocalDate date(String expected, LocalDate today) {
+        if (expected.equals("today")) {
+            return today;
+        }
+        if (!expected.startsWith("-")) {
+            return LocalDate.parse(expected);
+        }
+        long n = Long.parseLong(expected.substring(1, expected.length() - 1));
+        switch (expected.charAt(expected.length() - 1)) {
+            case 'd':
+                return today.minusDays(n);
+            case 'w':
+                return today.minusWeeks(n);
+            case 'm':
+                return today.minusMonths(n);
+            default:
+                throw new IllegalArgumentException("malformed corpus date: " + expected);
+        }
+    }
+
+    private static List<String[]> corpus() throws IOException {
+        List<String[]> entries = new ArrayList<>();
+        try (InputStream in = VoiceParseCorpusTest.class.getResourceAsStream("/voice/parse-corpus.txt");
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split(" \\| ");
+                assertEquals(6, fields.length, "malformed corpus line: " + line);
+                entries.add(fields);
+            }
+        }
+        return entries;
+    }
+}
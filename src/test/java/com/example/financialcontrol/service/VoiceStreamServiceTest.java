@@ -0,0 +1,195 @@
+package com.example.financialcontrol.service;
+
+import com.example.financialcontrol.dto.TransactionDraftDto;
+import com.example.financialcontrol.dto.VoiceFragmentDto;
+import com.example.financialcontrol.dto.VoiceRequestDto;
+import com.example.financialcontrol.entity.Category;
+import com.example.financialcontrol.entity.Subcategory;
+import com.example.financialcontrol.entity.TransactionType;
+import com.example.financialcontrol.entity.User;
+import com.example.financialcontrol.entity.Wallet;
+import com.example.financialcontrol.repository.CategoryRepository;
+import com.example.financialcontrol.repository.SubcategoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Live classification sessions: drafts built from the finished clauses plus the clause still
+ * being spoken, keyword reloads, and the transcript and session limits.
+ */
+class VoiceStreamServiceTest {
+
+    private static final long WALLET_ID = 7L;
+
+    private final User user = new User();
+    private WalletService walletService;
+    private CategoryRepository categoryRepository;
+    private SubcategoryRepository subcategoryRepository;
+
+    @BeforeEach
+    void setUp() {
+        user.setId(1L);
+        Wallet wallet = new Wallet();
+        wallet.setId(WALLET_ID);
+        walletService = mock(WalletService.class);
+        when(walletService.getWalletEntityByIdAndUser(WALLET_ID, user)).thenReturn(wallet);
+
+        List<Category> categories = new ArrayList<>();
+        List<Subcategory> subcategories = new ArrayList<>();
+        addCategory(categories, subcategories, "Food & Dining", TransactionType.DEBIT, "Groceries", "Coffee");
+        addCategory(categories, subcategories, "Other", TransactionType.DEBIT, "General");
+        addCategory(categories, subcategories, "Salary", TransactionType.CREDIT, "Monthly Salary");
+        categoryRepository = mock(CategoryRepository.class);
+        when(categoryRepository.findAllAvailableForUser(user.getId())).thenReturn(categories);
+        subcategoryRepository = mock(SubcategoryRepository.class);
+        when(subcategoryRepository.findAllAvailableForUser(user.getId())).thenReturn(subcategories);
+    }
+
+    @Test
+    void draftMatchesTheWholeTranscriptAfterEveryFragment() {
+        VoiceClassificationService engine = engine(
+                new KeywordDictionaryProvider(new DefaultResourceLoader(), "classpath:keywords/"));
+        VoiceStreamService streams = new VoiceStreamService(engine, walletService, 60_000, 5000, 3);
+        String sessionId = open(streams);
+
+        TransactionDraftDto draft = streams.addFragment(sessionId, new VoiceFragmentDto("gastei dez", false), user);
+        assertFalse(draft.isAmountDetected());
+
+        // "gastei 10 no" stays open until a later final result starts another clause
+        List<VoiceFragmentDto> fragments = List.of(
+                new VoiceFragmentDto("gastei 10 no", true),
+                new VoiceFragmentDto("café e", false),
+                new VoiceFragmentDto("café e 45 no supermercado", true),
+                new VoiceFragmentDto("ontem", true),
+                new VoiceFragmentDto("recebi", false));
+        StringBuilder finalText = new StringBuilder();
+        for (VoiceFragmentDto fragment : fragments) {
+            draft = streams.addFragment(sessionId, fragment, user);
+
+            String transcript = finalText.length() == 0 ? fragment.getText() : finalText + " " + fragment.getText();
+            if (fragment.isFinalResult()) {
+                finalText.setLength(0);
+                finalText.append(transcript);
+            }
+            assertEquals(engine.classifyText(request(transcript), user), draft, transcript);
+        }
+
+        assertEquals(TransactionType.CREDIT, draft.getType());
+        assertEquals("Coffee", engine.classifyText(request(finalText.toString()), user).getSubcategory());
+        assertEquals(LocalDate.now().minusDays(1), draft.getDate());
+    }
+
+    @Test
+    void finishedClausesAreAnalyzedAgainAfterAKeywordReload() {
+        KeywordDictionary before = dictionary(1, Map.of());
+        KeywordDictionary after = dictionary(2, Map.of("mercearia", "Food & Dining"));
+        KeywordDictionaryProvider provider = mock(KeywordDictionaryProvider.class);
+        when(provider.current()).thenReturn(before);
+        VoiceStreamService streams = new VoiceStreamService(engine(provider), walletService, 60_000, 5000, 3);
+        String sessionId = open(streams);
+
+        TransactionDraftDto draft = streams.addFragment(sessionId,
+                new VoiceFragmentDto("gastei 10 na mercearia e 2 de gorjeta", true), user);
+        assertEquals("Other", draft.getCategory());
+
+        when(provider.current()).thenReturn(after);
+        draft = streams.addFragment(sessionId, new VoiceFragmentDto("hoje", false), user);
+        assertEquals("Food & Dining", draft.getCategory());
+    }
+
+    @Test
+    void transcriptLongerThanTheLimitIsRejected() {
+        VoiceStreamService streams = new VoiceStreamService(engine(
+                new KeywordDictionaryProvider(new DefaultResourceLoader(), "classpath:keywords/")),
+                walletService, 60_000, 25, 3);
+        String sessionId = open(streams);
+
+        streams.addFragment(sessionId, new VoiceFragmentDto("gastei 10 no café", true), user);
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> streams.addFragment(sessionId, new VoiceFragmentDto("e mais 5 no bar", true), user));
+        assertEquals("Voice stream transcript is too long (max 25 characters). Close the session and start a new one.",
+                error.getMessage());
+
+        // The rejected fragment left the transcript as it was
+        TransactionDraftDto draft = streams.addFragment(sessionId, new VoiceFragmentDto("hoje", false), user);
+        assertEquals("gastei 10 no café hoje", draft.getDescription());
+    }
+
+    @Test
+    void userCannotOpenMoreSessionsThanTheLimit() {
+        VoiceStreamService streams = new VoiceStreamService(engine(
+                new KeywordDictionaryProvider(new DefaultResourceLoader(), "classpath:keywords/")),
+                walletService, 60_000, 5000, 2);
+        String first = open(streams);
+        open(streams);
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> streams.openSession(WALLET_ID, user));
+        assertEquals("Too many open voice stream sessions (max 2). Close one before opening another.",
+                error.getMessage());
+
+        // Closing a session frees its slot
+        streams.closeSession(first, user);
+        open(streams);
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    private VoiceClassificationService engine(KeywordDictionaryProvider provider) {
+        return new VoiceClassificationService(walletService,
+                new RuleBasedTransactionParser(new TransactionTextScanner()),
+                categoryRepository, subcategoryRepository, provider);
+    }
+
+    // Opens a session and returns its ID (sent to the client in the "session" event)
+    private String open(VoiceStreamService streams) {
+        Set<String> before = new HashSet<>(streams.sessions.keySet());
+        streams.openSession(WALLET_ID, user);
+        Set<String> opened = new HashSet<>(streams.sessions.keySet());
+        opened.removeAll(before);
+        assertEquals(1, opened.size());
+        return opened.iterator().next();
+    }
+
+    private static KeywordDictionary dictionary(long version, Map<String, String> categoryKeywords) {
+        return new KeywordDictionary(version, new KeywordMatcher(categoryKeywords), new KeywordMatcher(Map.of()));
+    }
+
+    private static VoiceRequestDto request(String text) {
+        VoiceRequestDto request = new VoiceRequestDto();
+        request.setWalletId(WALLET_ID);
+        request.setText(text);
+        return request;
+    }
+
+    private static void addCategory(List<Category> categories, List<Subcategory> subcategories,
+                                    String name, TransactionType type, String... subcategoryNames) {
+        Category category = new Category();
+        category.setId((long) categories.size() + 1);
+        category.setName(name);
+        category.setType(type);
+        categories.add(category);
+        for (String subcategoryName : subcategoryNames) {
+            Subcategory subcategory = new Subcategory();
+            subcategory.setId((long) subcategories.size() + 1);
+            subcategory.setName(subcategoryName);
+            subcategory.setCategory(category);
+            subcategories.add(subcategory);
+        }
+    }
+}
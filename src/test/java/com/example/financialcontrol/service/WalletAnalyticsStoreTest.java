@@ -0,0 +1,131 @@
+package com.example.financialcontrol.service;
+
+import com.example.financialcontrol.PostgresIntegrationTest;
+import com.example.financialcontrol.dto.TransactionRequest;
+import com.example.financialcontrol.dto.WalletRequest;
+import com.example.financialcontrol.entity.Transaction;
+import com.example.financialcontrol.entity.TransactionType;
+import com.example.financialcontrol.entity.User;
+import com.example.financialcontrol.repository.TransactionRepository;
+import com.example.financialcontrol.repository.WalletDataVersionRepository;
+import com.example.financialcontrol.repository.WalletRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Cached analytics columns when another instance of the application writes to the same wallet.
+ */
+class WalletAnalyticsStoreTest extends PostgresIntegrationTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 5, 10);
+
+    @Autowired
+    private WalletAnalyticsStore walletAnalyticsStore;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private WalletDataVersionRepository walletDataVersionRepository;
+
+    @Autowired
+    private TransactionLabelDictionary labelDictionary;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User user;
+    private Long walletId;
+
+    @BeforeEach
+    void setUp() {
+        user = newUser();
+        WalletRequest wallet = new WalletRequest();
+        wallet.setName("Main");
+        wallet.setCurrency("EUR");
+        walletId = walletService.createWallet(wallet, user).getId();
+        transactionService.createTransaction(walletId, debit("10.00"), user);
+    }
+
+    @Test
+    void cachedColumnsPickUpWritesOfAnotherInstance() {
+        assertFoodTotal(1000, 1);
+
+        insertOnAnotherInstance("4.00");
+
+        assertFoodTotal(1400, 2);
+    }
+
+    @Test
+    void aLocalAppendDoesNotHideAnEarlierWriteOfAnotherInstance() {
+        assertFoodTotal(1000, 1);
+
+        // The other instance takes version n+1, the local append n+2
+        insertOnAnotherInstance("4.00");
+        transactionService.createTransaction(walletId, debit("1.00"), user);
+
+        assertFoodTotal(1500, 3);
+    }
+
+    @Test
+    void localAppendsKeepTheColumnsCached() {
+        WalletColumns.View first = walletAnalyticsStore.getColumns(walletId);
+        transactionService.createTransaction(walletId, debit("1.00"), user);
+        transactionService.createTransaction(walletId, debit("2.00"), user);
+
+        WalletColumns.View view = walletAnalyticsStore.getColumns(walletId);
+        assertEquals(first.size() + 2, view.size());
+        assertFoodTotal(1300, 3);
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    // What another node's TransactionService does: insert and increment the version, without
+    // this instance's WalletAnalyticsStore hearing about it
+    private void insertOnAnotherInstance(String amount) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Transaction transaction = new Transaction();
+            transaction.setWallet(walletRepository.getReferenceById(walletId));
+            transaction.setUser(user);
+            transaction.setType(TransactionType.DEBIT);
+            transaction.setCategory(labelDictionary.labelFor("Food"));
+            transaction.setSubcategory(labelDictionary.labelFor("Groceries"));
+            transaction.setAmount(new BigDecimal(amount));
+            transaction.setDate(DAY);
+            transactionRepository.save(transaction);
+            walletDataVersionRepository.increment(walletId);
+        });
+    }
+
+    private void assertFoodTotal(long cents, int count) {
+        WalletColumns.CategoryTotals totals = walletAnalyticsStore.getColumns(walletId)
+                .totalsByCategory(TransactionType.DEBIT, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        assertEquals(1, totals.categoryCount());
+        assertEquals("Food", totals.name(0));
+        assertEquals(cents, totals.totalCents(0));
+        assertEquals(count, totals.count(0));
+    }
+
+    private static TransactionRequest debit(String amount) {
+        return new TransactionRequest(TransactionType.DEBIT, "Food", "Groceries", new BigDecimal(amount), null, DAY);
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.financialcontrol.service;
+
+import com.example.financialcontrol.entity.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WalletColumnsTest {
+
+    private static final int ALL_DAYS_FROM = Integer.MIN_VALUE;
+    private static final int ALL_DAYS_TO = Integer.MAX_VALUE;
+
+    @Test
+    void totalsByCategoryFiltersOnTypeAndDayRange() {
+        WalletColumns columns = new WalletColumns(0);
+        columns.append(1000, 100, TransactionType.DEBIT, "Food", "Groceries");
+        columns.append(250, 101, TransactionType.DEBIT, "Food", "Coffee");
+        columns.append(5000, 101, TransactionType.CREDIT, "Salary", null);
+        columns.append(700, 102, TransactionType.DEBIT, "Transport", "Fuel");
+        columns.append(300, 200, TransactionType.DEBIT, "Food", "Groceries");
+
+        Map<String, long[]> debits = totals(columns.view().totalsByCategory(TransactionType.DEBIT, 100, 150));
+        assertEquals(2, debits.size());
+        assertArrayEquals(new long[] {1250, 2}, debits.get("Food"));
+        assertArrayEquals(new long[] {700, 1}, debits.get("Transport"));
+
+        Map<String, long[]> credits = totals(columns.view().totalsByCategory(TransactionType.CREDIT, ALL_DAYS_FROM, ALL_DAYS_TO));
+        assertArrayEquals(new long[] {5000, 1}, credits.get("Salary"));
+    }
+
+    @Test
+    void growsPastTheInitialCapacity() {
+        WalletColumns columns = new WalletColumns(0);
+        int rows = 10_000;
+        for (int i = 0; i < rows; i++) {
+            columns.append(i, i, i % 2 == 0 ? TransactionType.DEBIT : TransactionType.CREDIT,
+                    "Category " + (i % 7), null);
+        }
+
+        WalletColumns.View view = columns.view();
+        assertEquals(rows, view.size());
+        long expectedDebitCents = 0;
+        for (int i = 0; i < rows; i += 2) {
+            expectedDebitCents += i;
+        }
+        long debitCents = 0;
+        long debitCount = 0;
+        for (long[] totals : totals(view.totalsByCategory(TransactionType.DEBIT, ALL_DAYS_FROM, ALL_DAYS_TO)).values()) {
+            debitCents += totals[0];
+            debitCount += totals[1];
+        }
+        assertEquals(expectedDebitCents, debitCents);
+        assertEquals(rows / 2, debitCount);
+    }
+
+    @Test
+    void viewIgnoresLaterAppends() {
+        WalletColumns columns = new WalletColumns(2);
+        columns.append(100, 1, TransactionType.DEBIT, "Food", null);
+        columns.append(200, 2, TransactionType.DEBIT, "Food", null);
+        WalletColumns.View before = columns.view();
+
+        // Enough rows to replace the arrays, and a new name to replace the dictionary
+        for (int i = 0; i < 100; i++) {
+            columns.append(1, 3, TransactionType.DEBIT, "Food", null);
+        }
+        columns.append(999, 3, TransactionType.DEBIT, "Health", null);
+
+        assertEquals(2, before.size());
+        Map<String, long[]> totals = totals(before.totalsByCategory(TransactionType.DEBIT, ALL_DAYS_FROM, ALL_DAYS_TO));
+        assertEquals(1, totals.size());
+        assertArrayEquals(new long[] {300, 2}, totals.get("Food"));
+
+        Map<String, long[]> after = totals(columns.view().totalsByCategory(TransactionType.DEBIT, ALL_DAYS_FROM, ALL_DAYS_TO));
+        assertArrayEquals(new long[] {400, 102}, after.get("Food"));
+        assertArrayEquals(new long[] {999, 1}, after.get("Health"));
+    }
+
+    @Test
+    void nullNamesAreAGroupOfTheirOwn() {
+        WalletColumns columns = new WalletColumns(0);
+        columns.append(100, 1, TransactionType.DEBIT, null, null);
+        columns.append(50, 1, TransactionType.DEBIT, null, "Coffee");
+
+        WalletColumns.CategoryTotals totals = columns.view().totalsByCategory(TransactionType.DEBIT, ALL_DAYS_FROM, ALL_DAYS_TO);
+        assertEquals(1, totals.categoryCount());
+        assertNull(totals.name(0));
+        assertEquals(150, totals.totalCents(0));
+        assertEquals(2, totals.count(0));
+    }
+
+    @Test
+    void dictionaryOverflowRejectsTheRowAndKeepsTheColumnsUsable() {
+        WalletColumns columns = new WalletColumns(0);
+        int capacity = Short.MAX_VALUE + 1;
+        for (int i = 0; i < capacity; i++) {
+            columns.append(1, 1, TransactionType.DEBIT, "Category " + i, null);
+        }
+
+        assertThrows(IllegalStateException.class,
+                () -> columns.append(1, 1, TransactionType.DEBIT, "One too many", null));
+        assertEquals(capacity, columns.view().size());
+
+        // Known categories still work, and the subcategory dictionary is separate
+        columns.append(5, 1, TransactionType.DEBIT, "Category 42", "Coffee");
+        WalletColumns.CategoryTotals totals = columns.view().totalsByCategory(TransactionType.DEBIT, ALL_DAYS_FROM, ALL_DAYS_TO);
+        assertEquals(capacity, totals.categoryCount());
+        assertEquals(6, totals.totalCents(42));
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    // name -> {total cents, count}, categories without rows left out
+    private static Map<String, long[]> totals(WalletColumns.CategoryTotals totals) {
+        Map<String, long[]> byName = new HashMap<>();
+        for (int i = 0; i < totals.categoryCount(); i++) {
+            if (totals.count(i) > 0) {
+                byName.put(totals.name(i), new long[] {totals.totalCents(i), totals.count(i)});
+            }
+        }
+        return byName;
+    }
+}